@@ -0,0 +1,68 @@
+package com.lms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulkheaded connection pools. Every pool connects to the same database
+ * ({@code spring.datasource.*}) but is sized and timed independently through
+ * {@code lms.datasource.pools.<name>.*}. Hikari metrics are published per pool name.
+ * Schema migrations run on the bulk pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("lms.datasource.pools.interactive")
+    public HikariDataSource interactivePool(DataSourceProperties properties) {
+        return createPool(properties, Workload.INTERACTIVE);
+    }
+
+    @Bean
+    @ConfigurationProperties("lms.datasource.pools.reporting")
+    public HikariDataSource reportingPool(DataSourceProperties properties) {
+        return createPool(properties, Workload.REPORTING);
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("lms.datasource.pools.bulk")
+    public HikariDataSource bulkPool(DataSourceProperties properties) {
+        return createPool(properties, Workload.BULK);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("interactivePool") HikariDataSource interactivePool,
+                                 @Qualifier("reportingPool") HikariDataSource reportingPool,
+                                 @Qualifier("bulkPool") HikariDataSource bulkPool) {
+        Map<Object, Object> pools = new HashMap<>();
+        pools.put(Workload.INTERACTIVE, interactivePool);
+        pools.put(Workload.REPORTING, reportingPool);
+        pools.put(Workload.BULK, bulkPool);
+
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource();
+        routing.setTargetDataSources(pools);
+        routing.setDefaultTargetDataSource(interactivePool);
+        routing.setLenientFallback(false);
+        return routing;
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, Workload workload) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName(workload.getPoolName());
+        return pool;
+    }
+}
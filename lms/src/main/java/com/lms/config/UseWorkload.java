@@ -0,0 +1,22 @@
+package com.lms.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which connection pool a service (class level) or a service/repository
+ * method (method level) should use. Undeclared code runs on {@link Workload#INTERACTIVE}.
+ *
+ * The outermost declaration on a call path wins (see {@link WorkloadAspect}), so a repository
+ * method's declaration only applies when it is called from code that declares none. When a
+ * declared service calls it, declare the workload on that service method instead.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface UseWorkload {
+    Workload value();
+}
@@ -0,0 +1,21 @@
+package com.lms.config;
+
+/**
+ * Named database workloads. Each one is backed by its own connection pool so that
+ * slow reporting or bulk work cannot starve interactive (OLTP) requests.
+ */
+public enum Workload {
+    INTERACTIVE("interactive"),
+    REPORTING("reporting"),
+    BULK("bulk");
+
+    private final String poolName;
+
+    Workload(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+}
@@ -0,0 +1,68 @@
+package com.lms.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Binds the declared {@link UseWorkload} to the calling thread for the duration of the call.
+ *
+ * Runs before the transaction interceptor so the transaction's connection is taken from the
+ * right pool. The outermost declaration wins: once a connection may already be bound, nested
+ * calls must not switch pools halfway through a unit of work.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadAspect {
+
+    @Around("@within(com.lms.config.UseWorkload) || @annotation(com.lms.config.UseWorkload)"
+            + " || execution(@com.lms.config.UseWorkload * com.lms.repository..*.*(..))")
+    public Object bindWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (WorkloadContext.isSet()) {
+            return joinPoint.proceed();
+        }
+
+        Workload workload = resolve(joinPoint);
+        if (workload == null) {
+            return joinPoint.proceed();
+        }
+
+        WorkloadContext.set(workload);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.clear();
+        }
+    }
+
+    private Workload resolve(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() != null
+                ? AopUtils.getTargetClass(joinPoint.getTarget())
+                : method.getDeclaringClass();
+
+        UseWorkload declared = AnnotatedElementUtils.findMergedAnnotation(
+                AopUtils.getMostSpecificMethod(method, targetClass), UseWorkload.class);
+        if (declared == null) {
+            declared = AnnotatedElementUtils.findMergedAnnotation(method, UseWorkload.class);
+        }
+        if (declared == null) {
+            declared = AnnotatedElementUtils.findMergedAnnotation(targetClass, UseWorkload.class);
+        }
+        if (declared != null) {
+            log.trace("Routing {} to the {} pool", method.getName(), declared.value().getPoolName());
+        }
+        return declared != null ? declared.value() : null;
+    }
+}
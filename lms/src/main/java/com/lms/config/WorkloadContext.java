@@ -0,0 +1,47 @@
+package com.lms.config;
+
+/**
+ * Holds the workload of the current thread. Set by {@link WorkloadAspect} and read by
+ * {@link WorkloadRoutingDataSource} when a connection is acquired.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.INTERACTIVE;
+    }
+
+    /**
+     * Runs {@code task} with no workload bound, so the calls it makes route as they would on a
+     * thread of their own; the caller's workload is restored afterwards. Only for work that
+     * takes its own connections rather than joining the caller's transaction.
+     */
+    public static void detached(Runnable task) {
+        Workload outer = CURRENT.get();
+        CURRENT.remove();
+        try {
+            task.run();
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    static boolean isSet() {
+        return CURRENT.get() != null;
+    }
+
+    static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
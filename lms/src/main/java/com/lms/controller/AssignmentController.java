@@ -7,6 +7,7 @@ import com.lms.service.AssignmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -19,6 +20,9 @@ public class AssignmentController {
     @Autowired
     private AssignmentService assignmentService;
 
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
     @PostMapping
     public ResponseEntity<AssignmentDto> createAssignment(
             @RequestPart("data") AssignmentDto dto,
@@ -48,8 +52,10 @@ public class AssignmentController {
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<AssignmentDto>> getByCourse(@PathVariable Long courseId) {
-        return ResponseEntity.ok(assignmentService.getAssignmentsByCourse(courseId));
+    public ResponseEntity<List<AssignmentDto>> getByCourse(@PathVariable Long courseId, WebRequest request) {
+        return conditionalGet.respondSigned("assignments", request,
+                () -> assignmentService.getAssignmentsWatermark(courseId),
+                () -> assignmentService.getAssignmentsByCourse(courseId));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,60 @@
+package com.lms.controller;
+
+import com.lms.dto.Watermark;
+import com.lms.security.DownloadUrlSigner;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for read-mostly endpoints. The strong ETag comes from a cheap watermark query,
+ * so a matching {@code If-None-Match} is answered with 304 before the body is loaded or
+ * serialized. Outcomes are counted in {@code lms.http.conditional} (hit, miss, unconditional).
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetSupport {
+
+    private final MeterRegistry meterRegistry;
+    private final DownloadUrlSigner downloadUrlSigner;
+
+    public <T> ResponseEntity<T> respond(String resource, WebRequest request,
+                                         Supplier<Watermark> watermark, Supplier<T> body) {
+        return respond(resource, watermark.get().toEtag(resource), request, body);
+    }
+
+    /**
+     * As {@link #respond}, for bodies that embed signed download links. The ETag also changes with
+     * each signing window, so a 304 never revalidates a body whose links have expired.
+     */
+    public <T> ResponseEntity<T> respondSigned(String resource, WebRequest request,
+                                               Supplier<Watermark> watermark, Supplier<T> body) {
+        String etag = watermark.get().toEtag(resource + "-" + Long.toHexString(downloadUrlSigner.currentWindow()));
+        return respond(resource, etag, request, body);
+    }
+
+    private <T> ResponseEntity<T> respond(String resource, String etag, WebRequest request, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            record(resource, "hit");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        record(resource, request.getHeader(HttpHeaders.IF_NONE_MATCH) != null ? "miss" : "unconditional");
+
+        // no-cache: clients may store the body but must revalidate it on every use
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+
+    private void record(String resource, String outcome) {
+        meterRegistry.counter("lms.http.conditional", "resource", resource, "outcome", outcome).increment();
+    }
+}
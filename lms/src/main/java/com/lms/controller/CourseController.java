@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,17 +17,19 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final ConditionalGetSupport conditionalGet;
 
     @GetMapping
-    public ResponseEntity<List<CourseDto>> getAllCourses() {
-        return ResponseEntity.ok(courseService.getAllCourses());
+    public ResponseEntity<List<CourseDto>> getAllCourses(WebRequest request) {
+        return conditionalGet.respond("courses", request,
+                courseService::getCatalogWatermark, courseService::getAllCourses);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCourse(@PathVariable Long id) {
+    public ResponseEntity<?> getCourse(@PathVariable Long id, WebRequest request) {
         try {
-            CourseDto course = courseService.getCourseById(id);
-            return ResponseEntity.ok(course);
+            return conditionalGet.respond("course", request,
+                    () -> courseService.getCourseWatermark(id), () -> courseService.getCourseById(id));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new com.lms.exception.ApiResponse(false, e.getMessage()));
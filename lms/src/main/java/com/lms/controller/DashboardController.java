@@ -1,12 +1,17 @@
 package com.lms.controller;
 
 import com.lms.service.DashboardService;
+import com.lms.service.DashboardStreamService;
 import com.lms.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -16,6 +21,7 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardStreamService dashboardStreamService;
 
     @GetMapping("/admin")
     @PreAuthorize("hasRole('ADMIN')")
@@ -40,4 +46,39 @@ public class DashboardController {
                     .body(new ApiResponse(false, "Failed to load teacher dashboard: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // ---------------------------
+    // SERVER-SENT EVENTS
+    // ---------------------------
+    @GetMapping(value = "/admin/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> streamAdminDashboard(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return openStream(DashboardStreamService.ADMIN_CHANNEL, lastEventId);
+    }
+
+    @GetMapping(value = "/teacher/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<SseEmitter> streamTeacherDashboard(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return openStream(DashboardStreamService.teacherChannel(currentUser.getId()), lastEventId);
+    }
+
+    private ResponseEntity<SseEmitter> openStream(String channel, String lastEventId) {
+        try {
+            return dashboardStreamService.subscribe(channel, lastEventId)
+                    .map(emitter -> ResponseEntity.ok()
+                            .cacheControl(CacheControl.noCache())
+                            // Stop reverse proxies from buffering the stream
+                            .header("X-Accel-Buffering", "no")
+                            .body(emitter))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header("Retry-After", "30")
+                            .build());
+        } catch (Exception e) {
+            // The stream media type cannot carry an ApiResponse body
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.config.AsyncTimeoutConfig;
+import com.lms.export.ExportAdmission;
+import com.lms.export.ExportFormat;
+import com.lms.security.UserPrincipal;
+import com.lms.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Streaming exports as NDJSON ({@code ?format=ndjson}, the default) or CSV ({@code ?format=csv}).
+ * Admins export everything; teachers get the rows of their own courses. Only a few exports run at
+ * once (see {@link ExportAdmission}); beyond that the request gets 503 with {@code Retry-After}.
+ */
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ExportAdmission exportAdmission;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/users")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("users", format, exportService::exportUsers);
+    }
+
+    @GetMapping("/enrollments")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportEnrollments(@RequestParam(defaultValue = "ndjson") String format,
+                                               @AuthenticationPrincipal UserPrincipal currentUser) {
+        Long instructorId = scope(currentUser);
+        return stream("enrollments", format,
+                (exportFormat, out) -> exportService.exportEnrollments(instructorId, exportFormat, out));
+    }
+
+    @GetMapping("/submissions")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportSubmissions(@RequestParam(defaultValue = "ndjson") String format,
+                                               @AuthenticationPrincipal UserPrincipal currentUser) {
+        Long instructorId = scope(currentUser);
+        return stream("submissions", format,
+                (exportFormat, out) -> exportService.exportSubmissions(instructorId, exportFormat, out));
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private Long scope(UserPrincipal currentUser) {
+        return currentUser.isAdmin() ? null : currentUser.getId();
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, String format, Export export) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            // Declared return type must stay StreamingResponseBody for MVC to stream at all
+            ApiResponse error = new ApiResponse(false, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+
+        ExportAdmission.Permit permit = exportAdmission.tryAcquire().orElse(null);
+        if (permit == null) {
+            ApiResponse error = new ApiResponse(false, "Too many exports are running; try again later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(exportAdmission.getRetryAfter().toSeconds()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        RequestContextHolder.currentRequestAttributes().setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE,
+                exportAdmission.getTimeout(), RequestAttributes.SCOPE_REQUEST);
+
+        // Runs on an MVC async thread; the transaction and cursor live inside the service call
+        StreamingResponseBody body = out -> {
+            try (permit) {
+                export.write(exportFormat, out);
+            }
+        };
+
+        String filename = name + "-" + LocalDate.now() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long write(ExportFormat format, OutputStream out) throws IOException;
+    }
+}
@@ -1,53 +1,102 @@
 // src/main/java/com/lms/controller/FileController.java
 package com.lms.controller;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.lms.security.DownloadUrlSigner;
+import com.lms.storage.PreviewGenerator;
+import com.lms.storage.PreviewKind;
+import com.lms.storage.StoredContent;
+import com.lms.storage.UploadCategory;
+import com.lms.storage.UploadPipeline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/files")
+@RequiredArgsConstructor
 public class FileController {
 
-    @GetMapping("/download/{type}/{filename:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String type, @PathVariable String filename) {
+    private final UploadPipeline uploadPipeline;
+    private final RangeFileSender rangeFileSender;
+    private final PreviewGenerator previewGenerator;
+    private final DownloadUrlSigner downloadUrlSigner;
+
+    /**
+     * Downloads an attachment. Supports HEAD, byte ranges (video seeking, resumed downloads) and
+     * conditional requests; see {@link RangeFileSender}. The second path accepts attachment URLs
+     * as stored on the entities, i.e. {@code /api/files/download/uploads/notes/<name>}.
+     *
+     * Only requests through a signed {@code downloadUrl} get here (see {@code SecurityConfig}), so
+     * responses may be cached publicly (by a reverse proxy) until the link expires.
+     */
+    @RequestMapping(value = {"/download/{type}/{filename:.+}", "/download/uploads/{type}/{filename:.+}"},
+            method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadFile(@PathVariable String type, @PathVariable String filename,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UploadCategory category;
         try {
-            String directory;
-            switch (type) {
-                case "notes":
-                    directory = "uploads/notes/";
-                    break;
-                case "assignments":
-                    directory = "uploads/assignments/";
-                    break;
-                case "submissions":
-                    directory = "uploads/submissions/";
-                    break;
-                default:
-                    return ResponseEntity.badRequest().build();
-            }
+            category = UploadCategory.fromDirectory(type);
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        StoredContent content = uploadPipeline.open("/uploads/" + category.getDirectory() + "/" + filename);
+        if (content == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
 
-            Path filePath = Paths.get(directory).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+        // Checked before the controller; a link may just have expired since
+        long signedFor = Math.max(0, downloadUrlSigner.secondsLeft(request));
+        String cacheControl = "public, max-age=" + signedFor;
+        rangeFileSender.send(content, UploadPipeline.displayName(filename), cacheControl, request, response);
+    }
+
+    /**
+     * Serves the thumbnail or text preview of an attachment, at the {@code previewUrl} given in the
+     * attachment DTOs. Like downloads, previews are only served through the signed link, and may be
+     * cached until it expires. A preview still being generated gets 503 with
+     * {@code Retry-After}; content without one gets 404.
+     */
+    @GetMapping("/preview/uploads/{type}/{filename:.+}")
+    public void previewFile(@PathVariable String type, @PathVariable String filename,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            UploadCategory.fromDirectory(type);
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
 
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = "application/octet-stream";
+        String sha256 = UploadPipeline.blobSha256("/uploads/" + type + "/" + filename);
+        Optional<PreviewKind> kind = PreviewKind.forFileName(filename);
+        if (sha256 == null || kind.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION,
-                                "attachment; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
+        StoredContent preview = previewGenerator.open(sha256, kind.get());
+        if (preview == null) {
+            if (previewGenerator.isPending(sha256, kind.get())) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
             } else {
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
             }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return;
         }
+
+        response.setContentType(kind.get().getContentType());
+        response.setContentLengthLong(preview.length());
+        long signedFor = Math.max(0, downloadUrlSigner.secondsLeft(request));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + signedFor + ", immutable");
+        preview.writeTo(0, preview.length(), Channels.newChannel(response.getOutputStream()));
     }
-}
\ No newline at end of file
+}
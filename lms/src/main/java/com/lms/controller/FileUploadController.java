@@ -0,0 +1,151 @@
+package com.lms.controller;
+
+import com.lms.dto.CreateUploadSessionRequest;
+import com.lms.dto.UploadSessionDto;
+import com.lms.dto.UploadedFileDto;
+import com.lms.exception.ResourceNotFoundException;
+import com.lms.security.UserPrincipal;
+import com.lms.service.ResumableUploadService;
+import com.lms.storage.PendingUploads;
+import com.lms.storage.StorageAccounting;
+import com.lms.storage.StoredFile;
+import com.lms.storage.UploadCategory;
+import com.lms.storage.UploadPipeline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Upload endpoints.
+ *
+ * Small files go up in one multipart request to {@code POST /api/files/upload}. Larger ones use a
+ * resumable session:
+ * <ol>
+ *   <li>{@code POST /api/files/upload/sessions} declares name, size and optionally a SHA-256,
+ *       and returns the session id and chunk size. When the SHA-256 matches content the caller
+ *       has already uploaded or attached, the response already carries the stored {@code file}
+ *       and no session is opened;</li>
+ *   <li>{@code PUT /api/files/upload/sessions/{id}?offset=n} sends one chunk as the raw request
+ *       body, in any order and in parallel;</li>
+ *   <li>{@code GET /api/files/upload/sessions/{id}} reports where to resume;</li>
+ *   <li>{@code POST /api/files/upload/sessions/{id}/complete} verifies and stores the file.</li>
+ * </ol>
+ * Either way the file is not attached to anything yet: the response's {@code fileId} is sent as
+ * {@code uploadId} with the submission, assignment or note, which attaches it. Only the uploader
+ * can do so, once; see {@link PendingUploads}.
+ */
+@RestController
+@RequestMapping("/api/files/upload")
+@RequiredArgsConstructor
+public class FileUploadController {
+
+    private static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    private final UploadPipeline uploadPipeline;
+    private final ResumableUploadService resumableUploadService;
+    private final PendingUploads pendingUploads;
+    private final StorageAccounting storageAccounting;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> upload(@RequestPart("file") MultipartFile file,
+                                    @RequestParam(value = "category", required = false) String category) {
+        try {
+            UserPrincipal user = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            UploadCategory target = UploadCategory.forUser(user, category);
+            storageAccounting.checkQuota(null, user.getId(), file.getSize());
+            StoredFile stored = uploadPipeline.store(target, file);
+            return ResponseEntity.ok(UploadedFileDto.fromStoredFile(pendingUploads.register(user.getId(), stored), stored));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    // ---------------------------
+    // RESUMABLE SESSIONS
+    // ---------------------------
+    @PostMapping(value = "/sessions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createSession(@Valid @RequestBody CreateUploadSessionRequest request) {
+        try {
+            UploadSessionDto session = resumableUploadService.createSession(request);
+            if (session.file() != null) {
+                return ResponseEntity.ok(session);
+            }
+            return ResponseEntity.created(URI.create("/api/files/upload/sessions/" + session.uploadId()))
+                    .header(UPLOAD_OFFSET_HEADER, "0")
+                    .body(session);
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @GetMapping("/sessions/{id}")
+    public ResponseEntity<?> getSession(@PathVariable String id) {
+        try {
+            UploadSessionDto session = resumableUploadService.getSession(id);
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET_HEADER, Long.toString(session.offset()))
+                    .body(session);
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @PutMapping("/sessions/{id}")
+    public ResponseEntity<?> writeChunk(@PathVariable String id,
+                                        @RequestParam("offset") long offset,
+                                        HttpServletRequest request) {
+        try {
+            // Read straight from the servlet stream; nothing is buffered or parsed by MVC
+            UploadSessionDto session = resumableUploadService.writeChunk(id, offset, request.getInputStream());
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET_HEADER, Long.toString(session.offset()))
+                    .body(session);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Failed to read chunk: " + e.getMessage()));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @PostMapping("/sessions/{id}/complete")
+    public ResponseEntity<?> complete(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(resumableUploadService.complete(id));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        try {
+            resumableUploadService.cancel(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    private static ResponseEntity<?> error(Exception e) {
+        HttpStatus status;
+        if (e instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (e instanceof SecurityException) {
+            status = HttpStatus.FORBIDDEN;
+        } else if (e instanceof IllegalStateException) {
+            status = HttpStatus.CONFLICT;
+        } else {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        return ResponseEntity.status(status).body(new ApiResponse(false, e.getMessage()));
+    }
+}
@@ -1,11 +1,16 @@
 package com.lms.controller;
 
+import com.lms.dto.CreateNoteRequest;
 import com.lms.dto.NoteDto;
 import com.lms.service.NoteService;
 import lombok.RequiredArgsConstructor;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Collections;
 import java.util.List;
@@ -19,17 +24,23 @@ import java.util.List;
 public class NoteController {
 
     private final NoteService noteService;
+    private final ConditionalGetSupport conditionalGet;
 
     /**
      * Retrieves all accessible notes for the authenticated user.
      *
+     * Answers 304 when the client's ETag still matches the notes watermark.
+     *
+     * @param request The current request, used for If-None-Match.
      * @return A ResponseEntity with the list of accessible notes or an error.
      */
     @GetMapping("/accessible")
-    public ResponseEntity<List<NoteDto>> getAccessibleNotes() {
+    public ResponseEntity<List<NoteDto>> getAccessibleNotes(WebRequest request) {
         try {
-            List<NoteDto> notes = noteService.getAccessibleNotes();
-            return ResponseEntity.ok(notes != null ? notes : Collections.emptyList());
+            return conditionalGet.respondSigned("notes", request, noteService::getAccessibleNotesWatermark, () -> {
+                List<NoteDto> notes = noteService.getAccessibleNotes();
+                return notes != null ? notes : Collections.<NoteDto>emptyList();
+            });
         } catch (SecurityException e) {
             System.err.println("SecurityException in getAccessibleNotes: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -41,5 +52,41 @@ public class NoteController {
         }
     }
 
-    // Other note-related endpoints (e.g., create, update, delete) can be added here
+    /**
+     * Creates a note from a multipart form, with an optional attachment in the {@code file} part.
+     *
+     * The attachment is streamed to storage rather than read into memory.
+     *
+     * @param request The note fields.
+     * @param file The optional attachment.
+     * @return A ResponseEntity with the created note or an error.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> createNote(@Valid @ModelAttribute CreateNoteRequest request,
+                                        @RequestPart(value = "file", required = false) MultipartFile file) {
+        return create(request, file != null ? file : request.getAttachment());
+    }
+
+    /**
+     * Creates a note, with an attachment uploaded beforehand when {@code uploadId} is set.
+     *
+     * @param request The note fields.
+     * @return A ResponseEntity with the created note or an error.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createNote(@Valid @RequestBody CreateNoteRequest request) {
+        return create(request, null);
+    }
+
+    private ResponseEntity<?> create(CreateNoteRequest request, MultipartFile file) {
+        try {
+            return ResponseEntity.ok(noteService.createNote(request, file));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse(false, e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    // Other note-related endpoints (e.g., update, delete) can be added here
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.lms.controller;
+
+import com.lms.dto.QuestionBankDto;
+import com.lms.service.QuestionBankService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * A course's question banks, for its teachers. Quizzes are built from a bank by naming it in
+ * the quiz's {@code bankId}.
+ */
+@RestController
+@RequestMapping("/api/question-banks")
+@RequiredArgsConstructor
+@CrossOrigin
+public class QuestionBankController {
+
+    private final QuestionBankService questionBankService;
+
+    @GetMapping("/course/{courseId}")
+    public ResponseEntity<?> getByCourse(@PathVariable Long courseId) {
+        return respond(() -> questionBankService.getBanksByCourse(courseId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getById(@PathVariable Long id) {
+        return respond(() -> questionBankService.getBank(id));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody QuestionBankDto dto) {
+        return respond(() -> questionBankService.createBank(dto));
+    }
+
+    /**
+     * Replaces the bank's title, description and, when given, its questions.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody QuestionBankDto dto) {
+        return respond(() -> questionBankService.updateBank(id, dto));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        return respond(() -> {
+            questionBankService.deleteBank(id);
+            return new ApiResponse(true, "Question bank deleted");
+        });
+    }
+
+    /**
+     * Imports a QTI (XML or zip package) or GIFT file, sent as the request body, into the bank in
+     * the background; poll the returned import for progress and rejected questions.
+     */
+    @PostMapping("/{id}/import")
+    public ResponseEntity<?> importQuestions(@PathVariable Long id,
+                                             @RequestParam(value = "format", required = false) String format,
+                                             HttpServletRequest request) {
+        try {
+            // Read straight from the servlet stream; the file is spooled to disk and parsed off the request
+            return ResponseEntity.accepted().body(questionBankService.importQuestions(id, format,
+                    request.getContentType(), request.getInputStream()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Failed to read import file: " + e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse(false, e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<?> getImport(@PathVariable String jobId) {
+        return respond(() -> questionBankService.getImport(jobId));
+    }
+
+    private static ResponseEntity<?> respond(Supplier<?> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse(false, e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+}
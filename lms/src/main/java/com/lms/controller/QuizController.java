@@ -0,0 +1,129 @@
+package com.lms.controller;
+
+import com.lms.dto.QuizDto;
+import com.lms.dto.QuizQuestionDto;
+import com.lms.service.QuizService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Quizzes on a course. Teachers author a draft, publish it, and may later correct a question's
+ * answer key, which regrades every submitted attempt. Students start and submit attempts on
+ * published quizzes of their courses.
+ */
+@RestController
+@RequestMapping("/api/quizzes")
+@RequiredArgsConstructor
+@CrossOrigin
+public class QuizController {
+
+    private final QuizService quizService;
+
+    @GetMapping("/course/{courseId}")
+    public ResponseEntity<?> getByCourse(@PathVariable Long courseId) {
+        return respond(() -> quizService.getQuizzesByCourse(courseId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getById(@PathVariable Long id) {
+        return respond(() -> quizService.getQuiz(id));
+    }
+
+    // ---------------------------
+    // TEACHER
+    // ---------------------------
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody QuizDto dto) {
+        return respond(() -> quizService.createQuiz(dto));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody QuizDto dto) {
+        return respond(() -> quizService.updateQuiz(id, dto));
+    }
+
+    @PostMapping("/{id}/publish")
+    public ResponseEntity<?> publish(@PathVariable Long id) {
+        return respond(() -> quizService.publishQuiz(id));
+    }
+
+    /**
+     * Corrects one question's answer key and regrades the quiz's submitted attempts with it.
+     */
+    @PutMapping("/{id}/questions/{questionId}/key")
+    public ResponseEntity<?> correctAnswerKey(@PathVariable Long id, @PathVariable Long questionId,
+                                              @RequestBody QuizQuestionDto dto) {
+        return respond(() -> {
+            QuizDto quiz = quizService.correctAnswerKey(id, questionId, dto);
+            return Map.of("quiz", quiz, "regrade", quizService.regradeQuiz(id));
+        });
+    }
+
+    @PostMapping("/{id}/regrade")
+    public ResponseEntity<?> regrade(@PathVariable Long id) {
+        return respond(() -> quizService.regradeQuiz(id));
+    }
+
+    @GetMapping("/{id}/attempts")
+    public ResponseEntity<?> getAttempts(@PathVariable Long id) {
+        return respond(() -> quizService.getAttempts(id));
+    }
+
+    @GetMapping("/{id}/item-analysis")
+    public ResponseEntity<?> getItemAnalysis(@PathVariable Long id) {
+        return respond(() -> quizService.getItemAnalysis(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        return respond(() -> {
+            quizService.deleteQuiz(id);
+            return new ApiResponse(true, "Quiz deleted");
+        });
+    }
+
+    // ---------------------------
+    // STUDENT
+    // ---------------------------
+    @GetMapping("/{id}/my-attempts")
+    public ResponseEntity<?> getMyAttempts(@PathVariable Long id) {
+        return respond(() -> quizService.getMyAttempts(id));
+    }
+
+    @PostMapping("/{id}/attempts")
+    public ResponseEntity<?> startAttempt(@PathVariable Long id) {
+        return respond(() -> quizService.startAttempt(id));
+    }
+
+    /**
+     * Autosave. Body as for submit; answers are merged into those saved before.
+     */
+    @PutMapping("/{id}/attempts/{attemptId}/answers")
+    public ResponseEntity<?> autosave(@PathVariable Long id, @PathVariable Long attemptId,
+                                      @RequestBody Map<String, Map<String, Object>> body) {
+        return respond(() -> quizService.autosave(id, attemptId, body.get("answers")));
+    }
+
+    /**
+     * Body: {@code {"answers": {"<questionId>": <option index | [indices] | true/false | text>}}}.
+     */
+    @PostMapping("/{id}/submit")
+    public ResponseEntity<?> submit(@PathVariable Long id, @RequestBody Map<String, Map<String, Object>> body) {
+        return respond(() -> quizService.submitAttempt(id, body.get("answers")));
+    }
+
+    private static ResponseEntity<?> respond(Supplier<?> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse(false, e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+}
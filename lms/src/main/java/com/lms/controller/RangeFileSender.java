@@ -0,0 +1,277 @@
+package com.lms.controller;
+
+import com.lms.storage.StoredContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves stored content with byte-range, conditional and content-type support.
+ *
+ * <ul>
+ *   <li>{@code Range} requests are answered with 206 (one range) or {@code multipart/byteranges}
+ *       (several), and 416 when nothing is satisfiable. {@code If-Range} falls back to the whole
+ *       content when the validator no longer matches.</li>
+ *   <li>The ETag is derived from size and modification time, so validating a request costs one
+ *       {@code stat} and no read. {@code If-None-Match}/{@code If-Modified-Since} give 304.</li>
+ *   <li>The content type is probed from a local file, then guessed from the extension.</li>
+ * </ul>
+ *
+ * Local files are never copied through the heap. When the connector supports it (Tomcat NIO
+ * without TLS), a single body is handed to Tomcat's sendfile, which moves it from the page cache to
+ * the socket with {@link java.nio.channels.FileChannel#transferTo}. Otherwise, and for multipart
+ * bodies, the content is written into the response channel by its {@link StoredContent}; remote
+ * content is fetched range by range, so only the requested bytes are read.
+ */
+@Slf4j
+@Component
+public class RangeFileSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final boolean sendfile;
+    private final int maxRanges;
+
+    public RangeFileSender(@Value("${lms.download.sendfile:true}") boolean sendfile,
+                           @Value("${lms.download.max-ranges:16}") int maxRanges) {
+        this.sendfile = sendfile;
+        this.maxRanges = maxRanges;
+    }
+
+    /**
+     * Writes {@code content} to the response, honouring range and conditional headers.
+     *
+     * @param downloadName name offered to the client in {@code Content-Disposition}
+     */
+    public void send(StoredContent content, String downloadName, HttpServletRequest request,
+                     HttpServletResponse response) throws IOException {
+        send(content, downloadName, "private, no-cache", request, response);
+    }
+
+    /**
+     * As {@link #send(StoredContent, String, HttpServletRequest, HttpServletResponse)}, with the
+     * given {@code Cache-Control} instead of {@code private, no-cache}.
+     */
+    public void send(StoredContent content, String downloadName, String cacheControl,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = content.length();
+        long lastModified = content.lastModified();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        MediaType contentType = contentType(content, downloadName);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(downloadName).build().toString());
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<long[]> ranges = ranges(request, etag, lastModified, length);
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(length);
+            if (!head) {
+                body(content, 0, length, request, response);
+            }
+            return;
+        }
+
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            if (!head) {
+                body(content, range[0], range[1] + 1, request, response);
+            }
+            return;
+        }
+
+        // multipart/byteranges: the part headers are small, the part bodies are channel transfers
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            total += header.length + range[1] - range[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        total += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            content.writeTo(range[0], range[1] + 1, target);
+        }
+        out.write(closing);
+    }
+
+    // ---------------------------
+    // BODY
+    // ---------------------------
+    private void body(StoredContent content, long start, long end, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        Optional<Path> file = content.file();
+        if (sendfile && file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself once the request returns
+            request.setAttribute(SENDFILE_FILENAME, file.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        content.writeTo(start, end, Channels.newChannel(response.getOutputStream()));
+    }
+
+    // ---------------------------
+    // HEADERS
+    // ---------------------------
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || matches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        // HTTP dates have second precision
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Requested ranges as inclusive {@code [start, end]} pairs; empty for the whole file, null when
+     * no requested range is satisfiable.
+     */
+    private List<long[]> ranges(HttpServletRequest request, String etag, long lastModified, long length) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !rangeStillValid(request, etag, lastModified)) {
+            return List.of();
+        }
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // Malformed or unsupported units: ignore the header as RFC 9110 allows
+            return List.of();
+        }
+        if (requested.isEmpty()) {
+            // "bytes=" names no range at all; malformed too, not unsatisfiable
+            return List.of();
+        }
+        if (requested.size() > maxRanges) {
+            // Many tiny ranges cost more than the file; answer with the whole of it instead
+            return List.of();
+        }
+
+        List<long[]> ranges = new ArrayList<>(requested.size());
+        for (HttpRange range : requested) {
+            long start;
+            long end;
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                continue; // starts beyond the end of the file
+            }
+            if (start <= end) {
+                ranges.add(new long[]{start, end});
+            }
+        }
+        return ranges.isEmpty() ? null : ranges;
+    }
+
+    private static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")) {
+            return ifRange.trim().equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified / 1000 <= date / 1000;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    private static MediaType contentType(StoredContent content, String downloadName) {
+        Optional<Path> file = content.file();
+        try {
+            String probed = file.isPresent() ? Files.probeContentType(file.get()) : null;
+            if (probed != null) {
+                return MediaType.parseMediaType(probed);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Could not probe content type of {}: {}", file.get(), e.getMessage());
+        }
+        return MediaTypeFactory.getMediaType(downloadName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
@@ -0,0 +1,68 @@
+package com.lms.controller;
+
+import com.lms.dto.StorageSavingsReport;
+import com.lms.dto.StorageUsageDto;
+import com.lms.service.StorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin reports and maintenance for attachment storage.
+ */
+@RestController
+@RequestMapping("/api/admin/storage")
+@RequiredArgsConstructor
+public class StorageController {
+
+    private final StorageService storageService;
+
+    @GetMapping("/savings")
+    public ResponseEntity<StorageSavingsReport> getSavingsReport() {
+        return ResponseEntity.ok(storageService.getSavingsReport());
+    }
+
+    @GetMapping("/usage")
+    public ResponseEntity<?> getTopConsumers(@RequestParam(defaultValue = "course") String owner,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<StorageUsageDto> usage = storageService.getTopConsumers(owner, limit);
+            return ResponseEntity.ok(usage);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reclaim")
+    public ResponseEntity<?> reclaim() {
+        try {
+            Map<String, Integer> result = storageService.reclaim();
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    @PostMapping("/gc")
+    public ResponseEntity<?> collectGarbage() {
+        try {
+            Map<String, Integer> result = storageService.collectGarbage();
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    @PostMapping("/pack")
+    public ResponseEntity<?> pack() {
+        try {
+            Map<String, Integer> result = storageService.pack();
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+}
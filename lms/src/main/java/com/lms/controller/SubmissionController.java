@@ -1,14 +1,23 @@
 // src/main/java/com/lms/controller/SubmissionController.java
 package com.lms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.dto.GradebookDto;
 import com.lms.dto.SubmissionDto;
+import com.lms.service.GradebookService;
+import com.lms.service.SubmissionArchiveService;
 import com.lms.service.SubmissionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,6 +28,9 @@ import java.util.List;
 public class SubmissionController {
 
     private final SubmissionService submissionService;
+    private final GradebookService gradebookService;
+    private final SubmissionArchiveService submissionArchiveService;
+    private final ObjectMapper objectMapper;
 
     public static class ApiResponse {
         private final boolean success;
@@ -45,9 +57,10 @@ public class SubmissionController {
     public ResponseEntity<ApiResponse> submitAssignment(
             @PathVariable Long assignmentId,
             @RequestPart("content") String content,
-            @RequestPart(value = "file", required = false) MultipartFile file) {
+            @RequestPart(value = "file", required = false) MultipartFile file,
+            @RequestPart(value = "uploadId", required = false) String uploadId) {
         try {
-            SubmissionDto dto = submissionService.submitAssignment(assignmentId, content, file);
+            SubmissionDto dto = submissionService.submitAssignment(assignmentId, content, file, uploadId);
             return ResponseEntity.ok(new ApiResponse(true, "Submitted successfully!", dto));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
@@ -81,6 +94,49 @@ public class SubmissionController {
         }
     }
 
+    // TEACHER: All attachments of an assignment (or the selected submissions) as one streamed ZIP
+    @GetMapping("/assignment/{assignmentId}/archive")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadSubmissionArchive(
+            @PathVariable Long assignmentId,
+            @RequestParam(required = false) List<Long> submissionIds) {
+        SubmissionArchiveService.Archive archive;
+        try {
+            archive = submissionArchiveService.prepare(assignmentId, submissionIds);
+        } catch (Exception e) {
+            ApiResponse error = new ApiResponse(false, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        // No Content-Length: the body is chunked and starts with the first entry
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(archive.fileName()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(out -> submissionArchiveService.write(archive, out));
+    }
+
+    private static String contentDisposition(String fileName) {
+        // Assignment titles may be non-ASCII; only then is the RFC 5987 form needed
+        ContentDisposition.Builder builder = ContentDisposition.attachment();
+        return (StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)
+                ? builder.filename(fileName)
+                : builder.filename(fileName, StandardCharsets.UTF_8)).build().toString();
+    }
+
+    // TEACHER: Student x assignment grade matrix for a whole course in one request
+    @GetMapping("/course/{courseId}/gradebook")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> getCourseGradebook(@PathVariable Long courseId) {
+        try {
+            GradebookDto gradebook = gradebookService.getGradebook(courseId);
+            return ResponseEntity.ok(new ApiResponse(true, "Gradebook loaded", gradebook));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
     // Student: Get my submissions
     @GetMapping("/my")
     @PreAuthorize("hasRole('STUDENT')")
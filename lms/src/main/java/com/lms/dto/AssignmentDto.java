@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.lms.entity.Assignment;
+import com.lms.storage.UploadPipeline;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -45,6 +46,9 @@ public class AssignmentDto {
     @JsonProperty("maxPoints")
     private Integer maxPoints = 100;
 
+    // fileId of an earlier /api/files/upload, attached instead of a file part
+    private String uploadId;
+
     // Response fields (not required for creation)
     private String courseName;
     private Long createdById;
@@ -53,6 +57,8 @@ public class AssignmentDto {
     private String attachmentName;
     private Long attachmentSize;
     private String attachmentType;
+    private String previewUrl;
+    private String downloadUrl;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
     private LocalDateTime createdAt;
@@ -100,6 +106,7 @@ public class AssignmentDto {
             dto.setAttachmentName(assignment.getAttachmentName());
             dto.setAttachmentSize(assignment.getAttachmentSize());
             dto.setAttachmentType(assignment.getAttachmentType());
+            dto.setPreviewUrl(UploadPipeline.previewUrl(assignment.getAttachmentUrl()));
             dto.setCreatedAt(assignment.getCreatedAt());
 
             log.debug("✅ Converted assignment entity to DTO: {}", dto.getTitle());
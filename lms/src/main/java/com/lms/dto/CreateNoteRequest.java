@@ -16,4 +16,6 @@ public class CreateNoteRequest {
     private Long courseId;
     private String visibility = "ALL"; // Simple string - will be converted in service
     private MultipartFile attachment;
+    // fileId of an earlier /api/files/upload, attached instead of a file part
+    private String uploadId;
 }
\ No newline at end of file
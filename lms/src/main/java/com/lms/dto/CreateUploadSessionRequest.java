@@ -0,0 +1,26 @@
+package com.lms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class CreateUploadSessionRequest {
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long size;
+
+    // Optional; when given the assembled file must match it at finalize
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "sha256 must be 64 hex characters")
+    private String sha256;
+
+    private String category; // Directory name, e.g. "submissions"; defaults by role
+}
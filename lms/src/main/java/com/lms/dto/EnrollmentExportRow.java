@@ -0,0 +1,17 @@
+package com.lms.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged row for streaming enrollment exports.
+ */
+public record EnrollmentExportRow(Long id,
+                                  Long courseId,
+                                  String courseTitle,
+                                  Long studentId,
+                                  String studentName,
+                                  String studentEmail,
+                                  Integer progress,
+                                  Boolean completed,
+                                  LocalDateTime enrolledAt) {
+}
@@ -0,0 +1,33 @@
+package com.lms.dto;
+
+/**
+ * Student x assignment grade matrix for one course, in struct-of-arrays form.
+ *
+ * Cell {@code (row, col)} lives at index {@code row * assignmentIds.length + col} of {@link #grades};
+ * its graded and submitted flags are bit {@code index & 7} (least significant first) of byte
+ * {@code index >>> 3} in the {@link #graded} and {@link #submitted} bitmaps, which serialize as
+ * base64. Ungraded cells hold 0 in {@link #grades}.
+ */
+public record GradebookDto(Long courseId,
+                           long[] studentIds,
+                           String[] studentNames,
+                           long[] assignmentIds,
+                           String[] assignmentTitles,
+                           int[] maxPoints,
+                           int[] grades,
+                           byte[] graded,
+                           byte[] submitted,
+                           ColumnStats stats) {
+
+    /**
+     * Per-assignment statistics over graded cells. Min, max, mean and median are 0 for a column
+     * with nothing graded yet.
+     */
+    public record ColumnStats(int[] submittedCount,
+                              int[] gradedCount,
+                              int[] min,
+                              int[] max,
+                              double[] mean,
+                              double[] median) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.lms.dto;
 
 import com.lms.entity.Note;
+import com.lms.storage.UploadPipeline;
 import lombok.Data;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
@@ -24,6 +25,8 @@ public class NoteDto {
     private String attachmentName;
     private Long attachmentSize;
     private String attachmentType;
+    private String previewUrl;
+    private String downloadUrl;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -41,6 +44,7 @@ public class NoteDto {
         dto.setAttachmentName(note.getAttachmentName());
         dto.setAttachmentSize(note.getAttachmentSize());
         dto.setAttachmentType(note.getAttachmentType());
+        dto.setPreviewUrl(UploadPipeline.previewUrl(note.getAttachmentUrl()));
         dto.setCreatedAt(note.getCreatedAt());
         dto.setUpdatedAt(note.getUpdatedAt());
         return dto;
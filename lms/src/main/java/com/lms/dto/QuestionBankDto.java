@@ -0,0 +1,28 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionBankDto {
+    private Long id;
+
+    private Long courseId;
+    private String courseTitle;
+
+    private String title;
+    private String description;
+
+    private Integer questionCount;
+    private List<QuizQuestionDto> questions = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
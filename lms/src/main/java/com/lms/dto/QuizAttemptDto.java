@@ -0,0 +1,45 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAttemptDto {
+    private Long id;
+
+    private Long quizId;
+    private String quizTitle;
+
+    private Long studentId;
+    private String studentName;
+
+    private String status;
+
+    // Percentage of maxPoints
+    private Integer score;
+    private Integer points;
+    private Integer maxPoints;
+    private Integer correctAnswers;
+    private Integer totalQuestions;
+    private Boolean passed;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime deadline;
+    private LocalDateTime submittedAt;
+
+    // Until the deadline, when the attempt is open and timed
+    private Long secondsLeft;
+
+    // The attempt's questions in the order it shows them, when it is started or resumed
+    private List<QuizQuestionDto> questions;
+
+    // Saved answers, when an open attempt is resumed; option indices as the attempt shows them
+    private Map<Long, String> answers;
+}
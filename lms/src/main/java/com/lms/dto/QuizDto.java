@@ -0,0 +1,40 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizDto {
+    private Long id;
+
+    private Long courseId;
+    private String courseTitle;
+
+    private String title;
+    private String description;
+    private Integer timeLimit;
+    private Integer passPercentage;
+    private String status;
+    private Integer keyVersion;
+
+    // Questions copied from this bank when the quiz is saved without questions of its own
+    private Long bankId;
+    // Questions drawn per attempt; null for all of them
+    private Integer drawCount;
+    private Boolean shuffleQuestions;
+    private Boolean shuffleOptions;
+
+    private Integer questionCount;
+    private Integer maxPoints;
+    private List<QuizQuestionDto> questions = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,30 @@
+package com.lms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A quiz question. The answer key fields are only filled in for the quiz's teacher; students
+ * get the question without them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuizQuestionDto {
+    private Long id;
+    private String type;
+    private String text;
+    private List<String> options = new ArrayList<>();
+    private Integer points;
+
+    // Answer key: MULTIPLE_CHOICE option indices, TRUE_FALSE answer, SHORT_ANSWER accepted answers
+    private List<Integer> correctOptions;
+    private Boolean correctAnswer;
+    private List<String> acceptedAnswers;
+}
@@ -0,0 +1,29 @@
+package com.lms.dto;
+
+/**
+ * Space and write savings of content-addressed attachment storage.
+ *
+ * @param attachments     attachments that point at stored content
+ * @param logicalBytes    bytes those attachments would take if each kept its own copy
+ * @param blobs           distinct contents actually stored
+ * @param physicalBytes   bytes actually stored
+ * @param savedBytes      {@code logicalBytes - physicalBytes}
+ * @param savedRatio      {@code savedBytes / logicalBytes}, 0 when nothing is stored
+ * @param uploadsWritten  uploads since startup whose content was new and written
+ * @param bytesWritten    bytes those uploads wrote
+ * @param uploadsDeduplicated uploads since startup whose content was already stored
+ * @param bytesNotWritten bytes those uploads did not write
+ * @param writeSavedRatio {@code bytesNotWritten / (bytesWritten + bytesNotWritten)}
+ */
+public record StorageSavingsReport(long attachments,
+                                   long logicalBytes,
+                                   long blobs,
+                                   long physicalBytes,
+                                   long savedBytes,
+                                   double savedRatio,
+                                   long uploadsWritten,
+                                   long bytesWritten,
+                                   long uploadsDeduplicated,
+                                   long bytesNotWritten,
+                                   double writeSavedRatio) {
+}
@@ -0,0 +1,21 @@
+package com.lms.dto;
+
+/**
+ * Attachment storage used by one course or user.
+ *
+ * @param ownerType  {@code COURSE} or {@code USER}
+ * @param ownerId    course or user id
+ * @param name       course title or user name, null if it no longer exists
+ * @param bytes      bytes of the owner's attachments, counting shared content once per attachment
+ * @param files      number of attachments
+ * @param quotaBytes the owner's quota, 0 when unlimited
+ * @param quotaRatio {@code bytes / quotaBytes}, 0 when unlimited
+ */
+public record StorageUsageDto(String ownerType,
+                              long ownerId,
+                              String name,
+                              long bytes,
+                              int files,
+                              long quotaBytes,
+                              double quotaRatio) {
+}
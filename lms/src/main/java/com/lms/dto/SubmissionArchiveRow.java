@@ -0,0 +1,12 @@
+package com.lms.dto;
+
+/**
+ * One attachment to put into a submissions ZIP.
+ */
+public record SubmissionArchiveRow(Long submissionId,
+                                   Long studentId,
+                                   String studentName,
+                                   String attachmentUrl,
+                                   String attachmentName,
+                                   String attachmentSha256) {
+}
@@ -26,6 +26,8 @@ public class SubmissionDto {
     private String attachmentName;
     private Long attachmentSize;
     private String attachmentType;
+    private String previewUrl;
+    private String downloadUrl;
 
     private Boolean graded;
     private Integer grade;
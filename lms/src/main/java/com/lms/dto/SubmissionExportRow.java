@@ -0,0 +1,21 @@
+package com.lms.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged row for streaming submission exports. The submission text is left out; it is
+ * unbounded and belongs in the file download, not the grade sheet.
+ */
+public record SubmissionExportRow(Long id,
+                                  Long assignmentId,
+                                  String assignmentTitle,
+                                  Long courseId,
+                                  String courseTitle,
+                                  Long studentId,
+                                  String studentName,
+                                  String studentEmail,
+                                  Boolean graded,
+                                  Integer grade,
+                                  LocalDateTime submittedAt,
+                                  LocalDateTime gradedAt) {
+}
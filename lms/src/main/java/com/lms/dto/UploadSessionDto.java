@@ -0,0 +1,29 @@
+package com.lms.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable upload.
+ *
+ * @param offset        end of the contiguous prefix received so far; a sequential client resumes here
+ * @param receivedBytes total bytes received, including chunks beyond {@code offset}
+ * @param missingChunks indexes of chunks still to send, in ascending order
+ * @param file          set when the declared checksum matched content the user has uploaded or
+ *                      attached before; no session was opened and nothing needs to be sent
+ */
+public record UploadSessionDto(String uploadId,
+                               String fileName,
+                               String category,
+                               long size,
+                               long chunkSize,
+                               long offset,
+                               long receivedBytes,
+                               int[] missingChunks,
+                               LocalDateTime expiresAt,
+                               UploadedFileDto file) {
+
+    public static UploadSessionDto alreadyStored(UploadedFileDto file) {
+        return new UploadSessionDto(null, file.fileName(), file.category(), file.size(), file.size(),
+                file.size(), file.size(), new int[0], null, file);
+    }
+}
@@ -0,0 +1,21 @@
+package com.lms.dto;
+
+import com.lms.storage.StoredFile;
+
+/**
+ * A file that has been written to storage but is not attached yet. {@code fileId} identifies the
+ * upload: send it as {@code uploadId} with the submission, assignment or note it belongs to. The
+ * storage URL is not handed out; the attachment's DTO carries a signed {@code downloadUrl}.
+ */
+public record UploadedFileDto(String fileId,
+                              String fileName,
+                              String category,
+                              String contentType,
+                              long size,
+                              boolean deduplicated) {
+
+    public static UploadedFileDto fromStoredFile(String uploadId, StoredFile file) {
+        return new UploadedFileDto(uploadId, file.originalName(),
+                file.category().getDirectory(), file.contentType(), file.size(), file.deduplicated());
+    }
+}
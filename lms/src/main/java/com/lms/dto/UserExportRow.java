@@ -0,0 +1,19 @@
+package com.lms.dto;
+
+import com.lms.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged row for streaming user exports. Never includes credentials.
+ */
+public record UserExportRow(Long id,
+                            String name,
+                            String email,
+                            User.Role role,
+                            User.UserStatus status,
+                            String studentId,
+                            String subject,
+                            String phone,
+                            LocalDateTime createdAt) {
+}
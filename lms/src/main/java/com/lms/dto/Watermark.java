@@ -0,0 +1,40 @@
+package com.lms.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Change watermark of a set of rows: how many there are and when the newest of them (and of the
+ * parent rows whose title or name they display) last changed. Any insert, update or delete of those
+ * rows moves at least one component, so equal watermarks mean an identical response body.
+ */
+public record Watermark(Long count, LocalDateTime latest, LocalDateTime related) {
+
+    /**
+     * For rows that display two parents, e.g. a course title and an author name; related is the
+     * later of the two.
+     */
+    public Watermark(Long count, LocalDateTime latest, LocalDateTime related, LocalDateTime otherRelated) {
+        this(count, latest, later(related, otherRelated));
+    }
+
+    public String toEtag(String resource) {
+        return "\"" + resource + "-" + Long.toHexString(count)
+                + "-" + Long.toHexString(micros(latest))
+                + "-" + Long.toHexString(micros(related)) + "\"";
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
@@ -27,6 +27,9 @@ public class Assignment {
     private Long attachmentSize;
     private String attachmentType;
 
+    @Column(columnDefinition = "char(64)")
+    private String attachmentSha256;
+
     @ManyToOne
     @JoinColumn(name = "course_id")
     private Course course;
@@ -37,6 +40,15 @@ public class Assignment {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Change watermark for conditional GETs
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Integer getMaxPoints() {
         return maxPoints;
     }
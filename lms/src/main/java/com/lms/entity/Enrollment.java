@@ -15,6 +15,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "enrollments", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"student_id", "course_id"})
+}, indexes = {
+        @Index(name = "idx_enrollments_course", columnList = "course_id")
 })
 @Data
 @NoArgsConstructor
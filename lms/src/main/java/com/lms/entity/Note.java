@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+        @Index(name = "idx_notes_visibility_course", columnList = "visibility, course_id")
+})
 public class Note {
 
     @Id
@@ -41,6 +43,9 @@ public class Note {
     @Column(name = "attachment_type")
     private String attachmentType;
 
+    @Column(name = "attachment_sha256", length = 64, columnDefinition = "char(64)")
+    private String attachmentSha256;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -104,6 +109,9 @@ public class Note {
     public String getAttachmentType() { return attachmentType; }
     public void setAttachmentType(String attachmentType) { this.attachmentType = attachmentType; }
 
+    public String getAttachmentSha256() { return attachmentSha256; }
+    public void setAttachmentSha256(String attachmentSha256) { this.attachmentSha256 = attachmentSha256; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
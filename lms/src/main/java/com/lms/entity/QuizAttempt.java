@@ -0,0 +1,78 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "quiz_attempts")
+public class QuizAttempt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    private Quiz quiz;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status = Status.IN_PROGRESS;
+
+    // JSON object of question id to answer
+    @Column(name = "answers", columnDefinition = "TEXT")
+    private String answers;
+
+    // Points scored and available
+    @Column(name = "score")
+    private Integer score;
+
+    @Column(name = "max_score")
+    private Integer maxScore;
+
+    @Column(name = "correct_answers")
+    private Integer correctAnswers;
+
+    @Column(name = "total_questions")
+    private Integer totalQuestions;
+
+    @Column(name = "passed")
+    private Boolean passed;
+
+    // The answer key version the score was computed with
+    @Column(name = "key_version")
+    private Integer keyVersion;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    // Seed of the attempt's question and option order; null for the quiz's own order
+    @Column(name = "variant_seed")
+    private Long variantSeed;
+
+    // Timed quizzes only: started_at plus the time limit
+    @Column(name = "deadline")
+    private LocalDateTime deadline;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
+    public enum Status {
+        IN_PROGRESS, SUBMITTED
+    }
+}
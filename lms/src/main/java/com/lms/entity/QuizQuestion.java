@@ -0,0 +1,75 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "quiz_questions")
+public class QuizQuestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // A question belongs to either a quiz or a question bank
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "quiz_id")
+    private Quiz quiz;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "bank_id")
+    private QuestionBank bank;
+
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private Type type;
+
+    @Column(name = "question_text", columnDefinition = "TEXT", nullable = false)
+    private String text;
+
+    // TRUE_FALSE: "true" or "false"; SHORT_ANSWER: accepted answers, one per line
+    @Column(name = "answer", length = 1000)
+    private String answer;
+
+    @Column(name = "points", nullable = false)
+    private Integer points = 1;
+
+    // MULTIPLE_CHOICE only
+    @ElementCollection
+    @CollectionTable(name = "quiz_question_options", joinColumns = @JoinColumn(name = "question_id"))
+    @OrderColumn(name = "sort_order")
+    private List<Option> options = new ArrayList<>();
+
+    public enum Type {
+        MULTIPLE_CHOICE, TRUE_FALSE, SHORT_ANSWER
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Option {
+
+        @Column(name = "option_text", length = 1000, nullable = false)
+        private String text;
+
+        @Column(name = "correct", nullable = false)
+        private Boolean correct = false;
+    }
+}
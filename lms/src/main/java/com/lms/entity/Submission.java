@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = {
+        @Index(name = "idx_submissions_assignment_student", columnList = "assignment_id, student_id"),
+        @Index(name = "idx_submissions_student", columnList = "student_id")
+})
 public class Submission {
 
     @Id
@@ -35,6 +38,9 @@ public class Submission {
     @Column(name = "attachment_type")
     private String attachmentType;
 
+    @Column(name = "attachment_sha256", length = 64, columnDefinition = "char(64)")
+    private String attachmentSha256;
+
     @Column(name = "graded")
     private Boolean graded = false;
 
@@ -87,6 +93,9 @@ public class Submission {
     public String getAttachmentType() { return attachmentType; }
     public void setAttachmentType(String attachmentType) { this.attachmentType = attachmentType; }
 
+    public String getAttachmentSha256() { return attachmentSha256; }
+    public void setAttachmentSha256(String attachmentSha256) { this.attachmentSha256 = attachmentSha256; }
+
     public Boolean getGraded() { return graded; }
     public void setGraded(Boolean graded) { this.graded = graded; }
 
@@ -12,6 +12,9 @@ import java.util.List;
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email"),
         @UniqueConstraint(columnNames = "student_id")
+}, indexes = {
+        @Index(name = "idx_users_role_status", columnList = "role, status"),
+        @Index(name = "idx_users_created_at", columnList = "created_at")
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,30 @@
+package com.lms.event;
+
+import com.lms.storage.PreviewGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Queues preview generation for stored attachments. Generation skips content that already has
+ * its preview, so redeliveries cost a lookup.
+ */
+@Component
+@RequiredArgsConstructor
+public class AttachmentPreviewHandler implements DomainEventHandler<AttachmentStored> {
+
+    private final PreviewGenerator previewGenerator;
+
+    @Override
+    public Class<AttachmentStored> eventType() {
+        return AttachmentStored.class;
+    }
+
+    @Override
+    public void handle(List<AttachmentStored> events) {
+        for (AttachmentStored event : events) {
+            previewGenerator.request(event.sha256(), event.fileName());
+        }
+    }
+}
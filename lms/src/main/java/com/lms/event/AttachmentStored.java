@@ -0,0 +1,16 @@
+package com.lms.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Content was stored for an attachment. Published from the upload pipeline, so it is only
+ * delivered once the attachment that uses the content has committed.
+ */
+public record AttachmentStored(UUID eventId, Instant occurredAt, String sha256, String fileName)
+        implements DomainEvent {
+
+    public static AttachmentStored of(String sha256, String fileName) {
+        return new AttachmentStored(UUID.randomUUID(), Instant.now(), sha256, fileName);
+    }
+}
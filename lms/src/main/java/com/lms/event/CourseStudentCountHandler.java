@@ -0,0 +1,50 @@
+package com.lms.event;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.EnrollmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code courses.students} in line with the enrollments table. The count is recomputed
+ * rather than incremented, so replays and retries are harmless, and a burst of enrollments
+ * into one course costs a single update.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@UseWorkload(Workload.BULK)
+public class CourseStudentCountHandler implements DomainEventHandler<EnrollmentEvent> {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+
+    @Override
+    public Class<EnrollmentEvent> eventType() {
+        return EnrollmentEvent.class;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handle(List<EnrollmentEvent> events) {
+        Set<Long> courseIds = events.stream()
+                .map(EnrollmentEvent::courseId)
+                .collect(Collectors.toSet());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Long courseId : courseIds) {
+            int students = (int) enrollmentRepository.countByCourseId(courseId);
+            courseRepository.updateStudentCount(courseId, students, now);
+        }
+    }
+}
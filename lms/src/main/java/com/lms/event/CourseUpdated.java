@@ -0,0 +1,19 @@
+package com.lms.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A course was created, changed or deleted.
+ */
+public record CourseUpdated(UUID eventId, Instant occurredAt, Long courseId, Long instructorId, Change change)
+        implements DomainEvent {
+
+    public enum Change {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static CourseUpdated of(Long courseId, Long instructorId, Change change) {
+        return new CourseUpdated(UUID.randomUUID(), Instant.now(), courseId, instructorId, change);
+    }
+}
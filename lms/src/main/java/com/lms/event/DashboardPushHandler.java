@@ -0,0 +1,44 @@
+package com.lms.event;
+
+import com.lms.service.DashboardStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pushes dashboard deltas to SSE subscribers. Runs after {@link TeacherDashboardInvalidationHandler}
+ * so the recomputed summaries come from freshly loaded dashboards.
+ */
+@Component
+@Order(200)
+@RequiredArgsConstructor
+public class DashboardPushHandler implements DomainEventHandler<DomainEvent> {
+
+    private final DashboardStreamService dashboardStreamService;
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        // Every event moves at least one admin counter
+        Set<String> channels = new LinkedHashSet<>();
+        channels.add(DashboardStreamService.ADMIN_CHANNEL);
+        for (DomainEvent event : events) {
+            if (event instanceof CourseUpdated) {
+                dashboardStreamService.refreshAll();
+                return;
+            }
+            if (event instanceof EnrollmentEvent enrollment && enrollment.instructorId() != null) {
+                channels.add(DashboardStreamService.teacherChannel(enrollment.instructorId()));
+            }
+        }
+        dashboardStreamService.refresh(channels);
+    }
+}
@@ -0,0 +1,17 @@
+package com.lms.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A fact about the domain, published once the transaction that produced it has committed
+ * and processed asynchronously by {@link DomainEventDispatcher}.
+ */
+public sealed interface DomainEvent
+        permits EnrollmentEvent, SubmissionReceived, SubmissionGraded, CourseUpdated, AttachmentStored {
+
+    /** Unique per event; handlers can use it to recognise redeliveries. */
+    UUID eventId();
+
+    Instant occurredAt();
+}
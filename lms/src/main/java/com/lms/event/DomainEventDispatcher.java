@@ -0,0 +1,206 @@
+package com.lms.event;
+
+import com.lms.config.WorkloadContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded asynchronous pipeline for {@link DomainEvent}s.
+ *
+ * Events published through {@code ApplicationEventPublisher} are picked up after the surrounding
+ * transaction commits (or immediately when there is none), queued, and handed to the registered
+ * {@link DomainEventHandler}s in micro-batches by a small pool of workers. When the queue stays
+ * full for longer than {@code lms.events.offer-timeout-ms} the publishing thread runs the handlers
+ * itself, which slows producers down instead of dropping events. Handlers run there as they would
+ * on a worker: the publisher's workload is unbound first, so a handler declaring its own
+ * {@link com.lms.config.UseWorkload} still gets its connections from that pool.
+ */
+@Slf4j
+@Component
+public class DomainEventDispatcher implements SmartLifecycle {
+
+    private final List<DomainEventHandler<?>> handlers;
+    private final BlockingQueue<DomainEvent> queue;
+    private final int batchSize;
+    private final int workers;
+    private final long pollTimeoutMs;
+    private final long offerTimeoutMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    private final Counter processed;
+    private final Counter failed;
+    private final Counter callerRuns;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public DomainEventDispatcher(List<DomainEventHandler<?>> handlers,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${lms.events.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${lms.events.batch-size:100}") int batchSize,
+                                 @Value("${lms.events.workers:1}") int workers,
+                                 @Value("${lms.events.poll-timeout-ms:200}") long pollTimeoutMs,
+                                 @Value("${lms.events.offer-timeout-ms:100}") long offerTimeoutMs,
+                                 @Value("${lms.events.max-attempts:3}") int maxAttempts,
+                                 @Value("${lms.events.retry-backoff-ms:200}") long retryBackoffMs) {
+        this.handlers = handlers;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+
+        meterRegistry.gaugeCollectionSize("lms.events.queue.size", List.of(), queue);
+        this.processed = meterRegistry.counter("lms.events.processed");
+        this.failed = meterRegistry.counter("lms.events.failed");
+        this.callerRuns = meterRegistry.counter("lms.events.caller.runs");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        if (!running) {
+            dispatchOnCaller(event);
+            return;
+        }
+
+        boolean queued;
+        try {
+            queued = queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if (!queued) {
+            // Backpressure: the caller pays for the work instead of losing the event
+            callerRuns.increment();
+            dispatchOnCaller(event);
+        }
+    }
+
+    // The publisher's transaction has already committed, so handlers never share its connection
+    private void dispatchOnCaller(DomainEvent event) {
+        WorkloadContext.detached(() -> dispatch(List.of(event)));
+    }
+
+    // ---------------------------
+    // WORKERS
+    // ---------------------------
+    private void drainLoop() {
+        List<DomainEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                DomainEvent first = queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in domain event worker", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<DomainEvent> batch) {
+        for (DomainEventHandler<?> handler : handlers) {
+            deliver(handler, batch);
+        }
+        processed.increment(batch.size());
+    }
+
+    private <E extends DomainEvent> void deliver(DomainEventHandler<E> handler, List<DomainEvent> batch) {
+        List<E> matching = batch.stream()
+                .filter(handler.eventType()::isInstance)
+                .map(handler.eventType()::cast)
+                .collect(Collectors.toList());
+        if (matching.isEmpty()) {
+            return;
+        }
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                handler.handle(matching);
+                return;
+            } catch (Exception e) {
+                if (attempt == maxAttempts) {
+                    failed.increment(matching.size());
+                    log.error("{} gave up on {} event(s) after {} attempts: {}",
+                            handler.getClass().getSimpleName(), matching.size(), attempt,
+                            matching.stream().map(DomainEvent::eventId).collect(Collectors.toList()), e);
+                    return;
+                }
+                log.warn("{} failed (attempt {}/{}): {}", handler.getClass().getSimpleName(), attempt,
+                        maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "domain-events-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drainLoop);
+        }
+        log.info("Domain event dispatcher started with {} worker(s) and {} handler(s)", workers, handlers.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Domain event dispatcher stopped with {} event(s) still queued", queue.size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,16 @@
+package com.lms.event;
+
+import java.util.List;
+
+/**
+ * Processes one type of {@link DomainEvent} in micro-batches.
+ *
+ * A batch may be delivered more than once (failed batches are retried), so implementations
+ * must be idempotent: recompute derived state rather than applying deltas.
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+
+    Class<E> eventType();
+
+    void handle(List<E> events);
+}
@@ -0,0 +1,15 @@
+package com.lms.event;
+
+/**
+ * Enrollment membership changed for a course.
+ */
+public sealed interface EnrollmentEvent extends DomainEvent permits EnrollmentCreated, EnrollmentRemoved {
+
+    Long enrollmentId();
+
+    Long courseId();
+
+    Long studentId();
+
+    Long instructorId();
+}
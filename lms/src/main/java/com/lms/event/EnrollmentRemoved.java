@@ -0,0 +1,13 @@
+package com.lms.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record EnrollmentRemoved(UUID eventId, Instant occurredAt,
+                                Long enrollmentId, Long courseId, Long studentId, Long instructorId)
+        implements EnrollmentEvent {
+
+    public static EnrollmentRemoved of(Long enrollmentId, Long courseId, Long studentId, Long instructorId) {
+        return new EnrollmentRemoved(UUID.randomUUID(), Instant.now(), enrollmentId, courseId, studentId, instructorId);
+    }
+}
@@ -0,0 +1,15 @@
+package com.lms.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record SubmissionGraded(UUID eventId, Instant occurredAt,
+                               Long submissionId, Long assignmentId, Long courseId, Long studentId, Integer grade)
+        implements DomainEvent {
+
+    public static SubmissionGraded of(Long submissionId, Long assignmentId, Long courseId, Long studentId,
+                                      Integer grade) {
+        return new SubmissionGraded(UUID.randomUUID(), Instant.now(), submissionId, assignmentId, courseId,
+                studentId, grade);
+    }
+}
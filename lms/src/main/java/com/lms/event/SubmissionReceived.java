@@ -0,0 +1,16 @@
+package com.lms.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record SubmissionReceived(UUID eventId, Instant occurredAt,
+                                 Long submissionId, Long assignmentId, Long courseId, Long studentId,
+                                 boolean resubmission)
+        implements DomainEvent {
+
+    public static SubmissionReceived of(Long submissionId, Long assignmentId, Long courseId, Long studentId,
+                                        boolean resubmission) {
+        return new SubmissionReceived(UUID.randomUUID(), Instant.now(), submissionId, assignmentId, courseId,
+                studentId, resubmission);
+    }
+}
@@ -0,0 +1,43 @@
+package com.lms.event;
+
+import com.lms.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts cached teacher dashboards affected by enrollment and course changes. Runs after
+ * {@link CourseStudentCountHandler} so a recomputed dashboard sees the new counts.
+ */
+@Component
+@Order(100)
+@RequiredArgsConstructor
+public class TeacherDashboardInvalidationHandler implements DomainEventHandler<DomainEvent> {
+
+    private final DashboardService dashboardService;
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<Long> teacherIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof CourseUpdated) {
+                // Instructor may have changed hands; course edits are rare, so drop everything
+                dashboardService.evictAllTeacherDashboards();
+                return;
+            }
+            if (event instanceof EnrollmentEvent enrollment && enrollment.instructorId() != null) {
+                teacherIds.add(enrollment.instructorId());
+            }
+        }
+        teacherIds.forEach(dashboardService::evictTeacherDashboard);
+    }
+}
@@ -0,0 +1,79 @@
+package com.lms.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV with a header row taken from the record components.
+ */
+class CsvRowWriter<T extends Record> implements RowWriter<T> {
+
+    private final Writer writer;
+    private final Method[] accessors;
+
+    CsvRowWriter(Class<T> rowType, OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+
+        RecordComponent[] components = rowType.getRecordComponents();
+        this.accessors = new Method[components.length];
+        for (int i = 0; i < components.length; i++) {
+            accessors[i] = components[i].getAccessor();
+            writer.write(i == 0 ? "" : ",");
+            writer.write(components[i].getName());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(T row) throws IOException {
+        for (int i = 0; i < accessors.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value;
+            try {
+                value = accessors[i].invoke(row);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read export column " + accessors[i].getName(), e);
+            }
+            if (value != null) {
+                writeField(value.toString(), value instanceof CharSequence);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value, boolean text) throws IOException {
+        // Neutralise spreadsheet formulas in user-supplied text (CSV injection)
+        if (text && !value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Flush only: the response stream belongs to the container
+        writer.flush();
+    }
+}
@@ -0,0 +1,76 @@
+package com.lms.export;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps concurrent streaming exports. Each export holds a bulk-pool connection for as long as the
+ * client reads, so at most {@code lms.export.max-concurrent} run at once, and always at least one
+ * fewer than the bulk pool has connections: the batch jobs sharing that pool (auto-submission,
+ * garbage collection, packing, event handlers) keep a connection however many exports are asked
+ * for. Exports beyond the cap are turned away rather than queued.
+ *
+ * An admitted export may stream for up to {@code lms.export.timeout}; other async requests keep
+ * the default {@code spring.mvc.async.request-timeout}.
+ */
+@Slf4j
+@Component
+public class ExportAdmission {
+
+    private final Semaphore slots;
+    private final Duration timeout;
+    private final Duration retryAfter;
+
+    public ExportAdmission(@Value("${lms.export.max-concurrent:2}") int maxConcurrent,
+                           @Value("${lms.datasource.pools.bulk.maximum-pool-size:3}") int bulkPoolSize,
+                           @Value("${lms.export.timeout:30m}") Duration timeout,
+                           @Value("${lms.export.retry-after:60s}") Duration retryAfter) {
+        int limit = Math.max(1, Math.min(maxConcurrent, bulkPoolSize - 1));
+        if (limit != maxConcurrent) {
+            log.warn("lms.export.max-concurrent={} lowered to {} to leave a bulk-pool connection for batch jobs",
+                    maxConcurrent, limit);
+        }
+        this.slots = new Semaphore(limit);
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * A slot for one export, or empty when all are taken.
+     */
+    public Optional<Permit> tryAcquire() {
+        return slots.tryAcquire() ? Optional.of(new Permit()) : Optional.empty();
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * A running export's slot; closing it, once the export ends, frees the slot.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.lms.export;
+
+/**
+ * Query hint values shared by the repository {@code Stream<>} export queries.
+ *
+ * A positive fetch size only streams on MySQL when the connection has {@code useCursorFetch=true}
+ * (set on the bulk pool, which exports run on); without it Connector/J buffers the whole result set
+ * in memory.
+ */
+public final class ExportQueryHints {
+
+    /** Rows per server-side cursor round trip. */
+    public static final String FETCH_SIZE = "1000";
+
+    private ExportQueryHints() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.lms.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes export rows one at a time to an underlying stream. Implementations buffer a bounded
+ * amount of output and never hold on to rows, so memory stays flat however long the export runs.
+ * Closing flushes but leaves the underlying stream open.
+ */
+public interface RowWriter<T> extends Closeable {
+
+    void write(T row) throws IOException;
+
+    void flush() throws IOException;
+}
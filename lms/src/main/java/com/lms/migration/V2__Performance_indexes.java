@@ -0,0 +1,88 @@
+package com.lms.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Creates the {@link IndexPlan} indexes. Written in Java rather than SQL because MySQL has no
+ * {@code CREATE INDEX IF NOT EXISTS} and older databases already carry some of these
+ * (e.g. {@code idx_category}): an index is skipped when an existing one already starts with
+ * the same columns in the same order.
+ */
+@Slf4j
+@Component
+public class V2__Performance_indexes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        for (IndexPlan.IndexDefinition index : IndexPlan.INDEXES) {
+            if (isCovered(connection, index)) {
+                log.info("Index {} skipped: {}({}) is already covered", index.name(), index.table(),
+                        String.join(", ", index.columns()));
+                continue;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(index.createStatement());
+                log.info("Created index {}", index.name());
+            }
+        }
+    }
+
+    private boolean isCovered(Connection connection, IndexPlan.IndexDefinition index) throws SQLException {
+        List<String> wanted = Arrays.stream(index.columns())
+                .map(column -> column.toLowerCase(Locale.ROOT))
+                .toList();
+
+        for (List<String> existing : existingIndexes(connection, index.table()).values()) {
+            if (existing.size() >= wanted.size() && existing.subList(0, wanted.size()).equals(wanted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, List<String>> existingIndexes(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        Map<String, TreeMap<Short, String>> byName = new LinkedHashMap<>();
+
+        // Unquoted identifiers may be stored upper case (H2) or as written (MySQL)
+        for (String candidate : List.of(table, table.toUpperCase(Locale.ROOT))) {
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    candidate, false, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue;
+                    }
+                    byName.computeIfAbsent(indexName, key -> new TreeMap<>())
+                            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+            if (!byName.isEmpty()) {
+                break;
+            }
+        }
+
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        byName.forEach((name, columns) -> result.put(name, new ArrayList<>(columns.values())));
+        return result;
+    }
+}
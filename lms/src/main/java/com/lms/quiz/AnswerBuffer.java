@@ -0,0 +1,389 @@
+package com.lms.quiz;
+
+import com.lms.repository.QuizSessionRepository;
+import com.lms.repository.QuizSessionRepository.OpenSession;
+import com.lms.repository.QuizSessionRepository.SavedAnswers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for answers autosaved during open quiz attempts. Each attempt's answer
+ * sheet is held in memory and saves are merged into it; every {@code lms.quiz.autosave.flush-interval}
+ * the sheets changed since the last flush are written in JDBC batches, so an attempt saved every
+ * few seconds costs one row update per interval however often it saves. Submitting, by the
+ * student or by the deadline timer, takes the sheet straight from memory.
+ *
+ * A save is acknowledged only once it is in the local {@link AnswerJournal} on disk. A flush rolls
+ * the journal to a new segment and drops the old ones once the database has the sheets, so after
+ * a crash the journal holds exactly the saves the database may lack; they are replayed on startup.
+ * The journal is local: a node's unflushed saves are only recovered when that node restarts.
+ * Flushes write on the interactive pool, which exports cannot exhaust, so sealed segments and dirty
+ * sheets do not pile up behind a long export.
+ */
+@Slf4j
+@Component
+public class AnswerBuffer implements SmartLifecycle {
+
+    private final QuizSessionRepository sessionRepository;
+    private final AnswerCodec answerCodec;
+    private final AnswerJournal journal;
+    private final Duration flushInterval;
+    private final Duration idleTimeout;
+    private final int batchSize;
+    private final Counter saves;
+    private final Counter writes;
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    // Saves hold the read lock while journaling and applying; a flush takes the write lock to
+    // roll the journal and snapshot the sheets, so every save lands on one side of the roll
+    private final ReadWriteLock rollLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public AnswerBuffer(QuizSessionRepository sessionRepository,
+                        AnswerCodec answerCodec,
+                        MeterRegistry meterRegistry,
+                        @Value("${lms.quiz.autosave.journal-dir:./data/quiz-journal}") String journalDir,
+                        @Value("${lms.quiz.autosave.flush-interval:5s}") Duration flushInterval,
+                        @Value("${lms.quiz.autosave.idle-timeout:2h}") Duration idleTimeout,
+                        @Value("${lms.quiz.autosave.batch-size:500}") int batchSize) throws IOException {
+        this.sessionRepository = sessionRepository;
+        this.answerCodec = answerCodec;
+        this.journal = new AnswerJournal(Path.of(journalDir));
+        this.flushInterval = flushInterval;
+        this.idleTimeout = idleTimeout;
+        this.batchSize = batchSize;
+
+        this.saves = meterRegistry.counter("lms.quiz.autosave.saves");
+        this.writes = meterRegistry.counter("lms.quiz.autosave.writes");
+        meterRegistry.gauge("lms.quiz.autosave.sessions", sessions, Map::size);
+    }
+
+    /**
+     * An open attempt as the buffer knows it. The sheet is guarded by the session's monitor.
+     */
+    public static final class Session {
+        private final long attemptId;
+        private final long quizId;
+        private final long studentId;
+        private final LocalDateTime deadline;
+        private final Long variantSeed;
+        private final Map<Long, String> answers;
+        private boolean dirty;
+        private boolean closed;
+        private long touchedAt = System.currentTimeMillis();
+
+        private Session(long attemptId, long quizId, long studentId, LocalDateTime deadline, Long variantSeed,
+                        Map<Long, String> answers) {
+            this.attemptId = attemptId;
+            this.quizId = quizId;
+            this.studentId = studentId;
+            this.deadline = deadline;
+            this.variantSeed = variantSeed;
+            this.answers = new LinkedHashMap<>(answers);
+        }
+
+        public long attemptId() {
+            return attemptId;
+        }
+
+        public long quizId() {
+            return quizId;
+        }
+
+        public long studentId() {
+            return studentId;
+        }
+
+        public LocalDateTime deadline() {
+            return deadline;
+        }
+
+        public Long variantSeed() {
+            return variantSeed;
+        }
+    }
+
+    /**
+     * Registers a newly started attempt, so its saves need no database read.
+     */
+    public void open(long attemptId, long quizId, long studentId, LocalDateTime deadline, Long variantSeed) {
+        sessions.putIfAbsent(attemptId, new Session(attemptId, quizId, studentId, deadline, variantSeed, Map.of()));
+    }
+
+    /**
+     * Returns the open attempt, reading it from the database the first time it is seen, or null
+     * when there is no open attempt with this id.
+     */
+    public Session session(long attemptId) {
+        Session session = sessions.get(attemptId);
+        if (session != null) {
+            return session;
+        }
+        return sessionRepository.findOpenSession(attemptId)
+                .map(this::load)
+                .map(loaded -> sessions.computeIfAbsent(attemptId, id -> loaded))
+                .orElse(null);
+    }
+
+    /**
+     * Merges the answers into the attempt's sheet and returns once they are durable. Returns the
+     * number of answers now on the sheet.
+     */
+    public int save(Session session, Map<Long, String> answers) {
+        String json = answerCodec.write(answers);
+        Session target = session;
+        while (true) {
+            AnswerJournal.Position position = null;
+            int size = 0;
+            rollLock.readLock().lock();
+            try {
+                synchronized (target) {
+                    if (!target.closed) {
+                        position = journal.append(target.attemptId, json);
+                        target.answers.putAll(answers);
+                        target.dirty = true;
+                        target.touchedAt = System.currentTimeMillis();
+                        size = target.answers.size();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                rollLock.readLock().unlock();
+            }
+
+            if (position != null) {
+                try {
+                    journal.sync(position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                saves.increment();
+                return size;
+            }
+            // Evicted while idle, or submitted: save to the attempt's current session, if it has one
+            target = session(target.attemptId);
+            if (target == null) {
+                throw new IllegalStateException("Attempt " + session.attemptId + " is no longer open");
+            }
+        }
+    }
+
+    /**
+     * The attempt's current sheet, or null if the buffer does not hold the attempt.
+     */
+    public Map<Long, String> answers(long attemptId) {
+        Session session = sessions.get(attemptId);
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            return new LinkedHashMap<>(session.answers);
+        }
+    }
+
+    /**
+     * Forgets a submitted attempt; its sheet went out with the submission.
+     */
+    public void complete(long attemptId) {
+        Session session = sessions.remove(attemptId);
+        if (session != null) {
+            synchronized (session) {
+                session.closed = true;
+                session.dirty = false;
+            }
+        }
+    }
+
+    /**
+     * Writes every sheet changed since the last flush, then drops the journal segments they
+     * came from. Returns the number of attempts written.
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            int sealed;
+            List<SavedAnswers> changed;
+            rollLock.writeLock().lock();
+            try {
+                sealed = journal.roll();
+                changed = snapshot(sessions.values());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                rollLock.writeLock().unlock();
+            }
+
+            write(changed);
+            try {
+                journal.deleteThrough(sealed);
+            } catch (IOException e) {
+                log.warn("Could not delete flushed answer journal segments: {}", e.getMessage());
+            }
+            evictIdle();
+            return changed.size();
+        }
+    }
+
+    /**
+     * Writes the given attempts' sheets now, if they changed, ahead of scoring them from the
+     * database. Their journal records are dropped with the next full flush.
+     */
+    public void flush(Collection<Long> attemptIds) {
+        synchronized (flushLock) {
+            List<Session> selected = new ArrayList<>(attemptIds.size());
+            for (Long attemptId : attemptIds) {
+                Session session = sessions.get(attemptId);
+                if (session != null) {
+                    selected.add(session);
+                }
+            }
+            write(snapshot(selected));
+        }
+    }
+
+    private List<SavedAnswers> snapshot(Collection<Session> candidates) {
+        List<SavedAnswers> changed = new ArrayList<>();
+        for (Session session : candidates) {
+            synchronized (session) {
+                if (session.dirty) {
+                    changed.add(new SavedAnswers(session.attemptId, answerCodec.write(session.answers)));
+                    session.dirty = false;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void write(List<SavedAnswers> changed) {
+        int from = 0;
+        try {
+            for (; from < changed.size(); from += batchSize) {
+                sessionRepository.saveAnswers(changed.subList(from, Math.min(changed.size(), from + batchSize)));
+            }
+            writes.increment(changed.size());
+        } catch (RuntimeException e) {
+            // Written again by the next flush; the journal keeps them meanwhile
+            for (SavedAnswers unsaved : changed.subList(from, changed.size())) {
+                Session session = sessions.get(unsaved.attemptId());
+                if (session != null) {
+                    synchronized (session) {
+                        session.dirty = !session.closed;
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleTimeout.toMillis();
+        sessions.values().removeIf(session -> {
+            synchronized (session) {
+                session.closed = !session.dirty && session.touchedAt < idleSince;
+                return session.closed;
+            }
+        });
+    }
+
+    private Session load(OpenSession open) {
+        return new Session(open.attemptId(), open.quizId(), open.studentId(), open.deadline(), open.variantSeed(),
+                answerCodec.read(open.attemptId(), open.answers()));
+    }
+
+    private void recover() throws IOException {
+        Map<Long, Map<Long, String>> replayed = new LinkedHashMap<>();
+        int records = journal.replay((attemptId, answers) -> replayed
+                .computeIfAbsent(attemptId, id -> new LinkedHashMap<>())
+                .putAll(answerCodec.read(attemptId, answers)));
+        journal.open();
+        if (records == 0) {
+            return;
+        }
+        int restored = 0;
+        for (Map.Entry<Long, Map<Long, String>> entry : replayed.entrySet()) {
+            // Attempts submitted since their last save need nothing
+            Session session = session(entry.getKey());
+            if (session != null) {
+                synchronized (session) {
+                    session.answers.putAll(entry.getValue());
+                    session.dirty = true;
+                }
+                restored++;
+            }
+        }
+        flush();
+        log.info("Replayed {} journaled answer saves into {} open quiz attempts", records, restored);
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay the quiz answer journal", e);
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quiz-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.warn("Flushing autosaved quiz answers failed: {}", e.getMessage());
+            }
+        }, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+        try {
+            flush();
+            journal.close();
+        } catch (Exception e) {
+            log.warn("Final flush of autosaved quiz answers failed, the journal keeps them: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the web server starts taking saves, and after it stops
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,48 @@
+package com.lms.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Reads and writes the answers column of quiz attempts: a JSON object of question id to the
+ * normalized answer (see {@link AnswerKey#normalize}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerCodec {
+
+    private static final TypeReference<Map<Long, String>> ANSWERS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public String write(Map<Long, String> answers) {
+        try {
+            return objectMapper.writeValueAsString(answers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store answers", e);
+        }
+    }
+
+    /**
+     * Returns the answers, or none when the column is empty or unreadable.
+     */
+    public Map<Long, String> read(long attemptId, String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, ANSWERS);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable answers on quiz attempt {}, scored as blank", attemptId);
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.lms.quiz;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of autosaved answers, as numbered segment files
+ * {@code journal-NNNNNN.log} of records
+ * <pre>
+ *   int length | int crc32c | long attemptId | length bytes of JSON answers
+ * </pre>
+ * where the checksum covers the attempt id and the answers. A record is durable once
+ * {@link #sync} returns for its position. Concurrent syncs share one {@code force}: whoever gets
+ * the lock forces everything appended so far, and the others find their record already covered.
+ *
+ * The writer rolls to a new segment each time the buffered answers are flushed to the database,
+ * and deletes the sealed segments once the flush succeeds. Replay reads the segments left behind
+ * by a crash, stopping at a segment's first torn or corrupt record.
+ */
+@Slf4j
+final class AnswerJournal implements Closeable {
+
+    private static final Pattern SEGMENT = Pattern.compile("journal-(\\d{6})\\.log");
+    private static final int HEADER_SIZE = 16;
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long attemptId, String answers);
+    }
+
+    record Position(Segment segment, long end) {
+    }
+
+    private final Path directory;
+    private Segment current;
+
+    AnswerJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Hands every intact record of the existing segments to the consumer, oldest first. Call
+     * before {@link #open}.
+     */
+    int replay(RecordConsumer consumer) throws IOException {
+        int records = 0;
+        for (Path path : segments()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                long position = 0;
+                long size = channel.size();
+                while (position + HEADER_SIZE <= size) {
+                    header.clear();
+                    channel.read(header, position);
+                    header.flip();
+                    int length = header.getInt();
+                    int crc = header.getInt();
+                    long attemptId = header.getLong();
+                    if (length < 0 || position + HEADER_SIZE + length > size) {
+                        break;
+                    }
+                    ByteBuffer body = ByteBuffer.allocate(length);
+                    channel.read(body, position + HEADER_SIZE);
+                    CRC32C checksum = new CRC32C();
+                    checksum.update(header.array(), 8, 8);
+                    checksum.update(body.array());
+                    if ((int) checksum.getValue() != crc) {
+                        break;
+                    }
+                    consumer.accept(attemptId, new String(body.array(), StandardCharsets.UTF_8));
+                    records++;
+                    position += HEADER_SIZE + length;
+                }
+                if (position < size) {
+                    log.warn("Ignoring {} bytes of a torn record at the end of {}", size - position, path.getFileName());
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Starts a new segment after the existing ones.
+     */
+    synchronized void open() throws IOException {
+        List<Path> existing = segments();
+        int last = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1));
+        current = new Segment(last + 1, directory.resolve(name(last + 1)));
+    }
+
+    Position append(long attemptId, String answers) throws IOException {
+        byte[] body = answers.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + body.length);
+        record.putInt(body.length).putInt(0).putLong(attemptId).put(body);
+        CRC32C checksum = new CRC32C();
+        checksum.update(record.array(), 8, 8 + body.length);
+        record.putInt(4, (int) checksum.getValue());
+        record.flip();
+        synchronized (this) {
+            Segment segment = current;
+            while (record.hasRemaining()) {
+                segment.channel.write(record);
+            }
+            segment.written += record.limit();
+            return new Position(segment, segment.written);
+        }
+    }
+
+    /**
+     * Returns once the record ending at the position is on disk.
+     */
+    void sync(Position position) throws IOException {
+        position.segment().sync(position.end());
+    }
+
+    /**
+     * Forces and closes the current segment and starts the next. Returns the sealed segment's
+     * number, for {@link #deleteThrough} once its records are in the database.
+     */
+    synchronized int roll() throws IOException {
+        Segment sealed = current;
+        current = new Segment(sealed.number + 1, directory.resolve(name(sealed.number + 1)));
+        sealed.seal();
+        return sealed.number;
+    }
+
+    void deleteThrough(int number) throws IOException {
+        for (Path path : segments()) {
+            if (number(path) <= number) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.seal();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter(path -> SEGMENT.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private static int number(Path segment) {
+        Matcher matcher = SEGMENT.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    private static String name(int number) {
+        return String.format("journal-%06d.log", number);
+    }
+
+    static final class Segment {
+        private final int number;
+        private final FileChannel channel;
+        private final Object syncLock = new Object();
+        // Guarded by the journal: bytes appended
+        private volatile long written;
+        // Guarded by syncLock: bytes known to be on disk
+        private volatile long synced;
+        private boolean sealed;
+
+        private Segment(int number, Path path) throws IOException {
+            this.number = number;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        private void sync(long end) throws IOException {
+            if (synced >= end) {
+                return;
+            }
+            synchronized (syncLock) {
+                if (synced >= end || sealed) {
+                    return;
+                }
+                long target = written;
+                channel.force(false);
+                synced = target;
+            }
+        }
+
+        private void seal() throws IOException {
+            synchronized (syncLock) {
+                if (sealed) {
+                    return;
+                }
+                channel.force(false);
+                synced = written;
+                sealed = true;
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizQuestion;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A published quiz's answer key, compiled once into plain arrays so that scoring an attempt
+ * touches no entities and no database. Immutable and safe to share between threads; a key
+ * correction compiles a new key with the next {@link #version()}.
+ *
+ * Answers are the normalized strings produced by {@link #normalize}: option indices for multiple
+ * choice ("2", or "0,3" when several are selected), "true"/"false", or free text.
+ */
+public final class AnswerKey {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long quizId;
+    private final int version;
+    private final int passPercentage;
+    private final long[] questionIds;
+    private final Item[] items;
+    private final int maxPoints;
+    // Question id to item index, for scoring the questions drawn for one attempt
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private AnswerKey(long quizId, int version, int passPercentage, long[] questionIds, Item[] items) {
+        this.quizId = quizId;
+        this.version = version;
+        this.passPercentage = passPercentage;
+        this.questionIds = questionIds;
+        this.items = items;
+        int total = 0;
+        for (Item item : items) {
+            total += item.points();
+        }
+        this.maxPoints = total;
+        for (int i = 0; i < questionIds.length; i++) {
+            positions.put(questionIds[i], i);
+        }
+    }
+
+    public record Score(int points, int maxPoints, int correct, int total, int percentage, boolean passed) {
+    }
+
+    /**
+     * One scored question of an attempt. {@code selected} has a bit per option chosen: the option
+     * indices of a multiple choice question, or bit 0 for true and bit 1 for false.
+     */
+    @FunctionalInterface
+    public interface ItemConsumer {
+        void accept(long questionId, int points, boolean answered, boolean correct, long selected);
+    }
+
+    /**
+     * Compiles the key from the quiz and its questions, which must be loaded.
+     */
+    public static AnswerKey compile(Quiz quiz) {
+        List<QuizQuestion> questions = quiz.getQuestions();
+        long[] ids = new long[questions.size()];
+        Item[] items = new Item[questions.size()];
+        for (int i = 0; i < items.length; i++) {
+            QuizQuestion question = questions.get(i);
+            ids[i] = question.getId();
+            items[i] = compile(question);
+        }
+        return new AnswerKey(quiz.getId(), quiz.getKeyVersion(), quiz.getPassPercentage(), ids, items);
+    }
+
+    private static Item compile(QuizQuestion question) {
+        int points = question.getPoints() == null ? 1 : question.getPoints();
+        switch (question.getType()) {
+            case MULTIPLE_CHOICE:
+                long mask = 0;
+                List<QuizQuestion.Option> options = question.getOptions();
+                for (int i = 0; i < options.size(); i++) {
+                    if (Boolean.TRUE.equals(options.get(i).getCorrect())) {
+                        mask |= 1L << i;
+                    }
+                }
+                return new Choice(points, mask);
+            case TRUE_FALSE:
+                return new TrueFalse(points, Boolean.parseBoolean(question.getAnswer()));
+            default:
+                Set<String> accepted = new HashSet<>();
+                if (question.getAnswer() != null) {
+                    for (String line : question.getAnswer().split("\n")) {
+                        if (!line.isBlank()) {
+                            accepted.add(normalizeText(line));
+                        }
+                    }
+                }
+                return new ShortAnswer(points, Set.copyOf(accepted));
+        }
+    }
+
+    public Score score(Map<Long, String> answers) {
+        int points = 0;
+        int correct = 0;
+        for (int i = 0; i < items.length; i++) {
+            String answer = answers.get(questionIds[i]);
+            if (answer != null && items[i].accepts(answer)) {
+                points += items[i].points();
+                correct++;
+            }
+        }
+        int percentage = maxPoints == 0 ? 0 : Math.round(points * 100f / maxPoints);
+        return new Score(points, maxPoints, correct, items.length, percentage, percentage >= passPercentage);
+    }
+
+    /**
+     * Scores only the given questions, those drawn for the attempt; null scores them all.
+     * Questions no longer in the key are skipped.
+     */
+    public Score score(Map<Long, String> answers, long[] drawn) {
+        if (drawn == null) {
+            return score(answers);
+        }
+        int points = 0;
+        int max = 0;
+        int correct = 0;
+        int total = 0;
+        for (long questionId : drawn) {
+            Integer index = positions.get(questionId);
+            if (index == null) {
+                continue;
+            }
+            Item item = items[index];
+            max += item.points();
+            total++;
+            String answer = answers.get(questionId);
+            if (answer != null && item.accepts(answer)) {
+                points += item.points();
+                correct++;
+            }
+        }
+        int percentage = max == 0 ? 0 : Math.round(points * 100f / max);
+        return new Score(points, max, correct, total, percentage, percentage >= passPercentage);
+    }
+
+    /**
+     * Hands each of the given questions (all of them for null) to the consumer with the attempt's
+     * outcome on it, as {@link #score(Map, long[])} scores them.
+     */
+    public void items(Map<Long, String> answers, long[] drawn, ItemConsumer consumer) {
+        int count = drawn == null ? items.length : drawn.length;
+        for (int i = 0; i < count; i++) {
+            long questionId = drawn == null ? questionIds[i] : drawn[i];
+            Integer index = drawn == null ? Integer.valueOf(i) : positions.get(questionId);
+            if (index == null) {
+                continue;
+            }
+            Item item = items[index];
+            String answer = answers.get(questionId);
+            boolean answered = answer != null;
+            consumer.accept(questionId, item.points(), answered, answered && item.accepts(answer),
+                    answered ? item.selection(answer) : 0);
+        }
+    }
+
+    /**
+     * The question's correct options, as bits like {@link ItemConsumer}'s selection; 0 for short
+     * answer questions and questions not in the key.
+     */
+    public long correctSelection(long questionId) {
+        Integer index = positions.get(questionId);
+        return index == null ? 0 : items[index].correctSelection();
+    }
+
+    public long quizId() {
+        return quizId;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public int maxPoints() {
+        return maxPoints;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    // ---------------------------
+    // ANSWERS
+    // ---------------------------
+
+    /**
+     * Converts answers as the client sends them (question id to option index, list of indices,
+     * boolean or text) to the stored form. Entries whose key is not a question id are dropped.
+     */
+    public static Map<Long, String> normalize(Map<String, ?> raw) {
+        Map<Long, String> answers = new LinkedHashMap<>();
+        if (raw == null) {
+            return answers;
+        }
+        raw.forEach((key, value) -> {
+            Long questionId;
+            try {
+                questionId = Long.valueOf(key.trim());
+            } catch (NumberFormatException e) {
+                return;
+            }
+            String answer = normalizeValue(value);
+            if (answer != null) {
+                answers.put(questionId, answer);
+            }
+        });
+        return answers;
+    }
+
+    private static String normalizeValue(Object value) {
+        if (value instanceof Number number) {
+            return Long.toString(number.longValue());
+        }
+        if (value instanceof Boolean bool) {
+            return bool.toString();
+        }
+        if (value instanceof Collection<?> values) {
+            StringBuilder joined = new StringBuilder();
+            for (Object element : values) {
+                if (element instanceof Number number) {
+                    if (!joined.isEmpty()) {
+                        joined.append(',');
+                    }
+                    joined.append(number.longValue());
+                }
+            }
+            return joined.isEmpty() ? null : joined.toString();
+        }
+        if (value instanceof String text) {
+            String trimmed = text.trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+        return null;
+    }
+
+    static String normalizeText(String text) {
+        return WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // ---------------------------
+    // ITEMS
+    // ---------------------------
+    private sealed interface Item permits Choice, TrueFalse, ShortAnswer {
+        int points();
+
+        boolean accepts(String answer);
+
+        long selection(String answer);
+
+        long correctSelection();
+    }
+
+    // Correct when exactly the correct options are selected
+    private record Choice(int points, long correctMask) implements Item {
+        @Override
+        public boolean accepts(String answer) {
+            long selected = selection(answer);
+            return selected != 0 && selected == correctMask;
+        }
+
+        // The selected options, or 0 when the answer is malformed
+        @Override
+        public long selection(String answer) {
+            long selected = 0;
+            int start = 0;
+            while (start <= answer.length()) {
+                int end = answer.indexOf(',', start);
+                if (end < 0) {
+                    end = answer.length();
+                }
+                try {
+                    int index = Integer.parseInt(answer, start, end, 10);
+                    if (index < 0 || index >= Long.SIZE) {
+                        return 0;
+                    }
+                    selected |= 1L << index;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+                start = end + 1;
+            }
+            return selected;
+        }
+
+        @Override
+        public long correctSelection() {
+            return correctMask;
+        }
+    }
+
+    private record TrueFalse(int points, boolean correct) implements Item {
+        @Override
+        public boolean accepts(String answer) {
+            return Boolean.toString(correct).equalsIgnoreCase(answer.trim());
+        }
+
+        @Override
+        public long selection(String answer) {
+            String trimmed = answer.trim();
+            return "true".equalsIgnoreCase(trimmed) ? 1 : "false".equalsIgnoreCase(trimmed) ? 2 : 0;
+        }
+
+        @Override
+        public long correctSelection() {
+            return correct ? 1 : 2;
+        }
+    }
+
+    private record ShortAnswer(int points, Set<String> accepted) implements Item {
+        @Override
+        public boolean accepts(String answer) {
+            return accepted.contains(normalizeText(answer));
+        }
+
+        @Override
+        public long selection(String answer) {
+            return 0;
+        }
+
+        @Override
+        public long correctSelection() {
+            return 0;
+        }
+    }
+}
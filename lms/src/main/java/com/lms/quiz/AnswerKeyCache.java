@@ -0,0 +1,60 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled answer keys of published quizzes, by quiz id. A key is compiled when its quiz is
+ * published or its key corrected, and again whenever the quiz row carries a different key version
+ * than the cached one (after a restart, on another node, or after a rolled-back correction).
+ */
+@Component
+@RequiredArgsConstructor
+public class AnswerKeyCache {
+
+    private final QuizRepository quizRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AnswerKey> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the key for the quiz's current version, compiling it from the quiz's questions if
+     * it is not cached. Call within the transaction that loaded the quiz.
+     */
+    public AnswerKey get(Quiz quiz) {
+        AnswerKey key = keys.get(quiz.getId());
+        if (key != null && key.version() == quiz.getKeyVersion()) {
+            return key;
+        }
+        return compile(quiz);
+    }
+
+    /**
+     * Returns the key for the given version, loading the quiz to compile it if it is not cached.
+     * For callers that read the version alongside the attempts they score.
+     */
+    public AnswerKey get(Long quizId, int keyVersion) {
+        AnswerKey key = keys.get(quizId);
+        if (key != null && key.version() == keyVersion) {
+            return key;
+        }
+        return transactionTemplate.execute(status -> compile(quizRepository.findWithQuestionsById(quizId)
+                .orElseThrow(() -> new IllegalStateException("Quiz " + quizId + " not found"))));
+    }
+
+    public AnswerKey compile(Quiz quiz) {
+        AnswerKey key = AnswerKey.compile(quiz);
+        keys.put(quiz.getId(), key);
+        return key;
+    }
+
+    public void evict(Long quizId) {
+        keys.remove(quizId);
+    }
+}
@@ -0,0 +1,217 @@
+package com.lms.quiz;
+
+import com.lms.entity.QuizQuestion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads Moodle GIFT text, question by question. Questions are separated by blank lines; each has
+ * an optional {@code ::title::}, its text and an answer block in braces:
+ * <pre>
+ *   {T} {FALSE}                     true/false
+ *   {=right ~wrong ~wrong}          multiple choice
+ *   {~%50%one ~%50%two ~%-100%no}   multiple choice with several correct options
+ *   {=answer =other answer}         short answer
+ * </pre>
+ * Text after the block (a missing-word question) is kept with a blank in place of the block.
+ * Feedback ({@code #...}) and formatting markers ({@code [html]}) are dropped. Numerical,
+ * matching and essay questions have no equivalent here and are reported as unsupported.
+ */
+final class GiftReader implements QuestionReader {
+
+    private static final Pattern WEIGHT = Pattern.compile("^%(-?\\d+(?:\\.\\d+)?)%");
+    private static final Pattern FORMAT = Pattern.compile("^\\[(html|moodle|plain|markdown)]");
+    // A question this long means the separating blank lines or a closing brace are missing
+    private static final int MAX_ITEM = 1024 * 1024;
+
+    private final BufferedReader reader;
+    private int lineNumber;
+    private int index;
+
+    GiftReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportedQuestion next() throws IOException {
+        StringBuilder item = new StringBuilder();
+        int startLine = 0;
+        int depth = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            String trimmed = line.trim();
+            if (depth == 0 && (trimmed.startsWith("//") || trimmed.startsWith("$CATEGORY:"))) {
+                continue;
+            }
+            if (trimmed.isEmpty()) {
+                if (depth == 0 && !item.isEmpty()) {
+                    break;
+                }
+                if (item.isEmpty()) {
+                    continue;
+                }
+            }
+            if (item.isEmpty()) {
+                startLine = lineNumber;
+            }
+            item.append(line).append('\n');
+            if (item.length() > MAX_ITEM) {
+                throw new IOException("Question at line " + startLine + " runs past " + MAX_ITEM / 1024
+                        + "KB; are questions separated by blank lines?");
+            }
+            depth = braceDepth(line, depth);
+        }
+        if (item.isEmpty()) {
+            return null;
+        }
+        index++;
+        return parse(item.toString(), "Question " + index + " (line " + startLine + ")");
+    }
+
+    private static int braceDepth(String line, int depth) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth = Math.max(0, depth - 1);
+            }
+        }
+        return depth;
+    }
+
+    private static ImportedQuestion parse(String item, String source) {
+        String body = item.trim();
+        if (body.startsWith("::")) {
+            int end = body.indexOf("::", 2);
+            if (end > 0) {
+                body = body.substring(end + 2).trim();
+            }
+        }
+        int open = unescapedIndex(body, '{', 0);
+        int close = open < 0 ? -1 : unescapedIndex(body, '}', open + 1);
+        if (open < 0 || close < 0) {
+            throw new QuestionFormatException(source, "has no answer block; descriptions and essays cannot be imported");
+        }
+        String before = body.substring(0, open).trim();
+        String after = body.substring(close + 1).trim();
+        String text = after.isEmpty() ? before : before + " _____ " + after;
+        text = unescape(stripFormat(text)).trim();
+        String block = body.substring(open + 1, close).trim();
+
+        String upper = block.toUpperCase();
+        if (upper.startsWith("T") || upper.startsWith("F")) {
+            String value = upper.split("#", 2)[0].trim();
+            if (value.equals("T") || value.equals("TRUE") || value.equals("F") || value.equals("FALSE")) {
+                return new ImportedQuestion(source, QuizQuestion.Type.TRUE_FALSE, text, 1, List.of(), List.of(),
+                        Boolean.toString(value.startsWith("T")));
+            }
+        }
+        if (block.isEmpty()) {
+            throw new QuestionFormatException(source, "is an essay question, which cannot be imported");
+        }
+        if (block.startsWith("#")) {
+            throw new QuestionFormatException(source, "is a numerical question, which cannot be imported");
+        }
+
+        List<String> answers = new ArrayList<>();
+        List<Character> markers = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= block.length(); i++) {
+            char c = i < block.length() ? block.charAt(i) : '=';
+            if (c == '\\') {
+                i++;
+                continue;
+            }
+            if (c == '=' || c == '~' || i == block.length()) {
+                if (start >= 0) {
+                    answers.add(block.substring(start, i));
+                }
+                if (i < block.length()) {
+                    markers.add(c);
+                    start = i + 1;
+                }
+            }
+        }
+        if (answers.isEmpty()) {
+            throw new QuestionFormatException(source, "has an answer block that cannot be read");
+        }
+
+        List<String> options = new ArrayList<>(answers.size());
+        List<Integer> correct = new ArrayList<>();
+        boolean wrongAnswers = markers.contains('~');
+        for (int i = 0; i < answers.size(); i++) {
+            String answer = answers.get(i);
+            int feedback = unescapedIndex(answer, '#', 0);
+            if (feedback >= 0) {
+                answer = answer.substring(0, feedback);
+            }
+            answer = answer.trim();
+            if (answer.contains("->")) {
+                throw new QuestionFormatException(source, "is a matching question, which cannot be imported");
+            }
+            boolean right = markers.get(i) == '=';
+            Matcher weight = WEIGHT.matcher(answer);
+            if (weight.find()) {
+                right = Double.parseDouble(weight.group(1)) > 0;
+                answer = answer.substring(weight.end()).trim();
+            }
+            options.add(unescape(stripFormat(answer)).trim());
+            if (right) {
+                correct.add(i);
+            }
+        }
+
+        if (!wrongAnswers) {
+            return new ImportedQuestion(source, QuizQuestion.Type.SHORT_ANSWER, text, 1, List.of(), List.of(),
+                    String.join("\n", options));
+        }
+        return new ImportedQuestion(source, QuizQuestion.Type.MULTIPLE_CHOICE, text, 1, options, correct, null);
+    }
+
+    private static int unescapedIndex(String text, char target, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String stripFormat(String text) {
+        return FORMAT.matcher(text).replaceFirst("");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder plain = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                plain.append(next == 'n' ? '\n' : next);
+            } else {
+                plain.append(c);
+            }
+        }
+        return plain.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.lms.quiz;
+
+import com.lms.entity.QuizQuestion;
+
+import java.util.List;
+
+/**
+ * A question read from an import file, before it is validated and stored. {@code source} locates
+ * it in the file for error reports; {@code answer} is "true"/"false" for true/false questions and
+ * the accepted answers, one per line, for short answer questions.
+ */
+public record ImportedQuestion(String source, QuizQuestion.Type type, String text, int points,
+                               List<String> options, List<Integer> correctOptions, String answer) {
+
+    private static final int MAX_TEXT = 1000;
+
+    /**
+     * Why the question cannot be stored, or null if it can; the same rules as for questions
+     * authored in the application.
+     */
+    public String problem() {
+        if (text == null || text.isBlank()) {
+            return "has no text";
+        }
+        if (points < 0) {
+            return "has negative points";
+        }
+        switch (type) {
+            case MULTIPLE_CHOICE:
+                if (options.size() < 2 || options.size() > Long.SIZE) {
+                    return "needs between 2 and " + Long.SIZE + " options";
+                }
+                if (correctOptions.isEmpty()) {
+                    return "has no correct option";
+                }
+                for (String option : options) {
+                    if (option.isBlank()) {
+                        return "has an empty option";
+                    }
+                    if (option.length() > MAX_TEXT) {
+                        return "has an option longer than " + MAX_TEXT + " characters";
+                    }
+                }
+                return null;
+            case TRUE_FALSE:
+                return answer == null ? "has no correct answer" : null;
+            default:
+                if (answer == null || answer.isBlank()) {
+                    return "has no accepted answer";
+                }
+                return answer.length() > MAX_TEXT ? "has accepted answers longer than " + MAX_TEXT + " characters" : null;
+        }
+    }
+}
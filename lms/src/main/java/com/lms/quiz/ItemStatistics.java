@@ -0,0 +1,391 @@
+package com.lms.quiz;
+
+import com.lms.entity.QuizQuestion;
+import com.lms.repository.QuizStatsRepository;
+import com.lms.repository.QuizStatsRepository.ItemTotals;
+import com.lms.repository.QuizStatsRepository.OptionTotals;
+import com.lms.repository.QuizStatsRepository.QuizTotals;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming item analysis. Every scored attempt adds to running sums per quiz and answer key
+ * version: the count, sum and sum of squares of scores, and per question the attempts, correct
+ * answers, blanks and the sums of the rest score (the attempt's score on its other questions)
+ * overall and among those who got it right, plus selections per option. The sums are kept in
+ * memory and added to the database every {@code lms.quiz.stats.flush-interval}, so an analysis
+ * reads a few rows per question, however many attempts there are, and never the attempts.
+ *
+ * From the sums come each question's difficulty (share correct), its discrimination as the
+ * point-biserial correlation between getting it right and the rest score, and for each option
+ * the share choosing it and their mean rest score. A key correction starts the next version's
+ * sums, filled in by the regrade. Sums not yet flushed are lost if the server crashes.
+ */
+@Slf4j
+@Component
+public class ItemStatistics implements SmartLifecycle {
+
+    private static final String[] TRUE_FALSE = {"True", "False"};
+
+    private final QuizStatsRepository statsRepository;
+    private final Duration flushInterval;
+    private final int batchSize;
+
+    private final Map<Bucket, Tally> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public ItemStatistics(QuizStatsRepository statsRepository,
+                          @Value("${lms.quiz.stats.flush-interval:10s}") Duration flushInterval,
+                          @Value("${lms.quiz.stats.batch-size:500}") int batchSize) {
+        this.statsRepository = statsRepository;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+    }
+
+    public record Analysis(long quizId, int keyVersion, long attempts, Double meanScore, Double scoreStdDev,
+                           List<ItemAnalysis> items) {
+    }
+
+    /**
+     * Difficulty is the share of attempts answering correctly; discrimination is null until both
+     * right and wrong answers, with differing rest scores, have been seen. Scores are percentages.
+     */
+    public record ItemAnalysis(long questionId, String text, String type, long attempts, long correct, long blank,
+                               Double difficulty, Double discrimination, List<OptionAnalysis> options) {
+    }
+
+    public record OptionAnalysis(int index, String text, boolean correct, long selections, Double share,
+                                 Double meanRestScore) {
+    }
+
+    private record Bucket(long quizId, int keyVersion) {
+    }
+
+    /**
+     * Adds a scored attempt: the answers, the questions it was scored on (null for all) and its
+     * score, as returned by the key. Within a transaction it is added once the transaction commits.
+     */
+    public void record(AnswerKey key, Map<Long, String> answers, long[] drawn, AnswerKey.Score score) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(key, answers, drawn, score);
+                }
+            });
+            return;
+        }
+        add(key, answers, drawn, score);
+    }
+
+    private void add(AnswerKey key, Map<Long, String> answers, long[] drawn, AnswerKey.Score score) {
+        Bucket bucket = new Bucket(key.quizId(), key.version());
+        while (true) {
+            Tally tally = pending.computeIfAbsent(bucket, Tally::new);
+            synchronized (tally) {
+                // A flush took it meanwhile: add to the next one
+                if (!tally.sealed) {
+                    tally.add(key, answers, drawn, score);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Analyses the quiz's attempts scored with this key, from the stored sums and those not yet
+     * flushed.
+     */
+    public Analysis analyze(QuestionPool pool, AnswerKey key) {
+        Bucket bucket = new Bucket(key.quizId(), key.version());
+        Tally totals = new Tally(bucket);
+        synchronized (flushLock) {
+            statsRepository.findQuizTotals(bucket.quizId(), bucket.keyVersion()).ifPresent(totals::add);
+            statsRepository.findItemTotals(bucket.quizId(), bucket.keyVersion()).forEach(totals::add);
+            statsRepository.findOptionTotals(bucket.quizId(), bucket.keyVersion()).forEach(totals::add);
+            Tally unflushed = pending.get(bucket);
+            if (unflushed != null) {
+                synchronized (unflushed) {
+                    totals.merge(unflushed);
+                }
+            }
+        }
+
+        List<ItemAnalysis> items = new ArrayList<>(pool.questions().size());
+        for (QuestionPool.Question question : pool.questions()) {
+            items.add(analyze(question, key.correctSelection(question.id()), totals.items.get(question.id())));
+        }
+        Double mean = null;
+        Double stdDev = null;
+        if (totals.attempts > 0) {
+            double m = totals.scoreSum / totals.attempts;
+            mean = 100 * m;
+            stdDev = 100 * Math.sqrt(Math.max(0, totals.scoreSqSum / totals.attempts - m * m));
+        }
+        return new Analysis(bucket.quizId(), bucket.keyVersion(), totals.attempts, mean, stdDev, items);
+    }
+
+    private static ItemAnalysis analyze(QuestionPool.Question question, long correctSelection, ItemTally tally) {
+        List<String> optionTexts = question.type() == QuizQuestion.Type.TRUE_FALSE ? List.of(TRUE_FALSE)
+                : question.options();
+        if (tally == null) {
+            tally = new ItemTally();
+        }
+
+        List<OptionAnalysis> options = new ArrayList<>(optionTexts.size());
+        for (int i = 0; i < optionTexts.size(); i++) {
+            long selections = i < tally.selections.length ? tally.selections[i] : 0;
+            double restSum = i < tally.selectionRestSums.length ? tally.selectionRestSums[i] : 0;
+            options.add(new OptionAnalysis(i, optionTexts.get(i), (correctSelection & (1L << i)) != 0, selections,
+                    tally.attempts == 0 ? null : (double) selections / tally.attempts,
+                    selections == 0 ? null : 100 * restSum / selections));
+        }
+        return new ItemAnalysis(question.id(), question.text(), question.type().name(), tally.attempts,
+                tally.correct, tally.blank, tally.attempts == 0 ? null : (double) tally.correct / tally.attempts,
+                pointBiserial(tally), options);
+    }
+
+    // (M1 - M0) / s * sqrt(p q) over the rest scores, with s their population standard deviation
+    private static Double pointBiserial(ItemTally tally) {
+        long n = tally.attempts;
+        long right = tally.correct;
+        if (n < 2 || right == 0 || right == n) {
+            return null;
+        }
+        double mean = tally.restSum / n;
+        double sd = Math.sqrt(Math.max(0, tally.restSqSum / n - mean * mean));
+        if (sd < 1e-9) {
+            return null;
+        }
+        double p = (double) right / n;
+        double meanRight = tally.restCorrectSum / right;
+        double meanWrong = (tally.restSum - tally.restCorrectSum) / (n - right);
+        return (meanRight - meanWrong) / sd * Math.sqrt(p * (1 - p));
+    }
+
+    /**
+     * Adds the sums gathered since the last flush to the database. Returns the number of quizzes
+     * they covered.
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            List<Tally> sealed = new ArrayList<>();
+            for (Bucket bucket : List.copyOf(pending.keySet())) {
+                Tally tally = pending.remove(bucket);
+                if (tally != null) {
+                    synchronized (tally) {
+                        tally.sealed = true;
+                    }
+                    sealed.add(tally);
+                }
+            }
+            if (sealed.isEmpty()) {
+                return 0;
+            }
+
+            List<QuizTotals> quizzes = new ArrayList<>(sealed.size());
+            List<ItemTotals> items = new ArrayList<>();
+            List<OptionTotals> options = new ArrayList<>();
+            for (Tally tally : sealed) {
+                tally.collect(quizzes, items, options);
+            }
+            try {
+                statsRepository.add(quizzes, items, options, batchSize);
+            } catch (RuntimeException e) {
+                // Rolled back whole: retried with the next flush
+                for (Tally tally : sealed) {
+                    Tally retry = new Tally(tally.bucket);
+                    retry.merge(tally);
+                    pending.merge(tally.bucket, retry, (current, unflushed) -> {
+                        synchronized (current) {
+                            current.merge(unflushed);
+                        }
+                        return current;
+                    });
+                }
+                throw e;
+            }
+            return sealed.size();
+        }
+    }
+
+    // ---------------------------
+    // SUMS
+    // ---------------------------
+
+    // The sums of one quiz and key version; guarded by its monitor
+    private static final class Tally {
+        private final Bucket bucket;
+        private long attempts;
+        private double scoreSum;
+        private double scoreSqSum;
+        private final Map<Long, ItemTally> items = new HashMap<>();
+        private boolean sealed;
+
+        private Tally(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        private void add(AnswerKey key, Map<Long, String> answers, long[] drawn, AnswerKey.Score score) {
+            int maxPoints = score.maxPoints();
+            double fraction = maxPoints == 0 ? 0 : (double) score.points() / maxPoints;
+            attempts++;
+            scoreSum += fraction;
+            scoreSqSum += fraction * fraction;
+            key.items(answers, drawn, (questionId, points, answered, correct, selected) -> {
+                int restMax = maxPoints - points;
+                double rest = restMax <= 0 ? 0 : (double) (score.points() - (correct ? points : 0)) / restMax;
+                items.computeIfAbsent(questionId, id -> new ItemTally()).add(answered, correct, selected, rest);
+            });
+        }
+
+        private void add(QuizTotals totals) {
+            attempts += totals.attempts();
+            scoreSum += totals.scoreSum();
+            scoreSqSum += totals.scoreSqSum();
+        }
+
+        private void add(ItemTotals totals) {
+            ItemTally item = items.computeIfAbsent(totals.questionId(), id -> new ItemTally());
+            item.attempts += totals.attempts();
+            item.correct += totals.correct();
+            item.blank += totals.blank();
+            item.restSum += totals.restSum();
+            item.restSqSum += totals.restSqSum();
+            item.restCorrectSum += totals.restCorrectSum();
+        }
+
+        private void add(OptionTotals totals) {
+            ItemTally item = items.computeIfAbsent(totals.questionId(), id -> new ItemTally());
+            item.addSelections(totals.optionIndex(), totals.selections(), totals.restSum());
+        }
+
+        private void merge(Tally other) {
+            attempts += other.attempts;
+            scoreSum += other.scoreSum;
+            scoreSqSum += other.scoreSqSum;
+            other.items.forEach((questionId, item) -> items.computeIfAbsent(questionId, id -> new ItemTally()).merge(item));
+        }
+
+        private void collect(List<QuizTotals> quizzes, List<ItemTotals> itemTotals, List<OptionTotals> optionTotals) {
+            long quizId = bucket.quizId();
+            int version = bucket.keyVersion();
+            quizzes.add(new QuizTotals(quizId, version, attempts, scoreSum, scoreSqSum));
+            items.forEach((questionId, item) -> {
+                itemTotals.add(new ItemTotals(quizId, version, questionId, item.attempts, item.correct, item.blank,
+                        item.restSum, item.restSqSum, item.restCorrectSum));
+                for (int i = 0; i < item.selections.length; i++) {
+                    if (item.selections[i] > 0) {
+                        optionTotals.add(new OptionTotals(quizId, version, questionId, i, item.selections[i],
+                                item.selectionRestSums[i]));
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class ItemTally {
+        private long attempts;
+        private long correct;
+        private long blank;
+        private double restSum;
+        private double restSqSum;
+        private double restCorrectSum;
+        // Per option index: times selected, and the sum of the selectors' rest scores
+        private long[] selections = new long[0];
+        private double[] selectionRestSums = new double[0];
+
+        private void add(boolean answered, boolean right, long selected, double rest) {
+            attempts++;
+            if (!answered) {
+                blank++;
+            }
+            if (right) {
+                correct++;
+                restCorrectSum += rest;
+            }
+            restSum += rest;
+            restSqSum += rest * rest;
+            for (long bits = selected; bits != 0; bits &= bits - 1) {
+                addSelections(Long.numberOfTrailingZeros(bits), 1, rest);
+            }
+        }
+
+        private void addSelections(int option, long count, double rest) {
+            if (option >= selections.length) {
+                selections = Arrays.copyOf(selections, option + 1);
+                selectionRestSums = Arrays.copyOf(selectionRestSums, option + 1);
+            }
+            selections[option] += count;
+            selectionRestSums[option] += rest;
+        }
+
+        private void merge(ItemTally other) {
+            attempts += other.attempts;
+            correct += other.correct;
+            blank += other.blank;
+            restSum += other.restSum;
+            restSqSum += other.restSqSum;
+            restCorrectSum += other.restCorrectSum;
+            for (int i = 0; i < other.selections.length; i++) {
+                if (other.selections[i] > 0) {
+                    addSelections(i, other.selections[i], other.selectionRestSums[i]);
+                }
+            }
+        }
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quiz-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.warn("Flushing quiz item statistics failed: {}", e.getMessage());
+            }
+        }, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Final flush of quiz item statistics failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,470 @@
+package com.lms.quiz;
+
+import com.lms.entity.QuizQuestion;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads IMS QTI items with a StAX pull parser, one item at a time, so a file of any size is read
+ * in the memory of its largest item. Both QTI 1.2 {@code <item>}s (as exported by Canvas,
+ * Blackboard and Moodle) and QTI 2.x {@code <assessmentItem>}s are read, wherever they sit in
+ * the document. A zip content package is read entry by entry, every XML file but the manifest.
+ *
+ * Choice interactions become multiple choice questions, or true/false ones when their two options
+ * are True and False; text entry interactions become short answer questions. Other interactions
+ * are reported as unsupported. DTDs and external entities are never loaded.
+ */
+final class QtiReader implements QuestionReader {
+
+    private static final Pattern BLOCK_TAGS = Pattern.compile(
+            "</?(p|br|div|li|ul|ol|tr|td|th|table|h[1-6]|blockquote|pre)\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Set<String> BLOCK_ELEMENTS = Set.of("p", "br", "div", "li", "ul", "ol", "tr", "td", "th",
+            "table", "h1", "h2", "h3", "h4", "h5", "h6", "blockquote", "pre", "prompt");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Set<String> UNSUPPORTED_INTERACTIONS = Set.of("orderInteraction", "matchInteraction",
+            "associateInteraction", "gapMatchInteraction", "inlineChoiceInteraction", "hottextInteraction",
+            "hotspotInteraction", "graphicOrderInteraction", "selectPointInteraction", "sliderInteraction",
+            "uploadInteraction", "drawingInteraction", "mediaInteraction", "customInteraction");
+    // Canvas question types with no equivalent here
+    private static final Set<String> UNSUPPORTED_TYPES = Set.of("matching_question", "numerical_question",
+            "calculated_question", "essay_question", "file_upload_question", "fill_in_multiple_blanks_question",
+            "multiple_dropdowns_question", "text_only_question");
+
+    private final XMLInputFactory factory;
+    private final InputStream input;
+    private final ZipInputStream zip;
+    private XMLStreamReader xml;
+    private int index;
+
+    QtiReader(InputStream input) throws IOException {
+        this.factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+        this.input = input.markSupported() ? input : new BufferedInputStream(input);
+        this.input.mark(4);
+        byte[] magic = this.input.readNBytes(2);
+        this.input.reset();
+        boolean zipped = magic.length == 2 && magic[0] == 'P' && magic[1] == 'K';
+        this.zip = zipped ? new ZipInputStream(this.input) : null;
+        if (!zipped) {
+            this.xml = open(this.input);
+        }
+    }
+
+    @Override
+    public ImportedQuestion next() throws IOException {
+        try {
+            while (true) {
+                if (xml == null && !nextEntry()) {
+                    return null;
+                }
+                while (xml.hasNext()) {
+                    if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String name = xml.getLocalName();
+                    if (name.equals("item")) {
+                        return readItem();
+                    }
+                    if (name.equals("assessmentItem")) {
+                        return readAssessmentItem();
+                    }
+                }
+                xml.close();
+                xml = null;
+                if (zip == null) {
+                    return null;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed XML" + (index > 0 ? " after item " + index : "") + ": " + e.getMessage(), e);
+        }
+    }
+
+    private boolean nextEntry() throws IOException, XMLStreamException {
+        if (zip == null) {
+            return false;
+        }
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName().toLowerCase(Locale.ROOT);
+            if (!entry.isDirectory() && name.endsWith(".xml") && !name.endsWith("imsmanifest.xml")) {
+                xml = open(new FilterInputStream(zip) {
+                    @Override
+                    public void close() {
+                        // The entry ends, the package stays open
+                    }
+                });
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private XMLStreamReader open(InputStream stream) throws IOException {
+        try {
+            return factory.createXMLStreamReader(stream);
+        } catch (XMLStreamException e) {
+            throw new IOException("Not an XML file: " + e.getMessage(), e);
+        }
+    }
+
+    // ---------------------------
+    // QTI 1.2
+    // ---------------------------
+    private ImportedQuestion readItem() throws XMLStreamException {
+        String source = source(xml.getAttributeValue(null, "title"), xml.getAttributeValue(null, "ident"));
+        Map<String, String> metadata = new HashMap<>();
+        String fieldLabel = null;
+        StringBuilder stem = new StringBuilder();
+        List<String> labelIdents = new ArrayList<>();
+        List<StringBuilder> labelTexts = new ArrayList<>();
+        String response = null;
+        Set<String> correctValues = new LinkedHashSet<>();
+        List<String> conditionValues = new ArrayList<>();
+        boolean conditionScores = false;
+        int notDepth = 0;
+        // Where character data goes: the stem, the current label, or a value being read
+        boolean inPresentation = false;
+        boolean inLabel = false;
+        boolean inCondition = false;
+        StringBuilder value = null;
+        String valueElement = null;
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = xml.getLocalName();
+                switch (name) {
+                    case "fieldlabel", "fieldentry", "varequal", "setvar" -> {
+                        value = new StringBuilder();
+                        valueElement = name;
+                    }
+                    case "presentation" -> inPresentation = true;
+                    case "response_lid", "response_str", "response_num", "response_xy", "response_grp" -> {
+                        if (response != null) {
+                            throw skip(source, "has more than one response, which cannot be imported", depth);
+                        }
+                        response = name;
+                    }
+                    case "response_label" -> {
+                        inLabel = true;
+                        labelIdents.add(xml.getAttributeValue(null, "ident"));
+                        labelTexts.add(new StringBuilder());
+                    }
+                    case "respcondition" -> {
+                        inCondition = true;
+                        conditionValues.clear();
+                        conditionScores = false;
+                    }
+                    case "not" -> notDepth++;
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                String name = xml.getLocalName();
+                switch (name) {
+                    case "fieldlabel" -> fieldLabel = value.toString().trim();
+                    case "fieldentry" -> {
+                        if (fieldLabel != null) {
+                            metadata.put(fieldLabel, value.toString().trim());
+                        }
+                    }
+                    case "varequal" -> {
+                        if (inCondition && notDepth == 0) {
+                            conditionValues.add(value.toString().trim());
+                        }
+                    }
+                    case "setvar" -> conditionScores |= positive(value.toString());
+                    case "presentation" -> inPresentation = false;
+                    case "response_label" -> inLabel = false;
+                    case "respcondition" -> {
+                        inCondition = false;
+                        if (conditionScores) {
+                            correctValues.addAll(conditionValues);
+                        }
+                    }
+                    case "not" -> notDepth--;
+                    default -> {
+                    }
+                }
+                if (name.equals(valueElement)) {
+                    value = null;
+                    valueElement = null;
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (value != null) {
+                    value.append(xml.getText());
+                } else if (inLabel) {
+                    labelTexts.get(labelTexts.size() - 1).append(xml.getText());
+                } else if (inPresentation) {
+                    stem.append(xml.getText());
+                }
+            }
+        }
+
+        String type = metadata.getOrDefault("question_type", "");
+        if (UNSUPPORTED_TYPES.contains(type)) {
+            throw new QuestionFormatException(source, "has question type " + type + ", which cannot be imported");
+        }
+        int points = points(metadata.get("points_possible"));
+        String text = plain(stem.toString());
+        if ("response_lid".equals(response)) {
+            List<String> options = new ArrayList<>(labelTexts.size());
+            List<Integer> correct = new ArrayList<>();
+            for (int i = 0; i < labelTexts.size(); i++) {
+                options.add(plain(labelTexts.get(i).toString()));
+                if (correctValues.contains(labelIdents.get(i))) {
+                    correct.add(i);
+                }
+            }
+            return choice(source, text, points, options, correct, type.equals("true_false_question"));
+        }
+        if ("response_str".equals(response)) {
+            return new ImportedQuestion(source, QuizQuestion.Type.SHORT_ANSWER, text, points, List.of(), List.of(),
+                    String.join("\n", correctValues));
+        }
+        throw new QuestionFormatException(source, response == null
+                ? "has no response to answer, and cannot be imported"
+                : "has a " + response + ", which cannot be imported");
+    }
+
+    // ---------------------------
+    // QTI 2.x
+    // ---------------------------
+    private ImportedQuestion readAssessmentItem() throws XMLStreamException {
+        String source = source(xml.getAttributeValue(null, "title"), xml.getAttributeValue(null, "identifier"));
+        Map<String, Set<String>> correctResponses = new HashMap<>();
+        String declaration = null;
+        String outcome = null;
+        Double maxScore = null;
+        StringBuilder stem = new StringBuilder();
+        String interaction = null;
+        String responseIdentifier = null;
+        List<String> choiceIdentifiers = new ArrayList<>();
+        List<StringBuilder> choiceTexts = new ArrayList<>();
+        boolean inBody = false;
+        boolean inChoice = false;
+        boolean inCorrect = false;
+        StringBuilder value = null;
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = xml.getLocalName();
+                switch (name) {
+                    case "responseDeclaration" -> declaration = xml.getAttributeValue(null, "identifier");
+                    case "outcomeDeclaration" -> outcome = xml.getAttributeValue(null, "identifier");
+                    case "correctResponse" -> inCorrect = true;
+                    case "value" -> value = new StringBuilder();
+                    case "mapEntry" -> {
+                        if (declaration != null && positive(xml.getAttributeValue(null, "mappedValue"))) {
+                            correctResponses.computeIfAbsent(declaration, id -> new LinkedHashSet<>())
+                                    .add(xml.getAttributeValue(null, "mapKey"));
+                        }
+                    }
+                    case "itemBody" -> inBody = true;
+                    case "choiceInteraction", "textEntryInteraction", "extendedTextInteraction" -> {
+                        if (interaction != null) {
+                            throw skip(source, "has more than one interaction, which cannot be imported", depth);
+                        }
+                        interaction = name;
+                        responseIdentifier = xml.getAttributeValue(null, "responseIdentifier");
+                    }
+                    case "simpleChoice" -> {
+                        inChoice = true;
+                        choiceIdentifiers.add(xml.getAttributeValue(null, "identifier"));
+                        choiceTexts.add(new StringBuilder());
+                    }
+                    case "feedbackInline", "modalFeedback", "rubricBlock" -> {
+                        skipElement();
+                        depth--;
+                    }
+                    default -> {
+                        if (UNSUPPORTED_INTERACTIONS.contains(name)) {
+                            throw skip(source, "has a " + name + ", which cannot be imported", depth);
+                        }
+                        // Block XHTML: keep words on either side apart
+                        separate(name, inChoice ? choiceTexts.get(choiceTexts.size() - 1) : inBody ? stem : null);
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                switch (xml.getLocalName()) {
+                    case "responseDeclaration" -> declaration = null;
+                    case "outcomeDeclaration" -> outcome = null;
+                    case "correctResponse" -> inCorrect = false;
+                    case "value" -> {
+                        if (inCorrect && declaration != null) {
+                            correctResponses.computeIfAbsent(declaration, id -> new LinkedHashSet<>())
+                                    .add(value.toString().trim());
+                        } else if ("MAXSCORE".equals(outcome)) {
+                            maxScore = parse(value.toString());
+                        }
+                        value = null;
+                    }
+                    case "itemBody" -> inBody = false;
+                    case "simpleChoice" -> inChoice = false;
+                    default -> separate(xml.getLocalName(),
+                            inChoice ? choiceTexts.get(choiceTexts.size() - 1) : inBody ? stem : null);
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (value != null) {
+                    value.append(xml.getText());
+                } else if (inChoice) {
+                    choiceTexts.get(choiceTexts.size() - 1).append(xml.getText());
+                } else if (inBody) {
+                    // The stem: body text and the interaction's prompt
+                    stem.append(xml.getText());
+                }
+            }
+        }
+        int points = maxScore == null ? 1 : (int) Math.max(0, Math.round(maxScore));
+        String text = plain(stem.toString());
+        Set<String> correct = correctResponses.getOrDefault(responseIdentifier, Set.of());
+        if ("choiceInteraction".equals(interaction)) {
+            List<String> options = new ArrayList<>(choiceTexts.size());
+            List<Integer> correctOptions = new ArrayList<>();
+            for (int i = 0; i < choiceTexts.size(); i++) {
+                options.add(plain(choiceTexts.get(i).toString()));
+                if (correct.contains(choiceIdentifiers.get(i))) {
+                    correctOptions.add(i);
+                }
+            }
+            return choice(source, text, points, options, correctOptions, false);
+        }
+        if (interaction != null) {
+            return new ImportedQuestion(source, QuizQuestion.Type.SHORT_ANSWER, text, points, List.of(), List.of(),
+                    String.join("\n", correct));
+        }
+        throw new QuestionFormatException(source, "has no interaction to answer, and cannot be imported");
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private static ImportedQuestion choice(String source, String text, int points, List<String> options,
+                                           List<Integer> correct, boolean trueFalse) {
+        Set<String> labels = new HashSet<>();
+        for (String option : options) {
+            labels.add(option.toLowerCase(Locale.ROOT));
+        }
+        if (options.size() == 2 && (trueFalse || labels.equals(Set.of("true", "false"))) && correct.size() == 1) {
+            String answer = options.get(correct.get(0)).toLowerCase(Locale.ROOT);
+            if (answer.equals("true") || answer.equals("false")) {
+                return new ImportedQuestion(source, QuizQuestion.Type.TRUE_FALSE, text, points, List.of(), List.of(),
+                        answer);
+            }
+        }
+        return new ImportedQuestion(source, QuizQuestion.Type.MULTIPLE_CHOICE, text, points, options, correct, null);
+    }
+
+    private String source(String title, String identifier) {
+        index++;
+        String name = title != null && !title.isBlank() ? title : identifier;
+        return "Item " + index + (name == null ? "" : " (" + name.trim() + ")");
+    }
+
+    // Skips the rest of the current item, whose start element is depth levels up, and reports it
+    private QuestionFormatException skip(String source, String message, int depth) throws XMLStreamException {
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return new QuestionFormatException(source, message);
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static void separate(String element, StringBuilder text) {
+        if (BLOCK_ELEMENTS.contains(element) && text != null && !text.isEmpty() && text.charAt(text.length() - 1) != ' ') {
+            text.append(' ');
+        }
+    }
+
+    // mattext is often escaped HTML: drop the tags and the common entities
+    private static String plain(String text) {
+        String stripped = TAGS.matcher(BLOCK_TAGS.matcher(text).replaceAll(" ")).replaceAll("")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&");
+        return WHITESPACE.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    private static boolean positive(String number) {
+        Double parsed = parse(number);
+        return parsed != null && parsed > 0;
+    }
+
+    private static int points(String number) {
+        Double parsed = parse(number);
+        return parsed == null ? 1 : (int) Math.max(0, Math.round(parsed));
+    }
+
+    private static Double parse(String number) {
+        if (number == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(number.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (xml != null) {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            input.close();
+        }
+    }
+}
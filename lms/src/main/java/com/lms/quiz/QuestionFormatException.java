@@ -0,0 +1,11 @@
+package com.lms.quiz;
+
+/**
+ * One question of an import file that cannot be imported; the rest of the file can.
+ */
+public class QuestionFormatException extends RuntimeException {
+
+    public QuestionFormatException(String source, String message) {
+        super(source + " " + message);
+    }
+}
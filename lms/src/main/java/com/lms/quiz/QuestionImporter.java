@@ -0,0 +1,353 @@
+package com.lms.quiz;
+
+import com.lms.repository.QuestionImportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports question files into question banks in the background. The request body is spooled to a
+ * temporary file (at most {@code lms.quiz.import.max-file-size}) and the import is queued; one
+ * worker then streams the file through a {@link QtiReader} or {@link GiftReader}, validates each
+ * question and appends the valid ones to the bank, {@code lms.quiz.import.batch-size} per JDBC
+ * batch. Memory use is one batch and one item, however large the file.
+ *
+ * Questions that cannot be read or stored are counted and, up to {@code lms.quiz.import.max-errors},
+ * reported with their place in the file; the rest of the file is still imported. A file that is
+ * not well formed stops the import, keeping the batches stored before. Progress is polled with
+ * {@link #progress(String)} and kept for {@code lms.quiz.import.retention} after the import ends.
+ */
+@Slf4j
+@Component
+public class QuestionImporter implements SmartLifecycle {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final QuestionImportRepository importRepository;
+    private final long maxFileSize;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxQueued;
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public QuestionImporter(QuestionImportRepository importRepository,
+                            @Value("${lms.quiz.import.max-file-size:200MB}") DataSize maxFileSize,
+                            @Value("${lms.quiz.import.batch-size:500}") int batchSize,
+                            @Value("${lms.quiz.import.max-errors:100}") int maxErrors,
+                            @Value("${lms.quiz.import.max-queued:20}") int maxQueued,
+                            @Value("${lms.quiz.import.retention:1h}") Duration retention) {
+        this.importRepository = importRepository;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = maxErrors;
+        this.maxQueued = maxQueued;
+        this.retention = retention;
+    }
+
+    public enum Format {
+        QTI, GIFT
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * An import as last seen. Percent is of the file's bytes read so far; errors holds the first
+     * rejected questions, of {@code rejected} in all.
+     */
+    public record Progress(String id, long bankId, long userId, Format format, Status status, long bytesRead,
+                           long bytesTotal, int percent, int imported, int rejected, List<String> errors,
+                           String message, Instant startedAt, Instant finishedAt) {
+    }
+
+    /**
+     * Spools the body and queues its import into the bank.
+     */
+    public Progress submit(long bankId, long userId, Format format, InputStream body) {
+        prune();
+        long queued = jobs.values().stream().filter(job -> job.status == Status.QUEUED).count();
+        if (queued >= maxQueued) {
+            throw new RuntimeException("Too many imports are waiting; try again later");
+        }
+
+        Path file = spool(body);
+        Job job;
+        try {
+            job = new Job(UUID.randomUUID().toString(), bankId, userId, format, file, Files.size(file));
+        } catch (IOException e) {
+            delete(file);
+            throw new RuntimeException("Failed to read import file: " + e.getMessage(), e);
+        }
+        if (job.bytesTotal == 0) {
+            delete(file);
+            throw new RuntimeException("Import file is empty");
+        }
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job));
+        log.debug("Queued {} import {} of {} bytes into question bank {}", format, job.id, job.bytesTotal, bankId);
+        return job.snapshot();
+    }
+
+    /**
+     * The import's progress, or null if it is unknown or has expired.
+     */
+    public Progress progress(String id) {
+        Job job = jobs.get(id);
+        return job == null ? null : job.snapshot();
+    }
+
+    private Path spool(InputStream body) {
+        Path file;
+        try {
+            file = Files.createTempFile("bank-import-", ".tmp");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store import file: " + e.getMessage(), e);
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxFileSize) {
+                    throw new RuntimeException("Import file exceeds the maximum size of "
+                            + DataSize.ofBytes(maxFileSize).toMegabytes() + "MB");
+                }
+                out.write(buffer, 0, read);
+            }
+            return file;
+        } catch (IOException e) {
+            delete(file);
+            throw new RuntimeException("Failed to read import file: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+    }
+
+    // ---------------------------
+    // IMPORT
+    // ---------------------------
+    private void run(Job job) {
+        job.start();
+        try (QuestionReader reader = open(job.format, new CountingInputStream(Files.newInputStream(job.file), job))) {
+            int sortOrder = importRepository.nextSortOrder(job.bankId);
+            List<ImportedQuestion> batch = new ArrayList<>(batchSize);
+            while (true) {
+                ImportedQuestion question;
+                try {
+                    question = reader.next();
+                } catch (QuestionFormatException e) {
+                    job.reject(e.getMessage());
+                    continue;
+                }
+                if (question == null) {
+                    break;
+                }
+                String problem = question.problem();
+                if (problem != null) {
+                    job.reject(question.source() + " " + problem);
+                    continue;
+                }
+                batch.add(question);
+                if (batch.size() == batchSize) {
+                    sortOrder += store(job, sortOrder, batch);
+                }
+            }
+            store(job, sortOrder, batch);
+            job.finish(Status.DONE, null);
+        } catch (Exception e) {
+            job.finish(Status.FAILED, e.getMessage());
+            log.warn("Import {} into question bank {} failed: {}", job.id, job.bankId, e.getMessage());
+        } finally {
+            if (job.imported > 0) {
+                importRepository.touch(job.bankId);
+            }
+            delete(job.file);
+        }
+        log.info("Import {} into question bank {}: {} questions imported, {} rejected in {} ms", job.id, job.bankId,
+                job.imported, job.rejected, Duration.between(job.startedAt, job.finishedAt).toMillis());
+    }
+
+    private int store(Job job, int sortOrder, List<ImportedQuestion> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        importRepository.insert(job.bankId, sortOrder, batch);
+        job.imported(size);
+        batch.clear();
+        return size;
+    }
+
+    private static QuestionReader open(Format format, InputStream in) throws IOException {
+        if (format == Format.QTI) {
+            return new QtiReader(in);
+        }
+        return new GiftReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    // Finished imports are forgotten after the retention period
+    private void prune() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * One import. Only the worker changes it; counters are read by whoever polls.
+     */
+    private final class Job {
+        private final String id;
+        private final long bankId;
+        private final long userId;
+        private final Format format;
+        private final Path file;
+        private final long bytesTotal;
+        private final List<String> errors = new ArrayList<>();
+
+        private volatile Status status = Status.QUEUED;
+        private volatile long bytesRead;
+        private volatile int imported;
+        private volatile int rejected;
+        private volatile String message;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private Job(String id, long bankId, long userId, Format format, Path file, long bytesTotal) {
+            this.id = id;
+            this.bankId = bankId;
+            this.userId = userId;
+            this.format = format;
+            this.file = file;
+            this.bytesTotal = bytesTotal;
+        }
+
+        private void start() {
+            startedAt = Instant.now();
+            status = Status.RUNNING;
+        }
+
+        private void imported(int count) {
+            imported += count;
+        }
+
+        private synchronized void reject(String error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+
+        private void finish(Status result, String failure) {
+            message = failure;
+            finishedAt = Instant.now();
+            status = result;
+        }
+
+        private synchronized Progress snapshot() {
+            long read = status == Status.DONE ? bytesTotal : bytesRead;
+            int percent = bytesTotal == 0 ? 0 : (int) (read * 100 / bytesTotal);
+            return new Progress(id, bankId, userId, format, status, read, bytesTotal, percent, imported, rejected,
+                    List.copyOf(errors), message, startedAt, finishedAt);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Job job;
+
+        private CountingInputStream(InputStream in, Job job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                job.bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                job.bytesRead += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            job.bytesRead += skipped;
+            return skipped;
+        }
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "bank-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+        // Queued imports never start: drop their files
+        for (Job job : jobs.values()) {
+            if (job.status == Status.QUEUED) {
+                delete(job.file);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,239 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizQuestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A published quiz's questions as students see them, without the answer key, compiled once so
+ * that starting an attempt reads no questions from the database. The questions cannot change
+ * after publishing (key corrections only touch the key), so a pool stays valid for the quiz's
+ * lifetime.
+ *
+ * Each attempt sees a {@link Variant}: {@code drawCount} questions drawn from the pool and,
+ * if enabled, shuffled and with shuffled options, all derived from the attempt's seed with
+ * {@link java.util.Random}, whose sequence is fixed by its specification. Only the seed is
+ * stored; the variant is regenerated whenever it is needed.
+ */
+public final class QuestionPool {
+
+    public record Question(long id, QuizQuestion.Type type, String text, List<String> options, int points) {
+    }
+
+    private final long quizId;
+    private final List<Question> questions;
+    private final int drawCount;
+    private final boolean shuffleQuestions;
+    private final boolean shuffleOptions;
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private QuestionPool(long quizId, List<Question> questions, int drawCount, boolean shuffleQuestions,
+                         boolean shuffleOptions) {
+        this.quizId = quizId;
+        this.questions = questions;
+        this.drawCount = drawCount;
+        this.shuffleQuestions = shuffleQuestions;
+        this.shuffleOptions = shuffleOptions;
+        for (int i = 0; i < questions.size(); i++) {
+            positions.put(questions.get(i).id(), i);
+        }
+    }
+
+    /**
+     * Compiles the pool from the quiz and its questions, which must be loaded.
+     */
+    public static QuestionPool compile(Quiz quiz) {
+        List<Question> questions = new ArrayList<>(quiz.getQuestions().size());
+        for (QuizQuestion question : quiz.getQuestions()) {
+            questions.add(new Question(question.getId(), question.getType(), question.getText(),
+                    question.getOptions().stream().map(QuizQuestion.Option::getText).toList(),
+                    question.getPoints() == null ? 1 : question.getPoints()));
+        }
+        int drawCount = quiz.getDrawCount() == null ? questions.size()
+                : Math.max(1, Math.min(quiz.getDrawCount(), questions.size()));
+        return new QuestionPool(quiz.getId(), List.copyOf(questions), drawCount,
+                Boolean.TRUE.equals(quiz.getShuffleQuestions()), Boolean.TRUE.equals(quiz.getShuffleOptions()));
+    }
+
+    public long quizId() {
+        return quizId;
+    }
+
+    /**
+     * Whether attempts get a seed: some questions are drawn, or something is shuffled.
+     */
+    public boolean isRandomized() {
+        return drawCount < questions.size() || shuffleQuestions || shuffleOptions;
+    }
+
+    public int drawCount() {
+        return drawCount;
+    }
+
+    // In the quiz's own order, with options as authored
+    public List<Question> questions() {
+        return questions;
+    }
+
+    /**
+     * The variant for the seed; a null seed gives the pool in its own order.
+     */
+    public Variant variant(Long seed) {
+        int[] order = identity(questions.size());
+        int[][] optionOrders = new int[drawCount][];
+        if (seed == null) {
+            for (int i = 0; i < drawCount; i++) {
+                optionOrders[i] = identity(questions.get(i).options().size());
+            }
+            return new Variant(Arrays.copyOf(order, drawCount), optionOrders);
+        }
+
+        Random random = new Random(seed);
+        // A partial Fisher-Yates shuffle draws drawCount questions uniformly
+        for (int i = 0; i < drawCount; i++) {
+            swap(order, i, i + random.nextInt(order.length - i));
+        }
+        int[] drawn = Arrays.copyOf(order, drawCount);
+        if (!shuffleQuestions) {
+            Arrays.sort(drawn);
+        }
+        for (int i = 0; i < drawCount; i++) {
+            int[] options = identity(questions.get(drawn[i]).options().size());
+            if (shuffleOptions) {
+                for (int j = options.length - 1; j > 0; j--) {
+                    swap(options, j, random.nextInt(j + 1));
+                }
+            }
+            optionOrders[i] = options;
+        }
+        return new Variant(drawn, optionOrders);
+    }
+
+    /**
+     * The questions one attempt sees, in order, and the mapping between the option indices it
+     * shows and the pool's. Answers are stored and scored in the pool's indices.
+     */
+    public final class Variant {
+        private final int[] drawn;
+        // Per drawn question: shown option index to pool option index
+        private final int[][] optionOrders;
+
+        private Variant(int[] drawn, int[][] optionOrders) {
+            this.drawn = drawn;
+            this.optionOrders = optionOrders;
+        }
+
+        public List<Question> questions() {
+            List<Question> shown = new ArrayList<>(drawn.length);
+            for (int i = 0; i < drawn.length; i++) {
+                Question question = questions.get(drawn[i]);
+                List<String> options = new ArrayList<>(optionOrders[i].length);
+                for (int pooled : optionOrders[i]) {
+                    options.add(question.options().get(pooled));
+                }
+                shown.add(new Question(question.id(), question.type(), question.text(),
+                        Collections.unmodifiableList(options), question.points()));
+            }
+            return shown;
+        }
+
+        public long[] questionIds() {
+            long[] ids = new long[drawn.length];
+            for (int i = 0; i < drawn.length; i++) {
+                ids[i] = questions.get(drawn[i]).id();
+            }
+            return ids;
+        }
+
+        /**
+         * Converts answers as shown to the pool's option indices, dropping answers to questions
+         * outside the variant.
+         */
+        public Map<Long, String> toPool(Map<Long, String> shown) {
+            return remap(shown, false);
+        }
+
+        /**
+         * Converts stored answers back to the option indices this variant shows.
+         */
+        public Map<Long, String> toShown(Map<Long, String> pooled) {
+            return remap(pooled, true);
+        }
+
+        private Map<Long, String> remap(Map<Long, String> answers, boolean inverse) {
+            Map<Integer, Integer> slots = new HashMap<>();
+            for (int i = 0; i < drawn.length; i++) {
+                slots.put(drawn[i], i);
+            }
+            Map<Long, String> mapped = new LinkedHashMap<>();
+            answers.forEach((questionId, answer) -> {
+                Integer position = positions.get(questionId);
+                Integer slot = position == null ? null : slots.get(position);
+                if (slot == null) {
+                    return;
+                }
+                if (questions.get(position).type() != QuizQuestion.Type.MULTIPLE_CHOICE) {
+                    mapped.put(questionId, answer);
+                    return;
+                }
+                String converted = remapIndices(answer, optionOrders[slot], inverse);
+                if (converted != null) {
+                    mapped.put(questionId, converted);
+                }
+            });
+            return mapped;
+        }
+    }
+
+    private static String remapIndices(String answer, int[] order, boolean inverse) {
+        StringBuilder converted = new StringBuilder();
+        for (String part : answer.split(",")) {
+            int index;
+            try {
+                index = Integer.parseInt(part.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            int mapped = -1;
+            if (!inverse && index >= 0 && index < order.length) {
+                mapped = order[index];
+            } else if (inverse) {
+                for (int shown = 0; shown < order.length; shown++) {
+                    if (order[shown] == index) {
+                        mapped = shown;
+                    }
+                }
+            }
+            if (mapped < 0) {
+                return null;
+            }
+            if (!converted.isEmpty()) {
+                converted.append(',');
+            }
+            converted.append(mapped);
+        }
+        return converted.toString();
+    }
+
+    private static int[] identity(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,64 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled question pools of published quizzes, by quiz id. A published quiz's questions and
+ * randomization settings never change, so a pool is compiled once, at publishing or on first use
+ * after a restart, and every attempt's variant is derived from it in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionPoolCache {
+
+    private final QuizRepository quizRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, QuestionPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the quiz's pool, compiling it from the quiz's questions if it is not cached. Call
+     * within the transaction that loaded the quiz.
+     */
+    public QuestionPool get(Quiz quiz) {
+        QuestionPool pool = pools.get(quiz.getId());
+        return pool != null ? pool : compile(quiz);
+    }
+
+    /**
+     * Returns the quiz's pool, loading the quiz with its questions if it is not cached.
+     */
+    public QuestionPool get(Long quizId) {
+        QuestionPool pool = pools.get(quizId);
+        if (pool != null) {
+            return pool;
+        }
+        return transactionTemplate.execute(status -> compile(quizRepository.findWithQuestionsById(quizId)
+                .orElseThrow(() -> new IllegalStateException("Quiz " + quizId + " not found"))));
+    }
+
+    /**
+     * The questions drawn for an attempt with this seed, for {@link AnswerKey#score(Map, long[])};
+     * null, meaning all of them, when the attempt has no seed.
+     */
+    public long[] drawn(Long quizId, Long seed) {
+        return seed == null ? null : get(quizId).variant(seed).questionIds();
+    }
+
+    public QuestionPool compile(Quiz quiz) {
+        QuestionPool pool = QuestionPool.compile(quiz);
+        pools.put(quiz.getId(), pool);
+        return pool;
+    }
+
+    public void evict(Long quizId) {
+        pools.remove(quizId);
+    }
+}
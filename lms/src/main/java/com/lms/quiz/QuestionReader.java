@@ -0,0 +1,17 @@
+package com.lms.quiz;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the questions of an import file one at a time, holding only the current one in memory.
+ */
+interface QuestionReader extends Closeable {
+
+    /**
+     * The next question, or null at the end of the file. A question the format allows but the
+     * application cannot store is skipped with a {@link QuestionFormatException}; the reader can
+     * carry on after it. Any other exception means the rest of the file cannot be read.
+     */
+    ImportedQuestion next() throws IOException;
+}
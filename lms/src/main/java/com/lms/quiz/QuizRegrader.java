@@ -0,0 +1,145 @@
+package com.lms.quiz;
+
+import com.lms.repository.QuizGradingRepository;
+import com.lms.repository.QuizGradingRepository.Grade;
+import com.lms.repository.QuizGradingRepository.IdRange;
+import com.lms.repository.QuizGradingRepository.SubmittedAnswers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rescores every submitted attempt of a quiz against a compiled {@link AnswerKey}, in parallel.
+ *
+ * The attempts' id span is cut into up to {@code lms.quiz.regrade.parallelism} ranges, each
+ * walked page by page on its own thread: read a page of answers, score it in memory, write the
+ * grades back in one JDBC batch. Nothing but the answers is read, so the work is bound by the
+ * database's batch throughput rather than by scoring. Attempts last scored with an older key
+ * version are added to the new version's {@link ItemStatistics} on the way.
+ */
+@Slf4j
+@Component
+public class QuizRegrader implements SmartLifecycle {
+
+    private final QuizGradingRepository gradingRepository;
+    private final AnswerCodec answerCodec;
+    private final QuestionPoolCache questionPoolCache;
+    private final ItemStatistics itemStatistics;
+    private final int parallelism;
+    private final int pageSize;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public QuizRegrader(QuizGradingRepository gradingRepository,
+                        AnswerCodec answerCodec,
+                        QuestionPoolCache questionPoolCache,
+                        ItemStatistics itemStatistics,
+                        @Value("${lms.quiz.regrade.parallelism:3}") int parallelism,
+                        @Value("${lms.quiz.regrade.page-size:500}") int pageSize) {
+        this.gradingRepository = gradingRepository;
+        this.answerCodec = answerCodec;
+        this.questionPoolCache = questionPoolCache;
+        this.itemStatistics = itemStatistics;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = pageSize;
+    }
+
+    public record Result(long quizId, int keyVersion, int attempts, int updated, int partitions, long millis) {
+    }
+
+    public Result regrade(AnswerKey key) {
+        long started = System.currentTimeMillis();
+        IdRange range = gradingRepository.findSubmittedRange(key.quizId());
+        if (range.count() == 0) {
+            return new Result(key.quizId(), key.version(), 0, 0, 0, 0);
+        }
+
+        int partitions = (int) Math.min(parallelism, (range.count() + pageSize - 1) / pageSize);
+        long span = range.max() - range.min() + 1;
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger updated = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            // Ranges are (after, upTo]: together they cover [min, max] exactly
+            long after = range.min() - 1 + span * i / partitions;
+            long upTo = range.min() - 1 + span * (i + 1) / partitions;
+            tasks.add(CompletableFuture.runAsync(() -> regrade(key, after, upTo, attempts, updated), executor));
+        }
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Regrading quiz " + key.quizId() + " failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+
+        Result result = new Result(key.quizId(), key.version(), attempts.get(), updated.get(), partitions,
+                System.currentTimeMillis() - started);
+        log.info("Regraded quiz {} with key version {}: {} attempts ({} updated) on {} threads in {} ms",
+                result.quizId(), result.keyVersion(), result.attempts(), result.updated(), result.partitions(),
+                result.millis());
+        return result;
+    }
+
+    private void regrade(AnswerKey key, long after, long upTo, AtomicInteger attempts, AtomicInteger updated) {
+        List<SubmittedAnswers> page;
+        do {
+            page = gradingRepository.findSubmittedPage(key.quizId(), after, upTo, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Grade> grades = new ArrayList<>(page.size());
+            List<Runnable> recordings = new ArrayList<>(page.size());
+            for (SubmittedAnswers row : page) {
+                Map<Long, String> answers = answerCodec.read(row.id(), row.answers());
+                long[] drawn = questionPoolCache.drawn(key.quizId(), row.variantSeed());
+                AnswerKey.Score score = key.score(answers, drawn);
+                grades.add(new Grade(row.id(), score.points(), score.maxPoints(), score.correct(), score.total(),
+                        score.passed()));
+                // Attempts already scored with this version are in its item statistics
+                if (row.keyVersion() == null || row.keyVersion() < key.version()) {
+                    recordings.add(() -> itemStatistics.record(key, answers, drawn, score));
+                }
+            }
+            updated.addAndGet(gradingRepository.updateGrades(grades, key.version()));
+            recordings.forEach(Runnable::run);
+            attempts.addAndGet(page.size());
+            after = page.get(page.size() - 1).id();
+        } while (page.size() == pageSize);
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "quiz-regrade-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
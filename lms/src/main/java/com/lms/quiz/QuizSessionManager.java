@@ -0,0 +1,244 @@
+package com.lms.quiz;
+
+import com.lms.repository.QuizSessionRepository;
+import com.lms.repository.QuizSessionRepository.AutoSubmission;
+import com.lms.repository.QuizSessionRepository.Deadline;
+import com.lms.repository.QuizSessionRepository.OpenAttempt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the deadlines of timed quiz attempts. Every open timed attempt has one entry in a
+ * {@link TimingWheel}, not a scheduled task of its own; a single thread advances the wheel every
+ * {@code lms.quiz.session.tick} and submits the attempts whose deadline, plus
+ * {@code lms.quiz.session.grace} for answers still in flight, has passed. They are scored
+ * with their autosaved answers against the compiled answer key, {@code lms.quiz.session.batch-size}
+ * at a time.
+ *
+ * An attempt submitted by its student is simply forgotten; the wheel entry left behind is
+ * ignored when it comes due. On startup the deadlines of all open attempts are read back, and
+ * those that passed while the server was down are submitted on the first tick.
+ */
+@Slf4j
+@Component
+public class QuizSessionManager implements SmartLifecycle {
+
+    private static final int RECOVERY_PAGE = 1000;
+
+    private final QuizSessionRepository sessionRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final QuestionPoolCache questionPoolCache;
+    private final AnswerCodec answerCodec;
+    private final AnswerBuffer answerBuffer;
+    private final ItemStatistics itemStatistics;
+    private final Duration tick;
+    private final Duration grace;
+    private final int batchSize;
+    private final Counter autoSubmitted;
+
+    // Open timed attempts: id to the expiry their wheel entry was added with
+    private final Map<Long, Long> expiries = new ConcurrentHashMap<>();
+    // Attempts due for submission, kept until their batch succeeds
+    private final List<Long> due = new ArrayList<>();
+
+    private final TimingWheel wheel;
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public QuizSessionManager(QuizSessionRepository sessionRepository,
+                              AnswerKeyCache answerKeyCache,
+                              QuestionPoolCache questionPoolCache,
+                              AnswerCodec answerCodec,
+                              AnswerBuffer answerBuffer,
+                              ItemStatistics itemStatistics,
+                              MeterRegistry meterRegistry,
+                              @Value("${lms.quiz.session.tick:1s}") Duration tick,
+                              @Value("${lms.quiz.session.wheel-size:64}") int wheelSize,
+                              @Value("${lms.quiz.session.grace:10s}") Duration grace,
+                              @Value("${lms.quiz.session.batch-size:200}") int batchSize) {
+        this.sessionRepository = sessionRepository;
+        this.answerKeyCache = answerKeyCache;
+        this.questionPoolCache = questionPoolCache;
+        this.answerCodec = answerCodec;
+        this.answerBuffer = answerBuffer;
+        this.itemStatistics = itemStatistics;
+        this.tick = tick;
+        this.wheel = new TimingWheel(tick.toMillis(), wheelSize, System.currentTimeMillis());
+        this.grace = grace;
+        this.batchSize = batchSize;
+
+        this.autoSubmitted = meterRegistry.counter("lms.quiz.sessions.auto.submitted");
+        meterRegistry.gauge("lms.quiz.sessions.open", expiries, Map::size);
+    }
+
+    /**
+     * Whether an answer sheet for an attempt with this deadline is still accepted at {@code now}.
+     */
+    public boolean isOpen(LocalDateTime deadline, LocalDateTime now) {
+        return deadline == null || !now.isAfter(deadline.plus(grace));
+    }
+
+    /**
+     * Starts enforcing the attempt's deadline.
+     */
+    public void track(long attemptId, LocalDateTime deadline) {
+        long expiry = toMillis(deadline.plus(grace));
+        expiries.put(attemptId, expiry);
+        if (!wheel.add(attemptId, expiry)) {
+            synchronized (due) {
+                due.add(attemptId);
+            }
+        }
+    }
+
+    /**
+     * Stops enforcing the attempt's deadline, once its student has submitted it.
+     */
+    public void release(long attemptId) {
+        expiries.remove(attemptId);
+    }
+
+    public int openSessions() {
+        return expiries.size();
+    }
+
+    /**
+     * Advances the wheel to now and submits every attempt that came due. Returns how many were
+     * submitted.
+     */
+    int tick() {
+        List<Long> batch;
+        synchronized (due) {
+            wheel.advance(System.currentTimeMillis(), (attemptId, expiry) -> {
+                // Submitted by the student, or re-tracked with a later deadline, since it was added
+                if (expiries.remove(attemptId, expiry)) {
+                    due.add(attemptId);
+                }
+            });
+            if (due.isEmpty()) {
+                return 0;
+            }
+            batch = new ArrayList<>(due);
+            due.clear();
+        }
+
+        int submitted = 0;
+        int from = 0;
+        try {
+            for (; from < batch.size(); from += batchSize) {
+                submitted += submit(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+            }
+        } catch (RuntimeException e) {
+            // Keep the rest for the next tick
+            synchronized (due) {
+                due.addAll(batch.subList(from, batch.size()));
+            }
+            throw e;
+        } finally {
+            autoSubmitted.increment(submitted);
+        }
+        if (submitted > 0) {
+            log.info("Auto-submitted {} quiz attempts past their deadline", submitted);
+        }
+        return submitted;
+    }
+
+    private record Scored(AnswerKey key, Map<Long, String> answers, long[] drawn, AnswerKey.Score score) {
+    }
+
+    private int submit(List<Long> attemptIds) {
+        // Autosaved answers still in the write-behind buffer count
+        answerBuffer.flush(attemptIds);
+        List<AutoSubmission> submissions = new ArrayList<>(attemptIds.size());
+        Map<Long, Scored> scored = new HashMap<>();
+        for (OpenAttempt attempt : sessionRepository.findOpen(attemptIds)) {
+            AnswerKey key = answerKeyCache.get(attempt.quizId(), attempt.keyVersion());
+            Map<Long, String> answers = answerCodec.read(attempt.id(), attempt.answers());
+            long[] drawn = questionPoolCache.drawn(attempt.quizId(), attempt.variantSeed());
+            AnswerKey.Score score = key.score(answers, drawn);
+            LocalDateTime submittedAt = attempt.deadline() != null ? attempt.deadline() : LocalDateTime.now();
+            submissions.add(new AutoSubmission(attempt.id(), submittedAt, score.points(), score.maxPoints(),
+                    score.correct(), score.total(), score.passed(), key.version()));
+            scored.put(attempt.id(), new Scored(key, answers, drawn, score));
+        }
+        List<Long> submitted = submissions.isEmpty() ? List.of() : sessionRepository.submit(submissions);
+        for (Long attemptId : submitted) {
+            Scored attempt = scored.get(attemptId);
+            itemStatistics.record(attempt.key(), attempt.answers(), attempt.drawn(), attempt.score());
+        }
+        for (Long attemptId : attemptIds) {
+            answerBuffer.complete(attemptId);
+        }
+        return submitted.size();
+    }
+
+    private int recover() {
+        int recovered = 0;
+        long after = 0;
+        List<Deadline> page;
+        do {
+            page = sessionRepository.findOpenDeadlines(after, RECOVERY_PAGE);
+            for (Deadline deadline : page) {
+                track(deadline.attemptId(), deadline.deadline());
+                after = deadline.attemptId();
+            }
+            recovered += page.size();
+        } while (page.size() == RECOVERY_PAGE);
+        return recovered;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        int recovered = recover();
+        if (recovered > 0) {
+            log.info("Recovered deadlines of {} open timed quiz attempts", recovered);
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quiz-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                log.warn("Quiz deadline enforcement failed, retrying next tick: {}", e.getMessage());
+            }
+        }, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
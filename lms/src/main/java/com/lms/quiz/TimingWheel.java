@@ -0,0 +1,149 @@
+package com.lms.quiz;
+
+import java.util.Arrays;
+
+/**
+ * A hierarchical timing wheel of (id, deadline) entries, after Varghese and Lauck. Level 0 has
+ * {@code wheelSize} slots of one tick each; every level above has slots {@code wheelSize} times
+ * wider, so four levels of 64 one-second slots span about six months. An entry goes into the
+ * lowest level whose span reaches its deadline, and moves down a level each time the clock
+ * enters its slot, until it expires from level 0.
+ *
+ * Adding an entry and advancing by one tick cost O(1) whatever the number of entries; a
+ * tick only touches the entries that expire or cascade in it. Entries are kept in primitive
+ * arrays per slot, so 20,000 pending deadlines take well under a megabyte. Entries cannot be
+ * removed: callers discard expirations that no longer apply. Thread-safe.
+ */
+public final class TimingWheel {
+
+    private static final int LEVELS = 4;
+
+    @FunctionalInterface
+    public interface ExpiryConsumer {
+        void expired(long id, long deadlineMillis);
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // Slot width of each level, in ticks
+    private final long[] spans = new long[LEVELS];
+    private final Slot[][] slots;
+
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Tick must be positive and the wheel at least 2 slots");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.slots = new Slot[LEVELS][wheelSize];
+        long span = 1;
+        for (int level = 0; level < LEVELS; level++) {
+            spans[level] = span;
+            for (int i = 0; i < wheelSize; i++) {
+                slots[level][i] = new Slot();
+            }
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules the entry. Returns false, without scheduling it, if its deadline falls in the
+     * current tick or earlier: the caller handles it as expired.
+     */
+    public synchronized boolean add(long id, long deadlineMillis) {
+        if (!place(id, deadlineMillis)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward to {@code nowMillis}, handing every entry whose deadline has passed
+     * to the consumer, which must not call back into the wheel. A clock that jumped (after a long
+     * pause) is caught up tick by tick, skipping empty ticks cheaply.
+     */
+    public synchronized void advance(long nowMillis, ExpiryConsumer consumer) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade from the top so entries moved down can still expire in this tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    Slot slot = slots[level][(int) ((currentTick / spans[level]) % wheelSize)];
+                    if (slot.size > 0) {
+                        cascade(slot, consumer);
+                    }
+                }
+            }
+            Slot due = slots[0][(int) (currentTick % wheelSize)];
+            for (int i = 0; i < due.size; i++) {
+                size--;
+                consumer.expired(due.ids[i], due.deadlines[i]);
+            }
+            due.clear();
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(Slot slot, ExpiryConsumer consumer) {
+        long[] ids = Arrays.copyOf(slot.ids, slot.size);
+        long[] deadlines = Arrays.copyOf(slot.deadlines, slot.size);
+        slot.clear();
+        for (int i = 0; i < ids.length; i++) {
+            if (!place(ids[i], deadlines[i])) {
+                size--;
+                consumer.expired(ids[i], deadlines[i]);
+            }
+        }
+    }
+
+    private boolean place(long id, long deadlineMillis) {
+        // Round up: an entry never expires before its deadline
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (tick <= currentTick) {
+            return false;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            long slotIndex = tick / spans[level];
+            if (slotIndex - currentTick / spans[level] < wheelSize || level == LEVELS - 1) {
+                // Past the top level's span the entry parks in its farthest slot and is placed again
+                long bounded = Math.min(slotIndex, currentTick / spans[level] + wheelSize - 1);
+                slots[level][(int) (bounded % wheelSize)].add(id, deadlineMillis);
+                return true;
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static final class Slot {
+        long[] ids = new long[4];
+        long[] deadlines = new long[4];
+        int size;
+
+        void add(long id, long deadline) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            ids[size] = id;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            if (ids.length > 64) {
+                ids = new long[4];
+                deadlines = new long[4];
+            }
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.lms.repository;
 
+import com.lms.dto.Watermark;
 import com.lms.entity.Assignment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     List<Assignment> findByCourseId(Long courseId);
+
+    // Change watermark for conditional GETs; the course contributes courseName, the creator createdByName
+    @Query("SELECT new com.lms.dto.Watermark(COUNT(a), MAX(a.updatedAt), MAX(c.updatedAt), MAX(u.updatedAt)) " +
+            "FROM Assignment a LEFT JOIN a.course c LEFT JOIN a.createdBy u WHERE c.id = :courseId")
+    Watermark findWatermarkByCourseId(@Param("courseId") Long courseId);
 }
@@ -0,0 +1,170 @@
+package com.lms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reference counts of the content-addressed blob store. Counts are changed with single-row
+ * {@code UPDATE}s, so the row lock they take orders concurrent uploads, attaches and reclaims of
+ * the same content until the surrounding transaction ends.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BlobRepository {
+
+    // Attachments that point at blob content, across every attachment-bearing table
+    private static final String REFERENCES =
+            "SELECT attachment_sha256 AS sha256 FROM submissions WHERE attachment_sha256 IS NOT NULL " +
+            "UNION ALL SELECT attachment_sha256 FROM assignments WHERE attachment_sha256 IS NOT NULL " +
+            "UNION ALL SELECT attachment_sha256 FROM notes WHERE attachment_sha256 IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Usage(long count, long bytes) {
+    }
+
+    /**
+     * Records the blob if it is new, otherwise marks it as just used so it is not reclaimed while
+     * the caller attaches it. A known {@code crc32} fills in one that is missing.
+     */
+    public void register(String sha256, long size, String contentType, Long crc32) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO blobs (sha256, size, content_type, crc32, ref_count, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, 0, ?, ?) ON DUPLICATE KEY UPDATE updated_at = ?, crc32 = COALESCE(crc32, ?)",
+                sha256, size, contentType, crc32, now, now, now, crc32);
+    }
+
+    /**
+     * Whether the content is attached to something the user authored, or is one of their unclaimed
+     * uploads: content they are known to hold, and so may attach again without sending it.
+     */
+    public boolean isReferencedBy(String sha256, long userId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT " +
+                "EXISTS (SELECT 1 FROM uploads WHERE sha256 = ? AND user_id = ?) " +
+                "OR EXISTS (SELECT 1 FROM submissions WHERE attachment_sha256 = ? AND student_id = ?) " +
+                "OR EXISTS (SELECT 1 FROM assignments WHERE attachment_sha256 = ? AND created_by = ?) " +
+                "OR EXISTS (SELECT 1 FROM notes WHERE attachment_sha256 = ? AND author_id = ?)",
+                Boolean.class, sha256, userId, sha256, userId, sha256, userId, sha256, userId));
+    }
+
+    public Optional<Long> findSize(String sha256) {
+        return jdbcTemplate.queryForList("SELECT size FROM blobs WHERE sha256 = ?", Long.class, sha256)
+                .stream().findFirst();
+    }
+
+    /** CRC-32 of the given blobs, for those that have one recorded. */
+    public Map<String, Long> findCrc32s(Collection<String> sha256s) {
+        if (sha256s.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> crc32s = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(sha256s.size(), "?"));
+        jdbcTemplate.query("SELECT sha256, crc32 FROM blobs WHERE crc32 IS NOT NULL AND sha256 IN (" + placeholders + ")",
+                rs -> {
+                    crc32s.put(rs.getString(1), rs.getLong(2));
+                }, sha256s.toArray());
+        return crc32s;
+    }
+
+    public boolean retain(String sha256) {
+        return jdbcTemplate.update("UPDATE blobs SET ref_count = ref_count + 1, updated_at = ? WHERE sha256 = ?",
+                LocalDateTime.now(), sha256) == 1;
+    }
+
+    public void release(String sha256) {
+        jdbcTemplate.update("UPDATE blobs SET ref_count = ref_count - 1, updated_at = ? " +
+                "WHERE sha256 = ? AND ref_count > 0", LocalDateTime.now(), sha256);
+    }
+
+    public List<String> findReclaimable(LocalDateTime unusedSince, int limit) {
+        return jdbcTemplate.queryForList("SELECT sha256 FROM blobs WHERE ref_count = 0 AND updated_at < ? " +
+                "ORDER BY updated_at LIMIT ?", String.class, unusedSince, limit);
+    }
+
+    public boolean deleteIfUnreferenced(String sha256, LocalDateTime unusedSince) {
+        return jdbcTemplate.update("DELETE FROM blobs WHERE sha256 = ? AND ref_count = 0 AND updated_at < ?",
+                sha256, unusedSince) == 1;
+    }
+
+    /** The given blobs that have a row. */
+    public Set<String> findRegistered(Collection<String> sha256s) {
+        if (sha256s.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(sha256s.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT sha256 FROM blobs WHERE sha256 IN (" + placeholders + ")",
+                String.class, sha256s.toArray()));
+    }
+
+    /**
+     * Inserts an empty placeholder row for content that has none, so its stored copy can be
+     * deleted under the row lock. Returns false when a row exists, i.e. the content is (again) in
+     * use. The caller deletes the placeholder in the same transaction.
+     */
+    public boolean claimUnregistered(String sha256) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update("INSERT IGNORE INTO blobs (sha256, size, ref_count, created_at, updated_at) " +
+                "VALUES (?, 0, 0, ?, ?)", sha256, now, now) == 1;
+    }
+
+    public void delete(String sha256) {
+        jdbcTemplate.update("DELETE FROM blobs WHERE sha256 = ?", sha256);
+    }
+
+    /**
+     * Locks the blob's row until the transaction ends, ordering the caller after any upload,
+     * attach or reclaim of the same content. Returns false when the blob has no row.
+     */
+    public boolean lock(String sha256) {
+        return !jdbcTemplate.queryForList("SELECT sha256 FROM blobs WHERE sha256 = ? FOR UPDATE",
+                String.class, sha256).isEmpty();
+    }
+
+    /**
+     * Referenced blobs attached to a submission and first stored before {@code createdBefore}, in
+     * key order after {@code after} (null for the first): candidates for the packed cold tier.
+     */
+    public List<String> findPackCandidates(LocalDateTime createdBefore, String after, int limit) {
+        return jdbcTemplate.queryForList("SELECT b.sha256 FROM blobs b WHERE b.created_at < ? AND b.ref_count > 0 " +
+                "AND b.sha256 > ? AND EXISTS (SELECT 1 FROM submissions s WHERE s.attachment_sha256 = b.sha256) " +
+                "ORDER BY b.sha256 LIMIT ?", String.class, createdBefore, after == null ? "" : after, limit);
+    }
+
+    /**
+     * Recomputes reference counts from the attachment columns and unclaimed uploads, correcting
+     * drift from paths that bypass the services (course cascades, manual SQL). Blobs touched after {@code untouchedSince}
+     * are skipped because an attach may be in flight for them. Returns how many counts changed.
+     */
+    public int reconcile(LocalDateTime untouchedSince) {
+        String count = "(SELECT COUNT(*) FROM submissions s WHERE s.attachment_sha256 = b.sha256) " +
+                "+ (SELECT COUNT(*) FROM assignments a WHERE a.attachment_sha256 = b.sha256) " +
+                "+ (SELECT COUNT(*) FROM notes n WHERE n.attachment_sha256 = b.sha256) " +
+                "+ (SELECT COUNT(*) FROM uploads u WHERE u.sha256 = b.sha256)";
+        return jdbcTemplate.update("UPDATE blobs b SET ref_count = " + count +
+                ", updated_at = ? WHERE b.updated_at < ? AND b.ref_count <> " + count,
+                LocalDateTime.now(), untouchedSince);
+    }
+
+    /** Attachments that point at stored blobs, and the bytes they would take if stored separately. */
+    public Usage findLogicalUsage() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), COALESCE(SUM(b.size), 0) FROM (" + REFERENCES + ") r " +
+                "JOIN blobs b ON b.sha256 = r.sha256", (rs, i) -> new Usage(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /** Distinct referenced blobs and the bytes they actually take. */
+    public Usage findPhysicalUsage() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), COALESCE(SUM(size), 0) FROM blobs WHERE ref_count > 0",
+                (rs, i) -> new Usage(rs.getLong(1), rs.getLong(2)));
+    }
+}
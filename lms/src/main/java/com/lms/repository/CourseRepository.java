@@ -1,12 +1,15 @@
 package com.lms.repository;
 
+import com.lms.dto.Watermark;
 import com.lms.entity.Course;
 import com.lms.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -30,4 +33,20 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String title, String description);
 
     List<Course> findByCategory(String category);
-}
\ No newline at end of file
+
+    // Denormalized student counter, maintained from enrollment events
+    @Modifying
+    @Query("UPDATE Course c SET c.students = :students, c.updatedAt = :updatedAt WHERE c.id = :courseId")
+    int updateStudentCount(@Param("courseId") Long courseId,
+                           @Param("students") Integer students,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Change watermarks for conditional GETs; the instructor contributes instructorName
+    @Query("SELECT new com.lms.dto.Watermark(COUNT(c), MAX(c.updatedAt), MAX(i.updatedAt)) " +
+            "FROM Course c LEFT JOIN c.instructor i")
+    Watermark findCatalogWatermark();
+
+    @Query("SELECT new com.lms.dto.Watermark(COUNT(c), MAX(c.updatedAt), MAX(i.updatedAt)) " +
+            "FROM Course c LEFT JOIN c.instructor i WHERE c.id = :courseId")
+    Watermark findWatermarkById(@Param("courseId") Long courseId);
+}
@@ -1,15 +1,21 @@
 package com.lms.repository;
 
+import com.lms.dto.EnrollmentExportRow;
 import com.lms.entity.Enrollment;
 import com.lms.entity.Course;
 import com.lms.entity.User;
+import com.lms.export.ExportQueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Enrollment entities.
@@ -100,4 +106,38 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
      * @return Number of completed enrollments
      */
     Integer countByCourseAndCompleted(Course course, Boolean completed);
-}
\ No newline at end of file
+
+    /**
+     * Count enrollments for a course by ID
+     *
+     * @param courseId The ID of the course
+     * @return Number of enrollments
+     */
+    long countByCourseId(Long courseId);
+
+    /**
+     * Streams every enrollment as a flat export row. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportQueryHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.lms.dto.EnrollmentExportRow(e.id, c.id, c.title, st.id, st.name, st.email, " +
+            "e.progress, e.completed, e.enrolledAt) " +
+            "FROM Enrollment e JOIN e.course c JOIN e.student st " +
+            "ORDER BY e.id")
+    Stream<EnrollmentExportRow> streamExportRows();
+
+    /**
+     * Streams the enrollments of one instructor's courses as flat export rows.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportQueryHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.lms.dto.EnrollmentExportRow(e.id, c.id, c.title, st.id, st.name, st.email, " +
+            "e.progress, e.completed, e.enrolledAt) " +
+            "FROM Enrollment e JOIN e.course c JOIN e.student st " +
+            "WHERE c.instructor.id = :instructorId ORDER BY e.id")
+    Stream<EnrollmentExportRow> streamExportRowsByInstructorId(@Param("instructorId") Long instructorId);
+}
@@ -0,0 +1,58 @@
+package com.lms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC read of the course gradebook. Rows are handed to a primitive callback, so a large
+ * course creates no per-cell objects.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GradebookRepository {
+
+    private static final int STUDENT = 0;
+    private static final int ASSIGNMENT = 1;
+
+    // Roster, columns and submissions in one round trip, tagged by kind and sorted so each kind
+    // arrives complete before the next: students by name, assignments by due date, submissions
+    // oldest first.
+    private static final String GRADEBOOK_SQL =
+            "SELECT 0 AS kind, u.id AS id, NULL AS ref, u.name AS label, NULL AS num, NULL AS flag, " +
+            "u.name AS sort_label, NULL AS sort_due, u.id AS sort_id " +
+            "FROM enrollments e JOIN users u ON u.id = e.student_id WHERE e.course_id = ? " +
+            "UNION ALL " +
+            "SELECT 1, a.id, NULL, a.title, a.max_points, NULL, NULL, a.due_date, a.id " +
+            "FROM assignments a WHERE a.course_id = ? " +
+            "UNION ALL " +
+            "SELECT 2, s.student_id, s.assignment_id, NULL, s.grade, s.graded, NULL, NULL, s.id " +
+            "FROM submissions s JOIN assignments a ON a.id = s.assignment_id WHERE a.course_id = ? " +
+            "ORDER BY kind, sort_label, sort_due, sort_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Receives the gradebook rows: every student, then every assignment, then every submission.
+     */
+    public interface GradebookRows {
+        void student(long id, String name);
+
+        void assignment(long id, String title, int maxPoints);
+
+        /**
+         * Later calls win when a student has more than one submission for an assignment.
+         */
+        void submission(long studentId, long assignmentId, int grade, boolean graded);
+    }
+
+    public void read(Long courseId, GradebookRows rows) {
+        jdbcTemplate.query(GRADEBOOK_SQL, rs -> {
+            switch (rs.getInt(1)) {
+                case STUDENT -> rows.student(rs.getLong(2), rs.getString(4));
+                case ASSIGNMENT -> rows.assignment(rs.getLong(2), rs.getString(4), rs.getInt(5));
+                default -> rows.submission(rs.getLong(2), rs.getLong(3), rs.getInt(5), rs.getBoolean(6));
+            }
+        }, courseId, courseId, courseId);
+    }
+}
@@ -1,5 +1,6 @@
 package com.lms.repository;
 
+import com.lms.dto.Watermark;
 import com.lms.entity.Note;
 import com.lms.entity.User;
 import com.lms.entity.Course;
@@ -27,4 +28,9 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     List<Note> findAccessibleNotes(@Param("courseIds") List<Long> courseIds);
 
     List<Note> findByCourseId(Long courseId);
-}
\ No newline at end of file
+
+    // Change watermark for conditional GETs; the course contributes courseTitle, the author authorName
+    @Query("SELECT new com.lms.dto.Watermark(COUNT(n), MAX(n.updatedAt), MAX(c.updatedAt), MAX(a.updatedAt)) " +
+            "FROM Note n LEFT JOIN n.course c LEFT JOIN n.author a")
+    Watermark findWatermark();
+}
@@ -0,0 +1,27 @@
+package com.lms.repository;
+
+import com.lms.entity.QuestionBank;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuestionBankRepository extends JpaRepository<QuestionBank, Long> {
+
+    List<QuestionBank> findByCourseIdOrderByTitleAsc(Long courseId);
+
+    // Bank with its questions in one query; options load per question on first access
+    @Query("SELECT b FROM QuestionBank b LEFT JOIN FETCH b.questions WHERE b.id = :id")
+    Optional<QuestionBank> findWithQuestionsById(@Param("id") Long id);
+
+    // Bank with what an access check needs, without its questions
+    @Query("SELECT b FROM QuestionBank b JOIN FETCH b.course c JOIN FETCH c.instructor WHERE b.id = :id")
+    Optional<QuestionBank> findWithCourseById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(q) FROM QuizQuestion q WHERE q.bank.id = :bankId")
+    int countQuestions(@Param("bankId") Long bankId);
+}
@@ -0,0 +1,101 @@
+package com.lms.repository;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.entity.QuizQuestion;
+import com.lms.quiz.ImportedQuestion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes imported questions into a question bank, a batch at a time: one JDBC batch for the
+ * questions, whose generated ids key a second batch for their options. Nothing goes through the
+ * persistence context, so an import of any size holds one batch in memory.
+ */
+@Repository
+@RequiredArgsConstructor
+@UseWorkload(Workload.BULK)
+public class QuestionImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record OptionRow(long questionId, int sortOrder, String text, boolean correct) {
+    }
+
+    /**
+     * The sort order after the bank's last question, where an import starts appending.
+     */
+    public int nextSortOrder(long bankId) {
+        Integer max = jdbcTemplate.queryForObject("SELECT MAX(sort_order) FROM quiz_questions WHERE bank_id = ?",
+                Integer.class, bankId);
+        return max == null ? 0 : max + 1;
+    }
+
+    /**
+     * Appends the questions with consecutive sort orders from firstSortOrder. Each call is one
+     * transaction, so a failed import keeps the batches before it.
+     */
+    @Transactional
+    public void insert(long bankId, int firstSortOrder, List<ImportedQuestion> questions) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO quiz_questions (bank_id, sort_order, " +
+                    "type, question_text, answer, points) VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < questions.size(); i++) {
+                    ImportedQuestion question = questions.get(i);
+                    ps.setLong(1, bankId);
+                    ps.setInt(2, firstSortOrder + i);
+                    ps.setString(3, question.type().name());
+                    ps.setString(4, question.text());
+                    ps.setString(5, question.answer());
+                    ps.setInt(6, question.points());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> generated = new ArrayList<>(questions.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generated.add(keys.getLong(1));
+                    }
+                }
+                return generated;
+            }
+        });
+        if (ids == null || ids.size() != questions.size()) {
+            throw new IllegalStateException("Expected " + questions.size() + " generated question ids, got "
+                    + (ids == null ? 0 : ids.size()));
+        }
+
+        List<OptionRow> options = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            ImportedQuestion question = questions.get(i);
+            if (question.type() != QuizQuestion.Type.MULTIPLE_CHOICE) {
+                continue;
+            }
+            for (int j = 0; j < question.options().size(); j++) {
+                options.add(new OptionRow(ids.get(i), j, question.options().get(j),
+                        question.correctOptions().contains(j)));
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO quiz_question_options (question_id, sort_order, option_text, correct) " +
+                        "VALUES (?, ?, ?, ?)",
+                options, Math.max(1, options.size()), (ps, row) -> {
+                    ps.setLong(1, row.questionId());
+                    ps.setInt(2, row.sortOrder());
+                    ps.setString(3, row.text());
+                    ps.setBoolean(4, row.correct());
+                });
+    }
+
+    public void touch(long bankId) {
+        jdbcTemplate.update("UPDATE question_banks SET updated_at = CURRENT_TIMESTAMP(6) WHERE id = ?", bankId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.lms.repository;
+
+import com.lms.entity.QuizAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
+
+    // The student's open attempt, if any
+    Optional<QuizAttempt> findFirstByQuizIdAndStudentIdAndStatusOrderByIdDesc(Long quizId, Long studentId,
+                                                                              QuizAttempt.Status status);
+
+    List<QuizAttempt> findByQuizIdAndStudentIdOrderByIdDesc(Long quizId, Long studentId);
+
+    // Submits an open attempt with its final answers and score. Returns 0 when it was submitted
+    // meanwhile, by the student or at its deadline. Clears the persistence context, whose copy of
+    // the attempt is stale afterwards
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE QuizAttempt a SET a.status = com.lms.entity.QuizAttempt.Status.SUBMITTED, " +
+            "a.answers = :answers, a.submittedAt = :submittedAt, a.score = :points, a.maxScore = :maxPoints, " +
+            "a.correctAnswers = :correct, a.totalQuestions = :total, a.passed = :passed, a.keyVersion = :keyVersion " +
+            "WHERE a.id = :id AND a.status = com.lms.entity.QuizAttempt.Status.IN_PROGRESS")
+    int submit(@Param("id") Long id, @Param("answers") String answers, @Param("submittedAt") LocalDateTime submittedAt,
+               @Param("points") int points, @Param("maxPoints") int maxPoints, @Param("correct") int correct,
+               @Param("total") int total, @Param("passed") boolean passed, @Param("keyVersion") int keyVersion);
+
+    // TEACHER: every attempt on a quiz, with the student
+    @Query("SELECT a FROM QuizAttempt a JOIN FETCH a.student WHERE a.quiz.id = :quizId ORDER BY a.id DESC")
+    List<QuizAttempt> findByQuizIdWithStudent(@Param("quizId") Long quizId);
+}
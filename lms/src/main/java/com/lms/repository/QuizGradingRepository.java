@@ -0,0 +1,80 @@
+package com.lms.repository;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC access to submitted quiz attempts for bulk regrading. Attempts are read in id-ordered
+ * pages within an id range, so several ranges can be walked in parallel, and scores are written
+ * back in JDBC batches.
+ */
+@Repository
+@RequiredArgsConstructor
+@UseWorkload(Workload.BULK)
+public class QuizGradingRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record IdRange(long min, long max, long count) {
+    }
+
+    public record SubmittedAnswers(long id, String answers, Long variantSeed, Integer keyVersion) {
+    }
+
+    public record Grade(long id, int points, int maxPoints, int correct, int total, boolean passed) {
+    }
+
+    public IdRange findSubmittedRange(Long quizId) {
+        return jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id), COUNT(*) FROM quiz_attempts " +
+                        "WHERE quiz_id = ? AND status = 'SUBMITTED'",
+                (rs, n) -> new IdRange(rs.getLong(1), rs.getLong(2), rs.getLong(3)), quizId);
+    }
+
+    /**
+     * Submitted attempts with {@code after < id <= upTo}, in id order.
+     */
+    public List<SubmittedAnswers> findSubmittedPage(Long quizId, long after, long upTo, int limit) {
+        List<SubmittedAnswers> page = new ArrayList<>(limit);
+        jdbcTemplate.query("SELECT id, answers, variant_seed, key_version FROM quiz_attempts " +
+                "WHERE quiz_id = ? AND status = 'SUBMITTED' AND id > ? AND id <= ? ORDER BY id LIMIT ?",
+                rs -> {
+                    page.add(new SubmittedAnswers(rs.getLong(1), rs.getString(2), rs.getObject(3, Long.class),
+                            rs.getObject(4, Integer.class)));
+                }, quizId, after, upTo, limit);
+        return page;
+    }
+
+    /**
+     * Writes the grades computed with the given key version. An attempt already graded with a
+     * newer version, by a correction that raced this one, is left alone. Returns rows updated.
+     */
+    public int updateGrades(List<Grade> grades, int keyVersion) {
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE quiz_attempts SET score = ?, max_score = ?, " +
+                        "correct_answers = ?, total_questions = ?, passed = ?, key_version = ? " +
+                        "WHERE id = ? AND (key_version IS NULL OR key_version <= ?)",
+                grades, grades.size(), (ps, grade) -> {
+                    ps.setInt(1, grade.points());
+                    ps.setInt(2, grade.maxPoints());
+                    ps.setInt(3, grade.correct());
+                    ps.setInt(4, grade.total());
+                    ps.setBoolean(5, grade.passed());
+                    ps.setInt(6, keyVersion);
+                    ps.setLong(7, grade.id());
+                    ps.setInt(8, keyVersion);
+                });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers without per-statement counts report SUCCESS_NO_INFO (-2)
+                updated += count < 0 ? 1 : count;
+            }
+        }
+        return updated;
+    }
+}
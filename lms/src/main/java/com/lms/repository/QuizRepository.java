@@ -0,0 +1,28 @@
+package com.lms.repository;
+
+import com.lms.entity.Quiz;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuizRepository extends JpaRepository<Quiz, Long> {
+
+    List<Quiz> findByCourseIdOrderByCreatedAtDesc(Long courseId);
+
+    List<Quiz> findByCourseIdAndStatusOrderByCreatedAtDesc(Long courseId, Quiz.Status status);
+
+    // Quiz with its questions in one query; options load per question on first access
+    @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.questions WHERE q.id = :id")
+    Optional<Quiz> findWithQuestionsById(@Param("id") Long id);
+
+    // Quizzes keep their copies of a deleted bank's questions
+    @Modifying
+    @Query("UPDATE Quiz q SET q.bank = null WHERE q.bank.id = :bankId")
+    int detachBank(@Param("bankId") Long bankId);
+}
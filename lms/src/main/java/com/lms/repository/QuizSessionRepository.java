@@ -0,0 +1,146 @@
+package com.lms.repository;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to open quiz attempts: the deadlines to recover after a restart, batched
+ * writes of autosaved answers, and the batched auto-submission of attempts whose deadline has
+ * passed.
+ *
+ * The recovery scan runs on the bulk pool. The deadline timer's reads and writes, and the answer
+ * buffer's write-behind batches, are short batches that must not wait behind exports or regrades
+ * there, so they take the interactive pool.
+ */
+@Repository
+@RequiredArgsConstructor
+@UseWorkload(Workload.BULK)
+public class QuizSessionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Deadline(long attemptId, LocalDateTime deadline) {
+    }
+
+    public record OpenSession(long attemptId, long quizId, long studentId, LocalDateTime deadline, Long variantSeed,
+                              String answers) {
+    }
+
+    public record SavedAnswers(long attemptId, String answers) {
+    }
+
+    public record OpenAttempt(long id, long quizId, int keyVersion, String answers, LocalDateTime deadline,
+                              Long variantSeed) {
+    }
+
+    public record AutoSubmission(long id, LocalDateTime submittedAt, int points, int maxPoints, int correct,
+                                 int total, boolean passed, int keyVersion) {
+    }
+
+    /**
+     * Open attempts that have a deadline, in id order after {@code after}.
+     */
+    public List<Deadline> findOpenDeadlines(long after, int limit) {
+        List<Deadline> page = new ArrayList<>(limit);
+        jdbcTemplate.query("SELECT id, deadline FROM quiz_attempts " +
+                "WHERE status = 'IN_PROGRESS' AND deadline IS NOT NULL AND id > ? ORDER BY id LIMIT ?", rs -> {
+            page.add(new Deadline(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()));
+        }, after, limit);
+        return page;
+    }
+
+    public Optional<OpenSession> findOpenSession(long attemptId) {
+        return jdbcTemplate.query("SELECT id, quiz_id, student_id, deadline, variant_seed, answers FROM quiz_attempts " +
+                "WHERE id = ? AND status = 'IN_PROGRESS'", (rs, n) -> {
+            Timestamp deadline = rs.getTimestamp(4);
+            return new OpenSession(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    deadline == null ? null : deadline.toLocalDateTime(), rs.getObject(5, Long.class), rs.getString(6));
+        }, attemptId).stream().findFirst();
+    }
+
+    /**
+     * Writes the answers of attempts that are still open. Returns rows updated.
+     */
+    @UseWorkload(Workload.INTERACTIVE)
+    public int saveAnswers(List<SavedAnswers> answers) {
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE quiz_attempts SET answers = ? " +
+                        "WHERE id = ? AND status = 'IN_PROGRESS'",
+                answers, answers.size(), (ps, saved) -> {
+                    ps.setString(1, saved.answers());
+                    ps.setLong(2, saved.attemptId());
+                });
+        return sum(counts);
+    }
+
+    /**
+     * The given attempts that are still open, with their quiz's current key version.
+     */
+    @UseWorkload(Workload.INTERACTIVE)
+    public List<OpenAttempt> findOpen(Collection<Long> attemptIds) {
+        List<OpenAttempt> open = new ArrayList<>(attemptIds.size());
+        String placeholders = String.join(",", Collections.nCopies(attemptIds.size(), "?"));
+        jdbcTemplate.query("SELECT a.id, a.quiz_id, q.key_version, a.answers, a.deadline, a.variant_seed " +
+                        "FROM quiz_attempts a JOIN quizzes q ON q.id = a.quiz_id " +
+                        "WHERE a.id IN (" + placeholders + ") AND a.status = 'IN_PROGRESS'", rs -> {
+                    Timestamp deadline = rs.getTimestamp(5);
+                    open.add(new OpenAttempt(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getString(4),
+                            deadline == null ? null : deadline.toLocalDateTime(), rs.getObject(6, Long.class)));
+                }, attemptIds.toArray());
+        return open;
+    }
+
+    /**
+     * Submits the attempts with their scores, skipping any the student submitted meanwhile.
+     * Returns the ids of those submitted.
+     */
+    @UseWorkload(Workload.INTERACTIVE)
+    public List<Long> submit(List<AutoSubmission> submissions) {
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE quiz_attempts SET status = 'SUBMITTED', " +
+                        "submitted_at = ?, score = ?, max_score = ?, correct_answers = ?, total_questions = ?, " +
+                        "passed = ?, key_version = ? WHERE id = ? AND status = 'IN_PROGRESS'",
+                submissions, submissions.size(), (ps, submission) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(submission.submittedAt()));
+                    ps.setInt(2, submission.points());
+                    ps.setInt(3, submission.maxPoints());
+                    ps.setInt(4, submission.correct());
+                    ps.setInt(5, submission.total());
+                    ps.setBoolean(6, submission.passed());
+                    ps.setInt(7, submission.keyVersion());
+                    ps.setLong(8, submission.id());
+                });
+        List<Long> submitted = new ArrayList<>(submissions.size());
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers without per-statement counts report SUCCESS_NO_INFO (-2)
+                if (count != 0) {
+                    submitted.add(submissions.get(i).id());
+                }
+                i++;
+            }
+        }
+        return submitted;
+    }
+
+    private static int sum(int[][] counts) {
+        int rows = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers without per-statement counts report SUCCESS_NO_INFO (-2)
+                rows += count < 0 ? 1 : count;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,124 @@
+package com.lms.repository;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Running sums for quiz item analysis, per quiz and answer key version. Writes are batched
+ * upserts of deltas, so flushing the sums of many attempts costs one row change per question and
+ * option; reads are primary-key prefix scans of a quiz's rows.
+ */
+@Repository
+@RequiredArgsConstructor
+@UseWorkload(Workload.BULK)
+public class QuizStatsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record QuizTotals(long quizId, int keyVersion, long attempts, double scoreSum, double scoreSqSum) {
+    }
+
+    public record ItemTotals(long quizId, int keyVersion, long questionId, long attempts, long correct, long blank,
+                             double restSum, double restSqSum, double restCorrectSum) {
+    }
+
+    public record OptionTotals(long quizId, int keyVersion, long questionId, int optionIndex, long selections,
+                               double restSum) {
+    }
+
+    /**
+     * Adds the deltas in one transaction, so a failed flush can be retried whole.
+     */
+    @Transactional
+    public void add(List<QuizTotals> quizzes, List<ItemTotals> items, List<OptionTotals> options, int batchSize) {
+        addQuizTotals(quizzes);
+        addItemTotals(items, batchSize);
+        addOptionTotals(options, batchSize);
+    }
+
+    private void addQuizTotals(List<QuizTotals> totals) {
+        jdbcTemplate.batchUpdate("INSERT INTO quiz_stats (quiz_id, key_version, attempts, score_sum, score_sq_sum) " +
+                        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE attempts = attempts + ?, " +
+                        "score_sum = score_sum + ?, score_sq_sum = score_sq_sum + ?",
+                totals, totals.size(), (ps, t) -> {
+                    ps.setLong(1, t.quizId());
+                    ps.setInt(2, t.keyVersion());
+                    ps.setLong(3, t.attempts());
+                    ps.setDouble(4, t.scoreSum());
+                    ps.setDouble(5, t.scoreSqSum());
+                    ps.setLong(6, t.attempts());
+                    ps.setDouble(7, t.scoreSum());
+                    ps.setDouble(8, t.scoreSqSum());
+                });
+    }
+
+    private void addItemTotals(List<ItemTotals> totals, int batchSize) {
+        jdbcTemplate.batchUpdate("INSERT INTO quiz_item_stats (quiz_id, key_version, question_id, attempts, correct, " +
+                        "blank, rest_sum, rest_sq_sum, rest_correct_sum) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE attempts = attempts + ?, correct = correct + ?, blank = blank + ?, " +
+                        "rest_sum = rest_sum + ?, rest_sq_sum = rest_sq_sum + ?, rest_correct_sum = rest_correct_sum + ?",
+                totals, batchSize, (ps, t) -> {
+                    ps.setLong(1, t.quizId());
+                    ps.setInt(2, t.keyVersion());
+                    ps.setLong(3, t.questionId());
+                    ps.setLong(4, t.attempts());
+                    ps.setLong(5, t.correct());
+                    ps.setLong(6, t.blank());
+                    ps.setDouble(7, t.restSum());
+                    ps.setDouble(8, t.restSqSum());
+                    ps.setDouble(9, t.restCorrectSum());
+                    ps.setLong(10, t.attempts());
+                    ps.setLong(11, t.correct());
+                    ps.setLong(12, t.blank());
+                    ps.setDouble(13, t.restSum());
+                    ps.setDouble(14, t.restSqSum());
+                    ps.setDouble(15, t.restCorrectSum());
+                });
+    }
+
+    private void addOptionTotals(List<OptionTotals> totals, int batchSize) {
+        jdbcTemplate.batchUpdate("INSERT INTO quiz_option_stats (quiz_id, key_version, question_id, option_index, " +
+                        "selections, rest_sum) VALUES (?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE selections = selections + ?, rest_sum = rest_sum + ?",
+                totals, batchSize, (ps, t) -> {
+                    ps.setLong(1, t.quizId());
+                    ps.setInt(2, t.keyVersion());
+                    ps.setLong(3, t.questionId());
+                    ps.setInt(4, t.optionIndex());
+                    ps.setLong(5, t.selections());
+                    ps.setDouble(6, t.restSum());
+                    ps.setLong(7, t.selections());
+                    ps.setDouble(8, t.restSum());
+                });
+    }
+
+    public Optional<QuizTotals> findQuizTotals(long quizId, int keyVersion) {
+        return jdbcTemplate.query("SELECT attempts, score_sum, score_sq_sum FROM quiz_stats " +
+                        "WHERE quiz_id = ? AND key_version = ?",
+                (rs, n) -> new QuizTotals(quizId, keyVersion, rs.getLong(1), rs.getDouble(2), rs.getDouble(3)),
+                quizId, keyVersion).stream().findFirst();
+    }
+
+    public List<ItemTotals> findItemTotals(long quizId, int keyVersion) {
+        return jdbcTemplate.query("SELECT question_id, attempts, correct, blank, rest_sum, rest_sq_sum, " +
+                        "rest_correct_sum FROM quiz_item_stats WHERE quiz_id = ? AND key_version = ?",
+                (rs, n) -> new ItemTotals(quizId, keyVersion, rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                        rs.getLong(4), rs.getDouble(5), rs.getDouble(6), rs.getDouble(7)),
+                quizId, keyVersion);
+    }
+
+    public List<OptionTotals> findOptionTotals(long quizId, int keyVersion) {
+        return jdbcTemplate.query("SELECT question_id, option_index, selections, rest_sum FROM quiz_option_stats " +
+                        "WHERE quiz_id = ? AND key_version = ?",
+                (rs, n) -> new OptionTotals(quizId, keyVersion, rs.getLong(1), rs.getInt(2), rs.getLong(3),
+                        rs.getDouble(4)),
+                quizId, keyVersion);
+    }
+}
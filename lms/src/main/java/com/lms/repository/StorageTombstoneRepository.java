@@ -0,0 +1,75 @@
+package com.lms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Files waiting to be deleted by the storage collector, and the attachment lookups it needs to
+ * tell orphaned files from referenced ones.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StorageTombstoneRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Tombstone(long id, String url) {
+    }
+
+    public void add(String url) {
+        jdbcTemplate.update("INSERT INTO storage_tombstones (url, created_at) VALUES (?, ?)", url, LocalDateTime.now());
+    }
+
+    public List<Tombstone> findBatch(int limit) {
+        return jdbcTemplate.query("SELECT id, url FROM storage_tombstones ORDER BY id LIMIT ?",
+                (rs, i) -> new Tombstone(rs.getLong(1), rs.getString(2)), limit);
+    }
+
+    public void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM storage_tombstones WHERE id IN (" + placeholders(ids) + ")", ids.toArray());
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM storage_tombstones", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /** The given attachment URLs that some submission, assignment or note still points at. */
+    public Set<String> findReferencedUrls(Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return Set.of();
+        }
+        String in = placeholders(urls);
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query("SELECT attachment_url FROM submissions WHERE attachment_url IN (" + in + ") " +
+                "UNION SELECT attachment_url FROM assignments WHERE attachment_url IN (" + in + ") " +
+                "UNION SELECT attachment_url FROM notes WHERE attachment_url IN (" + in + ")",
+                rs -> {
+                    referenced.add(rs.getString(1));
+                }, repeat(urls.toArray(), 3));
+        return referenced;
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+
+    private static Object[] repeat(Object[] values, int times) {
+        Object[] repeated = new Object[values.length * times];
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(values, 0, repeated, i * values.length, values.length);
+        }
+        return repeated;
+    }
+}
@@ -0,0 +1,136 @@
+package com.lms.repository;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attachment bytes and file counts per course and per user. Changes are single-row upserts of a
+ * delta, so concurrent attaches to the same owner serialize on that row only.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StorageUsageRepository {
+
+    // Attachments counting against courses in an id range (bound three times)
+    private static final String COURSE_ATTACHMENTS =
+            "SELECT a.course_id AS owner_id, COALESCE(s.attachment_size, 0) AS size FROM submissions s " +
+            "JOIN assignments a ON a.id = s.assignment_id WHERE s.attachment_url IS NOT NULL AND a.course_id BETWEEN ? AND ? " +
+            "UNION ALL SELECT course_id, COALESCE(attachment_size, 0) FROM assignments " +
+            "WHERE attachment_url IS NOT NULL AND course_id BETWEEN ? AND ? " +
+            "UNION ALL SELECT course_id, COALESCE(attachment_size, 0) FROM notes " +
+            "WHERE attachment_url IS NOT NULL AND course_id BETWEEN ? AND ?";
+
+    // Attachments counting against users in an id range (bound three times)
+    private static final String USER_ATTACHMENTS =
+            "SELECT student_id AS owner_id, COALESCE(attachment_size, 0) AS size FROM submissions " +
+            "WHERE attachment_url IS NOT NULL AND student_id BETWEEN ? AND ? " +
+            "UNION ALL SELECT created_by, COALESCE(attachment_size, 0) FROM assignments " +
+            "WHERE attachment_url IS NOT NULL AND created_by BETWEEN ? AND ? " +
+            "UNION ALL SELECT author_id, COALESCE(attachment_size, 0) FROM notes " +
+            "WHERE attachment_url IS NOT NULL AND author_id BETWEEN ? AND ?";
+
+    private static final long[] NO_USAGE = {0, 0};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public enum OwnerType {
+        COURSE, USER
+    }
+
+    public record Usage(OwnerType ownerType, long ownerId, String name, long bytes, int files) {
+    }
+
+    /**
+     * Adds {@code bytes} and {@code files} (either may be negative) to the owner's totals. Totals
+     * never go below zero, so a release the counters missed the charge for cannot make them
+     * negative.
+     */
+    public void add(OwnerType type, long ownerId, long bytes, int files) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO storage_usage (owner_type, owner_id, bytes, files, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE bytes = GREATEST(bytes + ?, 0), " +
+                "files = GREATEST(files + ?, 0), updated_at = ?",
+                type.name(), ownerId, Math.max(bytes, 0), Math.max(files, 0), now, bytes, files, now);
+    }
+
+    public long findBytes(OwnerType type, long ownerId) {
+        return jdbcTemplate.queryForList("SELECT bytes FROM storage_usage WHERE owner_type = ? AND owner_id = ?",
+                Long.class, type.name(), ownerId).stream().findFirst().orElse(0L);
+    }
+
+    /**
+     * Highest id an owner of the type can have: that of the newest course or user, or of a
+     * counter left by one since deleted.
+     */
+    @UseWorkload(Workload.BULK)
+    public long findMaxOwnerId(OwnerType type) {
+        String owners = type == OwnerType.COURSE ? "courses" : "users";
+        Long max = jdbcTemplate.queryForObject("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM " + owners + "), 0), " +
+                "COALESCE((SELECT MAX(owner_id) FROM storage_usage WHERE owner_type = ?), 0))", Long.class, type.name());
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Corrects the counters of owners {@code fromId} to {@code toId} that differ from the totals of
+     * the attachment columns, correcting drift from paths that bypass the services (course
+     * cascades, manual SQL). Run outside a transaction: the totals come from a plain, non-locking
+     * read and each correction is a single-row statement, so no charge waits on more than one
+     * row. Counters touched after {@code untouchedSince} are skipped because a charge may be in
+     * flight for them. Returns how many counters changed.
+     */
+    @UseWorkload(Workload.BULK)
+    public int reconcile(OwnerType type, long fromId, long toId, LocalDateTime untouchedSince) {
+        Map<Long, long[]> computed = new HashMap<>();
+        jdbcTemplate.query("SELECT owner_id, SUM(size), COUNT(*) FROM (" +
+                (type == OwnerType.COURSE ? COURSE_ATTACHMENTS : USER_ATTACHMENTS) + ") attachments GROUP BY owner_id",
+                rs -> {
+                    computed.put(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3)});
+                }, fromId, toId, fromId, toId, fromId, toId);
+        Map<Long, long[]> current = new HashMap<>();
+        jdbcTemplate.query("SELECT owner_id, bytes, files FROM storage_usage WHERE owner_type = ? " +
+                "AND owner_id BETWEEN ? AND ?", rs -> {
+                    current.put(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3)});
+                }, type.name(), fromId, toId);
+
+        LocalDateTime now = LocalDateTime.now();
+        int corrected = 0;
+        for (Map.Entry<Long, long[]> counter : current.entrySet()) {
+            long[] total = computed.getOrDefault(counter.getKey(), NO_USAGE);
+            if (total[0] != counter.getValue()[0] || total[1] != counter.getValue()[1]) {
+                corrected += jdbcTemplate.update("UPDATE storage_usage SET bytes = ?, files = ?, updated_at = ? " +
+                        "WHERE owner_type = ? AND owner_id = ? AND updated_at < ?",
+                        total[0], total[1], now, type.name(), counter.getKey(), untouchedSince);
+            }
+        }
+        for (Map.Entry<Long, long[]> total : computed.entrySet()) {
+            if (!current.containsKey(total.getKey())) {
+                // A counter created by a charge meanwhile already holds its own total
+                corrected += jdbcTemplate.update("INSERT IGNORE INTO storage_usage " +
+                        "(owner_type, owner_id, bytes, files, updated_at) VALUES (?, ?, ?, ?, ?)",
+                        type.name(), total.getKey(), total.getValue()[0], total.getValue()[1], now);
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * Owners using the most bytes, largest first, with the course title or user name.
+     */
+    public List<Usage> findTop(OwnerType type, int limit) {
+        String name = type == OwnerType.COURSE
+                ? "(SELECT c.title FROM courses c WHERE c.id = u.owner_id)"
+                : "(SELECT usr.name FROM users usr WHERE usr.id = u.owner_id)";
+        return jdbcTemplate.query("SELECT u.owner_id, " + name + ", u.bytes, u.files FROM storage_usage u " +
+                "WHERE u.owner_type = ? AND u.bytes > 0 ORDER BY u.bytes DESC LIMIT ?",
+                (rs, i) -> new Usage(type, rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getInt(4)),
+                type.name(), limit);
+    }
+}
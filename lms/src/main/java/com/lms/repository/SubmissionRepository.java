@@ -2,16 +2,23 @@
 
 package com.lms.repository;
 
+import com.lms.dto.SubmissionArchiveRow;
+import com.lms.dto.SubmissionExportRow;
 import com.lms.entity.Submission;
 import com.lms.entity.Assignment;
 import com.lms.entity.User;
+import com.lms.export.ExportQueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
@@ -41,4 +48,31 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     @Query("SELECT s FROM Submission s " +
             "WHERE s.assignment.course.instructor.id = :instructorId")
     List<Submission> findByAssignment_Course_Instructor_Id(@Param("instructorId") Long instructorId);
-}
\ No newline at end of file
+
+    // ARCHIVE: attachments of an assignment, grouped by student
+    @Query("SELECT new com.lms.dto.SubmissionArchiveRow(s.id, st.id, st.name, s.attachmentUrl, s.attachmentName, " +
+            "s.attachmentSha256) FROM Submission s JOIN s.student st " +
+            "WHERE s.assignment.id = :assignmentId AND s.attachmentUrl IS NOT NULL ORDER BY st.name, s.id")
+    List<SubmissionArchiveRow> findArchiveRowsByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    // EXPORT: forward-only cursors over flat rows; the caller must close the stream inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportQueryHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.lms.dto.SubmissionExportRow(s.id, a.id, a.title, c.id, c.title, " +
+            "st.id, st.name, st.email, s.graded, s.grade, s.submittedAt, s.gradedAt) " +
+            "FROM Submission s JOIN s.assignment a JOIN a.course c JOIN s.student st " +
+            "ORDER BY s.id")
+    Stream<SubmissionExportRow> streamExportRows();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportQueryHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.lms.dto.SubmissionExportRow(s.id, a.id, a.title, c.id, c.title, " +
+            "st.id, st.name, st.email, s.graded, s.grade, s.submittedAt, s.gradedAt) " +
+            "FROM Submission s JOIN s.assignment a JOIN a.course c JOIN s.student st " +
+            "WHERE c.instructor.id = :instructorId ORDER BY s.id")
+    Stream<SubmissionExportRow> streamExportRowsByInstructorId(@Param("instructorId") Long instructorId);
+}
@@ -0,0 +1,51 @@
+package com.lms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Uploads that are stored but not attached to anything yet. See {@link com.lms.storage.PendingUploads}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UploadRepository {
+
+    private static final String COLUMNS = "id, user_id, sha256, original_name, content_type, size";
+
+    private static final RowMapper<Upload> UPLOAD = (rs, i) -> new Upload(rs.getString(1), rs.getLong(2),
+            rs.getString(3), rs.getString(4), rs.getString(5), rs.getLong(6));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Upload(String id, long userId, String sha256, String originalName, String contentType, long size) {
+    }
+
+    public void insert(Upload upload) {
+        jdbcTemplate.update("INSERT INTO uploads (" + COLUMNS + ", created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                upload.id(), upload.userId(), upload.sha256(), upload.originalName(), upload.contentType(),
+                upload.size(), LocalDateTime.now());
+    }
+
+    /**
+     * The upload, locked until the transaction ends so it can be claimed or expired only once.
+     */
+    public Optional<Upload> lock(String id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM uploads WHERE id = ? FOR UPDATE", UPLOAD, id)
+                .stream().findFirst();
+    }
+
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM uploads WHERE id = ?", id);
+    }
+
+    public List<String> findCreatedBefore(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM uploads WHERE created_at < ? ORDER BY created_at LIMIT ?",
+                String.class, createdBefore, limit);
+    }
+}
@@ -2,15 +2,23 @@
 
 package com.lms.repository;
 
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.dto.UserExportRow;
 import com.lms.entity.User;
+import com.lms.export.ExportQueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -42,6 +50,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findByCreatedAtAfter(LocalDateTime date);
 
+    @UseWorkload(Workload.REPORTING)
     @Query("SELECT u FROM User u ORDER BY u.createdAt DESC")
     List<User> findRecentUsers();
-}
\ No newline at end of file
+
+    // EXPORT: forward-only cursor over flat rows; the caller must close the stream inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportQueryHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.lms.dto.UserExportRow(u.id, u.name, u.email, u.role, u.status, " +
+            "u.studentId, u.subject, u.phone, u.createdAt) FROM User u ORDER BY u.id")
+    Stream<UserExportRow> streamExportRows();
+}
@@ -0,0 +1,150 @@
+package com.lms.security;
+
+import com.lms.storage.UploadPipeline;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Signed, expiring URLs for attachment downloads and previews.
+ *
+ * The services that return attachment metadata hand out {@code downloadUrl}/{@code previewUrl}
+ * links of the form {@code <path>?expires=<epoch seconds>&signature=<HMAC-SHA256 of path and
+ * expiry>}. These links are the only way to fetch an attachment: the access check is made when a
+ * service hands one out with the attachment's metadata, not when the file is fetched. A request
+ * carrying a valid signature needs no token, so the JWT filter and its user lookup are skipped and
+ * each range request of a video costs one HMAC. Links are bearer credentials: anyone holding one
+ * may fetch the file until it expires.
+ *
+ * Expiry times are rounded to half of {@code lms.download.url-ttl}, so the same link is handed out
+ * for that long and a caching proxy sees one URL per file rather than one per page view. A link
+ * stays valid for between half and all of the TTL. The key is {@code lms.download.signing-key}, or
+ * when unset one derived from {@code jwt.secret}.
+ */
+@Component
+public class DownloadUrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String EXPIRES = "expires";
+    private static final String SIGNATURE = "signature";
+    private static final String[] SIGNED_PATHS = {"/api/files/download/", "/api/files/preview/"};
+
+    private final SecretKeySpec key;
+    private final long windowSeconds;
+
+    public DownloadUrlSigner(
+            @Value("${lms.download.signing-key:}") String signingKey,
+            @Value("${jwt.secret:defaultSecretKeyForDevelopmentUseOnlyMakeItLongerAndSecure123456789}") String jwtSecret,
+            @Value("${lms.download.url-ttl:1h}") Duration ttl) {
+        byte[] secret = StringUtils.hasText(signingKey)
+                ? signingKey.getBytes(StandardCharsets.UTF_8)
+                // Separate key, so a download signature can never pass as anything signed with the JWT secret
+                : hmac(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM), "download-urls");
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.windowSeconds = Math.max(1, ttl.toSeconds() / 2);
+    }
+
+    /**
+     * Signed download link of a stored attachment URL, or null when there is no attachment.
+     */
+    public String downloadUrl(String attachmentUrl) {
+        return attachmentUrl == null ? null : sign("/api/files/download" + attachmentUrl);
+    }
+
+    /**
+     * Signed preview link of a stored attachment URL, or null when it has no preview.
+     */
+    public String previewUrl(String attachmentUrl) {
+        String path = UploadPipeline.previewUrl(attachmentUrl);
+        return path == null ? null : sign(path);
+    }
+
+    /**
+     * Signs a (decoded) request path under {@code /api/files/download} or {@code /api/files/preview}.
+     */
+    public String sign(String path) {
+        long expires = (currentWindow() + 2) * windowSeconds;
+        return UriUtils.encodePath(path, StandardCharsets.UTF_8)
+                + "?" + EXPIRES + "=" + expires
+                + "&" + SIGNATURE + "=" + signature(path, expires);
+    }
+
+    /**
+     * The signing window in effect; links handed out change when it does. Responses that embed
+     * signed links fold it into their ETag.
+     */
+    public long currentWindow() {
+        return System.currentTimeMillis() / 1000 / windowSeconds;
+    }
+
+    /**
+     * Seconds until the signed link in {@code request} expires, or -1 when it carries no valid,
+     * unexpired signature.
+     */
+    public long secondsLeft(HttpServletRequest request) {
+        if (!isSigned(request)) {
+            return -1;
+        }
+        long expires;
+        try {
+            expires = Long.parseLong(request.getParameter(EXPIRES));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        long left = expires - System.currentTimeMillis() / 1000;
+        if (left < 0) {
+            return -1;
+        }
+        byte[] expected = signature(UrlPathHelper.defaultInstance.getPathWithinApplication(request), expires)
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] given = request.getParameter(SIGNATURE).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, given) ? left : -1;
+    }
+
+    public boolean verify(HttpServletRequest request) {
+        return secondsLeft(request) >= 0;
+    }
+
+    /**
+     * Whether {@code request} presents a signature on a path that may be signed (valid or not).
+     */
+    public static boolean isSigned(HttpServletRequest request) {
+        if (request.getParameter(SIGNATURE) == null) {
+            return false;
+        }
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        for (String prefix : SIGNED_PATHS) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String signature(String path, long expires) {
+        byte[] mac = hmac(key, path + "\n" + expires);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, String message) {
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -19,6 +19,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
+    private final DownloadUrlSigner downloadUrlSigner;
+
+    /**
+     * Requests with a valid signed download URL need no token; skipping them saves the user lookup
+     * on every range request of a download.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return downloadUrlSigner.verify(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
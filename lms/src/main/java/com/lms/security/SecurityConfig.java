@@ -1,10 +1,13 @@
 package com.lms.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,6 +16,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -29,10 +33,11 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtUtils jwtUtils;
+    private final DownloadUrlSigner downloadUrlSigner;
 
     @Bean
     public JwtAuthenticationFilter authenticationJwtTokenFilter() {
-        return new JwtAuthenticationFilter(jwtUtils, userDetailsService);
+        return new JwtAuthenticationFilter(jwtUtils, userDetailsService, downloadUrlSigner);
     }
 
     @Bean
@@ -43,14 +48,25 @@ public class SecurityConfig {
                 .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
                 .authorizeHttpRequests() // updated
+                // Re-dispatch of an already authorized async request (SSE dashboard streams)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public endpoints
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/error").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
+                // File downloads - only through a signed URL, which the services put in the attachment
+                // DTOs for callers allowed to see the attachment; a token alone is not enough
+                .requestMatchers("/api/files/download/**", "/api/files/preview/**").access(signedUrl())
+                // Uploads - category checks in UploadCategory.forUser
+                .requestMatchers("/api/files/upload", "/api/files/upload/**").authenticated()
 
-                // File downloads - authenticated only
-                .requestMatchers("/api/files/download/**").authenticated()
+                // Streaming exports - per-endpoint role checks in ExportController
+                .requestMatchers("/api/exports/**").hasAnyRole("TEACHER", "ADMIN")
 
                 // Admin only endpoints
                 .requestMatchers("/api/users/dashboard/**").hasRole("ADMIN")
@@ -64,6 +80,7 @@ public class SecurityConfig {
                 // Admin-specific course endpoints
                 .requestMatchers("/api/courses/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/admin/courses/**").hasRole("ADMIN")
+                .requestMatchers("/api/admin/storage/**").hasRole("ADMIN")
 
                 // Teacher endpoints (teachers and admins can access)
                 .requestMatchers("/api/teacher/**").hasAnyRole("TEACHER", "ADMIN")
@@ -83,6 +100,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/api/submissions/**").hasRole("STUDENT")
                 .requestMatchers(HttpMethod.PUT, "/api/submissions/*/grade").hasAnyRole("TEACHER", "ADMIN")
                 .requestMatchers("/api/submissions/assignment/**").hasAnyRole("TEACHER", "ADMIN")
+                .requestMatchers("/api/submissions/course/**").hasAnyRole("TEACHER", "ADMIN")
                 .requestMatchers("/api/submissions/my").hasRole("STUDENT")
 
                 // Note management
@@ -90,6 +108,15 @@ public class SecurityConfig {
                 .requestMatchers("/api/notes/**").hasAnyRole("TEACHER", "ADMIN")
                 .requestMatchers("/api/notes/course/**").authenticated()
 
+                // Quizzes - students take them, teachers and admins author them; course checks in QuizService
+                .requestMatchers(HttpMethod.POST, "/api/quizzes/*/attempts", "/api/quizzes/*/submit").hasRole("STUDENT")
+                .requestMatchers(HttpMethod.PUT, "/api/quizzes/*/attempts/*/answers").hasRole("STUDENT")
+                .requestMatchers(HttpMethod.GET, "/api/quizzes/*/my-attempts").hasRole("STUDENT")
+                .requestMatchers(HttpMethod.GET, "/api/quizzes/*/attempts", "/api/quizzes/*/item-analysis").hasAnyRole("TEACHER", "ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/quizzes/**").authenticated()
+                .requestMatchers("/api/quizzes/**").hasAnyRole("TEACHER", "ADMIN")
+                .requestMatchers("/api/question-banks/**").hasAnyRole("TEACHER", "ADMIN")
+
                 // All other endpoints require authentication
                 .anyRequest().authenticated();
 
@@ -101,6 +128,10 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private AuthorizationManager<RequestAuthorizationContext> signedUrl() {
+        return (authentication, context) -> new AuthorizationDecision(downloadUrlSigner.verify(context.getRequest()));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -1,6 +1,7 @@
 package com.lms.service;
 
 import com.lms.dto.AssignmentDto;
+import com.lms.dto.Watermark;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -10,6 +11,7 @@ public interface AssignmentService {
     AssignmentDto updateAssignment(Long id, AssignmentDto assignmentDto, MultipartFile file);
     void deleteAssignment(Long id);
     List<AssignmentDto> getAssignmentsByCourse(Long courseId);
+    Watermark getAssignmentsWatermark(Long courseId);
     AssignmentDto getAssignmentById(Long id);
     List<AssignmentDto> getAllAssignments();
 }
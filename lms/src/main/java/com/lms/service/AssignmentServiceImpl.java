@@ -1,16 +1,26 @@
 package com.lms.service;
 
 import com.lms.dto.AssignmentDto;
+import com.lms.dto.Watermark;
 import com.lms.entity.Assignment;
 import com.lms.entity.Course;
 import com.lms.entity.User;
 import com.lms.repository.AssignmentRepository;
 import com.lms.repository.CourseRepository;
 import com.lms.repository.UserRepository;
+import com.lms.security.DownloadUrlSigner;
+import com.lms.security.UserPrincipal;
+import com.lms.storage.PendingUploads;
+import com.lms.storage.StorageAccounting;
+import com.lms.storage.StoredFile;
+import com.lms.storage.UploadCategory;
+import com.lms.storage.UploadPipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
@@ -26,14 +36,23 @@ public class AssignmentServiceImpl implements AssignmentService {
     private final AssignmentRepository assignmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final UploadPipeline uploadPipeline;
+    private final PendingUploads pendingUploads;
+    private final StorageAccounting storageAccounting;
+    private final DownloadUrlSigner downloadUrlSigner;
+    private final TransactionTemplate transactionTemplate;
 
     // ---------------------------
     // CREATE ASSIGNMENT
     // ---------------------------
     @Override
-    @Transactional
     public AssignmentDto createAssignment(AssignmentDto dto, MultipartFile file) {
         log.info("Creating new assignment: {}", dto.getTitle());
+        return pendingUploads.withUpload(currentUserId(), UploadCategory.ASSIGNMENTS, file, dto.getUploadId(),
+                attached -> transactionTemplate.execute(status -> create(dto, attached)));
+    }
+
+    private AssignmentDto create(AssignmentDto dto, String uploadId) {
 
         Course course = courseRepository.findById(dto.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Course not found"));
@@ -51,25 +70,24 @@ public class AssignmentServiceImpl implements AssignmentService {
         assignment.setCreatedAt(LocalDateTime.now());
 
         // File handling
-        if (file != null && !file.isEmpty()) {
-            assignment.setAttachmentName(file.getOriginalFilename());
-            assignment.setAttachmentType(file.getContentType());
-            assignment.setAttachmentSize(file.getSize());
-            assignment.setAttachmentUrl("/uploads/" + file.getOriginalFilename());
-        }
+        attach(assignment, uploadId);
 
         assignmentRepository.save(assignment);
 
-        return AssignmentDto.fromEntity(assignment);
+        return toDto(assignment);
     }
 
     // ---------------------------
     // UPDATE ASSIGNMENT
     // ---------------------------
     @Override
-    @Transactional
     public AssignmentDto updateAssignment(Long id, AssignmentDto dto, MultipartFile file) {
         log.info("Updating assignment {}", id);
+        return pendingUploads.withUpload(currentUserId(), UploadCategory.ASSIGNMENTS, file, dto.getUploadId(),
+                attached -> transactionTemplate.execute(status -> update(id, dto, attached)));
+    }
+
+    private AssignmentDto update(Long id, AssignmentDto dto, String uploadId) {
 
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
@@ -79,16 +97,54 @@ public class AssignmentServiceImpl implements AssignmentService {
         assignment.setDueDate(dto.getDueDate());
         assignment.setMaxPoints(dto.getMaxPoints());
 
-        if (file != null && !file.isEmpty()) {
-            assignment.setAttachmentName(file.getOriginalFilename());
-            assignment.setAttachmentType(file.getContentType());
-            assignment.setAttachmentSize(file.getSize());
-            assignment.setAttachmentUrl("/uploads/" + file.getOriginalFilename());
+        String previousUrl = assignment.getAttachmentUrl();
+        Long previousSize = assignment.getAttachmentSize();
+        if (attach(assignment, uploadId) && previousUrl != null) {
+            uploadPipeline.release(previousUrl);
+            storageAccounting.credit(assignment.getCourse().getId(), creatorId(assignment), previousSize);
         }
 
         assignmentRepository.save(assignment);
 
-        return AssignmentDto.fromEntity(assignment);
+        return toDto(assignment);
+    }
+
+    /**
+     * Attaches the upload {@code uploadId}: the file part, stored before the transaction opened (see
+     * {@link PendingUploads#withUpload}), or an earlier upload. Returns false when there is none.
+     */
+    private boolean attach(Assignment assignment, String uploadId) {
+        if (uploadId == null) {
+            return false;
+        }
+        long replaced = assignment.getAttachmentSize() == null ? 0 : assignment.getAttachmentSize();
+        StoredFile stored = pendingUploads.claim(uploadId, currentUserId(), UploadCategory.ASSIGNMENTS);
+        storageAccounting.checkQuota(assignment.getCourse().getId(), creatorId(assignment), stored.size() - replaced);
+        uploadPipeline.retain(stored);
+        storageAccounting.charge(assignment.getCourse().getId(), creatorId(assignment), stored.size());
+        assignment.setAttachmentName(stored.originalName());
+        assignment.setAttachmentType(stored.contentType());
+        assignment.setAttachmentSize(stored.size());
+        assignment.setAttachmentUrl(stored.url());
+        assignment.setAttachmentSha256(stored.sha256());
+        return true;
+    }
+
+    private AssignmentDto toDto(Assignment assignment) {
+        AssignmentDto dto = AssignmentDto.fromEntity(assignment);
+        if (dto != null) {
+            dto.setPreviewUrl(downloadUrlSigner.previewUrl(assignment.getAttachmentUrl()));
+            dto.setDownloadUrl(downloadUrlSigner.downloadUrl(assignment.getAttachmentUrl()));
+        }
+        return dto;
+    }
+
+    private static Long currentUserId() {
+        return ((UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getId();
+    }
+
+    private static Long creatorId(Assignment assignment) {
+        return assignment.getCreatedBy() == null ? null : assignment.getCreatedBy().getId();
     }
 
     // ---------------------------
@@ -98,12 +154,24 @@ public class AssignmentServiceImpl implements AssignmentService {
     @Transactional
     public void deleteAssignment(Long id) {
         log.warn("Deleting assignment {}", id);
+        assignmentRepository.findById(id)
+                .filter(assignment -> assignment.getAttachmentUrl() != null)
+                .ifPresent(assignment -> {
+                    uploadPipeline.release(assignment.getAttachmentUrl());
+                    storageAccounting.credit(assignment.getCourse().getId(), creatorId(assignment),
+                            assignment.getAttachmentSize());
+                });
         assignmentRepository.deleteById(id);
     }
 
     // ---------------------------
     // GET ASSIGNMENTS BY COURSE
     // ---------------------------
+    @Override
+    public Watermark getAssignmentsWatermark(Long courseId) {
+        return assignmentRepository.findWatermarkByCourseId(courseId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<AssignmentDto> getAssignmentsByCourse(Long courseId) {
@@ -112,7 +180,7 @@ public class AssignmentServiceImpl implements AssignmentService {
         List<Assignment> assignments = assignmentRepository.findByCourseId(courseId);
 
         return assignments.stream()
-                .map(AssignmentDto::fromEntity)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -125,7 +193,7 @@ public class AssignmentServiceImpl implements AssignmentService {
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
-        return AssignmentDto.fromEntity(assignment);
+        return toDto(assignment);
     }
 
     // ---------------------------
@@ -139,7 +207,7 @@ public class AssignmentServiceImpl implements AssignmentService {
         List<Assignment> assignments = assignmentRepository.findAll();
 
         return assignments.stream()
-                .map(AssignmentDto::fromEntity)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
 }
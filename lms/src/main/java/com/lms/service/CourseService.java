@@ -1,11 +1,14 @@
 package com.lms.service;
 
 import com.lms.dto.CourseDto;
+import com.lms.dto.Watermark;
 import com.lms.entity.Course;
 import com.lms.entity.User;
+import com.lms.event.CourseUpdated;
 import com.lms.repository.CourseRepository;
 import com.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -19,6 +22,7 @@ public class CourseService {
 
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Custom exceptions defined as inner classes
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -89,6 +93,7 @@ public class CourseService {
         course.setInstructor(user); // Teacher becomes the instructor
 
         Course savedCourse = courseRepository.save(course);
+        publishCourseEvent(savedCourse, CourseUpdated.Change.CREATED);
         return mapToDto(savedCourse);
     }
 
@@ -127,6 +132,7 @@ public class CourseService {
         }
 
         Course savedCourse = courseRepository.save(course);
+        publishCourseEvent(savedCourse, CourseUpdated.Change.CREATED);
         return mapToDto(savedCourse);
     }
 
@@ -165,6 +171,7 @@ public class CourseService {
         }
 
         Course savedCourse = courseRepository.save(course);
+        publishCourseEvent(savedCourse, CourseUpdated.Change.CREATED);
         return mapToDto(savedCourse);
     }
 
@@ -175,6 +182,14 @@ public class CourseService {
                 .collect(Collectors.toList());
     }
 
+    public Watermark getCatalogWatermark() {
+        return courseRepository.findCatalogWatermark();
+    }
+
+    public Watermark getCourseWatermark(Long id) {
+        return courseRepository.findWatermarkById(id);
+    }
+
     public CourseDto getCourseById(Long id) {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
@@ -200,6 +215,7 @@ public class CourseService {
         }
 
         Course updatedCourse = courseRepository.save(course);
+        publishCourseEvent(updatedCourse, CourseUpdated.Change.UPDATED);
         return mapToDto(updatedCourse);
     }
 
@@ -207,6 +223,7 @@ public class CourseService {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
         courseRepository.delete(course);
+        publishCourseEvent(course, CourseUpdated.Change.DELETED);
     }
 
     // FIXED: Use the correct repository method name
@@ -224,6 +241,11 @@ public class CourseService {
                 .collect(Collectors.toList());
     }
 
+    private void publishCourseEvent(Course course, CourseUpdated.Change change) {
+        Long instructorId = course.getInstructor() != null ? course.getInstructor().getId() : null;
+        eventPublisher.publishEvent(CourseUpdated.of(course.getId(), instructorId, change));
+    }
+
     private CourseDto mapToDto(Course course) {
         CourseDto dto = new CourseDto();
         dto.setId(course.getId());
@@ -1,22 +1,59 @@
 package com.lms.service;
 
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
 import com.lms.entity.User;
 import com.lms.entity.Course;
 import com.lms.repository.UserRepository;
 import com.lms.repository.CourseRepository;
-import lombok.RequiredArgsConstructor;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.SubmissionRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@UseWorkload(Workload.REPORTING)
 public class DashboardService {
 
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final SubmissionRepository submissionRepository;
+
+    // Course counters of teacher dashboards, evicted by TeacherDashboardInvalidationHandler on domain
+    // events. The teacher's profile is not cached: it changes without an event and is one key lookup.
+    private final Map<Long, CachedCourses> teacherCourses = new ConcurrentHashMap<>();
+    private final int maxCachedTeachers;
+    private final Object trimLock = new Object();
+
+    public DashboardService(UserRepository userRepository,
+                            CourseRepository courseRepository,
+                            EnrollmentRepository enrollmentRepository,
+                            SubmissionRepository submissionRepository,
+                            @Value("${lms.dashboard.teacher-cache.max-entries:10000}") int maxCachedTeachers) {
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.submissionRepository = submissionRepository;
+        this.maxCachedTeachers = Math.max(1, maxCachedTeachers);
+    }
+
+    private static final class CachedCourses {
+        private final Map<String, Object> counters;
+        private volatile long lastUsed;
+
+        private CachedCourses(Map<String, Object> counters) {
+            this.counters = counters;
+        }
+    }
 
     public Map<String, Object> getAdminDashboard() {
         Map<String, Object> dashboardData = new HashMap<>();
@@ -54,20 +91,46 @@ public class DashboardService {
         return dashboardData;
     }
 
-    public Map<String, Object> getTeacherDashboard(Long teacherId) {
-        Map<String, Object> dashboardData = new HashMap<>();
+    /**
+     * Counter-only view of the admin dashboard pushed over SSE. Plain COUNT queries, so a refresh
+     * never loads the user table the way {@link #getAdminDashboard()} does.
+     */
+    public Map<String, Object> getAdminSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("totalUsers", userRepository.count());
+        summary.put("totalStudents", userRepository.countByRole(User.Role.STUDENT));
+        summary.put("totalTeachers", userRepository.countByRole(User.Role.TEACHER));
+        summary.put("totalAdmins", userRepository.countByRole(User.Role.ADMIN));
+        summary.put("totalCourses", courseRepository.count());
+        summary.put("totalEnrollments", enrollmentRepository.count());
+        summary.put("totalSubmissions", submissionRepository.count());
+        summary.put("gradedSubmissions", submissionRepository.countByGraded(true));
+        return summary;
+    }
 
+    /**
+     * Counter-only view of a teacher dashboard pushed over SSE, from the cached course counters.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getTeacherSummary(Long teacherId) {
+        Map<String, Object> counters = teacherCourses(teacherId);
+
+        Map<String, Object> courseStudents = new LinkedHashMap<>();
+        for (Map<String, Object> course : (List<Map<String, Object>>) counters.get("courses")) {
+            courseStudents.put(String.valueOf(course.get("id")), course.get("students"));
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("coursesCount", counters.get("coursesCount"));
+        summary.put("studentsCount", counters.get("studentsCount"));
+        summary.put("courseStudents", courseStudents);
+        return summary;
+    }
+
+    public Map<String, Object> getTeacherDashboard(Long teacherId) {
         User teacher = userRepository.findById(teacherId)
                 .orElseThrow(() -> new RuntimeException("Teacher not found"));
 
-        // Get courses taught by this teacher
-        List<Course> teacherCourses = courseRepository.findByInstructor(teacher);
-
-        // Calculate total students across all courses
-        long totalStudents = teacherCourses.stream()
-                .mapToLong(course -> course.getStudents() != null ? course.getStudents() : 0)
-                .sum();
-
         Map<String, Object> teacherInfo = new HashMap<>();
         teacherInfo.put("id", teacher.getId());
         teacherInfo.put("name", teacher.getName());
@@ -76,10 +139,62 @@ public class DashboardService {
         teacherInfo.put("qualification", teacher.getQualification());
         teacherInfo.put("phone", teacher.getPhone());
 
+        Map<String, Object> dashboardData = new HashMap<>(teacherCourses(teacherId));
         dashboardData.put("teacher", teacherInfo);
-        dashboardData.put("coursesCount", teacherCourses.size());
-        dashboardData.put("studentsCount", totalStudents);
-        dashboardData.put("courses", teacherCourses.stream()
+        dashboardData.put("message", "Teacher dashboard loaded successfully");
+        return dashboardData;
+    }
+
+    public void evictTeacherDashboard(Long teacherId) {
+        teacherCourses.remove(teacherId);
+    }
+
+    public void evictAllTeacherDashboards() {
+        teacherCourses.clear();
+    }
+
+    private Map<String, Object> teacherCourses(Long teacherId) {
+        // computeIfAbsent blocks a concurrent eviction of the same key until loading finishes
+        CachedCourses cached = teacherCourses.computeIfAbsent(teacherId,
+                id -> new CachedCourses(loadTeacherCourses(id)));
+        cached.lastUsed = System.nanoTime();
+        if (teacherCourses.size() > maxCachedTeachers) {
+            trim();
+        }
+        return cached.counters;
+    }
+
+    // Drops the least recently used tenth over the bound, so a full cache is not sorted on every miss
+    private void trim() {
+        synchronized (trimLock) {
+            int excess = teacherCourses.size() - maxCachedTeachers;
+            if (excess <= 0) {
+                return;
+            }
+            int drop = excess + maxCachedTeachers / 10;
+            teacherCourses.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .limit(drop)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(teacherCourses::remove);
+        }
+    }
+
+    private Map<String, Object> loadTeacherCourses(Long teacherId) {
+        Map<String, Object> counters = new HashMap<>();
+
+        // Get courses taught by this teacher
+        List<Course> courses = courseRepository.findByInstructorId(teacherId);
+
+        // Calculate total students across all courses
+        long totalStudents = courses.stream()
+                .mapToLong(course -> course.getStudents() != null ? course.getStudents() : 0)
+                .sum();
+
+        counters.put("coursesCount", courses.size());
+        counters.put("studentsCount", totalStudents);
+        counters.put("courses", courses.stream()
                 .map(course -> {
                     Map<String, Object> courseMap = new HashMap<>();
                     courseMap.put("id", course.getId());
@@ -94,8 +209,7 @@ public class DashboardService {
                     return courseMap;
                 })
                 .collect(Collectors.toList()));
-        dashboardData.put("message", "Teacher dashboard loaded successfully");
 
-        return dashboardData;
+        return Collections.unmodifiableMap(counters);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,345 @@
+package com.lms.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes dashboard updates to Server-Sent Events subscribers.
+ *
+ * Subscribers are grouped into channels ({@code admin}, {@code teacher:<id>}). When a channel is
+ * refreshed its summary is computed once, diffed against the last pushed summary, and only the
+ * changed counters are sent to every subscriber of that channel. The last few deltas are kept per
+ * channel, so a client reconnecting with {@code Last-Event-ID} is replayed what it missed; a client
+ * that is too far behind, or whose id came from another node or an earlier process, gets a fresh
+ * snapshot instead.
+ */
+@Slf4j
+@Service
+public class DashboardStreamService implements SmartLifecycle {
+
+    public static final String ADMIN_CHANNEL = "admin";
+    private static final String TEACHER_CHANNEL_PREFIX = "teacher:";
+
+    private final DashboardService dashboardService;
+    private final int maxConnections;
+    private final long emitterTimeoutMs;
+    private final long heartbeatIntervalMs;
+    private final long resyncIntervalMs;
+    private final long reconnectDelayMs;
+    private final int replayBufferSize;
+
+    // Event ids are "<epoch>-<sequence>"; the epoch tells ids handed out by another process apart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public DashboardStreamService(DashboardService dashboardService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${lms.dashboard.sse.max-connections:1000}") int maxConnections,
+                                  @Value("${lms.dashboard.sse.timeout-ms:1800000}") long emitterTimeoutMs,
+                                  @Value("${lms.dashboard.sse.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                                  @Value("${lms.dashboard.sse.resync-interval-ms:300000}") long resyncIntervalMs,
+                                  @Value("${lms.dashboard.sse.reconnect-delay-ms:3000}") long reconnectDelayMs,
+                                  @Value("${lms.dashboard.sse.replay-buffer:50}") int replayBufferSize) {
+        this.dashboardService = dashboardService;
+        this.maxConnections = maxConnections;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.resyncIntervalMs = resyncIntervalMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.replayBufferSize = replayBufferSize;
+
+        meterRegistry.gauge("lms.dashboard.sse.connections", connections);
+    }
+
+    public static String teacherChannel(Long teacherId) {
+        return TEACHER_CHANNEL_PREFIX + teacherId;
+    }
+
+    /**
+     * Opens a stream on the given channel, or returns empty when this node is at its connection cap.
+     */
+    public Optional<SseEmitter> subscribe(String channelKey, String lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                unsubscribe(channelKey, emitter);
+            }
+        };
+        emitter.onCompletion(release);
+        emitter.onTimeout(release);
+        emitter.onError(e -> release.run());
+
+        try {
+            while (true) {
+                Channel channel = channels.computeIfAbsent(channelKey, k -> new Channel(sequence.incrementAndGet()));
+                synchronized (channel) {
+                    if (channel.closed) {
+                        continue;
+                    }
+                    if (channel.summary == null) {
+                        // First subscriber pays for the computation, everyone after shares it
+                        channel.summary = load(channelKey);
+                    }
+                    // Sent before the emitter is visible to broadcasts, so nothing can overtake it.
+                    // The emitter is not yet handed to MVC, so these sends are only buffered.
+                    List<PushedEvent> backlog = channel.eventsAfter(parseSequence(lastEventId));
+                    if (backlog == null) {
+                        emitter.send(SseEmitter.event()
+                                .id(eventId(channel.lastSequence))
+                                .name("snapshot")
+                                .reconnectTime(reconnectDelayMs)
+                                .data(channel.summary, MediaType.APPLICATION_JSON));
+                    } else {
+                        for (PushedEvent event : backlog) {
+                            send(emitter, event);
+                        }
+                    }
+                    channel.emitters.add(emitter);
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            release.run();
+            throw new RuntimeException("Failed to open dashboard stream: " + e.getMessage(), e);
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Recomputes the given channels off the calling thread and pushes whatever changed.
+     */
+    public void refresh(Collection<String> channelKeys) {
+        if (!running) {
+            return;
+        }
+        List<String> keys = List.copyOf(channelKeys);
+        executor.execute(() -> keys.forEach(this::refreshChannel));
+    }
+
+    public void refreshAll() {
+        refresh(channels.keySet());
+    }
+
+    // ---------------------------
+    // CHANNELS
+    // ---------------------------
+    private void refreshChannel(String channelKey) {
+        Channel channel = channels.get(channelKey);
+        if (channel == null) {
+            // Nobody is listening, so there is nothing to compute
+            return;
+        }
+
+        PushedEvent event;
+        List<SseEmitter> targets;
+        synchronized (channel) {
+            if (channel.closed) {
+                return;
+            }
+            Map<String, Object> summary;
+            try {
+                summary = load(channelKey);
+            } catch (Exception e) {
+                log.warn("Failed to refresh dashboard channel {}: {}", channelKey, e.getMessage());
+                return;
+            }
+            Map<String, Object> delta = diff(channel.summary, summary);
+            channel.summary = summary;
+            if (delta.isEmpty()) {
+                return;
+            }
+            event = new PushedEvent(sequence.incrementAndGet(), "delta", delta);
+            channel.record(event, replayBufferSize);
+            targets = List.copyOf(channel.emitters);
+        }
+
+        for (SseEmitter emitter : targets) {
+            try {
+                send(emitter, event);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void unsubscribe(String channelKey, SseEmitter emitter) {
+        connections.decrementAndGet();
+        Channel channel = channels.get(channelKey);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            channel.emitters.remove(emitter);
+            if (channel.emitters.isEmpty() && !channel.closed) {
+                // Drop the cached summary with the last subscriber; a later one recomputes it
+                channel.closed = true;
+                channels.remove(channelKey, channel);
+            }
+        }
+    }
+
+    private Map<String, Object> load(String channelKey) {
+        if (ADMIN_CHANNEL.equals(channelKey)) {
+            return dashboardService.getAdminSummary();
+        }
+        if (channelKey.startsWith(TEACHER_CHANNEL_PREFIX)) {
+            Long teacherId = Long.valueOf(channelKey.substring(TEACHER_CHANNEL_PREFIX.length()));
+            return dashboardService.getTeacherSummary(teacherId);
+        }
+        throw new IllegalArgumentException("Unknown dashboard channel: " + channelKey);
+    }
+
+    private static Map<String, Object> diff(Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        current.forEach((key, value) -> {
+            if (previous == null || !Objects.equals(previous.get(key), value)) {
+                delta.put(key, value);
+            }
+        });
+        return delta;
+    }
+
+    private void send(SseEmitter emitter, PushedEvent event) throws Exception {
+        emitter.send(SseEmitter.event()
+                .id(eventId(event.sequence()))
+                .name(event.name())
+                .data(event.data(), MediaType.APPLICATION_JSON));
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private long parseSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ---------------------------
+    // HEARTBEAT / RESYNC
+    // ---------------------------
+    private void heartbeat() {
+        for (Channel channel : channels.values()) {
+            for (SseEmitter emitter : channel.emitters) {
+                try {
+                    // Comment lines keep proxies from idling the connection out and surface dead clients
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (Exception e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dashboard-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        // Picks up changes that raise no domain event, such as new user registrations
+        executor.scheduleWithFixedDelay(this::refreshAll, resyncIntervalMs, resyncIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Channel channel : channels.values()) {
+            channel.emitters.forEach(SseEmitter::complete);
+        }
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record PushedEvent(long sequence, String name, Map<String, Object> data) {
+    }
+
+    private static final class Channel {
+
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        final Deque<PushedEvent> recent = new ArrayDeque<>();
+        Map<String, Object> summary;
+        boolean closed;
+
+        // Sequence of the oldest state a client may resume from, and of the latest pushed state
+        long floorSequence;
+        long lastSequence;
+
+        Channel(long createdAt) {
+            this.floorSequence = createdAt;
+            this.lastSequence = createdAt;
+        }
+
+        void record(PushedEvent event, int capacity) {
+            recent.addLast(event);
+            lastSequence = event.sequence();
+            if (recent.size() > capacity) {
+                floorSequence = recent.removeFirst().sequence();
+            }
+        }
+
+        /** Events a client at {@code seq} missed, or null when it cannot be caught up by replay. */
+        List<PushedEvent> eventsAfter(long seq) {
+            if (seq < floorSequence || seq > lastSequence) {
+                return null;
+            }
+            List<PushedEvent> missed = new ArrayList<>();
+            for (PushedEvent event : recent) {
+                if (event.sequence() > seq) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+}
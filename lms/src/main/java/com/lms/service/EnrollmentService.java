@@ -1,14 +1,19 @@
 package com.lms.service;
 
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
 import com.lms.dto.EnrollmentDto;
 import com.lms.entity.Course;
 import com.lms.entity.Enrollment;
 import com.lms.entity.User;
+import com.lms.event.EnrollmentCreated;
+import com.lms.event.EnrollmentRemoved;
 import com.lms.repository.CourseRepository;
 import com.lms.repository.EnrollmentRepository;
 import com.lms.repository.UserRepository;
 import com.lms.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,11 +26,13 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@UseWorkload(Workload.INTERACTIVE)
 public class EnrollmentService implements EnrollmentServiceTmp {
 
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Enrolls a student in a course.
@@ -50,9 +57,9 @@ public class EnrollmentService implements EnrollmentServiceTmp {
         Enrollment enrollment = new Enrollment(student, course);
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
 
-        // Update course student count
-        course.setStudents(course.getStudents() != null ? course.getStudents() + 1 : 1);
-        courseRepository.save(course);
+        // Course student count and dashboards are updated after commit by event handlers
+        eventPublisher.publishEvent(EnrollmentCreated.of(savedEnrollment.getId(), course.getId(),
+                student.getId(), instructorIdOf(course)));
 
         return convertToDto(savedEnrollment);
     }
@@ -182,14 +189,11 @@ public class EnrollmentService implements EnrollmentServiceTmp {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + enrollmentId));
 
-        // Update course student count
         Course course = enrollment.getCourse();
-        if (course.getStudents() != null && course.getStudents() > 0) {
-            course.setStudents(course.getStudents() - 1);
-            courseRepository.save(course);
-        }
-
         enrollmentRepository.delete(enrollment);
+
+        eventPublisher.publishEvent(EnrollmentRemoved.of(enrollment.getId(), course.getId(),
+                enrollment.getStudent().getId(), instructorIdOf(course)));
     }
 
     /**
@@ -229,6 +233,10 @@ public class EnrollmentService implements EnrollmentServiceTmp {
         );
     }
 
+    private Long instructorIdOf(Course course) {
+        return course.getInstructor() != null ? course.getInstructor().getId() : null;
+    }
+
     /**
      * Converts an Enrollment entity to a DTO.
      *
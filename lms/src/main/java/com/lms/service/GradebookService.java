@@ -0,0 +1,219 @@
+package com.lms.service;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.dto.GradebookDto;
+import com.lms.entity.Course;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.GradebookRepository;
+import com.lms.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+/**
+ * Builds a course gradebook from one query, in one pass over the course's submissions, instead of
+ * one request per assignment. Everything is assembled in primitive arrays; the only per-row objects are the
+ * student names and assignment titles.
+ */
+@Service
+@RequiredArgsConstructor
+@UseWorkload(Workload.REPORTING)
+public class GradebookService {
+
+    private final CourseRepository courseRepository;
+    private final GradebookRepository gradebookRepository;
+
+    @Transactional(readOnly = true)
+    public GradebookDto getGradebook(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!currentUser.isAdmin() && !course.getInstructor().getId().equals(currentUser.getId())) {
+            throw new SecurityException("You can only view the gradebook of your own courses");
+        }
+
+        Assembler assembler = new Assembler();
+        gradebookRepository.read(courseId, assembler);
+        return assembler.build(courseId);
+    }
+
+    /**
+     * Collects the roster and columns as their rows arrive, then places each submission in the grid.
+     */
+    private static final class Assembler implements GradebookRepository.GradebookRows {
+
+        private long[] studentIds = new long[64];
+        private String[] names = new String[64];
+        private int rows;
+
+        private long[] assignmentIds = new long[16];
+        private String[] titles = new String[16];
+        private int[] maxPoints = new int[16];
+        private int cols;
+
+        private LongIntIndex rowIndex;
+        private LongIntIndex colIndex;
+        private int[] grades;
+        private byte[] graded;
+        private byte[] submitted;
+
+        @Override
+        public void student(long id, String name) {
+            if (rows == studentIds.length) {
+                studentIds = Arrays.copyOf(studentIds, rows * 2);
+                names = Arrays.copyOf(names, rows * 2);
+            }
+            studentIds[rows] = id;
+            names[rows++] = name;
+        }
+
+        @Override
+        public void assignment(long id, String title, int points) {
+            if (cols == assignmentIds.length) {
+                assignmentIds = Arrays.copyOf(assignmentIds, cols * 2);
+                titles = Arrays.copyOf(titles, cols * 2);
+                maxPoints = Arrays.copyOf(maxPoints, cols * 2);
+            }
+            assignmentIds[cols] = id;
+            titles[cols] = title;
+            maxPoints[cols++] = points;
+        }
+
+        @Override
+        public void submission(long studentId, long assignmentId, int grade, boolean isGraded) {
+            if (grades == null) {
+                layout();
+            }
+            int row = rowIndex.get(studentId);
+            int col = colIndex.get(assignmentId);
+            if (row < 0 || col < 0) {
+                // Submission from a student who has since left the course
+                return;
+            }
+            int cell = row * cols + col;
+            submitted[cell >>> 3] |= (byte) (1 << (cell & 7));
+            if (isGraded) {
+                graded[cell >>> 3] |= (byte) (1 << (cell & 7));
+                grades[cell] = grade;
+            } else {
+                graded[cell >>> 3] &= (byte) ~(1 << (cell & 7));
+                grades[cell] = 0;
+            }
+        }
+
+        // Roster and columns are complete once the first submission arrives
+        private void layout() {
+            studentIds = Arrays.copyOf(studentIds, rows);
+            names = Arrays.copyOf(names, rows);
+            assignmentIds = Arrays.copyOf(assignmentIds, cols);
+            titles = Arrays.copyOf(titles, cols);
+            maxPoints = Arrays.copyOf(maxPoints, cols);
+
+            rowIndex = new LongIntIndex(studentIds);
+            colIndex = new LongIntIndex(assignmentIds);
+            grades = new int[rows * cols];
+            graded = new byte[(grades.length + 7) >>> 3];
+            submitted = new byte[graded.length];
+        }
+
+        GradebookDto build(Long courseId) {
+            if (grades == null) {
+                layout();
+            }
+            return new GradebookDto(courseId, studentIds, names, assignmentIds, titles, maxPoints, grades, graded,
+                    submitted, columnStats(rows, cols, grades, graded, submitted));
+        }
+    }
+
+    // ---------------------------
+    // STATS
+    // ---------------------------
+    private static GradebookDto.ColumnStats columnStats(int rows, int cols, int[] grades,
+                                                         byte[] graded, byte[] submitted) {
+        int[] submittedCount = new int[cols];
+        int[] gradedCount = new int[cols];
+        int[] min = new int[cols];
+        int[] max = new int[cols];
+        double[] mean = new double[cols];
+        double[] median = new double[cols];
+
+        int[] column = new int[rows];
+        for (int col = 0; col < cols; col++) {
+            int n = 0;
+            long sum = 0;
+            for (int row = 0; row < rows; row++) {
+                int cell = row * cols + col;
+                if (isSet(submitted, cell)) {
+                    submittedCount[col]++;
+                }
+                if (isSet(graded, cell)) {
+                    column[n++] = grades[cell];
+                    sum += grades[cell];
+                }
+            }
+            gradedCount[col] = n;
+            if (n == 0) {
+                continue;
+            }
+            Arrays.sort(column, 0, n);
+            min[col] = column[0];
+            max[col] = column[n - 1];
+            mean[col] = (double) sum / n;
+            median[col] = (n & 1) == 1 ? column[n / 2] : (column[n / 2 - 1] + column[n / 2]) / 2.0;
+        }
+        return new GradebookDto.ColumnStats(submittedCount, gradedCount, min, max, mean, median);
+    }
+
+    private static boolean isSet(byte[] bitmap, int index) {
+        return (bitmap[index >>> 3] & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * Open-addressing map from id to array position, so cell lookups do not box.
+     */
+    private static final class LongIntIndex {
+
+        private final long[] keys;
+        private final int[] values;
+        private final boolean[] used;
+        private final int mask;
+
+        LongIntIndex(long[] ids) {
+            int capacity = Integer.highestOneBit(Math.max(4, ids.length * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < ids.length; i++) {
+                int slot = slot(ids[i]);
+                while (used[slot] && keys[slot] != ids[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = ids[i];
+                values[slot] = i;
+            }
+        }
+
+        int get(long key) {
+            int slot = slot(key);
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
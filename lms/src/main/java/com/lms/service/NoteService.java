@@ -1,10 +1,16 @@
 package com.lms.service;
 
+import com.lms.dto.CreateNoteRequest;
 import com.lms.dto.NoteDto;
+import com.lms.dto.Watermark;
+
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 public interface NoteService {
     List<NoteDto> getAccessibleNotes();
-    // Other methods (e.g., createNote, updateNote, deleteNote)
+    Watermark getAccessibleNotesWatermark();
+    NoteDto createNote(CreateNoteRequest request, MultipartFile file);
+    // Other methods (e.g., updateNote, deleteNote)
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.lms.service;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.dto.QuestionBankDto;
+import com.lms.dto.QuizQuestionDto;
+import com.lms.entity.Course;
+import com.lms.entity.QuestionBank;
+import com.lms.entity.QuizQuestion;
+import com.lms.entity.User;
+import com.lms.quiz.QuestionImporter;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.QuestionBankRepository;
+import com.lms.repository.QuizRepository;
+import com.lms.repository.UserRepository;
+import com.lms.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Question banks: a course's reusable questions, authored like a quiz's. A quiz built from a
+ * bank gets copies of its questions, so editing or deleting a bank never changes a quiz.
+ */
+@Service
+@RequiredArgsConstructor
+@UseWorkload(Workload.INTERACTIVE)
+public class QuestionBankService {
+
+    private final QuestionBankRepository questionBankRepository;
+    private final QuizRepository quizRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final QuestionImporter questionImporter;
+
+    @Transactional
+    public QuestionBankDto createBank(QuestionBankDto dto) {
+        Course course = courseRepository.findById(dto.getCourseId())
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        User teacher = currentUser();
+        checkCanManage(teacher, course);
+
+        QuestionBank bank = new QuestionBank();
+        bank.setCourse(course);
+        bank.setCreatedBy(teacher);
+        apply(bank, dto);
+        return toDto(questionBankRepository.save(bank), true);
+    }
+
+    @Transactional
+    public QuestionBankDto updateBank(Long id, QuestionBankDto dto) {
+        QuestionBank bank = findBank(id);
+        checkCanManage(currentUser(), bank.getCourse());
+        apply(bank, dto);
+        return toDto(questionBankRepository.save(bank), true);
+    }
+
+    @Transactional
+    public void deleteBank(Long id) {
+        QuestionBank bank = findBank(id);
+        checkCanManage(currentUser(), bank.getCourse());
+        quizRepository.detachBank(id);
+        questionBankRepository.delete(bank);
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuestionBankDto> getBanksByCourse(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        checkCanManage(currentUser(), course);
+        return questionBankRepository.findByCourseIdOrderByTitleAsc(courseId).stream()
+                .map(bank -> {
+                    QuestionBankDto dto = toDto(bank, false);
+                    dto.setQuestionCount(questionBankRepository.countQuestions(bank.getId()));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public QuestionBankDto getBank(Long id) {
+        QuestionBank bank = findBank(id);
+        checkCanManage(currentUser(), bank.getCourse());
+        return toDto(bank, true);
+    }
+
+    /**
+     * Queues an import of a QTI or GIFT file into the bank. Without a format, XML and zip bodies are
+     * read as QTI and plain text as GIFT.
+     */
+    public QuestionImporter.Progress importQuestions(Long id, String format, String contentType, InputStream body) {
+        QuestionBank bank = questionBankRepository.findWithCourseById(id)
+                .orElseThrow(() -> new RuntimeException("Question bank not found"));
+        User teacher = currentUser();
+        checkCanManage(teacher, bank.getCourse());
+        return questionImporter.submit(bank.getId(), teacher.getId(), importFormat(format, contentType), body);
+    }
+
+    public QuestionImporter.Progress getImport(String jobId) {
+        QuestionImporter.Progress progress = questionImporter.progress(jobId);
+        if (progress == null) {
+            throw new RuntimeException("Import not found");
+        }
+        User user = currentUser();
+        if (user.getRole() != User.Role.ADMIN && progress.userId() != user.getId()) {
+            throw new SecurityException("You can only view your own imports");
+        }
+        return progress;
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private QuestionBank findBank(Long id) {
+        return questionBankRepository.findWithQuestionsById(id)
+                .orElseThrow(() -> new RuntimeException("Question bank not found"));
+    }
+
+    private User currentUser() {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private static void checkCanManage(User user, Course course) {
+        if (user.getRole() == User.Role.ADMIN) {
+            return;
+        }
+        if (user.getRole() != User.Role.TEACHER) {
+            throw new SecurityException("Only teachers or admins can manage question banks");
+        }
+        if (!course.getInstructor().getId().equals(user.getId())) {
+            throw new SecurityException("You can only manage question banks for your own courses");
+        }
+    }
+
+    private static QuestionImporter.Format importFormat(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return QuestionImporter.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown import format " + format + "; use QTI or GIFT");
+            }
+        }
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("multipart/")) {
+            throw new RuntimeException("Send the file itself as the request body, not a form");
+        }
+        if (type.contains("xml") || type.contains("zip")) {
+            return QuestionImporter.Format.QTI;
+        }
+        if (type.startsWith("text/plain")) {
+            return QuestionImporter.Format.GIFT;
+        }
+        throw new RuntimeException("Name the import format with format=QTI or format=GIFT");
+    }
+
+    // Bank questions have no draft stage, so their keys are checked on every save
+    private static void apply(QuestionBank bank, QuestionBankDto dto) {
+        if (dto.getTitle() == null || dto.getTitle().isBlank()) {
+            throw new RuntimeException("Question bank title is required");
+        }
+        bank.setTitle(dto.getTitle().trim());
+        bank.setDescription(dto.getDescription());
+        if (dto.getQuestions() == null) {
+            return;
+        }
+        QuizService.replaceQuestions(bank.getQuestions(), dto.getQuestions(), () -> {
+            QuizQuestion question = new QuizQuestion();
+            question.setBank(bank);
+            return question;
+        });
+        for (QuizQuestion question : bank.getQuestions()) {
+            QuizService.validateKey(question);
+        }
+    }
+
+    private static QuestionBankDto toDto(QuestionBank bank, boolean withQuestions) {
+        QuestionBankDto dto = new QuestionBankDto();
+        dto.setId(bank.getId());
+        dto.setCourseId(bank.getCourse().getId());
+        dto.setCourseTitle(bank.getCourse().getTitle());
+        dto.setTitle(bank.getTitle());
+        dto.setDescription(bank.getDescription());
+        dto.setCreatedAt(bank.getCreatedAt());
+        dto.setUpdatedAt(bank.getUpdatedAt());
+        if (!withQuestions) {
+            dto.setQuestions(null);
+            return dto;
+        }
+        List<QuizQuestionDto> questions = new ArrayList<>();
+        for (QuizQuestion question : bank.getQuestions()) {
+            questions.add(QuizService.toDto(question, true));
+        }
+        dto.setQuestions(questions);
+        dto.setQuestionCount(questions.size());
+        return dto;
+    }
+}
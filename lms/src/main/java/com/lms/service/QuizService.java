@@ -0,0 +1,706 @@
+package com.lms.service;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.dto.QuizAttemptDto;
+import com.lms.dto.QuizDto;
+import com.lms.dto.QuizQuestionDto;
+import com.lms.entity.Course;
+import com.lms.entity.QuestionBank;
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizAttempt;
+import com.lms.entity.QuizQuestion;
+import com.lms.entity.User;
+import com.lms.quiz.AnswerBuffer;
+import com.lms.quiz.AnswerCodec;
+import com.lms.quiz.AnswerKey;
+import com.lms.quiz.AnswerKeyCache;
+import com.lms.quiz.ItemStatistics;
+import com.lms.quiz.QuestionPool;
+import com.lms.quiz.QuestionPoolCache;
+import com.lms.quiz.QuizRegrader;
+import com.lms.quiz.QuizSessionManager;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.QuestionBankRepository;
+import com.lms.repository.QuizAttemptRepository;
+import com.lms.repository.QuizRepository;
+import com.lms.repository.UserRepository;
+import com.lms.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@UseWorkload(Workload.INTERACTIVE)
+public class QuizService {
+
+    private final QuizRepository quizRepository;
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final CourseRepository courseRepository;
+    private final QuestionBankRepository questionBankRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentService enrollmentService;
+    private final AnswerKeyCache answerKeyCache;
+    private final QuestionPoolCache questionPoolCache;
+    private final QuizRegrader quizRegrader;
+    private final ItemStatistics itemStatistics;
+    private final QuizSessionManager sessionManager;
+    private final AnswerBuffer answerBuffer;
+    private final AnswerCodec answerCodec;
+    private final TransactionTemplate transactionTemplate;
+
+    // ---------------------------
+    // TEACHER: AUTHORING
+    // ---------------------------
+    @Transactional
+    public QuizDto createQuiz(QuizDto dto) {
+        Course course = courseRepository.findById(dto.getCourseId())
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        User teacher = currentUser();
+        checkCanManage(teacher, course);
+
+        Quiz quiz = new Quiz();
+        quiz.setCourse(course);
+        quiz.setCreatedBy(teacher);
+        applyBank(quiz, dto);
+        apply(quiz, dto);
+
+        return toDto(quizRepository.save(quiz), true);
+    }
+
+    @Transactional
+    public QuizDto updateQuiz(Long id, QuizDto dto) {
+        Quiz quiz = findQuiz(id);
+        checkCanManage(currentUser(), quiz.getCourse());
+        if (quiz.getStatus() != Quiz.Status.DRAFT) {
+            throw new RuntimeException("A published quiz cannot be edited; correct its answer key instead");
+        }
+        applyBank(quiz, dto);
+        apply(quiz, dto);
+        return toDto(quizRepository.save(quiz), true);
+    }
+
+    @Transactional
+    public QuizDto publishQuiz(Long id) {
+        Quiz quiz = findQuiz(id);
+        checkCanManage(currentUser(), quiz.getCourse());
+        if (quiz.getStatus() == Quiz.Status.PUBLISHED) {
+            throw new RuntimeException("Quiz is already published");
+        }
+        if (quiz.getQuestions().isEmpty()) {
+            throw new RuntimeException("A quiz needs at least one question to be published");
+        }
+        for (QuizQuestion question : quiz.getQuestions()) {
+            validateKey(question);
+        }
+        if (quiz.getDrawCount() != null && quiz.getDrawCount() > quiz.getQuestions().size()) {
+            throw new RuntimeException("Cannot draw " + quiz.getDrawCount() + " questions from a quiz with "
+                    + quiz.getQuestions().size());
+        }
+        quiz.setStatus(Quiz.Status.PUBLISHED);
+        quiz.setPublishedAt(LocalDateTime.now());
+        Quiz saved = quizRepository.save(quiz);
+
+        AnswerKey key = answerKeyCache.compile(saved);
+        QuestionPool pool = questionPoolCache.compile(saved);
+        log.info("Published quiz {}: {} questions, {} drawn per attempt, {} points", saved.getId(), key.size(),
+                pool.drawCount(), key.maxPoints());
+        return toDto(saved, true);
+    }
+
+    /**
+     * Replaces one question's answer key on a published quiz and compiles the quiz's next key
+     * version. Existing attempts keep their scores until {@link #regradeQuiz} runs.
+     */
+    @Transactional
+    public QuizDto correctAnswerKey(Long id, Long questionId, QuizQuestionDto dto) {
+        Quiz quiz = findQuiz(id);
+        checkCanManage(currentUser(), quiz.getCourse());
+        QuizQuestion question = quiz.getQuestions().stream()
+                .filter(q -> q.getId().equals(questionId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Question not found"));
+
+        applyKey(question, dto);
+        validateKey(question);
+        quiz.setKeyVersion(quiz.getKeyVersion() + 1);
+        Quiz saved = quizRepository.save(quiz);
+
+        if (saved.getStatus() == Quiz.Status.PUBLISHED) {
+            answerKeyCache.compile(saved);
+        }
+        log.info("Corrected answer key of quiz {} question {}, now version {}", id, questionId, saved.getKeyVersion());
+        return toDto(saved, true);
+    }
+
+    /**
+     * Rescores every submitted attempt against the quiz's current answer key. Runs outside any
+     * transaction: the regrader's threads write in their own batches.
+     */
+    public QuizRegrader.Result regradeQuiz(Long id) {
+        AnswerKey key = transactionTemplate.execute(status -> loadKey(id));
+        return quizRegrader.regrade(key);
+    }
+
+    @Transactional
+    public void deleteQuiz(Long id) {
+        Quiz quiz = findQuiz(id);
+        checkCanManage(currentUser(), quiz.getCourse());
+        if (quiz.getStatus() != Quiz.Status.DRAFT) {
+            throw new RuntimeException("Only draft quizzes can be deleted");
+        }
+        quizRepository.delete(quiz);
+        answerKeyCache.evict(id);
+        questionPoolCache.evict(id);
+    }
+
+    // ---------------------------
+    // READ
+    // ---------------------------
+    @Transactional(readOnly = true)
+    public List<QuizDto> getQuizzesByCourse(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        User user = currentUser();
+        if (canManage(user, course)) {
+            return quizRepository.findByCourseIdOrderByCreatedAtDesc(courseId).stream()
+                    .map(this::toSummary)
+                    .collect(Collectors.toList());
+        }
+        if (!enrollmentService.isEnrolled(courseId)) {
+            throw new SecurityException("You must be enrolled in the course to view its quizzes");
+        }
+        return quizRepository.findByCourseIdAndStatusOrderByCreatedAtDesc(courseId, Quiz.Status.PUBLISHED).stream()
+                .map(this::toSummary)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The quiz with its questions and answer key for its teacher. Students get the quiz without
+     * questions: each attempt brings its own, drawn from the quiz's pool.
+     */
+    @Transactional(readOnly = true)
+    public QuizDto getQuiz(Long id) {
+        Quiz quiz = quizRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        User user = currentUser();
+        if (canManage(user, quiz.getCourse())) {
+            return toDto(quiz, true);
+        }
+        checkCanTake(quiz);
+        QuizDto dto = toSummary(quiz);
+        dto.setQuestionCount(questionPoolCache.get(quiz).drawCount());
+        return dto;
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuizAttemptDto> getAttempts(Long id) {
+        Quiz quiz = quizRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        checkCanManage(currentUser(), quiz.getCourse());
+        return quizAttemptRepository.findByQuizIdWithStudent(id).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Difficulty, discrimination and option statistics of the quiz's questions over the attempts
+     * scored with its current answer key, from running sums kept by {@link ItemStatistics}.
+     */
+    @Transactional(readOnly = true)
+    public ItemStatistics.Analysis getItemAnalysis(Long id) {
+        Quiz quiz = quizRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        checkCanManage(currentUser(), quiz.getCourse());
+        if (quiz.getStatus() != Quiz.Status.PUBLISHED) {
+            throw new RuntimeException("Quiz is not published");
+        }
+        return itemStatistics.analyze(questionPoolCache.get(quiz), answerKeyCache.get(quiz));
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuizAttemptDto> getMyAttempts(Long id) {
+        User student = currentUser();
+        return quizAttemptRepository.findByQuizIdAndStudentIdOrderByIdDesc(id, student.getId()).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // ---------------------------
+    // STUDENT: TAKING
+    // ---------------------------
+    /**
+     * Opens an attempt, or returns the student's attempt that is still open, with its questions.
+     * On a timed quiz the attempt gets a deadline, enforced by {@link QuizSessionManager}. On a
+     * quiz that draws or shuffles its questions the attempt gets a random seed, and its variant
+     * is derived from the seed and the quiz's cached {@link QuestionPool}: a whole class starting
+     * an exam at once reads no questions from the database.
+     */
+    @Transactional
+    public QuizAttemptDto startAttempt(Long id) {
+        Quiz quiz = quizRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        User student = currentStudent();
+        checkCanTake(quiz);
+        QuestionPool pool = questionPoolCache.get(quiz);
+
+        LocalDateTime now = LocalDateTime.now();
+        QuizAttempt open = findOpenAttempt(quiz, student, now);
+        if (open != null) {
+            // Resumed, for instance after a reload: hand back what was saved so far
+            QuestionPool.Variant variant = pool.variant(open.getVariantSeed());
+            QuizAttemptDto dto = toDto(open);
+            dto.setQuestions(toDtos(variant));
+            Map<Long, String> saved = answerBuffer.answers(open.getId());
+            dto.setAnswers(variant.toShown(saved != null ? saved : answerCodec.read(open.getId(), open.getAnswers())));
+            return dto;
+        }
+
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setQuiz(quiz);
+        attempt.setStudent(student);
+        attempt.setStartedAt(now);
+        if (quiz.getTimeLimit() != null) {
+            attempt.setDeadline(now.plusMinutes(quiz.getTimeLimit()));
+        }
+        if (pool.isRandomized()) {
+            attempt.setVariantSeed(ThreadLocalRandom.current().nextLong());
+        }
+        QuizAttempt saved = quizAttemptRepository.save(attempt);
+        answerBuffer.open(saved.getId(), quiz.getId(), student.getId(), saved.getDeadline(), saved.getVariantSeed());
+        if (saved.getDeadline() != null) {
+            sessionManager.track(saved.getId(), saved.getDeadline());
+        }
+        QuizAttemptDto dto = toDto(saved);
+        dto.setQuestions(toDtos(pool.variant(saved.getVariantSeed())));
+        return dto;
+    }
+
+    /**
+     * Merges autosaved answers into the student's open attempt. Answers are buffered in memory
+     * and written to the database in batches (see {@link AnswerBuffer}); after the attempt's
+     * first save this reads nothing from the database. Option indices are converted from the
+     * attempt's order to the quiz's, in which answers are kept and scored.
+     */
+    public Map<String, Object> autosave(Long id, Long attemptId, Map<String, ?> rawAnswers) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!principal.isStudent()) {
+            throw new SecurityException("Only students can take quizzes");
+        }
+        AnswerBuffer.Session session = answerBuffer.session(attemptId);
+        if (session == null || session.quizId() != id || session.studentId() != principal.getId()) {
+            throw new RuntimeException("No open attempt found");
+        }
+        if (!sessionManager.isOpen(session.deadline(), LocalDateTime.now())) {
+            throw new RuntimeException("The time limit has passed; the attempt is submitted automatically");
+        }
+
+        QuestionPool.Variant variant = questionPoolCache.get(session.quizId()).variant(session.variantSeed());
+        int answered = answerBuffer.save(session, variant.toPool(AnswerKey.normalize(rawAnswers)));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("attemptId", attemptId);
+        result.put("answered", answered);
+        if (session.deadline() != null) {
+            result.put("secondsLeft", Math.max(0, Duration.between(LocalDateTime.now(), session.deadline()).getSeconds()));
+        }
+        return result;
+    }
+
+    /**
+     * Scores the answers against the compiled key and closes the student's open attempt. The
+     * submitted answers are merged over those autosaved. An untimed quiz with fixed questions may
+     * be submitted without starting it first; other quizzes may not, and an attempt past its
+     * deadline has been or is about to be submitted by the server instead.
+     */
+    @Transactional
+    public QuizAttemptDto submitAttempt(Long id, Map<String, ?> rawAnswers) {
+        Quiz quiz = quizRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        User student = currentStudent();
+        checkCanTake(quiz);
+        QuestionPool pool = questionPoolCache.get(quiz);
+
+        LocalDateTime now = LocalDateTime.now();
+        QuizAttempt attempt = quizAttemptRepository
+                .findFirstByQuizIdAndStudentIdAndStatusOrderByIdDesc(id, student.getId(), QuizAttempt.Status.IN_PROGRESS)
+                .orElse(null);
+        if (attempt == null) {
+            if (quiz.getTimeLimit() != null) {
+                throw new RuntimeException("There is no open attempt on this timed quiz; start one first");
+            }
+            if (pool.isRandomized()) {
+                throw new RuntimeException("There is no open attempt on this quiz; start one first");
+            }
+            attempt = new QuizAttempt();
+            attempt.setQuiz(quiz);
+            attempt.setStudent(student);
+            attempt.setStartedAt(now);
+        } else if (!sessionManager.isOpen(attempt.getDeadline(), now)) {
+            throw new RuntimeException("The time limit has passed; the attempt is submitted automatically");
+        }
+
+        Map<Long, String> answers = new LinkedHashMap<>();
+        if (attempt.getId() != null) {
+            Map<Long, String> saved = answerBuffer.answers(attempt.getId());
+            answers.putAll(saved != null ? saved : answerCodec.read(attempt.getId(), attempt.getAnswers()));
+        }
+        QuestionPool.Variant variant = pool.variant(attempt.getVariantSeed());
+        answers.putAll(variant.toPool(AnswerKey.normalize(rawAnswers)));
+        AnswerKey key = answerKeyCache.get(quiz);
+        long[] drawn = attempt.getVariantSeed() == null ? null : variant.questionIds();
+        AnswerKey.Score score = key.score(answers, drawn);
+
+        String written = answerCodec.write(answers);
+        if (attempt.getId() != null) {
+            // Guarded, so a second submit, or one racing the deadline, neither rescores the attempt
+            // nor counts its answers again. The attempt is detached from here on
+            int submitted = quizAttemptRepository.submit(attempt.getId(), written, now, score.points(),
+                    score.maxPoints(), score.correct(), score.total(), score.passed(), key.version());
+            if (submitted == 0) {
+                throw new RuntimeException("This attempt has already been submitted");
+            }
+        }
+        attempt.setAnswers(written);
+        attempt.setStatus(QuizAttempt.Status.SUBMITTED);
+        attempt.setSubmittedAt(now);
+        applyScore(attempt, score, key.version());
+
+        QuizAttempt saved = attempt.getId() == null ? quizAttemptRepository.save(attempt) : attempt;
+        sessionManager.release(saved.getId());
+        answerBuffer.complete(saved.getId());
+        itemStatistics.record(key, answers, drawn, score);
+        return toDto(saved);
+    }
+
+    // The student's open attempt that still accepts answers, if any
+    private QuizAttempt findOpenAttempt(Quiz quiz, User student, LocalDateTime now) {
+        return quizAttemptRepository
+                .findFirstByQuizIdAndStudentIdAndStatusOrderByIdDesc(quiz.getId(), student.getId(),
+                        QuizAttempt.Status.IN_PROGRESS)
+                .filter(attempt -> sessionManager.isOpen(attempt.getDeadline(), now))
+                .orElse(null);
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private AnswerKey loadKey(Long id) {
+        Quiz quiz = findQuiz(id);
+        checkCanManage(currentUser(), quiz.getCourse());
+        if (quiz.getStatus() != Quiz.Status.PUBLISHED) {
+            throw new RuntimeException("Quiz is not published");
+        }
+        return answerKeyCache.get(quiz);
+    }
+
+    private static void applyScore(QuizAttempt attempt, AnswerKey.Score score, int keyVersion) {
+        attempt.setScore(score.points());
+        attempt.setMaxScore(score.maxPoints());
+        attempt.setCorrectAnswers(score.correct());
+        attempt.setTotalQuestions(score.total());
+        attempt.setPassed(score.passed());
+        attempt.setKeyVersion(keyVersion);
+    }
+
+    private Quiz findQuiz(Long id) {
+        return quizRepository.findWithQuestionsById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+    }
+
+    private User currentUser() {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private User currentStudent() {
+        User student = currentUser();
+        if (student.getRole() != User.Role.STUDENT) {
+            throw new SecurityException("Only students can take quizzes");
+        }
+        return student;
+    }
+
+    private static boolean canManage(User user, Course course) {
+        return user.getRole() == User.Role.ADMIN
+                || (user.getRole() == User.Role.TEACHER && course.getInstructor().getId().equals(user.getId()));
+    }
+
+    private static void checkCanManage(User user, Course course) {
+        if (user.getRole() != User.Role.TEACHER && user.getRole() != User.Role.ADMIN) {
+            throw new SecurityException("Only teachers or admins can manage quizzes");
+        }
+        if (!canManage(user, course)) {
+            throw new SecurityException("You can only manage quizzes for your own courses");
+        }
+    }
+
+    private void checkCanTake(Quiz quiz) {
+        if (quiz.getStatus() != Quiz.Status.PUBLISHED) {
+            throw new RuntimeException("Quiz not found");
+        }
+        if (!enrollmentService.isEnrolled(quiz.getCourse().getId())) {
+            throw new SecurityException("You must be enrolled in the course to take this quiz");
+        }
+    }
+
+    private static void apply(Quiz quiz, QuizDto dto) {
+        if (dto.getTitle() == null || dto.getTitle().isBlank()) {
+            throw new RuntimeException("Quiz title is required");
+        }
+        quiz.setTitle(dto.getTitle().trim());
+        quiz.setDescription(dto.getDescription());
+        quiz.setTimeLimit(dto.getTimeLimit() != null && dto.getTimeLimit() > 0 ? dto.getTimeLimit() : null);
+        if (dto.getPassPercentage() != null) {
+            if (dto.getPassPercentage() < 0 || dto.getPassPercentage() > 100) {
+                throw new RuntimeException("Pass percentage must be between 0 and 100");
+            }
+            quiz.setPassPercentage(dto.getPassPercentage());
+        }
+        quiz.setDrawCount(dto.getDrawCount() != null && dto.getDrawCount() > 0 ? dto.getDrawCount() : null);
+        if (dto.getShuffleQuestions() != null) {
+            quiz.setShuffleQuestions(dto.getShuffleQuestions());
+        }
+        if (dto.getShuffleOptions() != null) {
+            quiz.setShuffleOptions(dto.getShuffleOptions());
+        }
+        if (dto.getQuestions() == null) {
+            return;
+        }
+        replaceQuestions(quiz.getQuestions(), dto.getQuestions(), () -> {
+            QuizQuestion question = new QuizQuestion();
+            question.setQuiz(quiz);
+            return question;
+        });
+    }
+
+    // Links the quiz to the bank; a quiz saved without questions of its own gets copies of the bank's
+    private void applyBank(Quiz quiz, QuizDto dto) {
+        if (dto.getBankId() == null) {
+            quiz.setBank(null);
+            return;
+        }
+        QuestionBank bank = questionBankRepository.findWithQuestionsById(dto.getBankId())
+                .orElseThrow(() -> new RuntimeException("Question bank not found"));
+        if (!bank.getCourse().getId().equals(quiz.getCourse().getId())) {
+            throw new RuntimeException("The question bank belongs to another course");
+        }
+        quiz.setBank(bank);
+        if (dto.getQuestions() == null || dto.getQuestions().isEmpty()) {
+            dto.setQuestions(bank.getQuestions().stream()
+                    .map(question -> toDto(question, true))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Replaces the questions with the given ones, reusing rows by position.
+     */
+    static void replaceQuestions(List<QuizQuestion> questions, List<QuizQuestionDto> sources,
+                                 Supplier<QuizQuestion> newQuestion) {
+        while (questions.size() > sources.size()) {
+            questions.remove(questions.size() - 1);
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            QuizQuestion question;
+            if (i < questions.size()) {
+                question = questions.get(i);
+            } else {
+                question = newQuestion.get();
+                questions.add(question);
+            }
+            apply(question, sources.get(i), i);
+        }
+    }
+
+    private static void apply(QuizQuestion question, QuizQuestionDto dto, int sortOrder) {
+        if (dto.getText() == null || dto.getText().isBlank()) {
+            throw new RuntimeException("Question " + (sortOrder + 1) + " has no text");
+        }
+        QuizQuestion.Type type;
+        try {
+            type = QuizQuestion.Type.valueOf(dto.getType() == null ? "" : dto.getType().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Question " + (sortOrder + 1) + " has an unknown type: " + dto.getType());
+        }
+        if (dto.getPoints() != null && dto.getPoints() < 0) {
+            throw new RuntimeException("Question " + (sortOrder + 1) + " has negative points");
+        }
+        question.setSortOrder(sortOrder);
+        question.setType(type);
+        question.setText(dto.getText().trim());
+        question.setPoints(dto.getPoints() == null ? 1 : dto.getPoints());
+
+        question.getOptions().clear();
+        if (type == QuizQuestion.Type.MULTIPLE_CHOICE && dto.getOptions() != null) {
+            for (String option : dto.getOptions()) {
+                question.getOptions().add(new QuizQuestion.Option(option == null ? "" : option.trim(), false));
+            }
+        }
+        applyKey(question, dto);
+    }
+
+    private static void applyKey(QuizQuestion question, QuizQuestionDto dto) {
+        switch (question.getType()) {
+            case MULTIPLE_CHOICE:
+                List<QuizQuestion.Option> options = question.getOptions();
+                for (int i = 0; i < options.size(); i++) {
+                    boolean correct = dto.getCorrectOptions() != null && dto.getCorrectOptions().contains(i);
+                    // Replaced rather than mutated so the element collection sees the change
+                    options.set(i, new QuizQuestion.Option(options.get(i).getText(), correct));
+                }
+                question.setAnswer(null);
+                break;
+            case TRUE_FALSE:
+                question.setAnswer(dto.getCorrectAnswer() == null ? null : dto.getCorrectAnswer().toString());
+                break;
+            default:
+                question.setAnswer(dto.getAcceptedAnswers() == null ? null : dto.getAcceptedAnswers().stream()
+                        .filter(answer -> answer != null && !answer.isBlank())
+                        .map(String::trim)
+                        .collect(Collectors.joining("\n")));
+        }
+    }
+
+    static void validateKey(QuizQuestion question) {
+        String label = "Question " + (question.getSortOrder() + 1);
+        switch (question.getType()) {
+            case MULTIPLE_CHOICE:
+                if (question.getOptions().size() < 2 || question.getOptions().size() > Long.SIZE) {
+                    throw new RuntimeException(label + " needs between 2 and " + Long.SIZE + " options");
+                }
+                if (question.getOptions().stream().noneMatch(option -> Boolean.TRUE.equals(option.getCorrect()))) {
+                    throw new RuntimeException(label + " has no correct option");
+                }
+                break;
+            case TRUE_FALSE:
+                if (question.getAnswer() == null) {
+                    throw new RuntimeException(label + " has no correct answer");
+                }
+                break;
+            default:
+                if (question.getAnswer() == null || question.getAnswer().isBlank()) {
+                    throw new RuntimeException(label + " has no accepted answer");
+                }
+        }
+    }
+
+    private QuizDto toSummary(Quiz quiz) {
+        QuizDto dto = new QuizDto();
+        dto.setId(quiz.getId());
+        dto.setCourseId(quiz.getCourse().getId());
+        dto.setCourseTitle(quiz.getCourse().getTitle());
+        dto.setTitle(quiz.getTitle());
+        dto.setDescription(quiz.getDescription());
+        dto.setTimeLimit(quiz.getTimeLimit());
+        dto.setPassPercentage(quiz.getPassPercentage());
+        dto.setStatus(quiz.getStatus().name());
+        dto.setKeyVersion(quiz.getKeyVersion());
+        dto.setBankId(quiz.getBank() == null ? null : quiz.getBank().getId());
+        dto.setDrawCount(quiz.getDrawCount());
+        dto.setShuffleQuestions(quiz.getShuffleQuestions());
+        dto.setShuffleOptions(quiz.getShuffleOptions());
+        dto.setCreatedAt(quiz.getCreatedAt());
+        dto.setPublishedAt(quiz.getPublishedAt());
+        dto.setQuestions(null);
+        return dto;
+    }
+
+    private QuizDto toDto(Quiz quiz, boolean withKey) {
+        QuizDto dto = toSummary(quiz);
+        List<QuizQuestionDto> questions = new ArrayList<>();
+        int maxPoints = 0;
+        for (QuizQuestion question : quiz.getQuestions()) {
+            questions.add(toDto(question, withKey));
+            maxPoints += question.getPoints();
+        }
+        dto.setQuestions(questions);
+        dto.setQuestionCount(questions.size());
+        dto.setMaxPoints(maxPoints);
+        return dto;
+    }
+
+    static QuizQuestionDto toDto(QuizQuestion question, boolean withKey) {
+        QuizQuestionDto dto = new QuizQuestionDto();
+        dto.setId(question.getId());
+        dto.setType(question.getType().name());
+        dto.setText(question.getText());
+        dto.setPoints(question.getPoints());
+        List<QuizQuestion.Option> options = question.getOptions();
+        dto.setOptions(options.stream().map(QuizQuestion.Option::getText).collect(Collectors.toList()));
+        if (withKey) {
+            switch (question.getType()) {
+                case MULTIPLE_CHOICE:
+                    List<Integer> correct = new ArrayList<>();
+                    for (int i = 0; i < options.size(); i++) {
+                        if (Boolean.TRUE.equals(options.get(i).getCorrect())) {
+                            correct.add(i);
+                        }
+                    }
+                    dto.setCorrectOptions(correct);
+                    break;
+                case TRUE_FALSE:
+                    dto.setCorrectAnswer(question.getAnswer() == null ? null : Boolean.valueOf(question.getAnswer()));
+                    break;
+                default:
+                    dto.setAcceptedAnswers(question.getAnswer() == null ? List.of()
+                            : List.of(question.getAnswer().split("\n")));
+            }
+        }
+        return dto;
+    }
+
+    private static List<QuizQuestionDto> toDtos(QuestionPool.Variant variant) {
+        List<QuizQuestionDto> questions = new ArrayList<>();
+        for (QuestionPool.Question question : variant.questions()) {
+            QuizQuestionDto dto = new QuizQuestionDto();
+            dto.setId(question.id());
+            dto.setType(question.type().name());
+            dto.setText(question.text());
+            dto.setOptions(question.options());
+            dto.setPoints(question.points());
+            questions.add(dto);
+        }
+        return questions;
+    }
+
+    private QuizAttemptDto toDto(QuizAttempt attempt) {
+        QuizAttemptDto dto = new QuizAttemptDto();
+        dto.setId(attempt.getId());
+        dto.setQuizId(attempt.getQuiz().getId());
+        dto.setQuizTitle(attempt.getQuiz().getTitle());
+        dto.setStudentId(attempt.getStudent().getId());
+        dto.setStudentName(attempt.getStudent().getName());
+        dto.setStatus(attempt.getStatus().name());
+        if (attempt.getMaxScore() != null) {
+            dto.setScore(attempt.getMaxScore() == 0 ? 0 : Math.round(attempt.getScore() * 100f / attempt.getMaxScore()));
+        }
+        dto.setPoints(attempt.getScore());
+        dto.setMaxPoints(attempt.getMaxScore());
+        dto.setCorrectAnswers(attempt.getCorrectAnswers());
+        dto.setTotalQuestions(attempt.getTotalQuestions());
+        dto.setPassed(attempt.getPassed());
+        dto.setStartedAt(attempt.getStartedAt());
+        dto.setDeadline(attempt.getDeadline());
+        dto.setSubmittedAt(attempt.getSubmittedAt());
+        if (attempt.getStatus() == QuizAttempt.Status.IN_PROGRESS && attempt.getDeadline() != null) {
+            dto.setSecondsLeft(Math.max(0, Duration.between(LocalDateTime.now(), attempt.getDeadline()).getSeconds()));
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,439 @@
+package com.lms.service;
+
+import com.lms.dto.CreateUploadSessionRequest;
+import com.lms.dto.UploadSessionDto;
+import com.lms.dto.UploadedFileDto;
+import com.lms.exception.ResourceNotFoundException;
+import com.lms.security.UserPrincipal;
+import com.lms.storage.PendingUploads;
+import com.lms.storage.StorageAccounting;
+import com.lms.storage.StoredFile;
+import com.lms.storage.UploadAdmission;
+import com.lms.storage.UploadCategory;
+import com.lms.storage.UploadPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Resumable, chunked uploads for files larger than a single multipart request allows.
+ *
+ * A session fixes the file size and a chunk size; chunk {@code i} covers bytes
+ * {@code [i * chunkSize, min((i + 1) * chunkSize, size))}. Each chunk is written straight from the
+ * request body into a staging file with positional writes, so chunks may arrive in any order and in
+ * parallel, and a chunk that failed half way is simply sent again. Received chunks are tracked in a
+ * bitmap. Finalizing checks that every chunk arrived, hashes the assembled file (and compares it
+ * with the checksum declared at creation, if any) and moves it into the attachment directory.
+ *
+ * An unfinished session counts against the user's quota with its declared size until it completes
+ * or is discarded.
+ *
+ * Sessions live in memory. One left untouched for {@code lms.upload.resumable.session-ttl} is
+ * discarded together with its staging file, and staging files no session owns (for instance after
+ * a restart) are deleted once they are older than the TTL.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService implements SmartLifecycle {
+
+    private static final String STAGING_PREFIX = "resumable-";
+
+    private final UploadPipeline uploadPipeline;
+    private final PendingUploads pendingUploads;
+    private final StorageAccounting storageAccounting;
+    private final UploadAdmission uploadAdmission;
+    private final long maxFileSize;
+    private final long chunkSize;
+    private final Duration sessionTtl;
+    private final Duration sweepInterval;
+    private final int maxSessionsPerUser;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public ResumableUploadService(UploadPipeline uploadPipeline,
+                                  PendingUploads pendingUploads,
+                                  StorageAccounting storageAccounting,
+                                  UploadAdmission uploadAdmission,
+                                  @Value("${lms.upload.resumable.max-file-size:2GB}") DataSize maxFileSize,
+                                  @Value("${lms.upload.resumable.chunk-size:8MB}") DataSize chunkSize,
+                                  @Value("${lms.upload.resumable.session-ttl:24h}") Duration sessionTtl,
+                                  @Value("${lms.upload.resumable.sweep-interval:15m}") Duration sweepInterval,
+                                  @Value("${lms.upload.resumable.max-sessions-per-user:10}") int maxSessionsPerUser) {
+        this.uploadPipeline = uploadPipeline;
+        this.pendingUploads = pendingUploads;
+        this.storageAccounting = storageAccounting;
+        this.uploadAdmission = uploadAdmission;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.chunkSize = chunkSize.toBytes();
+        this.sessionTtl = sessionTtl;
+        this.sweepInterval = sweepInterval;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+    }
+
+    // ---------------------------
+    // SESSIONS
+    // ---------------------------
+    public UploadSessionDto createSession(CreateUploadSessionRequest request) {
+        UserPrincipal user = currentUser();
+        UploadCategory category = UploadCategory.forUser(user, request.getCategory());
+
+        if (request.getSize() == null || request.getSize() <= 0) {
+            throw new RuntimeException("File size must be positive");
+        }
+        if (request.getSize() > maxFileSize) {
+            throw new RuntimeException("File exceeds the maximum upload size of "
+                    + DataSize.ofBytes(maxFileSize).toMegabytes() + "MB");
+        }
+        long open = 0;
+        long reserved = 0;
+        for (UploadSession session : sessions.values()) {
+            if (session.ownerId.equals(user.getId())) {
+                open++;
+                reserved += session.size;
+            }
+        }
+        if (open >= maxSessionsPerUser) {
+            throw new RuntimeException("Too many unfinished uploads; finish or cancel one first");
+        }
+        // Unfinished uploads count as if stored, so parallel sessions cannot each pass the check
+        storageAccounting.checkQuota(null, user.getId(), reserved + request.getSize());
+
+        if (request.getSha256() != null) {
+            // Content the user already holds: the upload becomes a metadata write and no bytes are sent
+            Optional<StoredFile> existing = uploadPipeline.reuse(user.getId(), category, request.getSha256().toLowerCase(),
+                    request.getFileName(), request.getContentType());
+            if (existing.isPresent()) {
+                String uploadId = pendingUploads.register(user.getId(), existing.get());
+                return UploadSessionDto.alreadyStored(UploadedFileDto.fromStoredFile(uploadId, existing.get()));
+            }
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path staging;
+        try {
+            staging = uploadPipeline.stagingDirectory().resolve(STAGING_PREFIX + id);
+            Files.createFile(staging);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create upload session", e);
+        }
+
+        UploadSession session = new UploadSession(id, user.getId(), category, request.getFileName(),
+                request.getContentType(), request.getSize(), chunkSize,
+                request.getSha256() != null ? request.getSha256().toLowerCase() : null, staging);
+        sessions.put(id, session);
+        log.debug("Opened upload session {} for {} ({} bytes in {} chunks)",
+                id, request.getFileName(), request.getSize(), session.chunkCount);
+        return toDto(session);
+    }
+
+    public UploadSessionDto getSession(String id) {
+        UploadSession session = ownedSession(id);
+        synchronized (session) {
+            return toDto(session);
+        }
+    }
+
+    /**
+     * Writes one chunk at {@code offset} straight from {@code body}. The body must contain exactly
+     * the chunk's bytes. Re-sending a chunk that already arrived overwrites it with the same data.
+     */
+    public UploadSessionDto writeChunk(String id, long offset, InputStream body) {
+        UploadSession session = ownedSession(id);
+        if (offset < 0 || offset >= session.size || offset % session.chunkSize != 0) {
+            throw new RuntimeException("Offset must be a multiple of the chunk size (" + session.chunkSize
+                    + ") below the file size");
+        }
+        int chunk = (int) (offset / session.chunkSize);
+        long expected = Math.min(session.chunkSize, session.size - offset);
+
+        synchronized (session) {
+            if (session.state != State.OPEN) {
+                throw new IllegalStateException("Upload session is no longer accepting chunks");
+            }
+            session.activeWrites++;
+        }
+
+        boolean written = false;
+        try {
+            write(session.staging, offset, expected, body);
+            written = true;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write chunk: " + e.getMessage(), e);
+        } finally {
+            synchronized (session) {
+                session.activeWrites--;
+                session.touch();
+                if (written) {
+                    session.received.set(chunk);
+                }
+            }
+        }
+
+        synchronized (session) {
+            return toDto(session);
+        }
+    }
+
+    /**
+     * Verifies the assembled file and moves it into storage, as an upload waiting to be attached.
+     * The session is gone afterwards, whether verification succeeded or not.
+     */
+    public UploadedFileDto complete(String id) {
+        UploadSession session = ownedSession(id);
+        synchronized (session) {
+            if (session.state != State.OPEN) {
+                throw new IllegalStateException("Upload session is already being finalized");
+            }
+            if (session.activeWrites > 0) {
+                throw new IllegalStateException("Chunks are still being written");
+            }
+            int missing = session.chunkCount - session.received.cardinality();
+            if (missing > 0) {
+                throw new RuntimeException(missing + " chunk(s) have not been received yet");
+            }
+            session.state = State.COMPLETING;
+        }
+
+        try {
+            long actualSize = Files.size(session.staging);
+            if (actualSize != session.size) {
+                throw new RuntimeException("Assembled file is " + actualSize + " bytes, expected " + session.size);
+            }
+            UploadPipeline.Checksum checksum = uploadPipeline.checksum(session.staging);
+            if (session.expectedSha256 != null && !session.expectedSha256.equals(checksum.sha256())) {
+                throw new RuntimeException("Checksum mismatch: the file was corrupted in transit");
+            }
+            StoredFile stored = uploadPipeline.adopt(session.category, session.staging, session.fileName,
+                    session.contentType, session.size, checksum);
+            log.info("Completed upload session {} as {}", id, stored.url());
+            return UploadedFileDto.fromStoredFile(pendingUploads.register(session.ownerId, stored), stored);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to finalize upload: " + e.getMessage(), e);
+        } finally {
+            discard(session);
+        }
+    }
+
+    public void cancel(String id) {
+        UploadSession session = ownedSession(id);
+        synchronized (session) {
+            if (session.state != State.OPEN) {
+                throw new IllegalStateException("Upload session is already being finalized");
+            }
+            session.state = State.DISCARDED;
+        }
+        discard(session);
+    }
+
+    // ---------------------------
+    // CHUNK I/O
+    // ---------------------------
+    private void write(Path staging, long offset, long expected, InputStream body) throws IOException {
+        long position = offset;
+        long end = offset + expected;
+        try (ReadableByteChannel source = Channels.newChannel(body);
+             FileChannel sink = FileChannel.open(staging, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(uploadPipeline.getBufferSize());
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (position + buffer.remaining() > end) {
+                    throw new RuntimeException("Chunk is larger than " + expected + " bytes");
+                }
+                uploadAdmission.throttle(buffer.remaining());
+                while (buffer.hasRemaining()) {
+                    // Positional write: the channel's own position is never used, so chunks can be
+                    // written concurrently into the same file
+                    position += sink.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        }
+        if (position != end) {
+            throw new RuntimeException("Chunk is " + (position - offset) + " bytes, expected " + expected);
+        }
+    }
+
+    // ---------------------------
+    // EXPIRY
+    // ---------------------------
+    private void sweep() {
+        long cutoff = System.currentTimeMillis() - sessionTtl.toMillis();
+        for (UploadSession session : sessions.values()) {
+            synchronized (session) {
+                if (session.state != State.OPEN || session.activeWrites > 0 || session.lastTouched > cutoff) {
+                    continue;
+                }
+                session.state = State.DISCARDED;
+            }
+            log.info("Expiring abandoned upload session {} ({} of {} chunks received)",
+                    session.id, session.received.cardinality(), session.chunkCount);
+            discard(session);
+        }
+
+        // Staging files whose session is gone, e.g. from before a restart
+        try (Stream<Path> files = Files.list(uploadPipeline.stagingDirectory())) {
+            files.filter(path -> path.getFileName().toString().startsWith(STAGING_PREFIX))
+                    .filter(path -> !sessions.containsKey(path.getFileName().toString().substring(STAGING_PREFIX.length())))
+                    .filter(path -> lastModified(path) < cutoff)
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Failed to sweep upload staging directory: {}", e.getMessage());
+        }
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.id, session);
+        deleteQuietly(session.staging);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete staging file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private UploadSession ownedSession(String id) {
+        UploadSession session = sessions.get(id);
+        if (session == null) {
+            throw new ResourceNotFoundException("Upload session not found or expired");
+        }
+        if (!session.ownerId.equals(currentUser().getId())) {
+            throw new SecurityException("This upload session belongs to another user");
+        }
+        return session;
+    }
+
+    private static UserPrincipal currentUser() {
+        return (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    private UploadSessionDto toDto(UploadSession session) {
+        BitSet received = session.received;
+        int firstMissing = received.nextClearBit(0);
+        long offset = Math.min((long) firstMissing * session.chunkSize, session.size);
+        long receivedBytes = (long) received.cardinality() * session.chunkSize;
+        if (received.get(session.chunkCount - 1)) {
+            // The last chunk is usually short
+            receivedBytes -= (long) session.chunkCount * session.chunkSize - session.size;
+        }
+        int[] missing = new int[session.chunkCount - received.cardinality()];
+        for (int i = firstMissing, n = 0; n < missing.length; i = received.nextClearBit(i + 1)) {
+            missing[n++] = i;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(session.lastTouched).plus(sessionTtl), ZoneId.systemDefault());
+        return new UploadSessionDto(session.id, session.fileName, session.category.getDirectory(), session.size,
+                session.chunkSize, offset, receivedBytes, missing, expiresAt, null);
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "upload-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = sweepInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private enum State {
+        OPEN, COMPLETING, DISCARDED
+    }
+
+    private static final class UploadSession {
+
+        final String id;
+        final Long ownerId;
+        final UploadCategory category;
+        final String fileName;
+        final String contentType;
+        final long size;
+        final long chunkSize;
+        final int chunkCount;
+        final String expectedSha256;
+        final Path staging;
+
+        // Guarded by the session's monitor
+        final BitSet received;
+        State state = State.OPEN;
+        int activeWrites;
+        long lastTouched = System.currentTimeMillis();
+
+        UploadSession(String id, Long ownerId, UploadCategory category, String fileName, String contentType,
+                      long size, long chunkSize, String expectedSha256, Path staging) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.category = category;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            this.expectedSha256 = expectedSha256;
+            this.staging = staging;
+            this.received = new BitSet(chunkCount);
+        }
+
+        void touch() {
+            lastTouched = System.currentTimeMillis();
+        }
+    }
+}
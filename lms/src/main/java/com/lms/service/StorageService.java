@@ -0,0 +1,119 @@
+package com.lms.service;
+
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
+import com.lms.dto.StorageSavingsReport;
+import com.lms.dto.StorageUsageDto;
+import com.lms.repository.BlobRepository;
+import com.lms.repository.StorageUsageRepository;
+import com.lms.repository.StorageUsageRepository.OwnerType;
+import com.lms.storage.BlobPacker;
+import com.lms.storage.BlobReclaimer;
+import com.lms.storage.StorageAccounting;
+import com.lms.storage.StorageGarbageCollector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class StorageService {
+
+    private final BlobRepository blobRepository;
+    private final BlobReclaimer blobReclaimer;
+    private final StorageGarbageCollector storageGarbageCollector;
+    // Only the local backend has a packed tier
+    private final Optional<BlobPacker> blobPacker;
+    private final StorageUsageRepository storageUsageRepository;
+    private final StorageAccounting storageAccounting;
+    private final MeterRegistry meterRegistry;
+
+    @UseWorkload(Workload.REPORTING)
+    @Transactional(readOnly = true)
+    public StorageSavingsReport getSavingsReport() {
+        BlobRepository.Usage logical = blobRepository.findLogicalUsage();
+        BlobRepository.Usage physical = blobRepository.findPhysicalUsage();
+        long saved = logical.bytes() - physical.bytes();
+
+        long uploadsWritten = count("lms.storage.uploads", "stored");
+        long bytesWritten = count("lms.storage.upload.bytes", "stored");
+        long uploadsDeduplicated = count("lms.storage.uploads", "deduplicated");
+        long bytesNotWritten = count("lms.storage.upload.bytes", "deduplicated");
+
+        return new StorageSavingsReport(logical.count(), logical.bytes(), physical.count(), physical.bytes(),
+                saved, ratio(saved, logical.bytes()),
+                uploadsWritten, bytesWritten, uploadsDeduplicated, bytesNotWritten,
+                ratio(bytesNotWritten, bytesWritten + bytesNotWritten));
+    }
+
+    /**
+     * The courses or users ({@code owner} is {@code course} or {@code user}) using the most
+     * attachment storage, largest first.
+     */
+    @Transactional(readOnly = true)
+    public List<StorageUsageDto> getTopConsumers(String owner, int limit) {
+        OwnerType type;
+        try {
+            type = OwnerType.valueOf(owner.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown owner type: " + owner);
+        }
+        long quota = storageAccounting.getQuota(type);
+        return storageUsageRepository.findTop(type, Math.max(1, Math.min(limit, 1000))).stream()
+                .map(usage -> new StorageUsageDto(type.name(), usage.ownerId(), usage.name(), usage.bytes(),
+                        usage.files(), Math.max(quota, 0), quota > 0 ? ratio(usage.bytes(), quota) : 0))
+                .toList();
+    }
+
+    /**
+     * Runs reference-count reconciliation, reclamation and usage correction now instead of
+     * waiting for the schedule.
+     */
+    public Map<String, Integer> reclaim() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("correctedReferenceCounts", blobReclaimer.reconcile());
+        result.put("reclaimedBlobs", blobReclaimer.reclaim());
+        result.put("correctedUsageCounters", storageAccounting.reconcile());
+        return result;
+    }
+
+    /**
+     * Runs one batch of orphan and tombstone collection now instead of waiting for the schedule.
+     */
+    public Map<String, Integer> collectGarbage() {
+        StorageGarbageCollector.Result collected = storageGarbageCollector.collect();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("deletedTombstonedFiles", collected.tombstones());
+        result.put("deletedOrphanedBlobs", collected.orphanedBlobs());
+        result.put("deletedOrphanedFiles", collected.orphanedFiles());
+        result.put("deletedStagingFiles", collected.stagingFiles());
+        result.put("expiredUploads", collected.expiredUploads());
+        return result;
+    }
+
+    /**
+     * Moves old submission files into the packed cold tier now instead of waiting for the schedule.
+     */
+    public Map<String, Integer> pack() {
+        BlobPacker packer = blobPacker.orElseThrow(() ->
+                new RuntimeException("Packed storage is only available with the local storage backend"));
+        return Map.of("packedBlobs", packer.pack());
+    }
+
+    private long count(String name, String result) {
+        Counter counter = meterRegistry.find(name).tag("result", result).counter();
+        return counter == null ? 0 : (long) counter.count();
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+}
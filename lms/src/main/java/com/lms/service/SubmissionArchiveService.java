@@ -0,0 +1,187 @@
+package com.lms.service;
+
+import com.lms.dto.SubmissionArchiveRow;
+import com.lms.entity.Assignment;
+import com.lms.repository.AssignmentRepository;
+import com.lms.repository.BlobRepository;
+import com.lms.repository.SubmissionRepository;
+import com.lms.security.UserPrincipal;
+import com.lms.storage.StoredContent;
+import com.lms.storage.UploadPipeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ZIP downloads of the submission attachments of an assignment, one folder per student.
+ *
+ * The archive is written straight into the response as it is read from storage: no temp file, and
+ * memory stays at a copy buffer plus one central-directory record per entry however large the
+ * attachments are, so a multi-gigabyte download starts with the first entry. Formats that are
+ * already compressed (images, video, PDFs, Office documents, archives) are written STORED, using
+ * the CRC-32 recorded at upload; deflating them again costs CPU and saves nothing. Attachments
+ * without a recorded CRC-32 fall back to deflate at level 0, which is equally cheap but streams
+ * without knowing the checksum up front.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubmissionArchiveService {
+
+    private static final String MISSING_ENTRY = "MISSING.txt";
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "zst", "jar",
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "avif",
+            "mp3", "m4a", "aac", "ogg", "opus", "flac",
+            "mp4", "m4v", "mov", "mkv", "webm", "avi",
+            "pdf", "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub");
+
+    private final AssignmentRepository assignmentRepository;
+    private final SubmissionRepository submissionRepository;
+    private final BlobRepository blobRepository;
+    private final UploadPipeline uploadPipeline;
+
+    public record Archive(String fileName, List<Entry> entries) {
+    }
+
+    public record Entry(String path, String attachmentUrl, Long crc32) {
+    }
+
+    /**
+     * Checks access and lists the entries of the archive. Runs on the request thread, where the
+     * security context is; {@link #write} runs later on an async thread and needs neither.
+     *
+     * @param submissionIds submissions to include, or null/empty for all of them
+     */
+    @Transactional(readOnly = true)
+    public Archive prepare(Long assignmentId, Collection<Long> submissionIds) {
+        Assignment assignment = assignmentRepository.findById(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Assignment not found"));
+
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!currentUser.isTeacher() && !currentUser.isAdmin()) {
+            throw new SecurityException("Only teachers or admins can download submissions");
+        }
+        if (!currentUser.isAdmin() && !assignment.getCourse().getInstructor().getId().equals(currentUser.getId())) {
+            throw new SecurityException("You can only download submissions for your own courses");
+        }
+
+        List<SubmissionArchiveRow> rows = submissionRepository.findArchiveRowsByAssignmentId(assignmentId);
+        if (submissionIds != null && !submissionIds.isEmpty()) {
+            Set<Long> selected = new HashSet<>(submissionIds);
+            rows = rows.stream().filter(row -> selected.contains(row.submissionId())).toList();
+        }
+        if (rows.isEmpty()) {
+            throw new RuntimeException("There are no submission attachments to download");
+        }
+
+        Map<String, Long> crc32s = blobRepository.findCrc32s(rows.stream()
+                .map(SubmissionArchiveRow::attachmentSha256)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+
+        Set<String> paths = new HashSet<>();
+        List<Entry> entries = new ArrayList<>(rows.size());
+        for (SubmissionArchiveRow row : rows) {
+            String folder = safeName(row.studentName()) + "_" + row.studentId();
+            String name = StringUtils.hasText(row.attachmentName())
+                    ? safeName(row.attachmentName())
+                    : UploadPipeline.displayName(StringUtils.getFilename(row.attachmentUrl()));
+            entries.add(new Entry(uniquePath(paths, folder, name), row.attachmentUrl(),
+                    row.attachmentSha256() == null ? null : crc32s.get(row.attachmentSha256())));
+        }
+        return new Archive(safeName(assignment.getTitle()) + "-submissions.zip", entries);
+    }
+
+    /**
+     * Streams the archive to {@code out}. Attachments whose content is gone are listed in a
+     * {@code MISSING.txt} entry instead of failing the whole download.
+     */
+    public void write(Archive archive, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        WritableByteChannel channel = Channels.newChannel(zip);
+        List<String> missing = new ArrayList<>();
+
+        for (Entry entry : archive.entries()) {
+            StoredContent content = uploadPipeline.open(entry.attachmentUrl());
+            if (content == null) {
+                log.warn("Attachment {} missing from storage, left out of {}", entry.attachmentUrl(), archive.fileName());
+                missing.add(entry.path());
+                continue;
+            }
+
+            ZipEntry zipEntry = new ZipEntry(entry.path());
+            zipEntry.setLastModifiedTime(FileTime.fromMillis(content.lastModified()));
+            boolean compressed = isCompressed(entry.path());
+            if (compressed && entry.crc32() != null) {
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(content.length());
+                zipEntry.setCompressedSize(content.length());
+                zipEntry.setCrc(entry.crc32());
+            } else {
+                zipEntry.setMethod(ZipEntry.DEFLATED);
+                zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+            }
+
+            zip.putNextEntry(zipEntry);
+            content.writeTo(0, content.length(), channel);
+            zip.closeEntry();
+        }
+
+        if (!missing.isEmpty()) {
+            zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+            zip.putNextEntry(new ZipEntry(MISSING_ENTRY));
+            zip.write(("These attachments could not be found in storage:\n" + String.join("\n", missing) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private static boolean isCompressed(String path) {
+        String extension = StringUtils.getFilenameExtension(path);
+        return extension != null && COMPRESSED_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    private static String uniquePath(Set<String> paths, String folder, String name) {
+        String path = folder + "/" + name;
+        String base = StringUtils.stripFilenameExtension(name);
+        String extension = StringUtils.getFilenameExtension(name);
+        for (int i = 2; !paths.add(path); i++) {
+            path = folder + "/" + base + " (" + i + ")" + (extension == null ? "" : "." + extension);
+        }
+        return path;
+    }
+
+    private static String safeName(String name) {
+        // Entry names are paths inside the archive; keep them to one segment without control characters
+        String safe = name == null ? "" : name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        return safe.isEmpty() || safe.chars().allMatch(c -> c == '.') ? "unnamed" : safe;
+    }
+}
@@ -2,41 +2,61 @@
 
 package com.lms.service;
 
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
 import com.lms.dto.SubmissionDto;
 import com.lms.entity.Assignment;
 import com.lms.entity.Submission;
 import com.lms.entity.User;
+import com.lms.event.SubmissionGraded;
+import com.lms.event.SubmissionReceived;
 import com.lms.repository.AssignmentRepository;
 import com.lms.repository.SubmissionRepository;
 import com.lms.repository.UserRepository;
+import com.lms.security.DownloadUrlSigner;
 import com.lms.security.UserPrincipal;
+import com.lms.storage.PendingUploads;
+import com.lms.storage.StorageAccounting;
+import com.lms.storage.StoredFile;
+import com.lms.storage.UploadCategory;
+import com.lms.storage.UploadPipeline;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@UseWorkload(Workload.INTERACTIVE)
 public class SubmissionService {
 
     private final SubmissionRepository submissionRepository;
     private final AssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
     private final EnrollmentService enrollmentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadPipeline uploadPipeline;
+    private final PendingUploads pendingUploads;
+    private final StorageAccounting storageAccounting;
+    private final DownloadUrlSigner downloadUrlSigner;
+    private final TransactionTemplate transactionTemplate;
+
+    // 1. Student submits assignment, attaching the file part or else the earlier upload uploadId.
+    // The file part is stored before the transaction opens; see PendingUploads.withUpload
+    public SubmissionDto submitAssignment(Long assignmentId, String content, MultipartFile file, String uploadId) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return pendingUploads.withUpload(currentUser.getId(), UploadCategory.SUBMISSIONS, file, uploadId,
+                attached -> transactionTemplate.execute(status -> submit(assignmentId, content, attached)));
+    }
 
-    private final String UPLOAD_DIR = "uploads/submissions/";
-
-    // 1. Student submits assignment
-    public SubmissionDto submitAssignment(Long assignmentId, String content, MultipartFile file) {
+    private SubmissionDto submit(Long assignmentId, String content, String uploadId) {
         Assignment assignment = assignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
@@ -54,6 +74,7 @@ public class SubmissionService {
 
         Submission submission = submissionRepository.findByAssignmentAndStudent(assignment, student)
                 .orElse(new Submission());
+        boolean resubmission = submission.getId() != null;
 
         submission.setAssignment(assignment);
         submission.setStudent(student);
@@ -61,22 +82,32 @@ public class SubmissionService {
         submission.setSubmittedAt(LocalDateTime.now());
         submission.setGraded(false);
 
-        if (file != null && !file.isEmpty()) {
+        if (uploadId != null) {
+            Long courseId = assignment.getCourse().getId();
+            long replaced = submission.getAttachmentSize() == null ? 0 : submission.getAttachmentSize();
+            StoredFile stored = pendingUploads.claim(uploadId, student.getId(), UploadCategory.SUBMISSIONS);
+            storageAccounting.checkQuota(courseId, student.getId(), stored.size() - replaced);
+            uploadPipeline.retain(stored);
             if (submission.getAttachmentUrl() != null) {
-                deleteFile(submission.getAttachmentUrl());
+                uploadPipeline.release(submission.getAttachmentUrl());
+                storageAccounting.credit(courseId, student.getId(), submission.getAttachmentSize());
             }
-            String fileName = saveFile(file);
-            submission.setAttachmentUrl("/uploads/submissions/" + fileName);
-            submission.setAttachmentName(file.getOriginalFilename());
-            submission.setAttachmentSize(file.getSize());
-            submission.setAttachmentType(file.getContentType());
+            storageAccounting.charge(courseId, student.getId(), stored.size());
+            submission.setAttachmentUrl(stored.url());
+            submission.setAttachmentName(stored.originalName());
+            submission.setAttachmentSize(stored.size());
+            submission.setAttachmentType(stored.contentType());
+            submission.setAttachmentSha256(stored.sha256());
         }
 
         Submission saved = submissionRepository.save(submission);
+        eventPublisher.publishEvent(SubmissionReceived.of(saved.getId(), assignment.getId(),
+                assignment.getCourse().getId(), student.getId(), resubmission));
         return convertToDto(saved);
     }
 
     // 2. Teacher grades a submission
+    @Transactional
     public SubmissionDto gradeSubmission(Long submissionId, Integer grade, String feedback) {
         Submission submission = submissionRepository.findById(submissionId)
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
@@ -100,6 +131,8 @@ public class SubmissionService {
         submission.setGradedAt(LocalDateTime.now());
 
         Submission saved = submissionRepository.save(submission);
+        eventPublisher.publishEvent(SubmissionGraded.of(saved.getId(), saved.getAssignment().getId(),
+                saved.getAssignment().getCourse().getId(), saved.getStudent().getId(), grade));
         return convertToDto(saved);
     }
 
@@ -155,7 +188,8 @@ public class SubmissionService {
                 .orElse(false);
     }
 
-    // 7. Teacher gets ALL submissions from their courses
+    // 7. Teacher gets ALL submissions from their courses; a report across every course, so off the interactive pool
+    @UseWorkload(Workload.REPORTING)
     public List<SubmissionDto> getSubmissionsForTeacher() {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -186,6 +220,8 @@ public class SubmissionService {
         dto.setAttachmentName(submission.getAttachmentName());
         dto.setAttachmentSize(submission.getAttachmentSize());
         dto.setAttachmentType(submission.getAttachmentType());
+        dto.setPreviewUrl(downloadUrlSigner.previewUrl(submission.getAttachmentUrl()));
+        dto.setDownloadUrl(downloadUrlSigner.downloadUrl(submission.getAttachmentUrl()));
 
         dto.setGraded(submission.getGraded());
         dto.setGrade(submission.getGrade());
@@ -195,28 +231,4 @@ public class SubmissionService {
 
         return dto;
     }
-
-    // File handling
-    private String saveFile(MultipartFile file) {
-        try {
-            Files.createDirectories(Paths.get(UPLOAD_DIR));
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path path = Paths.get(UPLOAD_DIR + fileName);
-            Files.write(path, file.getBytes());
-            return fileName;
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store file", e);
-        }
-    }
-
-    private void deleteFile(String filePath) {
-        try {
-            if (filePath != null) {
-                Path path = Paths.get("." + filePath);
-                Files.deleteIfExists(path);
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to delete file: " + filePath);
-        }
-    }
 }
\ No newline at end of file
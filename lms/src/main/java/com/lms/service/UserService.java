@@ -1,6 +1,8 @@
 // src/main/java/com/lms/service/UserService.java
 package com.lms.service;
 
+import com.lms.config.UseWorkload;
+import com.lms.config.Workload;
 import com.lms.dto.UserDto;
 import com.lms.entity.User;
 import com.lms.repository.UserRepository;
@@ -45,6 +47,7 @@ public class UserService {
     }
 
     // Get all users
+    @UseWorkload(Workload.REPORTING)
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(this::convertToDto)
@@ -231,6 +234,7 @@ public class UserService {
     }
 
     // Dashboard stats
+    @UseWorkload(Workload.REPORTING)
     public Map<String, Object> getAdminDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalStudents", userRepository.countByRole(User.Role.STUDENT));
@@ -243,6 +247,7 @@ public class UserService {
         return stats;
     }
 
+    @UseWorkload(Workload.REPORTING)
     public Map<String, Object> getUserStatistics() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("students", userRepository.countByRole(User.Role.STUDENT));
@@ -0,0 +1,414 @@
+package com.lms.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The packed cold tier of {@link LocalBlobStore}: blobs that {@link BlobPacker} has moved out of
+ * their own files into large append-only pack files, in the manner of Facebook's Haystack.
+ *
+ * {@code blobs/packs/pack-NNNNNN.dat} holds blobs back to back, each behind a short header with its
+ * key and sizes; {@code pack-NNNNNN.idx} beside it has one fixed-size record per blob added or
+ * deleted. Every index is read into memory at startup, so opening a packed blob is a map lookup and
+ * a positioned read of one file, with no directory walk and no database query. Only the newest pack
+ * is appended to; the next is started once it reaches {@code lms.storage.pack.max-size}. A backup
+ * then copies a handful of large files instead of one file (and inode) per blob.
+ *
+ * A blob is deflated when a sample of it shrinks by at least a tenth, so text and office documents
+ * are compressed while images, video and archives are stored as they are. A range of a deflated
+ * blob is served by inflating from its start, which is acceptable for content that is rarely read.
+ *
+ * Deleting a packed blob appends a delete record; its bytes stay in the pack and are counted in
+ * {@link #deadBytes()}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "lms.storage.backend", havingValue = "local", matchIfMissing = true)
+public class BlobPackStore {
+
+    private static final Pattern PACK_INDEX = Pattern.compile("pack-(\\d{6})\\.idx");
+    private static final int MAGIC = 0x4C4D5350; // "LMSP"
+
+    // Blob header in a pack: magic, key, flags, length, stored length
+    private static final int HEADER_SIZE = 4 + 32 + 1 + 8 + 8;
+    // Index record: key, offset of the data, stored length, length, last modified, flags
+    private static final int RECORD_SIZE = 32 + 8 + 8 + 8 + 8 + 1;
+
+    private static final byte DEFLATED = 1;
+    private static final byte DELETED = 2;
+
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final double MIN_SAVING = 0.1;
+
+    /**
+     * Where a packed blob is.
+     */
+    record Entry(int pack, long offset, long storedLength, long length, long lastModified, boolean deflated) {
+    }
+
+    private final Path directory;
+    private final long maxPackSize;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    // Appends and deletes are serialized on this; reads need no lock
+    private int currentPack;
+    private FileChannel data;
+    private FileChannel records;
+    private volatile long deadBytes;
+
+    public BlobPackStore(@Value("${file.storage.path:./uploads}") String root,
+                         @Value("${lms.storage.pack.max-size:1GB}") DataSize maxPackSize) {
+        this.directory = Paths.get(root).toAbsolutePath().normalize().resolve("blobs").resolve("packs");
+        this.maxPackSize = maxPackSize.toBytes();
+    }
+
+    /**
+     * Reads every pack index into memory. Records are applied in pack order and, within a pack, in
+     * the order they were written, so the last word on each key wins.
+     */
+    @PostConstruct
+    synchronized void load() throws IOException {
+        index.clear();
+        deadBytes = 0;
+        currentPack = 0;
+        for (int pack : packs()) {
+            Path file = indexPath(pack);
+            long whole = Files.size(file) / RECORD_SIZE * RECORD_SIZE;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() > whole) {
+                    // A record torn by a crash; its blob was never reported as packed
+                    channel.truncate(whole);
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+                for (long position = 0; position < whole; position += buffer.limit()) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), whole - position));
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, position + buffer.position()) < 0) {
+                            throw new EOFException("Pack index " + file + " shrank while loading");
+                        }
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        apply(pack, buffer);
+                    }
+                }
+            }
+            currentPack = pack;
+        }
+        if (!index.isEmpty()) {
+            log.info("Loaded {} packed blobs from {} packs", index.size(), currentPack);
+        }
+    }
+
+    private void apply(int pack, ByteBuffer buffer) {
+        byte[] key = new byte[32];
+        buffer.get(key);
+        long offset = buffer.getLong();
+        long storedLength = buffer.getLong();
+        long length = buffer.getLong();
+        long lastModified = buffer.getLong();
+        byte flags = buffer.get();
+        String sha256 = HexFormat.of().formatHex(key);
+        if ((flags & DELETED) != 0) {
+            Entry removed = index.remove(sha256);
+            if (removed != null) {
+                deadBytes += HEADER_SIZE + removed.storedLength();
+            }
+        } else {
+            index.put(sha256, new Entry(pack, offset, storedLength, length, lastModified, (flags & DEFLATED) != 0));
+        }
+    }
+
+    private List<Integer> packs() throws IOException {
+        List<Integer> packs = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return packs;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "pack-*.idx")) {
+            for (Path entry : entries) {
+                Matcher matcher = PACK_INDEX.matcher(entry.getFileName().toString());
+                if (matcher.matches()) {
+                    packs.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        packs.sort(null);
+        return packs;
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (data != null) {
+            data.close();
+            records.close();
+            data = null;
+            records = null;
+        }
+    }
+
+    public boolean contains(String sha256) {
+        return index.containsKey(sha256);
+    }
+
+    /**
+     * Opens a packed blob, or returns null when it is not in a pack.
+     */
+    public StoredContent open(String sha256) {
+        Entry entry = index.get(sha256);
+        return entry == null ? null : new PackedContent(dataPath(entry.pack()), entry);
+    }
+
+    /** Number of blobs in packs. */
+    public int count() {
+        return index.size();
+    }
+
+    /** Bytes in packs taken by blobs deleted since they were packed. */
+    public long deadBytes() {
+        return deadBytes;
+    }
+
+    /**
+     * Copies the blob file {@code source} into the current pack under {@code sha256}, deflated
+     * when that saves space, and makes it readable from the pack. It is not durable until
+     * {@link #sync}; keep the source until then.
+     */
+    synchronized void append(String sha256, Path source) throws IOException {
+        ensureWritable();
+        long start = data.size();
+        long length = Files.size(source);
+        long lastModified = Files.getLastModifiedTime(source).toMillis();
+        boolean deflate = worthDeflating(source);
+        long storedLength;
+        try {
+            data.position(start + HEADER_SIZE);
+            if (deflate) {
+                Deflater deflater = new Deflater();
+                try (InputStream in = Files.newInputStream(source)) {
+                    DeflaterOutputStream out = new DeflaterOutputStream(nonClosing(data), deflater, 64 * 1024);
+                    in.transferTo(out);
+                    out.finish();
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                    for (long copied = 0; copied < length; ) {
+                        long sent = in.transferTo(copied, length - copied, data);
+                        if (sent <= 0) {
+                            throw new IOException("Blob " + sha256 + " truncated while packing");
+                        }
+                        copied += sent;
+                    }
+                }
+            }
+            storedLength = data.position() - start - HEADER_SIZE;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).put(HexFormat.of().parseHex(sha256)).put(deflate ? DEFLATED : 0)
+                    .putLong(length).putLong(storedLength).flip();
+            writeFully(data, header, start);
+        } catch (IOException | RuntimeException e) {
+            data.truncate(start);
+            throw e;
+        }
+
+        Entry entry = new Entry(currentPack, start + HEADER_SIZE, storedLength, length, lastModified, deflate);
+        writeRecord(sha256, entry, deflate ? DEFLATED : 0);
+        index.put(sha256, entry);
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    synchronized void sync() throws IOException {
+        if (data != null) {
+            data.force(false);
+            records.force(false);
+        }
+    }
+
+    /**
+     * Drops a blob from the packs. Its bytes are not reclaimed.
+     */
+    synchronized void delete(String sha256) throws IOException {
+        Entry removed = index.remove(sha256);
+        if (removed == null) {
+            return;
+        }
+        ensureWritable();
+        writeRecord(sha256, new Entry(removed.pack(), 0, 0, 0, 0, false), DELETED);
+        deadBytes += HEADER_SIZE + removed.storedLength();
+    }
+
+    private void ensureWritable() throws IOException {
+        if (data != null && data.size() < maxPackSize) {
+            return;
+        }
+        if (data == null && currentPack > 0 && Files.size(dataPath(currentPack)) < maxPackSize) {
+            open(currentPack);
+            return;
+        }
+        close();
+        Files.createDirectories(directory);
+        open(currentPack + 1);
+    }
+
+    private void open(int pack) throws IOException {
+        data = FileChannel.open(dataPath(pack), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records = FileChannel.open(indexPath(pack), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentPack = pack;
+    }
+
+    private void writeRecord(String sha256, Entry entry, byte flags) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE)
+                .put(HexFormat.of().parseHex(sha256))
+                .putLong(entry.offset()).putLong(entry.storedLength()).putLong(entry.length())
+                .putLong(entry.lastModified()).put(flags).flip();
+        while (record.hasRemaining()) {
+            records.write(record);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /** Whether the first bytes of {@code source} deflate by at least {@link #MIN_SAVING}. */
+    private static boolean worthDeflating(Path source) throws IOException {
+        byte[] sample;
+        try (InputStream in = Files.newInputStream(source)) {
+            sample = in.readNBytes(SAMPLE_SIZE);
+        }
+        if (sample.length == 0) {
+            return false;
+        }
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] output = new byte[SAMPLE_SIZE];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(output);
+            }
+            return compressed <= sample.length * (1 - MIN_SAVING);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static OutputStream nonClosing(FileChannel channel) {
+        OutputStream out = Channels.newOutputStream(channel);
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+        };
+    }
+
+    private Path dataPath(int pack) {
+        return directory.resolve(String.format("pack-%06d.dat", pack));
+    }
+
+    private Path indexPath(int pack) {
+        return directory.resolve(String.format("pack-%06d.idx", pack));
+    }
+
+    /**
+     * A blob inside a pack file.
+     */
+    record PackedContent(Path pack, Entry entry) implements StoredContent {
+
+        @Override
+        public long length() {
+            return entry.length();
+        }
+
+        @Override
+        public long lastModified() {
+            return entry.lastModified();
+        }
+
+        @Override
+        public Optional<Path> file() {
+            return Optional.empty();
+        }
+
+        @Override
+        public void writeTo(long start, long end, WritableByteChannel target) throws IOException {
+            try (FileChannel source = FileChannel.open(pack, StandardOpenOption.READ)) {
+                if (!entry.deflated()) {
+                    long position = entry.offset() + start;
+                    long last = entry.offset() + end;
+                    while (position < last) {
+                        long sent = source.transferTo(position, last - position, target);
+                        if (sent <= 0) {
+                            throw new IOException("Pack truncated during transfer");
+                        }
+                        position += sent;
+                    }
+                    return;
+                }
+                source.position(entry.offset());
+                Inflater inflater = new Inflater();
+                try (InputStream in = new InflaterInputStream(Channels.newInputStream(source), inflater, 64 * 1024)) {
+                    in.skipNBytes(start);
+                    byte[] buffer = new byte[64 * 1024];
+                    for (long remaining = end - start; remaining > 0; ) {
+                        int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (read < 0) {
+                            throw new IOException("Packed blob shorter than recorded");
+                        }
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                        while (chunk.hasRemaining()) {
+                            target.write(chunk);
+                        }
+                        remaining -= read;
+                    }
+                } finally {
+                    inflater.end();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.lms.storage;
+
+import com.lms.repository.BlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves submission files older than {@code lms.storage.pack.min-age} from their own blob files
+ * into the packed cold tier ({@link BlobPackStore}), every {@code lms.storage.pack.interval}.
+ *
+ * Blobs are copied into the pack a batch at a time, each under its row lock so that a reclaim of
+ * the same blob waits for the copy and then deletes it from the pack as well. The pack is forced to
+ * disk once per batch, and only then are the original files deleted, again under the row lock.
+ * A crash in between leaves a blob in both tiers, which is harmless: reads prefer the file.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "lms.storage.backend", havingValue = "local", matchIfMissing = true)
+public class BlobPacker implements SmartLifecycle {
+
+    private final BlobRepository blobRepository;
+    private final LocalBlobStore blobStore;
+    private final BlobPackStore packStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration minAge;
+    private final Duration interval;
+    private final int batchSize;
+    private final Counter packedBlobs;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public BlobPacker(BlobRepository blobRepository,
+                      LocalBlobStore blobStore,
+                      BlobPackStore packStore,
+                      TransactionTemplate transactionTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${lms.storage.pack.min-age:180d}") Duration minAge,
+                      @Value("${lms.storage.pack.interval:24h}") Duration interval,
+                      @Value("${lms.storage.pack.batch-size:500}") int batchSize) {
+        this.blobRepository = blobRepository;
+        this.blobStore = blobStore;
+        this.packStore = packStore;
+        this.transactionTemplate = transactionTemplate;
+        this.minAge = minAge;
+        this.interval = interval;
+        this.batchSize = batchSize;
+
+        this.packedBlobs = meterRegistry.counter("lms.storage.pack.packed");
+        meterRegistry.gauge("lms.storage.pack.blobs", packStore, BlobPackStore::count);
+        meterRegistry.gauge("lms.storage.pack.dead.bytes", packStore, BlobPackStore::deadBytes);
+    }
+
+    /**
+     * Packs every eligible blob that still has its own file. Returns how many were moved.
+     */
+    public synchronized int pack() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(minAge);
+        int packed = 0;
+        String after = null;
+        List<String> batch;
+        do {
+            batch = blobRepository.findPackCandidates(createdBefore, after, batchSize);
+            List<String> copied = new ArrayList<>();
+            for (String sha256 : batch) {
+                after = sha256;
+                if (packStore.contains(sha256)) {
+                    continue;
+                }
+                try {
+                    if (copy(sha256)) {
+                        copied.add(sha256);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to pack blob {}: {}", sha256, e.getMessage());
+                }
+            }
+            if (!copied.isEmpty()) {
+                try {
+                    packStore.sync();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                for (String sha256 : copied) {
+                    if (dropFile(sha256)) {
+                        packed++;
+                    }
+                }
+            }
+        } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+        packedBlobs.increment(packed);
+        if (packed > 0) {
+            log.info("Packed {} blobs into cold storage", packed);
+        }
+        return packed;
+    }
+
+    private boolean copy(String sha256) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Path file = blobStore.path(sha256);
+            if (!blobRepository.lock(sha256) || !Files.isRegularFile(file)) {
+                return false; // Reclaimed since it was listed, or never stored here
+            }
+            try {
+                packStore.append(sha256, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }));
+    }
+
+    private boolean dropFile(String sha256) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // A reclaim since the copy has removed it from the pack; a re-upload may own the file
+            if (!blobRepository.lock(sha256) || !packStore.contains(sha256)) {
+                return false;
+            }
+            try {
+                return Files.deleteIfExists(blobStore.path(sha256));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blob-packer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                pack();
+            } catch (Exception e) {
+                log.warn("Blob packing failed: {}", e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
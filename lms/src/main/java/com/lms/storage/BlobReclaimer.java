@@ -0,0 +1,150 @@
+package com.lms.storage;
+
+import com.lms.repository.BlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes blobs no attachment has referenced for {@code lms.storage.blob.reclaim-grace}, and
+ * periodically reconciles reference counts with the attachment columns.
+ *
+ * Each blob is reclaimed in its own transaction: the row is deleted first and the stored content
+ * second, both before commit. An upload of the same content blocks on the row lock until then, finds the
+ * row gone, and writes the content again, so a reclaim can never remove content an upload relies
+ * on. This holds for every {@link BlobStore}, including one shared by several nodes.
+ */
+@Slf4j
+@Component
+public class BlobReclaimer implements SmartLifecycle {
+
+    private final BlobRepository blobRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+    private final Duration interval;
+    private final Duration reconcileInterval;
+    private final int batchSize;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public BlobReclaimer(BlobRepository blobRepository,
+                         BlobStore blobStore,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${lms.storage.blob.reclaim-grace:24h}") Duration grace,
+                         @Value("${lms.storage.blob.reclaim-interval:1h}") Duration interval,
+                         @Value("${lms.storage.blob.reconcile-interval:6h}") Duration reconcileInterval,
+                         @Value("${lms.storage.blob.reclaim-batch-size:500}") int batchSize) {
+        this.blobRepository = blobRepository;
+        this.blobStore = blobStore;
+        this.transactionTemplate = transactionTemplate;
+        this.grace = grace;
+        this.interval = interval;
+        this.reconcileInterval = reconcileInterval;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reclaims unreferenced blobs past the grace period, one batch at a time. Returns how many
+     * were deleted.
+     */
+    public int reclaim() {
+        LocalDateTime unusedSince = LocalDateTime.now().minus(grace);
+        int reclaimed = 0;
+        List<String> batch;
+        int progress;
+        do {
+            batch = blobRepository.findReclaimable(unusedSince, batchSize);
+            progress = 0;
+            for (String sha256 : batch) {
+                try {
+                    if (reclaim(sha256, unusedSince)) {
+                        progress++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to reclaim blob {}: {}", sha256, e.getMessage());
+                }
+            }
+            reclaimed += progress;
+            // A batch that freed nothing would be listed again unchanged
+        } while (batch.size() == batchSize && progress > 0);
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} unreferenced blobs", reclaimed);
+        }
+        return reclaimed;
+    }
+
+    private boolean reclaim(String sha256, LocalDateTime unusedSince) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!blobRepository.deleteIfUnreferenced(sha256, unusedSince)) {
+                return false; // Re-attached since it was listed
+            }
+            try {
+                blobStore.delete(sha256);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Corrects reference counts that drifted, e.g. through course cascades that bypass the
+     * services. Blobs changed within the grace period are left alone.
+     */
+    public int reconcile() {
+        int corrected = blobRepository.reconcile(LocalDateTime.now().minus(grace));
+        if (corrected > 0) {
+            log.info("Corrected reference counts of {} blobs", corrected);
+        }
+        return corrected;
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.warn("Blob maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blob-reclaimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> runSafely(this::reconcile),
+                reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> runSafely(this::reclaim),
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
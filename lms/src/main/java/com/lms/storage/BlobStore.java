@@ -0,0 +1,57 @@
+package com.lms.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Where content-addressed attachment bytes live. Keys are lowercase hex SHA-256 digests of the
+ * content, so a key is written at most once and never changes; implementations need no locking
+ * of their own. Reference counting and the decision to delete stay with the caller.
+ *
+ * The backend is chosen with {@code lms.storage.backend} ({@code local} or {@code s3}).
+ */
+public interface BlobStore {
+
+    /**
+     * A stored blob as seen by {@link #list}.
+     */
+    record Listing(String sha256, long lastModified) {
+    }
+
+    boolean exists(String sha256) throws IOException;
+
+    /**
+     * Stores the verified file at {@code staged} under {@code sha256}. The staged file is consumed:
+     * it is moved or deleted whether or not the call succeeds.
+     */
+    void put(String sha256, Path staged) throws IOException;
+
+    /**
+     * Opens stored content for reading, or returns null when there is none under {@code sha256}.
+     */
+    StoredContent open(String sha256) throws IOException;
+
+    /**
+     * Deletes the blob and any derivatives stored with it.
+     */
+    void delete(String sha256) throws IOException;
+
+    /**
+     * Stores a file derived from blob {@code sha256}, such as a thumbnail, next to it. Like
+     * {@link #put}, the staged file is consumed.
+     */
+    void putDerivative(String sha256, PreviewKind kind, Path staged) throws IOException;
+
+    /**
+     * Opens a derivative, or returns null when none has been stored.
+     */
+    StoredContent openDerivative(String sha256, PreviewKind kind) throws IOException;
+
+    /**
+     * Lists blobs in key order, starting after {@code after} (null for the first), at most
+     * {@code limit} of them. Derivatives are not listed. Lets a caller walk the whole store in
+     * bounded batches, picking up where the previous batch stopped.
+     */
+    List<Listing> list(String after, int limit) throws IOException;
+}
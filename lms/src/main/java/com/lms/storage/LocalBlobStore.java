@@ -0,0 +1,197 @@
+package com.lms.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Blobs on the local (or a shared, mounted) file system under {@code <file.storage.path>/blobs}.
+ *
+ * Files are sharded by the first two bytes of their hash, {@code blobs/ab/cd/abcd...}, so no
+ * directory holds more than a few dozen entries per million blobs and lookups stay a couple of
+ * small directory reads. Set {@code lms.storage.local.fsync=true} to force each blob to disk
+ * before it becomes visible, at the cost of one flush per upload.
+ *
+ * Old blobs may have been moved by {@link BlobPacker} into the packed cold tier,
+ * {@link BlobPackStore}. Reads look for the blob's own file first and fall back to the packs, so
+ * callers do not see which tier holds a blob.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "lms.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern BLOB_KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path directory;
+    private final boolean fsync;
+    private final BlobPackStore packs;
+
+    public LocalBlobStore(@Value("${file.storage.path:./uploads}") String root,
+                          @Value("${lms.storage.local.fsync:false}") boolean fsync,
+                          BlobPackStore packs) {
+        this.directory = Paths.get(root).toAbsolutePath().normalize().resolve("blobs");
+        this.fsync = fsync;
+        this.packs = packs;
+    }
+
+    @Override
+    public boolean exists(String sha256) {
+        return Files.exists(path(sha256)) || packs.contains(sha256);
+    }
+
+    @Override
+    public void put(String sha256, Path staged) throws IOException {
+        try {
+            if (fsync) {
+                try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Path target = path(sha256);
+            Files.createDirectories(target.getParent());
+            // Replacing an existing blob is harmless: same key, same bytes
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public StoredContent open(String sha256) throws IOException {
+        StoredContent content = openFile(path(sha256));
+        return content != null ? content : packs.open(sha256);
+    }
+
+    @Override
+    public void delete(String sha256) throws IOException {
+        for (PreviewKind kind : PreviewKind.values()) {
+            Files.deleteIfExists(derivativePath(sha256, kind));
+        }
+        Files.deleteIfExists(path(sha256));
+        packs.delete(sha256);
+    }
+
+    @Override
+    public void putDerivative(String sha256, PreviewKind kind, Path staged) throws IOException {
+        try {
+            Path target = derivativePath(sha256, kind);
+            Files.createDirectories(target.getParent());
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public StoredContent openDerivative(String sha256, PreviewKind kind) throws IOException {
+        return openFile(derivativePath(sha256, kind));
+    }
+
+    @Override
+    public List<Listing> list(String after, int limit) throws IOException {
+        List<Listing> listing = new ArrayList<>(limit);
+        // Shard directories are visited in name order, which is key order; those wholly before
+        // the cursor are skipped without being read
+        for (String first : names(directory, SHARD)) {
+            if (after != null && first.compareTo(after.substring(0, 2)) < 0) {
+                continue;
+            }
+            Path firstDirectory = directory.resolve(first);
+            for (String second : names(firstDirectory, SHARD)) {
+                if (after != null && (first + second).compareTo(after.substring(0, 4)) < 0) {
+                    continue;
+                }
+                Path secondDirectory = firstDirectory.resolve(second);
+                for (String name : names(secondDirectory, BLOB_KEY)) {
+                    if (after != null && name.compareTo(after) <= 0) {
+                        continue;
+                    }
+                    try {
+                        listing.add(new Listing(name, Files.getLastModifiedTime(secondDirectory.resolve(name)).toMillis()));
+                    } catch (NoSuchFileException e) {
+                        continue; // Deleted since the directory was read
+                    }
+                    if (listing.size() == limit) {
+                        return listing;
+                    }
+                }
+            }
+        }
+        return listing;
+    }
+
+    private static List<String> names(Path directory, Pattern pattern) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (pattern.matcher(name).matches()) {
+                    names.add(name);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return names;
+        }
+        names.sort(null);
+        return names;
+    }
+
+    Path path(String sha256) {
+        return directory.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private Path derivativePath(String sha256, PreviewKind kind) {
+        return path(sha256).resolveSibling(sha256 + "." + kind.getDerivativeName());
+    }
+
+    private static StoredContent openFile(Path file) throws IOException {
+        try {
+            return StoredContent.ofFile(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Moves blobs written before sharding ({@code blobs/<sha256>}) into their shard directories.
+     * Each move is a rename within one file system, so this is quick and safe to repeat.
+     */
+    @PostConstruct
+    void shardFlatBlobs() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        int moved = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (BLOB_KEY.matcher(name).matches()) {
+                    Path target = path(name);
+                    Files.createDirectories(target.getParent());
+                    Files.move(entry, target, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                }
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} blobs into shard directories", moved);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.lms.storage;
+
+import com.lms.repository.BlobRepository;
+import com.lms.repository.UploadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Files uploaded ahead of the submission, assignment or note they belong to, through
+ * {@code /api/files/upload} or a resumable session.
+ *
+ * Each upload is recorded under a random id with its uploader and holds one reference on its
+ * blob, so the content is not reclaimed while the client fills in the rest of the form. Attaching
+ * it {@link #claim claims} the id in the attaching transaction: only the uploader can, only once,
+ * and the upload's reference is exchanged for the attachment's. Uploads nobody claims within
+ * {@code lms.upload.unclaimed-ttl} are dropped by {@link StorageGarbageCollector}, releasing their
+ * reference.
+ *
+ * Files sent along with the request that attaches them take the same path: {@link #withUpload}
+ * stages them as uploads before the attaching transaction opens, so copying, hashing and throttling
+ * the bytes holds no pooled connection.
+ */
+@Slf4j
+@Component
+public class PendingUploads {
+
+    private final UploadRepository uploadRepository;
+    private final BlobRepository blobRepository;
+    private final UploadPipeline uploadPipeline;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public PendingUploads(UploadRepository uploadRepository,
+                          BlobRepository blobRepository,
+                          UploadPipeline uploadPipeline,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${lms.upload.unclaimed-ttl:24h}") Duration ttl) {
+        this.uploadRepository = uploadRepository;
+        this.blobRepository = blobRepository;
+        this.uploadPipeline = uploadPipeline;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Records a file just stored for {@code userId} and returns the id to attach it by.
+     */
+    public String register(Long userId, StoredFile file) {
+        String id = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            uploadPipeline.retain(file);
+            uploadRepository.insert(new UploadRepository.Upload(id, userId, file.sha256(), file.originalName(),
+                    file.contentType(), file.size()));
+        });
+        return id;
+    }
+
+    /**
+     * Runs {@code attach} with the id of the upload to attach: {@code uploadId}, or when a file is
+     * sent instead, the id it is first stored under for {@code userId}. {@code attach} opens the
+     * transaction that claims it; a stored file it fails to claim is discarded. {@code attach}
+     * receives null when there is neither a file nor an id.
+     */
+    public <T> T withUpload(Long userId, UploadCategory category, MultipartFile file, String uploadId,
+                            Function<String, T> attach) {
+        boolean hasFile = file != null && !file.isEmpty();
+        if (hasFile && uploadId != null) {
+            throw new RuntimeException("Send either a file or an uploadId, not both");
+        }
+        if (!hasFile) {
+            return attach.apply(uploadId);
+        }
+        String staged = register(userId, uploadPipeline.store(category, file));
+        try {
+            return attach.apply(staged);
+        } catch (RuntimeException e) {
+            drop(staged);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes the upload for an attachment in {@code category}. The caller retains the returned file
+     * (and charges it) in the same transaction, which also commits or rolls back the claim.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StoredFile claim(String id, Long userId, UploadCategory category) {
+        UploadRepository.Upload upload = uploadRepository.lock(id)
+                .orElseThrow(() -> new RuntimeException("Upload not found or expired; upload the file again"));
+        if (!userId.equals(upload.userId())) {
+            throw new SecurityException("This upload belongs to another user");
+        }
+        uploadRepository.delete(id);
+        blobRepository.release(upload.sha256());
+        return uploadPipeline.existing(category, upload.sha256(), upload.originalName(), upload.contentType(),
+                upload.size());
+    }
+
+    /**
+     * Drops up to {@code limit} uploads older than the TTL. Returns how many were dropped.
+     */
+    public int expire(int limit) {
+        List<String> ids = uploadRepository.findCreatedBefore(LocalDateTime.now().minus(ttl), limit);
+        int expired = 0;
+        for (String id : ids) {
+            if (drop(id)) { // Otherwise claimed since it was listed
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.debug("Dropped {} unclaimed uploads", expired);
+        }
+        return expired;
+    }
+
+    // Deletes the upload and releases its reference, unless it has been claimed
+    private boolean drop(String id) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                uploadRepository.lock(id).map(upload -> {
+                    uploadRepository.delete(id);
+                    blobRepository.release(upload.sha256());
+                    return true;
+                }).orElse(false)));
+    }
+}
@@ -0,0 +1,345 @@
+package com.lms.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates attachment previews in the background: downscaled JPEG thumbnails of images and the
+ * first few kilobytes of text files (see {@link PreviewKind}).
+ *
+ * Previews are keyed by content hash and stored next to the blob in the {@link BlobStore}, so
+ * each distinct content is processed once however many attachments share it, and concurrent
+ * requests for the same preview wait on a single job. Work runs on a fixed pool with a bounded
+ * queue; when the queue is full the request is dropped and the preview is generated on its first
+ * view instead. Content that cannot be previewed (undecodable, too large, binary) gets an empty
+ * marker so it is not retried.
+ *
+ * Large images are subsampled while they are decoded, so memory depends on the thumbnail size
+ * rather than the photo, and images over {@code lms.preview.max-pixels} are not decoded at all.
+ */
+@Slf4j
+@Component
+public class PreviewGenerator implements SmartLifecycle {
+
+    private final BlobStore blobStore;
+    private final UploadPipeline uploadPipeline;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int threads;
+    private final int queueCapacity;
+    private final int thumbnailSize;
+    private final float thumbnailQuality;
+    private final int textBytes;
+    private final long maxSourceSize;
+    private final long maxPixels;
+    private final Duration wait;
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ThreadPoolExecutor executor;
+
+    public PreviewGenerator(BlobStore blobStore,
+                            UploadPipeline uploadPipeline,
+                            MeterRegistry meterRegistry,
+                            @Value("${lms.preview.enabled:true}") boolean enabled,
+                            @Value("${lms.preview.threads:2}") int threads,
+                            @Value("${lms.preview.queue-capacity:1000}") int queueCapacity,
+                            @Value("${lms.preview.thumbnail-size:320}") int thumbnailSize,
+                            @Value("${lms.preview.thumbnail-quality:0.8}") float thumbnailQuality,
+                            @Value("${lms.preview.text-size:4KB}") DataSize textSize,
+                            @Value("${lms.preview.max-source-size:64MB}") DataSize maxSourceSize,
+                            @Value("${lms.preview.max-pixels:50000000}") long maxPixels,
+                            @Value("${lms.preview.wait:2s}") Duration wait) {
+        this.blobStore = blobStore;
+        this.uploadPipeline = uploadPipeline;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.thumbnailSize = thumbnailSize;
+        this.thumbnailQuality = thumbnailQuality;
+        this.textBytes = (int) textSize.toBytes();
+        this.maxSourceSize = maxSourceSize.toBytes();
+        this.maxPixels = maxPixels;
+        this.wait = wait;
+    }
+
+    /**
+     * Queues preview generation for newly stored content, if its file type has a preview.
+     */
+    public void request(String sha256, String fileName) {
+        if (enabled) {
+            PreviewKind.forFileName(fileName).ifPresent(kind -> submit(sha256, kind));
+        }
+    }
+
+    /**
+     * Returns the preview, generating it first if needed and waiting up to
+     * {@code lms.preview.wait} for that. Returns null when the content has no preview, or when it
+     * is still being generated (see {@link #isPending}).
+     */
+    public StoredContent open(String sha256, PreviewKind kind) throws IOException {
+        StoredContent preview = blobStore.openDerivative(sha256, kind);
+        if (preview == null && enabled) {
+            try {
+                submit(sha256, kind).get(wait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            preview = blobStore.openDerivative(sha256, kind);
+        }
+        // An empty derivative marks content that cannot be previewed
+        return preview == null || preview.length() == 0 ? null : preview;
+    }
+
+    public boolean isPending(String sha256, PreviewKind kind) {
+        return inFlight.containsKey(key(sha256, kind));
+    }
+
+    private CompletableFuture<Void> submit(String sha256, PreviewKind kind) {
+        String key = key(sha256, kind);
+        CompletableFuture<Void> job = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(key, job);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Preview generator is not running");
+            }
+            executor.execute(() -> {
+                try {
+                    generate(sha256, kind);
+                    job.complete(null);
+                } catch (Exception e) {
+                    log.warn("Failed to generate {} for blob {}: {}", kind, sha256, e.getMessage());
+                    count(kind, "failed");
+                    job.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, job);
+            count(kind, "rejected");
+            job.completeExceptionally(e);
+        }
+        return job;
+    }
+
+    // ---------------------------
+    // GENERATION
+    // ---------------------------
+    private void generate(String sha256, PreviewKind kind) throws IOException {
+        if (blobStore.openDerivative(sha256, kind) != null) {
+            return;
+        }
+        StoredContent original = blobStore.open(sha256);
+        if (original == null) {
+            return;
+        }
+
+        Path output = Files.createTempFile(uploadPipeline.stagingDirectory(), "preview-", ".part");
+        try {
+            boolean created = original.length() <= maxSourceSize && switch (kind) {
+                case THUMBNAIL -> thumbnail(original, output);
+                case TEXT -> text(original, output);
+            };
+            if (!created) {
+                Files.write(output, new byte[0]);
+            }
+            blobStore.putDerivative(sha256, kind, output);
+            count(kind, created ? "created" : "unsupported");
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private boolean thumbnail(StoredContent original, Path output) throws IOException {
+        Path source = original.file().orElse(null);
+        Path copy = null;
+        if (source == null) {
+            // Image decoders want random access; fetch remote content into a local temp file
+            copy = Files.createTempFile(uploadPipeline.stagingDirectory(), "preview-source-", ".part");
+            try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+                original.writeTo(0, original.length(), channel);
+            }
+            source = copy;
+        }
+        try {
+            BufferedImage image = decode(source);
+            if (image == null) {
+                return false;
+            }
+            writeJpeg(scale(image), output);
+            return true;
+        } finally {
+            if (copy != null) {
+                Files.deleteIfExists(copy);
+            }
+        }
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return null;
+                }
+                // Decode at most about twice the thumbnail size; the final scale is done with filtering
+                int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not decode image {}: {}", source, e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image) {
+        double factor = Math.min(1.0, (double) thumbnailSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha; transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private void writeJpeg(BufferedImage image, Path output) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(output.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(thumbnailQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private boolean text(StoredContent original, Path output) throws IOException {
+        long length = Math.min(original.length(), textBytes);
+        ByteArrayOutputStream head = new ByteArrayOutputStream((int) length);
+        original.writeTo(0, length, Channels.newChannel(head));
+        byte[] bytes = head.toByteArray();
+        for (byte b : bytes) {
+            if (b == 0) {
+                return false; // Binary content behind a text extension
+            }
+        }
+
+        String text = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(bytes))
+                .toString();
+        if (length < original.length()) {
+            // The cut may have split a multi-byte character
+            text = text.replaceAll("\\uFFFD+$", "") + "\u2026";
+        }
+        Files.writeString(output, text, StandardCharsets.UTF_8);
+        return true;
+    }
+
+    private void count(PreviewKind kind, String result) {
+        meterRegistry.counter("lms.preview.generated", "kind", kind.name().toLowerCase(Locale.ROOT), "result", result).increment();
+    }
+
+    private static String key(String sha256, PreviewKind kind) {
+        return sha256 + "." + kind.name();
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "preview-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
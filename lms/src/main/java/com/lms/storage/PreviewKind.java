@@ -0,0 +1,41 @@
+package com.lms.storage;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Derivatives generated for attachments, chosen by file extension. Each is stored next to its
+ * blob under {@link #getDerivativeName()}.
+ */
+@Getter
+public enum PreviewKind {
+    THUMBNAIL("thumbnail.jpg", "image/jpeg",
+            Set.of("jpg", "jpeg", "png", "gif", "bmp")),
+    TEXT("preview.txt", "text/plain;charset=UTF-8",
+            Set.of("txt", "md", "csv", "tsv", "log", "json", "xml", "yml", "yaml", "html", "css",
+                    "js", "jsx", "ts", "java", "py", "c", "cpp", "h", "cs", "sql", "sh"));
+
+    private final String derivativeName;
+    private final String contentType;
+    private final Set<String> extensions;
+
+    PreviewKind(String derivativeName, String contentType, Set<String> extensions) {
+        this.derivativeName = derivativeName;
+        this.contentType = contentType;
+        this.extensions = extensions;
+    }
+
+    public static Optional<PreviewKind> forFileName(String fileName) {
+        String extension = StringUtils.getFilenameExtension(fileName);
+        if (extension == null) {
+            return Optional.empty();
+        }
+        String normalized = extension.toLowerCase(Locale.ROOT);
+        return Arrays.stream(values()).filter(kind -> kind.extensions.contains(normalized)).findFirst();
+    }
+}
@@ -0,0 +1,415 @@
+package com.lms.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Blobs in an S3-compatible bucket, so that several application nodes can share attachments
+ * without a shared file system. Any server speaking the S3 REST API with Signature Version 4 works:
+ * AWS S3, MinIO, Ceph RGW, or LocalStack/MinIO on a developer machine as a local stand-in.
+ *
+ * Objects are keyed {@code <prefix>/ab/cd/<sha256>}, which spreads them over key prefixes the
+ * server can partition on. Uploads send the blob's own SHA-256 as {@code x-amz-content-sha256}, so
+ * the server verifies every byte it stores. Downloads fetch exactly the requested range.
+ *
+ * {@code lms.storage.s3.max-connections} caps concurrent requests (and so connections) per node;
+ * a streaming download holds its permit until the body has been written out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "lms.storage.backend", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private static final int NOT_FOUND = 404;
+    private static final int MAX_KEYS = 1000;
+    private static final Pattern BLOB_KEY = Pattern.compile("[0-9a-f]{64}");
+
+    private final HttpClient httpClient;
+    private final S3RequestSigner signer;
+    private final URI endpoint;
+    private final String bucket;
+    private final String prefix;
+    private final String rawPrefix;
+    private final boolean pathStyleAccess;
+    private final Duration requestTimeout;
+    private final int bufferSize;
+    private final Semaphore permits;
+
+    public S3BlobStore(@Value("${lms.storage.s3.endpoint}") String endpoint,
+                       @Value("${lms.storage.s3.region:us-east-1}") String region,
+                       @Value("${lms.storage.s3.bucket}") String bucket,
+                       @Value("${lms.storage.s3.prefix:blobs}") String prefix,
+                       @Value("${lms.storage.s3.access-key}") String accessKey,
+                       @Value("${lms.storage.s3.secret-key}") String secretKey,
+                       @Value("${lms.storage.s3.path-style-access:true}") boolean pathStyleAccess,
+                       @Value("${lms.storage.s3.connect-timeout:5s}") Duration connectTimeout,
+                       @Value("${lms.storage.s3.request-timeout:5m}") Duration requestTimeout,
+                       @Value("${lms.storage.s3.max-connections:64}") int maxConnections,
+                       @Value("${lms.upload.buffer-size:64KB}") DataSize bufferSize) {
+        if (!StringUtils.hasText(bucket) || !StringUtils.hasText(accessKey) || !StringUtils.hasText(secretKey)) {
+            throw new IllegalStateException("lms.storage.s3.bucket, access-key and secret-key are required for the s3 backend");
+        }
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.prefix = Arrays.stream(prefix.split("/"))
+                .filter(StringUtils::hasText)
+                .map(S3RequestSigner::encode)
+                .map(segment -> segment + "/")
+                .collect(Collectors.joining());
+        this.rawPrefix = Arrays.stream(prefix.split("/"))
+                .filter(StringUtils::hasText)
+                .map(segment -> segment + "/")
+                .collect(Collectors.joining());
+        this.pathStyleAccess = pathStyleAccess;
+        this.requestTimeout = requestTimeout;
+        this.bufferSize = (int) bufferSize.toBytes();
+        this.permits = new Semaphore(maxConnections);
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        log.info("Storing blobs in bucket {} at {}", bucket, this.endpoint);
+    }
+
+    @Override
+    public boolean exists(String sha256) throws IOException {
+        return head(key(sha256)).isPresent();
+    }
+
+    @Override
+    public void put(String sha256, Path staged) throws IOException {
+        upload(key(sha256), staged, sha256);
+    }
+
+    @Override
+    public StoredContent open(String sha256) throws IOException {
+        return head(key(sha256)).orElse(null);
+    }
+
+    @Override
+    public void delete(String sha256) throws IOException {
+        for (PreviewKind kind : PreviewKind.values()) {
+            deleteObject(key(sha256, kind));
+        }
+        deleteObject(key(sha256));
+    }
+
+    @Override
+    public void putDerivative(String sha256, PreviewKind kind, Path staged) throws IOException {
+        // Derivatives are small; hashing them up front lets the server verify them like blobs
+        upload(key(sha256, kind), staged, HexFormat.of().formatHex(sha256(Files.readAllBytes(staged))));
+    }
+
+    @Override
+    public StoredContent openDerivative(String sha256, PreviewKind kind) throws IOException {
+        return head(key(sha256, kind)).orElse(null);
+    }
+
+    @Override
+    public List<Listing> list(String after, int limit) throws IOException {
+        List<Listing> listing = new ArrayList<>(limit);
+        String startAfter = after == null ? null : rawPrefix + shardPath(after);
+        boolean truncated = true;
+        while (truncated && listing.size() < limit) {
+            // Derivative keys sort right after their blob's and are skipped, so ask for extra
+            int maxKeys = Math.min(MAX_KEYS, (limit - listing.size()) * (PreviewKind.values().length + 1));
+            Page page = listPage(startAfter, maxKeys);
+            for (ObjectSummary object : page.objects()) {
+                String name = object.key().substring(object.key().lastIndexOf('/') + 1);
+                if (BLOB_KEY.matcher(name).matches() && listing.size() < limit) {
+                    listing.add(new Listing(name, object.lastModified()));
+                }
+                startAfter = object.key();
+            }
+            truncated = page.truncated() && !page.objects().isEmpty();
+        }
+        return listing;
+    }
+
+    private void upload(String key, Path staged, String payloadSha256) throws IOException {
+        try {
+            HttpResponse<String> response = withPermit(() -> send("PUT", key,
+                    HttpRequest.BodyPublishers.ofFile(staged), payloadSha256, Map.of(), HttpResponse.BodyHandlers.ofString()));
+            if (response.statusCode() / 100 != 2) {
+                throw failure("PUT", key, response.statusCode(), response.body());
+            }
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    private void deleteObject(String key) throws IOException {
+        HttpResponse<String> response = withPermit(() -> send("DELETE", key, HttpRequest.BodyPublishers.noBody(),
+                S3RequestSigner.EMPTY_PAYLOAD_SHA256, Map.of(), HttpResponse.BodyHandlers.ofString()));
+        if (response.statusCode() / 100 != 2 && response.statusCode() != NOT_FOUND) {
+            throw failure("DELETE", key, response.statusCode(), response.body());
+        }
+    }
+
+    private Optional<StoredContent> head(String key) throws IOException {
+        HttpResponse<Void> response = withPermit(() -> send("HEAD", key, HttpRequest.BodyPublishers.noBody(),
+                S3RequestSigner.EMPTY_PAYLOAD_SHA256, Map.of(), HttpResponse.BodyHandlers.discarding()));
+        if (response.statusCode() == NOT_FOUND) {
+            return Optional.empty();
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw failure("HEAD", key, response.statusCode(), "");
+        }
+        long length = response.headers().firstValueAsLong("content-length").orElse(0);
+        long lastModified = response.headers().firstValue("last-modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                .orElse(0L);
+        return Optional.of(new ObjectContent(key, length, lastModified));
+    }
+
+    /**
+     * One ListObjectsV2 page under the prefix, parsed as it streams in.
+     */
+    private Page listPage(String startAfter, int maxKeys) throws IOException {
+        String query = "list-type=2&max-keys=" + maxKeys + "&prefix=" + S3RequestSigner.encode(rawPrefix)
+                + (startAfter == null ? "" : "&start-after=" + S3RequestSigner.encode(startAfter));
+        return withPermit(() -> {
+            HttpResponse<InputStream> response = send("GET", bucketUri(query), HttpRequest.BodyPublishers.noBody(),
+                    S3RequestSigner.EMPTY_PAYLOAD_SHA256, Map.of(), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = response.body()) {
+                if (response.statusCode() / 100 != 2) {
+                    throw failure("GET", "?" + query, response.statusCode(), new String(in.readNBytes(1024)));
+                }
+                return parsePage(in);
+            }
+        });
+    }
+
+    private static Page parsePage(InputStream in) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        List<ObjectSummary> objects = new ArrayList<>();
+        boolean truncated = false;
+        String key = null;
+        long lastModified = 0;
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "Contents" -> {
+                        key = null;
+                        lastModified = 0;
+                    }
+                    case "Key" -> key = reader.getElementText();
+                    case "LastModified" -> lastModified = Instant.parse(reader.getElementText()).toEpochMilli();
+                    case "IsTruncated" -> truncated = Boolean.parseBoolean(reader.getElementText().trim());
+                    default -> {
+                        continue;
+                    }
+                }
+                // Key and LastModified both come before the next Contents element
+                if (key != null && lastModified != 0) {
+                    objects.add(new ObjectSummary(key, lastModified));
+                    key = null;
+                    lastModified = 0;
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unreadable bucket listing", e);
+        }
+        return new Page(objects, truncated);
+    }
+
+    private record ObjectSummary(String key, long lastModified) {
+    }
+
+    private record Page(List<ObjectSummary> objects, boolean truncated) {
+    }
+
+    /**
+     * An object read with ranged GETs.
+     */
+    private class ObjectContent implements StoredContent {
+
+        private final String key;
+        private final long length;
+        private final long lastModified;
+
+        ObjectContent(String key, long length, long lastModified) {
+            this.key = key;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public Optional<Path> file() {
+            return Optional.empty();
+        }
+
+        @Override
+        public void writeTo(long start, long end, WritableByteChannel target) throws IOException {
+            if (start >= end) {
+                return;
+            }
+            withPermit(() -> {
+                HttpResponse<InputStream> response = send("GET", key, HttpRequest.BodyPublishers.noBody(),
+                        S3RequestSigner.EMPTY_PAYLOAD_SHA256, Map.of("Range", "bytes=" + start + "-" + (end - 1)),
+                        HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    int status = response.statusCode();
+                    // 200 means the range was ignored; usable only when it started at zero
+                    if (status != 206 && !(status == 200 && start == 0)) {
+                        throw failure("GET", key, status, new String(in.readNBytes(1024)));
+                    }
+                    copy(in, end - start, target);
+                }
+                return null;
+            });
+        }
+    }
+
+    // ---------------------------
+    // HTTP
+    // ---------------------------
+    private <T> HttpResponse<T> send(String method, String key, HttpRequest.BodyPublisher body, String payloadSha256,
+                                     Map<String, String> headers, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        return send(method, objectUri(key), body, payloadSha256, headers, handler);
+    }
+
+    private <T> HttpResponse<T> send(String method, URI uri, HttpRequest.BodyPublisher body, String payloadSha256,
+                                     Map<String, String> headers, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .method(method, body);
+        signer.sign(method, uri, headers, payloadSha256, Instant.now()).forEach(request::header);
+        return httpClient.send(request.build(), handler);
+    }
+
+    private String key(String sha256) {
+        return prefix + shardPath(sha256);
+    }
+
+    private static String shardPath(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    private String key(String sha256, PreviewKind kind) {
+        return key(sha256) + "." + kind.getDerivativeName();
+    }
+
+    private URI objectUri(String key) {
+        if (pathStyleAccess) {
+            return URI.create(endpoint + "/" + S3RequestSigner.encode(bucket) + "/" + key);
+        }
+        String authority = bucket + "." + endpoint.getRawAuthority();
+        return URI.create(endpoint.getScheme() + "://" + authority + "/" + key);
+    }
+
+    private URI bucketUri(String query) {
+        if (pathStyleAccess) {
+            return URI.create(endpoint + "/" + S3RequestSigner.encode(bucket) + "?" + query);
+        }
+        String authority = bucket + "." + endpoint.getRawAuthority();
+        return URI.create(endpoint.getScheme() + "://" + authority + "/?" + query);
+    }
+
+    private void copy(InputStream in, long remaining, WritableByteChannel target) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(bufferSize, remaining)];
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                // The declared Content-Length can no longer be met
+                throw new IOException("Object truncated during transfer");
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                target.write(chunk);
+            }
+            remaining -= read;
+        }
+    }
+
+    private <T> T withPermit(Request<T> request) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a blob store connection");
+        }
+        try {
+            return request.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during a blob store request");
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private IOException failure(String method, String key, int status, String body) {
+        return new IOException(method + " of " + key + " failed with status " + status
+                + (StringUtils.hasText(body) ? ": " + body : ""));
+    }
+
+    @FunctionalInterface
+    private interface Request<T> {
+        T run() throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,156 @@
+package com.lms.storage;
+
+import com.lms.repository.StorageUsageRepository;
+import com.lms.repository.StorageUsageRepository.OwnerType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-course and per-user attachment byte counters, and the quotas checked against them.
+ *
+ * The services {@link #charge} an attachment when they save it and {@link #credit} it when they
+ * replace or delete it, inside the same transaction, so the counters move with the attachment
+ * columns and a quota check is one primary-key read per owner instead of a scan. Changes that
+ * bypass the services (course cascades, manual SQL) are corrected every
+ * {@code lms.storage.quota.reconcile-interval}, a range of owner ids at a time on the bulk pool.
+ *
+ * Quotas are {@code lms.storage.quota.per-user} and {@code lms.storage.quota.per-course}; 0 turns
+ * one off. They are soft: uploads checked at the same moment can each pass and together overshoot
+ * by up to one file apiece.
+ */
+@Slf4j
+@Component
+public class StorageAccounting implements SmartLifecycle {
+
+    // Owner ids reconciled per range
+    private static final int RECONCILE_PAGE = 1000;
+
+    private final StorageUsageRepository usageRepository;
+    private final long userQuota;
+    private final long courseQuota;
+    private final Duration reconcileInterval;
+    private final Duration reconcileGrace;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public StorageAccounting(StorageUsageRepository usageRepository,
+                             @Value("${lms.storage.quota.per-user:2GB}") DataSize userQuota,
+                             @Value("${lms.storage.quota.per-course:20GB}") DataSize courseQuota,
+                             @Value("${lms.storage.quota.reconcile-interval:6h}") Duration reconcileInterval,
+                             @Value("${lms.storage.quota.reconcile-grace:10m}") Duration reconcileGrace) {
+        this.usageRepository = usageRepository;
+        this.userQuota = userQuota.toBytes();
+        this.courseQuota = courseQuota.toBytes();
+        this.reconcileInterval = reconcileInterval;
+        this.reconcileGrace = reconcileGrace;
+    }
+
+    /**
+     * Rejects an upload that would take the course or user over quota. {@code bytes} is what the
+     * upload adds, net of any attachment it replaces. Either owner may be null when the upload does
+     * not count against one.
+     */
+    public void checkQuota(Long courseId, Long userId, long bytes) {
+        check(OwnerType.COURSE, courseId, courseQuota, bytes, "This course");
+        check(OwnerType.USER, userId, userQuota, bytes, "You");
+    }
+
+    private void check(OwnerType type, Long ownerId, long quota, long bytes, String who) {
+        if (ownerId == null || quota <= 0 || bytes <= 0) {
+            return;
+        }
+        long used = usageRepository.findBytes(type, ownerId);
+        if (used + bytes > quota) {
+            throw new RuntimeException(who + " would exceed the storage quota of " + megabytes(quota)
+                    + " (" + megabytes(used) + " used)");
+        }
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1fMB", bytes / (1024.0 * 1024));
+    }
+
+    /** Counts a newly saved attachment of {@code bytes}. Call in the transaction that saves it. */
+    public void charge(Long courseId, Long userId, Long bytes) {
+        add(courseId, userId, bytes == null ? 0 : bytes, 1);
+    }
+
+    /** Stops counting a replaced or deleted attachment. Call in the transaction that removes it. */
+    public void credit(Long courseId, Long userId, Long bytes) {
+        add(courseId, userId, bytes == null ? 0 : -bytes, -1);
+    }
+
+    private void add(Long courseId, Long userId, long bytes, int files) {
+        if (courseId != null) {
+            usageRepository.add(OwnerType.COURSE, courseId, bytes, files);
+        }
+        if (userId != null) {
+            usageRepository.add(OwnerType.USER, userId, bytes, files);
+        }
+    }
+
+    public long getQuota(OwnerType type) {
+        return type == OwnerType.COURSE ? courseQuota : userQuota;
+    }
+
+    /**
+     * Corrects the counters that differ from the attachment columns, skipping those charged or
+     * credited within {@code lms.storage.quota.reconcile-grace}. Returns how many changed.
+     */
+    public int reconcile() {
+        int corrected = 0;
+        for (OwnerType type : OwnerType.values()) {
+            long maxId = usageRepository.findMaxOwnerId(type);
+            for (long from = 0; from <= maxId; from += RECONCILE_PAGE) {
+                corrected += usageRepository.reconcile(type, from, from + RECONCILE_PAGE - 1,
+                        LocalDateTime.now().minus(reconcileGrace));
+            }
+        }
+        if (corrected > 0) {
+            log.info("Corrected {} storage usage counters", corrected);
+        }
+        return corrected;
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-accounting");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                log.warn("Storage usage reconciliation failed: {}", e.getMessage());
+            }
+        }, reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
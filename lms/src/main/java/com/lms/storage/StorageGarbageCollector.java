@@ -0,0 +1,370 @@
+package com.lms.storage;
+
+import com.lms.repository.BlobRepository;
+import com.lms.repository.StorageTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes storage that nothing references any more, in the background and at a bounded rate.
+ *
+ * Each run works through five sources of garbage, a batch at a time:
+ * <ul>
+ *   <li>tombstones left by {@link UploadPipeline#release} for files from before content
+ *       addressing, deleted once no attachment points at the URL;</li>
+ *   <li>blobs in the {@link BlobStore} without a row, e.g. from a crash between storing the content
+ *       and committing the row;</li>
+ *   <li>files from before content addressing in the category directories that no attachment
+ *       points at, e.g. after a course was deleted with its assignments and notes;</li>
+ *   <li>staging files older than {@code lms.storage.gc.staging-ttl} that an interrupted upload or
+ *       preview left behind. Resumable upload sessions are swept by their own service;</li>
+ *   <li>uploads never attached, dropped by {@link PendingUploads#expire} so their blobs can be
+ *       reclaimed.</li>
+ * </ul>
+ * The blob store and the category directories are walked with cursors kept between runs, so each
+ * run lists one batch per source and a full pass takes as many runs as the store has batches;
+ * nothing is ever listed whole. Orphans are only deleted once older than
+ * {@code lms.storage.gc.grace}, which covers uploads whose row or attachment is not committed yet,
+ * and an orphaned blob is deleted under a placeholder row, the same lock {@link BlobReclaimer}
+ * relies on, so an upload of the same content waits and then stores it again.
+ *
+ * Deletes and listings are spaced to {@code lms.storage.gc.max-operations-per-second}, keeping
+ * the collector from competing with downloads for disk or bucket throughput.
+ */
+@Slf4j
+@Component
+public class StorageGarbageCollector implements SmartLifecycle {
+
+    private static final String RESUMABLE_PREFIX = "resumable-";
+
+    private final UploadPipeline uploadPipeline;
+    private final PendingUploads pendingUploads;
+    private final BlobStore blobStore;
+    private final BlobRepository blobRepository;
+    private final StorageTombstoneRepository tombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration interval;
+    private final Duration grace;
+    private final Duration stagingTtl;
+    private final int batchSize;
+    private final long operationIntervalNanos;
+    private final Map<String, Counter> deleted = new HashMap<>();
+
+    // Where the next batch of each walk starts; null starts a new pass
+    private String blobCursor;
+    private final Map<UploadCategory, String> fileCursors = new EnumMap<>(UploadCategory.class);
+    private long nextOperation;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public record Result(int tombstones, int orphanedBlobs, int orphanedFiles, int stagingFiles, int expiredUploads) {
+    }
+
+    public StorageGarbageCollector(UploadPipeline uploadPipeline,
+                                   PendingUploads pendingUploads,
+                                   BlobStore blobStore,
+                                   BlobRepository blobRepository,
+                                   StorageTombstoneRepository tombstoneRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${lms.storage.gc.interval:15m}") Duration interval,
+                                   @Value("${lms.storage.gc.grace:24h}") Duration grace,
+                                   @Value("${lms.storage.gc.staging-ttl:48h}") Duration stagingTtl,
+                                   @Value("${lms.storage.gc.batch-size:500}") int batchSize,
+                                   @Value("${lms.storage.gc.max-operations-per-second:50}") int maxOperationsPerSecond) {
+        this.uploadPipeline = uploadPipeline;
+        this.pendingUploads = pendingUploads;
+        this.blobStore = blobStore;
+        this.blobRepository = blobRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.interval = interval;
+        this.grace = grace;
+        this.stagingTtl = stagingTtl;
+        this.batchSize = batchSize;
+        this.operationIntervalNanos = maxOperationsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxOperationsPerSecond : 0;
+        for (String kind : List.of("tombstone", "blob", "file", "staging", "upload")) {
+            deleted.put(kind, meterRegistry.counter("lms.storage.gc.deleted", "kind", kind));
+        }
+    }
+
+    /**
+     * Runs one batch of each kind of collection. Returns how many items each deleted.
+     */
+    public synchronized Result collect() {
+        try {
+            return new Result(collectTombstones(), collectBlobs(), collectFiles(), collectStaging(), collectUploads());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Storage collection interrupted");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ---------------------------
+    // TOMBSTONES
+    // ---------------------------
+    private int collectTombstones() throws InterruptedException {
+        List<StorageTombstoneRepository.Tombstone> tombstones = tombstoneRepository.findBatch(batchSize);
+        if (tombstones.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = tombstoneRepository.findReferencedUrls(
+                tombstones.stream().map(StorageTombstoneRepository.Tombstone::url).distinct().toList());
+        List<Long> done = new ArrayList<>(tombstones.size());
+        int removed = 0;
+        for (StorageTombstoneRepository.Tombstone tombstone : tombstones) {
+            Path path = uploadPipeline.legacyPath(tombstone.url());
+            if (path != null && !referenced.contains(tombstone.url())) {
+                throttle();
+                try {
+                    if (Files.deleteIfExists(path)) {
+                        removed++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to delete file {}: {}", path, e.getMessage());
+                    continue; // Keep the tombstone and try again next run
+                }
+            }
+            done.add(tombstone.id());
+        }
+        tombstoneRepository.delete(done);
+        deleted.get("tombstone").increment(removed);
+        return removed;
+    }
+
+    // ---------------------------
+    // BLOBS
+    // ---------------------------
+    private int collectBlobs() throws IOException, InterruptedException {
+        throttle();
+        List<BlobStore.Listing> listing = blobStore.list(blobCursor, batchSize);
+        blobCursor = listing.size() < batchSize ? null : listing.get(listing.size() - 1).sha256();
+        if (listing.isEmpty()) {
+            return 0;
+        }
+        Set<String> registered = blobRepository.findRegistered(listing.stream().map(BlobStore.Listing::sha256).toList());
+        long cutoff = System.currentTimeMillis() - grace.toMillis();
+        int removed = 0;
+        for (BlobStore.Listing blob : listing) {
+            if (registered.contains(blob.sha256()) || blob.lastModified() >= cutoff) {
+                continue;
+            }
+            throttle();
+            try {
+                if (deleteOrphanedBlob(blob.sha256())) {
+                    removed++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete orphaned blob {}: {}", blob.sha256(), e.getMessage());
+            }
+        }
+        deleted.get("blob").increment(removed);
+        return removed;
+    }
+
+    private boolean deleteOrphanedBlob(String sha256) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!blobRepository.claimUnregistered(sha256)) {
+                return false; // Registered by an upload since it was listed
+            }
+            try {
+                blobStore.delete(sha256);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            blobRepository.delete(sha256);
+            return true;
+        }));
+    }
+
+    // ---------------------------
+    // FILES FROM BEFORE CONTENT ADDRESSING
+    // ---------------------------
+    private int collectFiles() throws IOException, InterruptedException {
+        int removed = 0;
+        for (UploadCategory category : UploadCategory.values()) {
+            throttle();
+            Path directory = uploadPipeline.directory(category);
+            List<String> names = nextNames(directory, fileCursors.get(category));
+            fileCursors.put(category, names.size() < batchSize ? null : names.get(names.size() - 1));
+
+            Map<String, String> urls = new LinkedHashMap<>();
+            for (String name : names) {
+                String url = UploadPipeline.legacyUrl(category, name);
+                if (url != null) {
+                    urls.put(url, name);
+                }
+            }
+            Set<String> referenced = tombstoneRepository.findReferencedUrls(urls.keySet());
+            long cutoff = System.currentTimeMillis() - grace.toMillis();
+            for (Map.Entry<String, String> entry : urls.entrySet()) {
+                if (referenced.contains(entry.getKey())) {
+                    continue;
+                }
+                throttle();
+                if (deleteIfOlder(directory.resolve(entry.getValue()), cutoff)) {
+                    removed++;
+                }
+            }
+        }
+        deleted.get("file").increment(removed);
+        return removed;
+    }
+
+    /**
+     * The first {@code batchSize} names after {@code after} in name order. Only that many are held
+     * at a time, however many files the directory has.
+     */
+    private List<String> nextNames(Path directory, String after) throws IOException {
+        PriorityQueue<String> smallest = new PriorityQueue<>(Comparator.reverseOrder());
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (after != null && name.compareTo(after) <= 0) {
+                    continue;
+                }
+                if (smallest.size() < batchSize) {
+                    smallest.add(name);
+                } else if (name.compareTo(smallest.peek()) < 0) {
+                    smallest.poll();
+                    smallest.add(name);
+                }
+            }
+        }
+        List<String> names = new ArrayList<>(smallest);
+        names.sort(null);
+        return names;
+    }
+
+    // ---------------------------
+    // STAGING
+    // ---------------------------
+    private int collectStaging() throws IOException, InterruptedException {
+        long cutoff = System.currentTimeMillis() - stagingTtl.toMillis();
+        int removed = 0;
+        throttle();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(uploadPipeline.stagingDirectory())) {
+            for (Path entry : entries) {
+                if (removed == batchSize) {
+                    break;
+                }
+                if (!entry.getFileName().toString().startsWith(RESUMABLE_PREFIX) && deleteIfOlder(entry, cutoff)) {
+                    removed++;
+                    throttle();
+                }
+            }
+        }
+        deleted.get("staging").increment(removed);
+        return removed;
+    }
+
+    // ---------------------------
+    // UNCLAIMED UPLOADS
+    // ---------------------------
+    private int collectUploads() throws InterruptedException {
+        throttle();
+        int expired = pendingUploads.expire(batchSize);
+        deleted.get("upload").increment(expired);
+        return expired;
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private boolean deleteIfOlder(Path path, long cutoff) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile() || attributes.lastModifiedTime().toMillis() >= cutoff) {
+                return false;
+            }
+            return Files.deleteIfExists(path);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.warn("Failed to delete file {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Spaces storage operations out to the configured rate.
+     */
+    private void throttle() throws InterruptedException {
+        if (operationIntervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = nextOperation - now;
+        nextOperation = Math.max(now, nextOperation) + operationIntervalNanos;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private void runSafely() {
+        try {
+            Result result = collect();
+            int total = result.tombstones() + result.orphanedBlobs() + result.orphanedFiles() + result.stagingFiles()
+                    + result.expiredUploads();
+            if (total > 0) {
+                log.info("Collected storage garbage: {}", result);
+            }
+        } catch (Exception e) {
+            log.warn("Storage collection failed: {}", e.getMessage());
+        }
+    }
+
+    // ---------------------------
+    // LIFECYCLE
+    // ---------------------------
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runSafely, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,56 @@
+package com.lms.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Bytes that can be served, from whichever backend holds them.
+ */
+public interface StoredContent {
+
+    long length();
+
+    long lastModified();
+
+    /**
+     * The content as a file on this machine, when it is one, so it can be served zero-copy.
+     */
+    Optional<Path> file();
+
+    /**
+     * Writes bytes {@code [start, end)} to {@code target}.
+     */
+    void writeTo(long start, long end, WritableByteChannel target) throws IOException;
+
+    static StoredContent ofFile(Path path) throws IOException {
+        return new FileContent(path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+    }
+
+    record FileContent(Path path, long length, long lastModified) implements StoredContent {
+
+        @Override
+        public Optional<Path> file() {
+            return Optional.of(path);
+        }
+
+        @Override
+        public void writeTo(long start, long end, WritableByteChannel target) throws IOException {
+            try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+                long position = start;
+                while (position < end) {
+                    long sent = source.transferTo(position, end - position, target);
+                    if (sent <= 0) {
+                        // File shrank underneath us; the declared Content-Length can no longer be met
+                        throw new IOException("File truncated during transfer");
+                    }
+                    position += sent;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.lms.storage;
+
+/**
+ * Result of streaming one upload to storage.
+ *
+ * @param url          public path stored on the entity, e.g. {@code /uploads/submissions/<name>}
+ * @param storedName   last URL segment, {@code <sha256>_<name>}
+ * @param originalName client-supplied name, for display only
+ * @param size         bytes written
+ * @param sha256       lowercase hex SHA-256 of the content, computed while writing
+ * @param deduplicated the content was already stored, so nothing new was written
+ */
+public record StoredFile(UploadCategory category,
+                         String url,
+                         String storedName,
+                         String originalName,
+                         String contentType,
+                         long size,
+                         String sha256,
+                         boolean deduplicated) {
+}
@@ -0,0 +1,211 @@
+package com.lms.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control and write-bandwidth throttling for uploads.
+ *
+ * At most {@code lms.upload.admission.max-concurrent} uploads write at a time. The rest wait in
+ * one queue per user and are admitted round-robin across users, so a student sending twenty files
+ * does not hold up everyone who sends one. A request that cannot be queued (more than
+ * {@code max-queued} waiting) or is not admitted within {@code max-wait} is rejected with
+ * {@link UploadRejectedException} instead of tying up a request thread indefinitely.
+ *
+ * Admitted uploads share {@code lms.upload.admission.max-write-rate} bytes per second of disk
+ * writes: copy loops call {@link #throttle} for each buffer they write, and are delayed once the
+ * aggregate rate is reached, which leaves disk bandwidth for everything else.
+ */
+@Slf4j
+@Component
+public class UploadAdmission {
+
+    // Idle time is not banked beyond this, so a quiet spell allows only a short burst
+    private static final long MAX_BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final long maxWriteRate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Waiting uploads per user; iteration order is the round-robin order
+    private final Map<Long, ArrayDeque<Ticket>> waiting = new LinkedHashMap<>();
+    private int active;
+    private int queued;
+
+    private final Object throttleLock = new Object();
+    private long nextWrite;
+
+    private final Timer admittedWait;
+    private final Timer rejectedWait;
+
+    public UploadAdmission(MeterRegistry meterRegistry,
+                           @Value("${lms.upload.admission.max-concurrent:16}") int maxConcurrent,
+                           @Value("${lms.upload.admission.max-queued:64}") int maxQueued,
+                           @Value("${lms.upload.admission.max-wait:20s}") Duration maxWait,
+                           @Value("${lms.upload.admission.max-write-rate:0B}") DataSize maxWriteRate) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.maxWriteRate = maxWriteRate.toBytes();
+
+        this.admittedWait = meterRegistry.timer("lms.upload.admission.wait", "result", "admitted");
+        this.rejectedWait = meterRegistry.timer("lms.upload.admission.wait", "result", "rejected");
+        meterRegistry.gauge("lms.upload.admission.active", this, admission -> admission.active);
+        meterRegistry.gauge("lms.upload.admission.queued", this, admission -> admission.queued);
+    }
+
+    /**
+     * A granted upload slot; closing it admits the next waiting upload.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private boolean closed;
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    active--;
+                    grantNext();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Ticket {
+
+        final Condition granted;
+        boolean admitted;
+
+        Ticket(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    /**
+     * Waits for an upload slot for {@code userId}, or throws {@link UploadRejectedException}.
+     */
+    public Permit admit(Long userId) throws InterruptedException {
+        long started = System.nanoTime();
+        lock.lock();
+        try {
+            if (active < maxConcurrent && queued == 0) {
+                active++;
+                admittedWait.record(0, TimeUnit.NANOSECONDS);
+                return new Permit();
+            }
+            if (queued >= maxQueued) {
+                rejectedWait.record(0, TimeUnit.NANOSECONDS);
+                throw new UploadRejectedException("Too many uploads in progress; try again shortly", retryAfter());
+            }
+
+            Ticket ticket = new Ticket(lock.newCondition());
+            waiting.computeIfAbsent(userId, id -> new ArrayDeque<>()).add(ticket);
+            queued++;
+            long remaining = maxWait.toNanos();
+            try {
+                while (!ticket.admitted && remaining > 0) {
+                    remaining = ticket.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (ticket.admitted) {
+                    // Granted just before the interrupt; pass the slot on
+                    active--;
+                    grantNext();
+                } else {
+                    withdraw(userId, ticket);
+                }
+                throw e;
+            }
+            if (!ticket.admitted) {
+                withdraw(userId, ticket);
+                rejectedWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                throw new UploadRejectedException("Upload waited too long for a free slot; try again shortly", retryAfter());
+            }
+            admittedWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Hands a freed slot to the head of the next user's queue. Call holding the lock. */
+    private void grantNext() {
+        Iterator<Map.Entry<Long, ArrayDeque<Ticket>>> users = waiting.entrySet().iterator();
+        if (active >= maxConcurrent || !users.hasNext()) {
+            return;
+        }
+        Map.Entry<Long, ArrayDeque<Ticket>> next = users.next();
+        Ticket ticket = next.getValue().poll();
+        users.remove();
+        if (!next.getValue().isEmpty()) {
+            // Back of the line, behind every other user that is waiting
+            waiting.put(next.getKey(), next.getValue());
+        }
+        queued--;
+        active++;
+        ticket.admitted = true;
+        ticket.granted.signal();
+    }
+
+    private void withdraw(Long userId, Ticket ticket) {
+        ArrayDeque<Ticket> tickets = waiting.get(userId);
+        if (tickets != null && tickets.remove(ticket)) {
+            queued--;
+            if (tickets.isEmpty()) {
+                waiting.remove(userId);
+            }
+        }
+    }
+
+    private long retryAfter() {
+        return Math.max(1, maxWait.toSeconds() / 2);
+    }
+
+    /**
+     * Blocks until {@code bytes} more may be written without exceeding the aggregate write rate.
+     */
+    public void throttle(long bytes) throws InterruptedIOException {
+        if (maxWriteRate <= 0) {
+            return;
+        }
+        long cost = bytes * TimeUnit.SECONDS.toNanos(1) / maxWriteRate;
+        long wait;
+        synchronized (throttleLock) {
+            long now = System.nanoTime();
+            nextWrite = Math.max(nextWrite, now - MAX_BURST_NANOS) + cost;
+            wait = nextWrite - now;
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling an upload");
+            }
+        }
+    }
+}
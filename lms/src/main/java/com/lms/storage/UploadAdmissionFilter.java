@@ -0,0 +1,74 @@
+package com.lms.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.exception.ApiResponse;
+import com.lms.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts every upload request through {@link UploadAdmission} before its body is read.
+ *
+ * Runs after Spring Security, so the user is known and unauthenticated uploads never queue, and
+ * before the dispatcher parses multipart bodies, so a queued request has not yet spooled its file
+ * to disk. Uploads are multipart form posts and raw chunk PUTs of resumable sessions; everything
+ * else passes straight through.
+ */
+@Component
+@RequiredArgsConstructor
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final UploadAdmission uploadAdmission;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        String contentType = request.getContentType();
+        if (contentType == null || !(HttpMethod.POST.matches(method) || HttpMethod.PUT.matches(method))) {
+            return true;
+        }
+        return !contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                && !contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        UploadAdmission.Permit permit;
+        try {
+            permit = uploadAdmission.admit(currentUserId());
+        } catch (UploadRejectedException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ApiResponse(false, e.getMessage()));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for an upload slot", e);
+        }
+        try (permit) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Anonymous uploads (rejected further on anyway) share one queue
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal user ? user.getId() : 0L;
+    }
+}
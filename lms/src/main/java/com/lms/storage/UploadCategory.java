@@ -0,0 +1,49 @@
+package com.lms.storage;
+
+import com.lms.security.UserPrincipal;
+
+/**
+ * Attachment kinds and the directory each is stored under. The directory names double as the
+ * {@code type} segment of {@code /api/files/download/{type}/{filename}}.
+ */
+public enum UploadCategory {
+
+    SUBMISSIONS("submissions"),
+    ASSIGNMENTS("assignments"),
+    NOTES("notes");
+
+    private final String directory;
+
+    UploadCategory(String directory) {
+        this.directory = directory;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public static UploadCategory fromDirectory(String directory) {
+        for (UploadCategory category : values()) {
+            if (category.directory.equalsIgnoreCase(directory)) {
+                return category;
+            }
+        }
+        throw new RuntimeException("Unknown upload category: " + directory);
+    }
+
+    /**
+     * Category for a direct upload by {@code user}. Students may only upload submissions; when no
+     * category is requested teachers default to notes and students to submissions.
+     */
+    public static UploadCategory forUser(UserPrincipal user, String requested) {
+        boolean staff = user.isTeacher() || user.isAdmin();
+        if (requested == null || requested.isBlank()) {
+            return staff ? NOTES : SUBMISSIONS;
+        }
+        UploadCategory category = fromDirectory(requested);
+        if (category != SUBMISSIONS && !staff) {
+            throw new SecurityException("Only teachers can upload " + category.getDirectory());
+        }
+        return category;
+    }
+}
@@ -0,0 +1,436 @@
+package com.lms.storage;
+
+import com.lms.event.AttachmentStored;
+import com.lms.repository.BlobRepository;
+import com.lms.repository.StorageTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Streams uploads from the request to disk through a fixed-size buffer.
+ *
+ * Bytes are copied channel to channel, counted against {@code lms.upload.max-file-size} and fed to
+ * a SHA-256 digest as they pass, so an upload costs one buffer of heap however large it is. Data
+ * lands in a staging file and is only moved into place once complete; a failed or oversized upload
+ * leaves nothing behind. Writes count against the shared rate of {@link UploadAdmission}.
+ *
+ * Storage is content-addressed: each distinct content is kept once, under its SHA-256, in the
+ * configured {@link BlobStore}, and attachment URLs have the form
+ * {@code /uploads/<category>/<sha256>_<name>}. Uploading content that is already stored discards
+ * the staged copy, so the duplicate costs a metadata write only. Staging always happens on local
+ * disk; only complete, verified content is handed to the blob store.
+ * Attachments hold references ({@link #retain}, {@link #release}); blobs nobody references are
+ * reclaimed by {@link BlobReclaimer}. Files from before content addressing ({@code <uuid>_<name>}
+ * in the category directory) are still resolved as before; releasing one leaves a tombstone that
+ * {@link StorageGarbageCollector} acts on.
+ *
+ * How much of a multipart request the container keeps in memory before spooling to a temp file is
+ * controlled by {@code spring.servlet.multipart.file-size-threshold} and
+ * {@code spring.servlet.multipart.location}.
+ */
+@Slf4j
+@Component
+public class UploadPipeline {
+
+    private static final String URL_PREFIX = "/uploads/";
+    private static final String STAGING_DIRECTORY = ".staging";
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final Pattern BLOB_NAME = Pattern.compile("([0-9a-f]{64})_[^/]*");
+    private static final Pattern LEGACY_NAME = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}_.*");
+
+    private final Path root;
+    private final long maxFileSize;
+    private final int bufferSize;
+    private final BlobStore blobStore;
+    private final BlobRepository blobRepository;
+    private final StorageTombstoneRepository tombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadAdmission uploadAdmission;
+
+    private final Counter storedUploads;
+    private final Counter storedBytes;
+    private final Counter deduplicatedUploads;
+    private final Counter deduplicatedBytes;
+
+    public UploadPipeline(BlobStore blobStore,
+                          BlobRepository blobRepository,
+                          StorageTombstoneRepository tombstoneRepository,
+                          TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          UploadAdmission uploadAdmission,
+                          MeterRegistry meterRegistry,
+                          @Value("${file.storage.path:./uploads}") String root,
+                          @Value("${lms.upload.max-file-size:10MB}") DataSize maxFileSize,
+                          @Value("${lms.upload.buffer-size:64KB}") DataSize bufferSize) {
+        this.blobStore = blobStore;
+        this.blobRepository = blobRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        // Own transactions, never the caller's: blob row locks are held only as long as these need them
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.uploadAdmission = uploadAdmission;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.bufferSize = (int) bufferSize.toBytes();
+
+        this.storedUploads = meterRegistry.counter("lms.storage.uploads", "result", "stored");
+        this.storedBytes = meterRegistry.counter("lms.storage.upload.bytes", "result", "stored");
+        this.deduplicatedUploads = meterRegistry.counter("lms.storage.uploads", "result", "deduplicated");
+        this.deduplicatedBytes = meterRegistry.counter("lms.storage.upload.bytes", "result", "deduplicated");
+    }
+
+    public StoredFile store(UploadCategory category, MultipartFile file) {
+        if (file.getSize() > maxFileSize) {
+            // Cheap early reject; the streaming copy enforces the limit regardless of what is declared
+            throw new RuntimeException(tooLargeMessage());
+        }
+        try (InputStream in = file.getInputStream()) {
+            return store(category, in, file.getOriginalFilename(), file.getContentType());
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
+
+    public StoredFile store(UploadCategory category, InputStream in, String originalName, String contentType)
+            throws IOException {
+        Path partial = stagingDirectory().resolve(UUID.randomUUID() + ".part");
+
+        MessageDigest digest = sha256();
+        CRC32 crc = new CRC32();
+        long size = 0;
+        boolean complete = false;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel sink = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                size += read;
+                if (size > maxFileSize) {
+                    throw new RuntimeException(tooLargeMessage());
+                }
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                crc.update(buffer.array(), 0, buffer.limit());
+                uploadAdmission.throttle(read);
+                while (buffer.hasRemaining()) {
+                    sink.write(buffer);
+                }
+                buffer.clear();
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(partial);
+            }
+        }
+
+        Checksum checksum = new Checksum(HexFormat.of().formatHex(digest.digest()), crc.getValue());
+        return commit(category, partial, originalName, contentType, size, checksum);
+    }
+
+    /**
+     * Stores a file assembled elsewhere (e.g. by a resumable upload) whose checksum is already
+     * known. The source must live under {@link #stagingDirectory()} so the move stays on one file
+     * system and is atomic.
+     */
+    public StoredFile adopt(UploadCategory category, Path source, String originalName, String contentType,
+                            long size, Checksum checksum) throws IOException {
+        return commit(category, source, originalName, contentType, size, checksum);
+    }
+
+    /**
+     * Returns a file for content that is already stored, without any bytes being sent. Used when a
+     * client declares the checksum up front. A checksum proves nothing about holding the content,
+     * so only content {@code userId} already {@link BlobRepository#isReferencedBy references} is
+     * reused; for anything else the result is empty, as for unknown content, and the bytes are sent.
+     */
+    public Optional<StoredFile> reuse(Long userId, UploadCategory category, String sha256, String originalName,
+                                      String contentType) {
+        Optional<StoredFile> reused = transactionTemplate.execute(status -> {
+            if (!blobRepository.isReferencedBy(sha256, userId)) {
+                return Optional.<StoredFile>empty();
+            }
+            Optional<Long> size = blobRepository.findSize(sha256);
+            if (size.isEmpty()) {
+                return Optional.<StoredFile>empty();
+            }
+            // Touch before checking the file, so a concurrent reclaim either already removed both or
+            // now leaves them alone
+            blobRepository.register(sha256, size.get(), contentType, null);
+            try {
+                if (!blobStore.exists(sha256)) {
+                    return Optional.<StoredFile>empty();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            deduplicatedUploads.increment();
+            deduplicatedBytes.increment(size.get());
+            return Optional.of(storedFile(category, originalName, contentType, size.get(), sha256, true));
+        });
+        reused.ifPresent(file -> eventPublisher.publishEvent(AttachmentStored.of(sha256, originalName)));
+        return reused;
+    }
+
+    /**
+     * The file for registered content as it is attached under {@code category}. Nothing is
+     * written or referenced.
+     */
+    StoredFile existing(UploadCategory category, String sha256, String originalName, String contentType, long size) {
+        return storedFile(category, originalName, contentType, size, sha256, true);
+    }
+
+    private StoredFile commit(UploadCategory category, Path staged, String originalName, String contentType,
+                              long size, Checksum checksum) throws IOException {
+        String sha256 = checksum.sha256();
+        boolean deduplicated;
+        try {
+            deduplicated = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                // Row first: its lock orders the check below after any reclaim of the same content
+                // in flight. Once committed, the touch keeps the blob from being reclaimed, and its
+                // content from being collected as an orphan, for the grace period, so the transfer
+                // below runs without the lock or any connection
+                blobRepository.register(sha256, size, contentType, checksum.crc32());
+                try {
+                    return blobStore.exists(sha256);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            if (deduplicated) {
+                Files.delete(staged);
+            } else {
+                blobStore.put(sha256, staged);
+            }
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(staged);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+
+        if (deduplicated) {
+            deduplicatedUploads.increment();
+            deduplicatedBytes.increment(size);
+        } else {
+            storedUploads.increment();
+            storedBytes.increment(size);
+        }
+        log.debug("Stored {} ({} bytes, sha256 {}{})", originalName, size, sha256, deduplicated ? ", duplicate" : "");
+        // Delivered once the caller's transaction commits, or now outside one; starts preview generation
+        eventPublisher.publishEvent(AttachmentStored.of(sha256, originalName));
+        return storedFile(category, originalName, contentType, size, sha256, deduplicated);
+    }
+
+    // ---------------------------
+    // REFERENCES
+    // ---------------------------
+
+    /**
+     * Records that an attachment now points at {@code file}. Call inside the transaction that saves
+     * the attachment.
+     */
+    public void retain(StoredFile file) {
+        if (!blobRepository.retain(file.sha256())) {
+            throw new IllegalStateException("Blob " + file.sha256() + " is not registered");
+        }
+    }
+
+    /**
+     * Drops an attachment's reference to the file at {@code url}. Call inside the transaction that
+     * clears or deletes the attachment. Content-addressed files are reclaimed once nothing
+     * references them; files from before content addressing get a tombstone and are deleted in the
+     * background after commit, so the request does no file I/O and a rollback keeps the file.
+     */
+    public void release(String url) {
+        String sha256 = blobSha256(url);
+        if (sha256 != null) {
+            blobRepository.release(sha256);
+            return;
+        }
+        if (legacyPath(url) != null) {
+            tombstoneRepository.add(url);
+        }
+    }
+
+    // ---------------------------
+    // LOCATIONS
+    // ---------------------------
+
+    /**
+     * Opens the content behind an attachment URL such as {@code /uploads/notes/<name>}, or returns
+     * null when there is none or the URL does not point inside the storage root.
+     */
+    public StoredContent open(String url) throws IOException {
+        String sha256 = blobSha256(url);
+        if (sha256 != null) {
+            return blobStore.open(sha256);
+        }
+        Path path = legacyPath(url);
+        if (path == null || !Files.isRegularFile(path) || !Files.isReadable(path)) {
+            return null;
+        }
+        return StoredContent.ofFile(path);
+    }
+
+    /**
+     * The file of an attachment stored before content addressing, or null when the URL is not one
+     * or points outside the storage root.
+     */
+    Path legacyPath(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX) || blobSha256(url) != null) {
+            return null;
+        }
+        Path path = root.resolve(url.substring(URL_PREFIX.length())).normalize();
+        boolean internal = path.startsWith(root.resolve(STAGING_DIRECTORY)) || path.startsWith(root.resolve(BLOB_DIRECTORY));
+        return path.startsWith(root) && !internal ? path : null;
+    }
+
+    /**
+     * URL of the file {@code name} in a category directory when it is one from before content
+     * addressing, otherwise null.
+     */
+    static String legacyUrl(UploadCategory category, String name) {
+        return LEGACY_NAME.matcher(name).matches() ? URL_PREFIX + category.getDirectory() + "/" + name : null;
+    }
+
+    public Path directory(UploadCategory category) throws IOException {
+        return Files.createDirectories(root.resolve(category.getDirectory()));
+    }
+
+    /**
+     * Directory for files that are still being assembled. It sits under the storage root but is
+     * not reachable through any attachment URL.
+     */
+    public Path stagingDirectory() throws IOException {
+        return Files.createDirectories(root.resolve(STAGING_DIRECTORY));
+    }
+
+    /**
+     * The client's file name for a stored name, i.e. without the hash or UUID prefix.
+     */
+    public static String displayName(String storedName) {
+        if (BLOB_NAME.matcher(storedName).matches()) {
+            return storedName.substring(65);
+        }
+        if (LEGACY_NAME.matcher(storedName).matches()) {
+            return storedName.substring(37);
+        }
+        return storedName;
+    }
+
+    /**
+     * Checksums of a file, read once, sequentially, through the pipeline buffer.
+     */
+    public Checksum checksum(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer.array(), 0, buffer.limit());
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new Checksum(HexFormat.of().formatHex(digest.digest()), crc.getValue());
+    }
+
+    /**
+     * Lowercase hex SHA-256, the content address, and CRC-32, which ZIP entries need.
+     */
+    public record Checksum(String sha256, long crc32) {
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    // ---------------------------
+    // HELPERS
+    // ---------------------------
+    private StoredFile storedFile(UploadCategory category, String originalName, String contentType, long size,
+                                  String sha256, boolean deduplicated) {
+        String storedName = sha256 + "_" + safeName(originalName);
+        return new StoredFile(category, URL_PREFIX + category.getDirectory() + "/" + storedName,
+                storedName, originalName, contentType, size, sha256, deduplicated);
+    }
+
+    /**
+     * Where the preview of an attachment is served, or null when its type has none. Only
+     * content-addressed attachments have previews.
+     */
+    public static String previewUrl(String url) {
+        if (blobSha256(url) == null || PreviewKind.forFileName(url).isEmpty()) {
+            return null;
+        }
+        return "/api/files/preview" + url;
+    }
+
+    /**
+     * The content hash in a content-addressed attachment URL, or null for any other URL.
+     */
+    public static String blobSha256(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String[] segments = url.substring(URL_PREFIX.length()).split("/");
+        if (segments.length != 2) {
+            return null;
+        }
+        Matcher matcher = BLOB_NAME.matcher(segments[1]);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private String tooLargeMessage() {
+        return "File exceeds the maximum upload size of " + DataSize.ofBytes(maxFileSize).toMegabytes() + "MB";
+    }
+
+    private static String safeName(String originalName) {
+        // Drop any client-supplied directories and characters that are awkward in a path or URL
+        String name = StringUtils.getFilename(StringUtils.cleanPath(originalName == null ? "" : originalName));
+        name = name == null ? "" : name.replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isBlank() ? "file" : name;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.lms.storage;
+
+import lombok.Getter;
+
+/**
+ * An upload turned away by {@link UploadAdmission} because the server is busy. Answered with
+ * 503 and a {@code Retry-After} of {@link #getRetryAfterSeconds()}.
+ */
+@Getter
+public class UploadRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,6 @@
+-- Server-enforced time limits: an attempt on a timed quiz must be submitted by its deadline, after
+-- which it is submitted automatically. Restart recovery reads the open attempts that have one.
+
+ALTER TABLE quiz_attempts ADD COLUMN deadline datetime(6);
+
+CREATE INDEX idx_quiz_attempts_deadline ON quiz_attempts (status, deadline);
@@ -0,0 +1,32 @@
+-- Question banks: reusable questions per course, kept in quiz_questions with bank_id instead of
+-- quiz_id. A quiz built from a bank copies the bank's questions as its pool, and may draw
+-- draw_count of them per attempt and shuffle questions and options. Only the seed of an attempt's
+-- variant is stored; the variant is regenerated from it.
+
+CREATE TABLE question_banks (
+    id bigint NOT NULL AUTO_INCREMENT,
+    course_id bigint NOT NULL,
+    title varchar(255) NOT NULL,
+    description TEXT,
+    created_by bigint,
+    created_at datetime(6),
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_question_banks_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    CONSTRAINT fk_question_banks_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_question_banks_course ON question_banks (course_id);
+
+ALTER TABLE quiz_questions MODIFY quiz_id bigint NULL;
+ALTER TABLE quiz_questions ADD COLUMN bank_id bigint;
+ALTER TABLE quiz_questions ADD CONSTRAINT fk_quiz_questions_bank FOREIGN KEY (bank_id) REFERENCES question_banks (id);
+CREATE INDEX idx_quiz_questions_bank ON quiz_questions (bank_id, sort_order);
+
+ALTER TABLE quizzes ADD COLUMN bank_id bigint;
+ALTER TABLE quizzes ADD COLUMN draw_count integer;
+ALTER TABLE quizzes ADD COLUMN shuffle_questions bit NOT NULL DEFAULT 0;
+ALTER TABLE quizzes ADD COLUMN shuffle_options bit NOT NULL DEFAULT 0;
+ALTER TABLE quizzes ADD CONSTRAINT fk_quizzes_bank FOREIGN KEY (bank_id) REFERENCES question_banks (id);
+
+ALTER TABLE quiz_attempts ADD COLUMN variant_seed bigint;
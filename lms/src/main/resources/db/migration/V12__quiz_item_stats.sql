@@ -0,0 +1,39 @@
+-- Item analysis: running sums per quiz, question and option, added to as attempts are scored, so
+-- difficulty, discrimination and distractor statistics are computed from a few rows instead of
+-- the attempts. Sums are kept per answer key version; a key correction builds the next version's
+-- while regrading. Scores are fractions of the attempt's maximum; rest scores leave out the item.
+
+CREATE TABLE quiz_stats (
+    quiz_id bigint NOT NULL,
+    key_version integer NOT NULL,
+    attempts bigint NOT NULL,
+    score_sum double NOT NULL,
+    score_sq_sum double NOT NULL,
+    PRIMARY KEY (quiz_id, key_version),
+    CONSTRAINT fk_quiz_stats_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE quiz_item_stats (
+    quiz_id bigint NOT NULL,
+    key_version integer NOT NULL,
+    question_id bigint NOT NULL,
+    attempts bigint NOT NULL,
+    correct bigint NOT NULL,
+    blank bigint NOT NULL,
+    rest_sum double NOT NULL,
+    rest_sq_sum double NOT NULL,
+    rest_correct_sum double NOT NULL,
+    PRIMARY KEY (quiz_id, key_version, question_id),
+    CONSTRAINT fk_quiz_item_stats_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE quiz_option_stats (
+    quiz_id bigint NOT NULL,
+    key_version integer NOT NULL,
+    question_id bigint NOT NULL,
+    option_index integer NOT NULL,
+    selections bigint NOT NULL,
+    rest_sum double NOT NULL,
+    PRIMARY KEY (quiz_id, key_version, question_id, option_index),
+    CONSTRAINT fk_quiz_option_stats_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
@@ -0,0 +1,20 @@
+-- Uploads not yet attached to a submission, assignment or note. Each row holds one reference on
+-- its blob, so the content survives until the uploader attaches it (the row is claimed in the
+-- attaching transaction) or the row expires after lms.upload.unclaimed-ttl and the storage
+-- collector drops it and its reference.
+
+CREATE TABLE uploads (
+    id char(36) NOT NULL,
+    user_id bigint NOT NULL,
+    sha256 char(64) NOT NULL,
+    original_name varchar(255),
+    content_type varchar(255),
+    size bigint NOT NULL,
+    created_at datetime(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_uploads_created_at ON uploads (created_at);
+
+-- Reference count reconciliation looks uploads up by content hash
+CREATE INDEX idx_uploads_sha256 ON uploads (sha256);
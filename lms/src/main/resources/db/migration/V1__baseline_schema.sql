@@ -0,0 +1,108 @@
+-- Baseline schema, equivalent to what spring.jpa.hibernate.ddl-auto=update produced.
+-- Databases created before migrations existed are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and skip this script.
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint NOT NULL AUTO_INCREMENT,
+    name varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    temp_password varchar(255),
+    role enum ('ADMIN','STUDENT','TEACHER') NOT NULL,
+    student_id varchar(255),
+    subject varchar(255),
+    qualification varchar(255),
+    phone varchar(255),
+    status enum ('ACTIVE','INACTIVE','SUSPENDED'),
+    created_at datetime(6),
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_student_id UNIQUE (student_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS courses (
+    id bigint NOT NULL AUTO_INCREMENT,
+    title varchar(255) NOT NULL,
+    description TEXT NOT NULL,
+    category varchar(255) NOT NULL,
+    level enum ('ADVANCED','BEGINNER','INTERMEDIATE') NOT NULL,
+    instructor_id bigint NOT NULL,
+    duration varchar(255) NOT NULL,
+    students integer,
+    rating float(53),
+    image_url varchar(255),
+    price varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_courses_instructor FOREIGN KEY (instructor_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS enrollments (
+    id bigint NOT NULL AUTO_INCREMENT,
+    student_id bigint NOT NULL,
+    course_id bigint NOT NULL,
+    progress integer NOT NULL,
+    completed bit NOT NULL,
+    enrolled_at datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_enrollments_student_course UNIQUE (student_id, course_id),
+    CONSTRAINT fk_enrollments_student FOREIGN KEY (student_id) REFERENCES users (id),
+    CONSTRAINT fk_enrollments_course FOREIGN KEY (course_id) REFERENCES courses (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS assignments (
+    id bigint NOT NULL AUTO_INCREMENT,
+    title varchar(255),
+    description varchar(255),
+    due_date datetime(6),
+    max_points integer,
+    attachment_url varchar(255),
+    attachment_name varchar(255),
+    attachment_size bigint,
+    attachment_type varchar(255),
+    course_id bigint,
+    created_by bigint,
+    created_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_assignments_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    CONSTRAINT fk_assignments_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS submissions (
+    id bigint NOT NULL AUTO_INCREMENT,
+    assignment_id bigint NOT NULL,
+    student_id bigint NOT NULL,
+    content TEXT,
+    attachment_url varchar(255),
+    attachment_name varchar(255),
+    attachment_size bigint,
+    attachment_type varchar(255),
+    graded bit,
+    grade integer,
+    feedback varchar(255),
+    submitted_at datetime(6),
+    graded_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_submissions_assignment FOREIGN KEY (assignment_id) REFERENCES assignments (id),
+    CONSTRAINT fk_submissions_student FOREIGN KEY (student_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS notes (
+    id bigint NOT NULL AUTO_INCREMENT,
+    title varchar(255) NOT NULL,
+    content TEXT NOT NULL,
+    course_id bigint,
+    author_id bigint NOT NULL,
+    visibility enum ('ALL','COURSE') NOT NULL,
+    attachment_url varchar(255),
+    attachment_name varchar(255),
+    attachment_size bigint,
+    attachment_type varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notes_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    CONSTRAINT fk_notes_author FOREIGN KEY (author_id) REFERENCES users (id)
+) ENGINE=InnoDB;
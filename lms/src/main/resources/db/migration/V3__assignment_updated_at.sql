@@ -0,0 +1,5 @@
+-- Change watermark for assignment reads (ETag on /api/assignments/course/{courseId}).
+
+ALTER TABLE assignments ADD COLUMN updated_at datetime(6);
+
+UPDATE assignments SET updated_at = created_at WHERE updated_at IS NULL;
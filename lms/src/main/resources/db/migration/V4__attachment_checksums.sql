@@ -0,0 +1,8 @@
+-- SHA-256 of each attachment, computed by the upload pipeline while the file streams to disk.
+-- Existing attachments keep NULL.
+
+ALTER TABLE submissions ADD COLUMN attachment_sha256 char(64);
+
+ALTER TABLE assignments ADD COLUMN attachment_sha256 char(64);
+
+ALTER TABLE notes ADD COLUMN attachment_sha256 char(64);
@@ -0,0 +1,22 @@
+-- Content-addressed attachment storage. One row per distinct file content; ref_count is the number
+-- of submission, assignment and note attachments that point at it. Rows at zero are reclaimed
+-- (file and row) once they have been unreferenced for the grace period.
+
+CREATE TABLE blobs (
+    sha256 char(64) NOT NULL,
+    size bigint NOT NULL,
+    content_type varchar(255),
+    ref_count integer NOT NULL DEFAULT 0,
+    created_at datetime(6) NOT NULL,
+    updated_at datetime(6) NOT NULL,
+    PRIMARY KEY (sha256)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_blobs_reclaim ON blobs (ref_count, updated_at);
+
+-- Reference counting and reconciliation look attachments up by content hash
+CREATE INDEX idx_submissions_attachment_sha256 ON submissions (attachment_sha256);
+
+CREATE INDEX idx_assignments_attachment_sha256 ON assignments (attachment_sha256);
+
+CREATE INDEX idx_notes_attachment_sha256 ON notes (attachment_sha256);
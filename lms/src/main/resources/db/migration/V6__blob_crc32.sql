@@ -0,0 +1,4 @@
+-- CRC-32 of each blob, recorded at upload. ZIP archives need it up front to write an entry
+-- uncompressed (STORED) in a single pass. Null for blobs stored before it was recorded.
+
+ALTER TABLE blobs ADD COLUMN crc32 bigint NULL;
@@ -0,0 +1,17 @@
+-- Deferred deletes. Releasing a file from before content addressing records its URL here in the
+-- releasing transaction; the storage collector deletes the file later, off the request path, once
+-- nothing references the URL any more. A rolled-back release leaves no row and so keeps its file.
+
+CREATE TABLE storage_tombstones (
+    id bigint NOT NULL AUTO_INCREMENT,
+    url varchar(512) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+-- Orphan checks look files from before content addressing up by URL
+CREATE INDEX idx_submissions_attachment_url ON submissions (attachment_url);
+
+CREATE INDEX idx_assignments_attachment_url ON assignments (attachment_url);
+
+CREATE INDEX idx_notes_attachment_url ON notes (attachment_url);
@@ -0,0 +1,30 @@
+-- Attachment bytes per course and per user. Kept current by the services as attachments are added,
+-- replaced and removed, and recomputed from the attachment columns periodically, so a quota check
+-- is a single primary-key read. Bytes are logical: each attachment counts its full size even when
+-- its content is stored once for several attachments.
+
+CREATE TABLE storage_usage (
+    owner_type varchar(16) NOT NULL,
+    owner_id bigint NOT NULL,
+    bytes bigint NOT NULL,
+    files integer NOT NULL,
+    updated_at datetime(6) NOT NULL,
+    PRIMARY KEY (owner_type, owner_id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_storage_usage_bytes ON storage_usage (owner_type, bytes);
+
+INSERT INTO storage_usage (owner_type, owner_id, bytes, files, updated_at)
+SELECT 'COURSE', course_id, SUM(size), COUNT(*), CURRENT_TIMESTAMP FROM (
+    SELECT a.course_id AS course_id, COALESCE(s.attachment_size, 0) AS size
+    FROM submissions s JOIN assignments a ON a.id = s.assignment_id WHERE s.attachment_url IS NOT NULL
+    UNION ALL SELECT course_id, COALESCE(attachment_size, 0) FROM assignments WHERE attachment_url IS NOT NULL
+    UNION ALL SELECT course_id, COALESCE(attachment_size, 0) FROM notes WHERE attachment_url IS NOT NULL
+) attachments WHERE course_id IS NOT NULL GROUP BY course_id;
+
+INSERT INTO storage_usage (owner_type, owner_id, bytes, files, updated_at)
+SELECT 'USER', user_id, SUM(size), COUNT(*), CURRENT_TIMESTAMP FROM (
+    SELECT student_id AS user_id, COALESCE(attachment_size, 0) AS size FROM submissions WHERE attachment_url IS NOT NULL
+    UNION ALL SELECT created_by, COALESCE(attachment_size, 0) FROM assignments WHERE attachment_url IS NOT NULL
+    UNION ALL SELECT author_id, COALESCE(attachment_size, 0) FROM notes WHERE attachment_url IS NOT NULL
+) attachments WHERE user_id IS NOT NULL GROUP BY user_id;
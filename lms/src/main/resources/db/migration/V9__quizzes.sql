@@ -0,0 +1,70 @@
+-- Quizzes on a course: questions with their options and answer key, and student attempts. An
+-- attempt's answers are a JSON object of question id to answer, scored against the quiz's answer
+-- key; key_version records which correction of the key the score reflects.
+
+CREATE TABLE quizzes (
+    id bigint NOT NULL AUTO_INCREMENT,
+    course_id bigint NOT NULL,
+    title varchar(255) NOT NULL,
+    description TEXT,
+    time_limit integer,
+    pass_percentage integer NOT NULL,
+    status enum ('DRAFT','PUBLISHED') NOT NULL,
+    key_version integer NOT NULL,
+    created_by bigint,
+    created_at datetime(6),
+    updated_at datetime(6),
+    published_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quizzes_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    CONSTRAINT fk_quizzes_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_quizzes_course ON quizzes (course_id);
+
+CREATE TABLE quiz_questions (
+    id bigint NOT NULL AUTO_INCREMENT,
+    quiz_id bigint NOT NULL,
+    sort_order integer NOT NULL,
+    type enum ('MULTIPLE_CHOICE','TRUE_FALSE','SHORT_ANSWER') NOT NULL,
+    question_text TEXT NOT NULL,
+    answer varchar(1000),
+    points integer NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quiz_questions_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_quiz_questions_quiz ON quiz_questions (quiz_id, sort_order);
+
+CREATE TABLE quiz_question_options (
+    question_id bigint NOT NULL,
+    sort_order integer NOT NULL,
+    option_text varchar(1000) NOT NULL,
+    correct bit NOT NULL,
+    PRIMARY KEY (question_id, sort_order),
+    CONSTRAINT fk_quiz_question_options_question FOREIGN KEY (question_id) REFERENCES quiz_questions (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE quiz_attempts (
+    id bigint NOT NULL AUTO_INCREMENT,
+    quiz_id bigint NOT NULL,
+    student_id bigint NOT NULL,
+    status enum ('IN_PROGRESS','SUBMITTED') NOT NULL,
+    answers TEXT,
+    score integer,
+    max_score integer,
+    correct_answers integer,
+    total_questions integer,
+    passed bit,
+    key_version integer,
+    started_at datetime(6) NOT NULL,
+    submitted_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quiz_attempts_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id),
+    CONSTRAINT fk_quiz_attempts_student FOREIGN KEY (student_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+-- Regrading walks a quiz's attempts in id order; students look up their own
+CREATE INDEX idx_quiz_attempts_quiz ON quiz_attempts (quiz_id, status, id);
+
+CREATE INDEX idx_quiz_attempts_student ON quiz_attempts (student_id, quiz_id);
@@ -0,0 +1,132 @@
+package com.lms.config;
+
+import com.lms.entity.User;
+import com.lms.event.CourseStudentCountHandler;
+import com.lms.event.DomainEventDispatcher;
+import com.lms.event.EnrollmentCreated;
+import com.lms.repository.QuizSessionRepository;
+import com.lms.repository.UserRepository;
+import com.lms.security.UserPrincipal;
+import com.lms.service.SubmissionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks which pool a call actually takes its connection from, by the pools' acquire counts.
+ */
+@SpringBootTest
+class WorkloadRoutingTests {
+
+	@Autowired
+	private SubmissionService submissionService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private QuizSessionRepository quizSessionRepository;
+
+	@Autowired
+	private CourseStudentCountHandler courseStudentCountHandler;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		User teacher = new User();
+		teacher.setName("Routing Teacher");
+		teacher.setEmail("routing-" + UUID.randomUUID() + "@lms.test");
+		teacher.setPassword("secret");
+		teacher.setRole(User.Role.TEACHER);
+		teacher = userRepository.saveAndFlush(teacher);
+
+		UserPrincipal principal = UserPrincipal.create(teacher);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void serviceMethodDeclarationRoutesItsRepositoryCalls() {
+		double reporting = acquired(Workload.REPORTING);
+
+		submissionService.getSubmissionsForTeacher();
+
+		assertThat(acquired(Workload.REPORTING)).isGreaterThan(reporting);
+	}
+
+	@Test
+	void classDeclarationKeepsOtherMethodsInteractive() {
+		double reporting = acquired(Workload.REPORTING);
+		double interactive = acquired(Workload.INTERACTIVE);
+
+		submissionService.isOwner(-1L, "nobody@lms.test");
+
+		assertThat(acquired(Workload.INTERACTIVE)).isGreaterThan(interactive);
+		assertThat(acquired(Workload.REPORTING)).isEqualTo(reporting);
+	}
+
+	@Test
+	void repositoryDeclarationAppliesWhenOutermost() {
+		double reporting = acquired(Workload.REPORTING);
+
+		userRepository.findRecentUsers();
+
+		assertThat(acquired(Workload.REPORTING)).isGreaterThan(reporting);
+	}
+
+	@Test
+	void repositoryMethodDeclarationOverridesClassDeclaration() {
+		double interactive = acquired(Workload.INTERACTIVE);
+		double bulk = acquired(Workload.BULK);
+
+		quizSessionRepository.findOpen(List.of(-1L));
+
+		assertThat(acquired(Workload.INTERACTIVE)).isGreaterThan(interactive);
+		assertThat(acquired(Workload.BULK)).isEqualTo(bulk);
+	}
+
+	@Test
+	void eventHandlersRunByThePublisherKeepTheirOwnWorkload() {
+		// Never started, so every event is handled on the publishing thread, as when the queue is full
+		DomainEventDispatcher dispatcher = new DomainEventDispatcher(List.of(courseStudentCountHandler),
+				meterRegistry, 1, 1, 1, 10, 10, 1, 0);
+		double interactive = acquired(Workload.INTERACTIVE);
+		double bulk = acquired(Workload.BULK);
+
+		WorkloadContext.set(Workload.INTERACTIVE);
+		try {
+			dispatcher.onDomainEvent(EnrollmentCreated.of(-1L, -1L, -1L, -1L));
+
+			assertThat(WorkloadContext.current()).isEqualTo(Workload.INTERACTIVE);
+			assertThat(WorkloadContext.isSet()).isTrue();
+		} finally {
+			WorkloadContext.clear();
+		}
+		assertThat(acquired(Workload.BULK)).isGreaterThan(bulk);
+		assertThat(acquired(Workload.INTERACTIVE)).isEqualTo(interactive);
+	}
+
+	// Pools start on their first connection, and only then register their meters
+	private double acquired(Workload workload) {
+		Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", workload.getPoolName()).timer();
+		return timer == null ? 0 : timer.count();
+	}
+}
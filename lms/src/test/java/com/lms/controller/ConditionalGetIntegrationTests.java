@@ -0,0 +1,261 @@
+package com.lms.controller;
+
+import com.lms.entity.Assignment;
+import com.lms.entity.Course;
+import com.lms.entity.Note;
+import com.lms.entity.User;
+import com.lms.repository.AssignmentRepository;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.NoteRepository;
+import com.lms.repository.UserRepository;
+import com.lms.service.CourseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(roles = "STUDENT")
+class ConditionalGetIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private NoteRepository noteRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpyBean
+	private CourseService courseService;
+
+	private User teacher;
+	private Course course;
+
+	@BeforeEach
+	void setUp() {
+		teacher = new User();
+		teacher.setName("Conditional Teacher");
+		teacher.setEmail("etag-" + UUID.randomUUID() + "@lms.test");
+		teacher.setPassword("secret");
+		teacher.setRole(User.Role.TEACHER);
+		teacher = userRepository.saveAndFlush(teacher);
+
+		course = new Course();
+		course.setTitle("Caching 101");
+		course.setDescription("Validators and revalidation");
+		course.setCategory("Web");
+		course.setDuration("4 weeks");
+		course.setInstructor(teacher);
+		course = courseRepository.saveAndFlush(course);
+	}
+
+	@Test
+	void catalogCarriesStrongEtag() throws Exception {
+		String etag = etagOf("/api/courses");
+
+		assertThat(etag).startsWith("\"courses-").doesNotStartWith("W/");
+		assertThat(etagOf("/api/courses")).isEqualTo(etag);
+	}
+
+	@Test
+	void matchingEtagReturns304WithoutLoadingTheCatalog() throws Exception {
+		String etag = etagOf("/api/courses");
+
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+
+		// Only the first, unconditional request may have run the list query
+		verify(courseService, times(1)).getAllCourses();
+	}
+
+	@Test
+	void courseUpdateInvalidatesCatalogAndCourseEtags() throws Exception {
+		String catalogEtag = etagOf("/api/courses");
+		String courseEtag = etagOf("/api/courses/" + course.getId());
+
+		course.setTitle("Caching 102");
+		courseRepository.saveAndFlush(course);
+
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, catalogEtag))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/courses/" + course.getId()).header(HttpHeaders.IF_NONE_MATCH, courseEtag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void courseDeletionInvalidatesCatalogEtag() throws Exception {
+		Course other = new Course();
+		other.setTitle("Short lived");
+		other.setDescription("Deleted below");
+		other.setCategory("Web");
+		other.setDuration("1 week");
+		other.setInstructor(teacher);
+		other = courseRepository.saveAndFlush(other);
+
+		String etag = etagOf("/api/courses");
+		courseRepository.delete(other);
+		courseRepository.flush();
+
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void instructorRenameInvalidatesCatalogEtag() throws Exception {
+		String etag = etagOf("/api/courses");
+
+		teacher.setName("Renamed Teacher");
+		userRepository.saveAndFlush(teacher);
+
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void singleCourseAnswers304() throws Exception {
+		String etag = etagOf("/api/courses/" + course.getId());
+
+		mockMvc.perform(get("/api/courses/" + course.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		verify(courseService, times(1)).getCourseById(course.getId());
+	}
+
+	@Test
+	void unknownEtagFallsThroughToFullResponse() throws Exception {
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void newAssignmentInvalidatesCourseAssignmentsEtag() throws Exception {
+		String path = "/api/assignments/course/" + course.getId();
+		String etag = etagOf(path);
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		Assignment assignment = new Assignment();
+		assignment.setTitle("Write a validator");
+		assignment.setCourse(course);
+		assignment.setCreatedBy(teacher);
+		assignmentRepository.saveAndFlush(assignment);
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void noteEditInvalidatesNotesEtag() throws Exception {
+		Note note = new Note();
+		note.setTitle("Revalidation");
+		note.setContent("If-None-Match in practice");
+		note.setAuthor(teacher);
+		note = noteRepository.saveAndFlush(note);
+
+		String etag = etagOf("/api/notes/accessible");
+		mockMvc.perform(get("/api/notes/accessible").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		note.setContent("Updated content");
+		noteRepository.saveAndFlush(note);
+
+		mockMvc.perform(get("/api/notes/accessible").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void authorRenameInvalidatesNotesEtag() throws Exception {
+		Note note = new Note();
+		note.setTitle("Validators");
+		note.setContent("Last-Modified and ETag");
+		note.setAuthor(teacher);
+		noteRepository.saveAndFlush(note);
+
+		String etag = etagOf("/api/notes/accessible");
+
+		teacher.setName("Renamed Author");
+		userRepository.saveAndFlush(teacher);
+
+		mockMvc.perform(get("/api/notes/accessible").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void creatorRenameInvalidatesCourseAssignmentsEtag() throws Exception {
+		Assignment assignment = new Assignment();
+		assignment.setTitle("Cache a response");
+		assignment.setCourse(course);
+		assignment.setCreatedBy(teacher);
+		assignmentRepository.saveAndFlush(assignment);
+
+		String path = "/api/assignments/course/" + course.getId();
+		String etag = etagOf(path);
+
+		teacher.setName("Renamed Creator");
+		userRepository.saveAndFlush(teacher);
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void outcomesAreCounted() throws Exception {
+		double hitsBefore = count("courses", "hit");
+		double missesBefore = count("courses", "miss");
+
+		String etag = etagOf("/api/courses");
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, etag));
+		mockMvc.perform(get("/api/courses").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""));
+
+		assertThat(count("courses", "hit")).isEqualTo(hitsBefore + 1);
+		assertThat(count("courses", "miss")).isEqualTo(missesBefore + 1);
+	}
+
+	private String etagOf(String path) throws Exception {
+		return mockMvc.perform(get(path))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+	}
+
+	private double count(String resource, String outcome) {
+		var counter = meterRegistry.find("lms.http.conditional")
+				.tags("resource", resource, "outcome", outcome)
+				.counter();
+		return counter != null ? counter.count() : 0;
+	}
+}
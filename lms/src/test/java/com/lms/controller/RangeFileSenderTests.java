@@ -0,0 +1,202 @@
+package com.lms.controller;
+
+import com.lms.storage.StoredContent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Range handling of downloads, on a 20-byte body held in memory.
+ */
+class RangeFileSenderTests {
+
+	private static final String BODY = "0123456789abcdefghij";
+	private static final long MODIFIED = 1_700_000_000_000L;
+
+	private final RangeFileSender sender = new RangeFileSender(true, 3);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void withoutRangeTheWholeBodyIsSent() throws IOException {
+		MockHttpServletResponse response = send((String) null);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo(BODY);
+		assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+		assertThat(response.getContentLengthLong()).isEqualTo(20);
+	}
+
+	@Test
+	void closedRange() throws IOException {
+		assertPartial(send("bytes=0-4"), "01234", "bytes 0-4/20");
+		assertPartial(send("bytes=15-100"), "fghij", "bytes 15-19/20");
+	}
+
+	@Test
+	void suffixRange() throws IOException {
+		assertPartial(send("bytes=-5"), "fghij", "bytes 15-19/20");
+		assertPartial(send("bytes=-50"), BODY, "bytes 0-19/20");
+	}
+
+	@Test
+	void openEndedRange() throws IOException {
+		assertPartial(send("bytes=15-"), "fghij", "bytes 15-19/20");
+		assertPartial(send("bytes=19-"), "j", "bytes 19-19/20");
+	}
+
+	@Test
+	void rangeBeyondTheEndIsUnsatisfiable() throws IOException {
+		for (String range : new String[]{"bytes=20-", "bytes=30-40", "bytes=20-25,40-"}) {
+			MockHttpServletResponse response = send(range);
+
+			assertThat(response.getStatus()).as(range).isEqualTo(416);
+			assertThat(response.getHeader("Content-Range")).as(range).isEqualTo("bytes */20");
+			assertThat(response.getContentAsByteArray()).as(range).isEmpty();
+		}
+	}
+
+	@Test
+	void severalRangesAreSentAsMultipartByteranges() throws IOException {
+		MockHttpServletResponse response = send("bytes=0-1,-2");
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+		String boundary = response.getContentType().substring(response.getContentType().indexOf('=') + 1);
+		String body = response.getContentAsString();
+		assertThat(body).isEqualTo(
+				"\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-1/20\r\n\r\n01"
+						+ "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 18-19/20\r\n\r\nij"
+						+ "\r\n--" + boundary + "--\r\n");
+		assertThat(response.getContentLengthLong()).isEqualTo(body.getBytes(StandardCharsets.US_ASCII).length);
+	}
+
+	@Test
+	void unsatisfiableRangesAmongOthersAreDropped() throws IOException {
+		assertPartial(send("bytes=0-1,50-60"), "01", "bytes 0-1/20");
+	}
+
+	@Test
+	void malformedOrUnsupportedRangeIsIgnored() throws IOException {
+		for (String range : new String[]{"bytes=abc", "bytes=5-2", "items=0-5", "bytes=", "0-5"}) {
+			MockHttpServletResponse response = send(range);
+
+			assertThat(response.getStatus()).as(range).isEqualTo(200);
+			assertThat(response.getContentAsString()).as(range).isEqualTo(BODY);
+		}
+	}
+
+	@Test
+	void moreRangesThanTheCapGetTheWholeBody() throws IOException {
+		MockHttpServletResponse response = send("bytes=0-0,2-2,4-4,6-6");
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo(BODY);
+	}
+
+	@Test
+	void staleIfRangeGetsTheWholeBody() throws IOException {
+		String etag = send((String) null).getHeader("ETag");
+
+		MockHttpServletRequest matching = request("bytes=0-4");
+		matching.addHeader("If-Range", etag);
+		assertPartial(send(matching), "01234", "bytes 0-4/20");
+
+		MockHttpServletRequest stale = request("bytes=0-4");
+		stale.addHeader("If-Range", "\"stale\"");
+		MockHttpServletResponse response = send(stale);
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo(BODY);
+	}
+
+	@Test
+	void headRequestGetsTheHeadersOnly() throws IOException {
+		MockHttpServletRequest request = request("bytes=-5");
+		request.setMethod("HEAD");
+
+		MockHttpServletResponse response = send(request);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 15-19/20");
+		assertThat(response.getContentLengthLong()).isEqualTo(5);
+		assertThat(response.getContentAsByteArray()).isEmpty();
+	}
+
+	@Test
+	void localFileRangeIsHandedToSendfile() throws IOException {
+		Path file = Files.writeString(directory.resolve("notes.txt"), BODY);
+		MockHttpServletRequest request = request("bytes=-5");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		sender.send(StoredContent.ofFile(file), "notes.txt", request, response);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getContentAsByteArray()).isEmpty();
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toAbsolutePath().toString());
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(15L);
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(20L);
+	}
+
+	private static void assertPartial(MockHttpServletResponse response, String body, String contentRange)
+			throws IOException {
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader("Content-Range")).isEqualTo(contentRange);
+		assertThat(response.getContentAsString()).isEqualTo(body);
+		assertThat(response.getContentLengthLong()).isEqualTo(body.length());
+	}
+
+	private MockHttpServletResponse send(String range) throws IOException {
+		return send(request(range));
+	}
+
+	private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		sender.send(new MemoryContent(BODY.getBytes(StandardCharsets.US_ASCII)), "notes.txt", request, response);
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String range) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download");
+		if (range != null) {
+			request.addHeader("Range", range);
+		}
+		return request;
+	}
+
+	// Remote content, as from S3: no local file, so bodies are always written through the response
+	private record MemoryContent(byte[] bytes) implements StoredContent {
+
+		@Override
+		public long length() {
+			return bytes.length;
+		}
+
+		@Override
+		public long lastModified() {
+			return MODIFIED;
+		}
+
+		@Override
+		public Optional<Path> file() {
+			return Optional.empty();
+		}
+
+		@Override
+		public void writeTo(long start, long end, WritableByteChannel target) throws IOException {
+			target.write(ByteBuffer.wrap(bytes, (int) start, (int) (end - start)));
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.lms.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.lms.entity.User;
+import com.lms.repository.UserRepository;
+import com.lms.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Files uploaded on their own are attached later by the id the upload returns.
+ */
+@SpringBootTest(properties = {"file.storage.path=target/upload-attach-tests", "lms.storage.quota.per-user=1MB"})
+@AutoConfigureMockMvc
+class UploadAttachIntegrationTests {
+
+	private static final byte[] CONTENT = "Lecture notes, week 1".getBytes(StandardCharsets.UTF_8);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User teacher;
+
+	@BeforeEach
+	void setUp() {
+		teacher = teacher("Upload Teacher");
+	}
+
+	@Test
+	void uploadedFileIsAttachedAndDownloaded() throws Exception {
+		String uploadId = upload(teacher);
+
+		String note = mockMvc.perform(post("/api/notes").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(noteWith(uploadId)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		String downloadUrl = JsonPath.read(note, "$.downloadUrl");
+		mockMvc.perform(get(URI.create(downloadUrl)))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(CONTENT));
+	}
+
+	@Test
+	void uploadCannotBeAttachedByAnotherUser() throws Exception {
+		String uploadId = upload(teacher);
+
+		mockMvc.perform(post("/api/notes").with(as(teacher("Other Teacher")))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(noteWith(uploadId)))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void uploadIsAttachedOnlyOnce() throws Exception {
+		String uploadId = upload(teacher);
+
+		mockMvc.perform(post("/api/notes").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(noteWith(uploadId)))
+				.andExpect(status().isOk());
+		mockMvc.perform(post("/api/notes").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(noteWith(uploadId)))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void attachmentIsNotServedWithoutSignedLink() throws Exception {
+		String note = mockMvc.perform(post("/api/notes").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(noteWith(upload(teacher))))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		String downloadUrl = JsonPath.read(note, "$.downloadUrl");
+		mockMvc.perform(get(URI.create(downloadUrl).getPath()).with(as(teacher)))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void declaredChecksumReusesOnlyContentTheUserHolds() throws Exception {
+		upload(teacher);
+		String session = "{\"fileName\":\"week1.txt\",\"size\":" + CONTENT.length
+				+ ",\"category\":\"notes\",\"sha256\":\"" + sha256(CONTENT) + "\"}";
+
+		mockMvc.perform(post("/api/files/upload/sessions").with(as(teacher("Other Teacher")))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(session))
+				.andExpect(jsonPath("$.file").doesNotExist())
+				.andExpect(jsonPath("$.uploadId").exists());
+		mockMvc.perform(post("/api/files/upload/sessions").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(session))
+				.andExpect(jsonPath("$.file.fileId").exists());
+	}
+
+	@Test
+	void unfinishedUploadSessionsCountAgainstTheQuota() throws Exception {
+		String session = "{\"fileName\":\"lecture.mp4\",\"size\":" + 600 * 1024 + ",\"category\":\"notes\"}";
+
+		mockMvc.perform(post("/api/files/upload/sessions").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(session))
+				.andExpect(status().isCreated());
+		mockMvc.perform(post("/api/files/upload/sessions").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(session))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value(startsWith("You would exceed the storage quota")));
+	}
+
+	@Test
+	void uploadSessionNeedsAPositiveSize() throws Exception {
+		mockMvc.perform(post("/api/files/upload/sessions").with(as(teacher))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"fileName\":\"empty.txt\",\"size\":0,\"category\":\"notes\"}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private String upload(User user) throws Exception {
+		MockMultipartFile file = new MockMultipartFile("file", "week1.txt", MediaType.TEXT_PLAIN_VALUE, CONTENT);
+		String response = mockMvc.perform(multipart("/api/files/upload").file(file).param("category", "notes")
+						.with(as(user)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return JsonPath.read(response, "$.fileId");
+	}
+
+	private static String noteWith(String uploadId) {
+		return "{\"title\":\"Week 1\",\"content\":\"Slides attached\",\"uploadId\":\"" + uploadId + "\"}";
+	}
+
+	private static String sha256(byte[] content) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+	}
+
+	private User teacher(String name) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail("upload-" + UUID.randomUUID() + "@lms.test");
+		user.setPassword("secret");
+		user.setRole(User.Role.TEACHER);
+		return userRepository.saveAndFlush(user);
+	}
+
+	private static RequestPostProcessor as(User user) {
+		UserPrincipal principal = UserPrincipal.create(user);
+		return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
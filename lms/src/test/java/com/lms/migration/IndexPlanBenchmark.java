@@ -0,0 +1,181 @@
+package com.lms.migration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Before/after comparison for the {@link IndexPlan}. Seeds a synthetic dataset and, for each hot
+ * query, logs the EXPLAIN plan and median latency with secondary indexes disabled
+ * ({@code USE INDEX ()}) and with the optimizer free to use them.
+ *
+ * MySQL only. Writes synthetic rows, so run it against a scratch database. It lives in the test
+ * sources so it never ships; start it with the test classpath:
+ * {@code mvn spring-boot:test-run -Dspring-boot.run.profiles=index-benchmark}.
+ */
+@Slf4j
+@Component
+@Profile("index-benchmark")
+public class IndexPlanBenchmark implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final int users;
+    private final int courses;
+    private final int assignmentsPerCourse;
+    private final int enrollmentsPerStudent;
+    private final int iterations;
+
+    public IndexPlanBenchmark(@Qualifier("bulkPool") HikariDataSource bulkPool,
+                              @Value("${lms.benchmark.users:200000}") int users,
+                              @Value("${lms.benchmark.courses:2000}") int courses,
+                              @Value("${lms.benchmark.assignments-per-course:10}") int assignmentsPerCourse,
+                              @Value("${lms.benchmark.enrollments-per-student:5}") int enrollmentsPerStudent,
+                              @Value("${lms.benchmark.iterations:50}") int iterations) {
+        this.jdbc = new JdbcTemplate(bulkPool);
+        this.users = users;
+        this.courses = courses;
+        this.assignmentsPerCourse = assignmentsPerCourse;
+        this.enrollmentsPerStudent = enrollmentsPerStudent;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void run(String... args) {
+        seed();
+
+        long studentId = jdbc.queryForObject("SELECT MAX(id) FROM users WHERE role = 'STUDENT'", Long.class);
+        long courseId = jdbc.queryForObject("SELECT MAX(id) FROM courses", Long.class);
+        long assignmentId = jdbc.queryForObject("SELECT MAX(assignment_id) FROM submissions WHERE student_id = ?",
+                Long.class, studentId);
+
+        run("submission by assignment+student", "submissions",
+                "WHERE assignment_id = ? AND student_id = ?", assignmentId, studentId);
+        run("submissions by student", "submissions", "WHERE student_id = ?", studentId);
+        run("enrollments by course", "enrollments", "WHERE course_id = ?", courseId);
+        run("course notes", "notes", "WHERE visibility = 'COURSE' AND course_id = ?", courseId);
+        run("users by role+status", "users", "WHERE role = 'TEACHER' AND status = 'ACTIVE'");
+        run("recent users", "users", "ORDER BY created_at DESC LIMIT 5");
+        run("courses by category", "courses", "WHERE category = ?", "Category-7");
+    }
+
+    private void run(String label, String table, String predicate, Object... params) {
+        String before = "SELECT * FROM " + table + " USE INDEX () " + predicate;
+        String after = "SELECT * FROM " + table + " " + predicate;
+
+        log.info("=== {} ===", label);
+        log.info("before plan: {}", explain(before, params));
+        log.info("after  plan: {}", explain(after, params));
+        log.info("median latency: before {} us, after {} us", medianMicros(before, params), medianMicros(after, params));
+    }
+
+    private String explain(String sql, Object... params) {
+        List<Map<String, Object>> rows = jdbc.queryForList("EXPLAIN " + sql, params);
+        List<String> summary = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            summary.add("type=" + row.get("type") + " key=" + row.get("key") + " rows=" + row.get("rows")
+                    + " extra=" + row.get("Extra"));
+        }
+        return String.join("; ", summary);
+    }
+
+    private long medianMicros(String sql, Object... params) {
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            jdbc.queryForList(sql, params);
+            samples[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(samples);
+        return samples[iterations / 2];
+    }
+
+    // ---------------------------
+    // SYNTHETIC DATASET
+    // ---------------------------
+    private void seed() {
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE 'bench-%'", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Synthetic dataset already present ({} users), skipping seed", existing);
+            return;
+        }
+        log.info("Seeding {} users, {} courses, {} assignments/course, {} enrollments/student",
+                users, courses, assignmentsPerCourse, enrollmentsPerStudent);
+
+        int teachers = Math.max(1, users / 100);
+        LocalDateTime now = LocalDateTime.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        batch("INSERT INTO users (name, email, password, role, status, created_at, updated_at) VALUES (?, ?, 'x', ?, ?, ?, ?)",
+                users, i -> new Object[]{"Bench " + i, "bench-" + i + "@example.com",
+                        i < teachers ? "TEACHER" : "STUDENT",
+                        i % 20 == 0 ? "INACTIVE" : "ACTIVE",
+                        Timestamp.valueOf(now.minusMinutes(random.nextInt(500_000))),
+                        Timestamp.valueOf(now)});
+
+        long firstUser = jdbc.queryForObject("SELECT MIN(id) FROM users WHERE email LIKE 'bench-%'", Long.class);
+        long firstStudent = firstUser + teachers;
+        int students = users - teachers;
+
+        batch("INSERT INTO courses (title, description, category, level, instructor_id, duration, students, created_at, updated_at)"
+                        + " VALUES (?, 'synthetic', ?, 'BEGINNER', ?, '8 weeks', 0, ?, ?)",
+                courses, i -> new Object[]{"Bench course " + i, "Category-" + (i % 50),
+                        firstUser + (i % teachers), Timestamp.valueOf(now), Timestamp.valueOf(now)});
+        long firstCourse = jdbc.queryForObject("SELECT MIN(id) FROM courses WHERE description = 'synthetic'", Long.class);
+
+        batch("INSERT INTO assignments (title, description, due_date, max_points, course_id, created_at)"
+                        + " VALUES (?, 'synthetic', ?, 100, ?, ?)",
+                courses * assignmentsPerCourse, i -> new Object[]{"Bench assignment " + i,
+                        Timestamp.valueOf(now.plusDays(7)), firstCourse + (i / assignmentsPerCourse), Timestamp.valueOf(now)});
+        long firstAssignment = jdbc.queryForObject("SELECT MIN(id) FROM assignments WHERE description = 'synthetic'", Long.class);
+
+        // Student s enrolls in courses (s + k * stride) so pairs stay unique
+        int stride = Math.max(1, courses / enrollmentsPerStudent);
+        batch("INSERT INTO enrollments (student_id, course_id, progress, completed, enrolled_at) VALUES (?, ?, 0, 0, ?)",
+                students * enrollmentsPerStudent, i -> new Object[]{firstStudent + (i / enrollmentsPerStudent),
+                        firstCourse + ((i / enrollmentsPerStudent) + (long) (i % enrollmentsPerStudent) * stride) % courses,
+                        Timestamp.valueOf(now)});
+
+        // One submission per enrollment, for the course's first assignment
+        batch("INSERT INTO submissions (assignment_id, student_id, content, graded, submitted_at) VALUES (?, ?, 'synthetic', 0, ?)",
+                students * enrollmentsPerStudent, i -> {
+                    long course = ((i / enrollmentsPerStudent) + (long) (i % enrollmentsPerStudent) * stride) % courses;
+                    return new Object[]{firstAssignment + course * assignmentsPerCourse,
+                            firstStudent + (i / enrollmentsPerStudent), Timestamp.valueOf(now)};
+                });
+
+        batch("INSERT INTO notes (title, content, course_id, author_id, visibility, created_at, updated_at)"
+                        + " VALUES (?, 'synthetic', ?, ?, ?, ?, ?)",
+                courses * 5, i -> new Object[]{"Bench note " + i, firstCourse + (i % courses), firstUser + (i % teachers),
+                        i % 4 == 0 ? "ALL" : "COURSE", Timestamp.valueOf(now), Timestamp.valueOf(now)});
+    }
+
+    private void batch(String sql, int total, IntFunction<Object[]> row) {
+        List<Object[]> buffer = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < total; i++) {
+            buffer.add(row.apply(i));
+            if (buffer.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(sql, buffer);
+                buffer.clear();
+            }
+        }
+        if (!buffer.isEmpty()) {
+            jdbc.batchUpdate(sql, buffer);
+        }
+    }
+}
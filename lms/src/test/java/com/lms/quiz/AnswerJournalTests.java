@@ -0,0 +1,186 @@
+package com.lms.quiz;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes real segment files in a temporary directory, then damages them the way a crash would.
+ */
+class AnswerJournalTests {
+
+	// Header of length, checksum and attempt id
+	private static final int HEADER_SIZE = 16;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replayReturnsRecordsInAppendOrder() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			journal.append(1, "{\"10\":\"0\"}");
+			journal.append(2, "{\"11\":\"true\"}");
+			journal.append(1, "{\"10\":\"2\"}");
+		}
+
+		assertThat(replay()).containsExactly("1={\"10\":\"0\"}", "2={\"11\":\"true\"}", "1={\"10\":\"2\"}");
+	}
+
+	@Test
+	void replayStopsAtARecordTornInItsBody() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			journal.append(1, "first");
+			journal.append(2, "second");
+			journal.append(3, "third");
+		}
+		Path segment = segments().get(0);
+		truncate(segment, Files.size(segment) - 2);
+
+		assertThat(replay()).containsExactly("1=first", "2=second");
+	}
+
+	@Test
+	void replayStopsAtARecordTornInItsHeader() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			journal.append(1, "first");
+			journal.append(2, "second");
+		}
+		Path segment = segments().get(0);
+		truncate(segment, HEADER_SIZE + "first".length() + HEADER_SIZE / 2);
+
+		assertThat(replay()).containsExactly("1=first");
+	}
+
+	@Test
+	void corruptRecordEndsItsSegmentButNotTheNext() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			journal.append(1, "first");
+			journal.append(2, "second");
+			journal.append(3, "third");
+			journal.roll();
+			journal.append(4, "fourth");
+		}
+		// Flip a byte in the body of the second record
+		Path segment = segments().get(0);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[]{'S'}), HEADER_SIZE + "first".length() + HEADER_SIZE);
+		}
+
+		assertThat(replay()).containsExactly("1=first", "4=fourth");
+	}
+
+	@Test
+	void deleteThroughRemovesOnlySealedSegments() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			journal.append(1, "a");
+			int first = journal.roll();
+			journal.append(2, "b");
+			int second = journal.roll();
+			journal.append(3, "c");
+
+			assertThat(first).isEqualTo(1);
+			assertThat(second).isEqualTo(2);
+			journal.deleteThrough(first);
+			assertThat(segments()).extracting(path -> path.getFileName().toString())
+					.containsExactly("journal-000002.log", "journal-000003.log");
+		}
+
+		assertThat(replay()).containsExactly("2=b", "3=c");
+	}
+
+	@Test
+	void openStartsAfterTheSegmentsLeftBehind() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			journal.append(1, "a");
+			journal.roll();
+		}
+
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			assertThat(journal.replay((attemptId, answers) -> { })).isEqualTo(1);
+			journal.open();
+			journal.append(2, "b");
+		}
+
+		assertThat(segments()).extracting(path -> path.getFileName().toString())
+				.containsExactly("journal-000001.log", "journal-000002.log", "journal-000003.log");
+		assertThat(replay()).containsExactly("1=a", "2=b");
+	}
+
+	@Test
+	void syncAfterTheSegmentIsSealedReturnsAtOnce() throws IOException {
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			AnswerJournal.Position sealed = journal.append(1, "a");
+			journal.roll();
+			AnswerJournal.Position current = journal.append(2, "b");
+
+			// The sealed segment's channel is closed; forcing it again would throw
+			journal.sync(sealed);
+			journal.sync(current);
+			journal.sync(current);
+		}
+
+		assertThat(replay()).containsExactly("1=a", "2=b");
+	}
+
+	@Test
+	void concurrentSyncsAllReturnWithTheirRecordsDurable() throws Exception {
+		ExecutorService writers = Executors.newFixedThreadPool(8);
+		try (AnswerJournal journal = new AnswerJournal(directory)) {
+			journal.open();
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				long attemptId = i;
+				futures.add(writers.submit(() -> {
+					journal.sync(journal.append(attemptId, "answers-" + attemptId));
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			writers.shutdown();
+		}
+
+		assertThat(replay()).hasSize(200);
+	}
+
+	private List<String> replay() throws IOException {
+		List<String> records = new ArrayList<>();
+		new AnswerJournal(directory).replay((attemptId, answers) -> records.add(attemptId + "=" + answers));
+		return records;
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			return paths.sorted().toList();
+		}
+	}
+
+	private static void truncate(Path path, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(size);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scores hand-built keys; no Spring context or database is involved.
+ */
+class AnswerKeyTests {
+
+	private static final long SINGLE = 1;
+	private static final long MULTI = 2;
+	private static final long TRUE_FALSE = 3;
+	private static final long SHORT = 4;
+
+	@Test
+	void singleChoiceIsCorrectOnlyForTheCorrectOption() {
+		AnswerKey key = standardKey();
+
+		assertThat(correct(key, SINGLE, "1")).isTrue();
+		assertThat(correct(key, SINGLE, "0")).isFalse();
+		assertThat(correct(key, SINGLE, "1,2")).isFalse();
+		assertThat(correct(key, SINGLE, "one")).isFalse();
+		assertThat(correct(key, SINGLE, "64")).isFalse();
+		assertThat(key.correctSelection(SINGLE)).isEqualTo(0b010);
+	}
+
+	@Test
+	void multiSelectNeedsExactlyTheCorrectOptionsInAnyOrder() {
+		AnswerKey key = standardKey();
+
+		assertThat(correct(key, MULTI, "0,3")).isTrue();
+		assertThat(correct(key, MULTI, "3,0")).isTrue();
+		assertThat(correct(key, MULTI, "0")).isFalse();
+		assertThat(correct(key, MULTI, "0,1,3")).isFalse();
+		assertThat(correct(key, MULTI, "0,,3")).isFalse();
+		assertThat(key.correctSelection(MULTI)).isEqualTo(0b1001);
+	}
+
+	@Test
+	void trueFalseIgnoresCaseAndSurroundingSpace() {
+		AnswerKey key = standardKey();
+
+		assertThat(correct(key, TRUE_FALSE, "false")).isTrue();
+		assertThat(correct(key, TRUE_FALSE, " FALSE ")).isTrue();
+		assertThat(correct(key, TRUE_FALSE, "true")).isFalse();
+		assertThat(correct(key, TRUE_FALSE, "no")).isFalse();
+		assertThat(key.correctSelection(TRUE_FALSE)).isEqualTo(2);
+	}
+
+	@Test
+	void shortAnswerIsComparedAfterNormalizingCaseAndWhitespace() {
+		AnswerKey key = standardKey();
+
+		assertThat(correct(key, SHORT, "photosynthesis")).isTrue();
+		assertThat(correct(key, SHORT, "  CARBON \t dioxide ")).isTrue();
+		assertThat(correct(key, SHORT, "carbon-dioxide")).isFalse();
+		assertThat(correct(key, SHORT, "")).isFalse();
+		assertThat(AnswerKey.normalizeText("  Carbon\n\nDioxide ")).isEqualTo("carbon dioxide");
+		assertThat(key.correctSelection(SHORT)).isZero();
+	}
+
+	@Test
+	void scoreAddsPointsOfCorrectAnswers() {
+		AnswerKey key = standardKey();
+
+		AnswerKey.Score score = key.score(Map.of(SINGLE, "1", MULTI, "0", TRUE_FALSE, "false"));
+
+		assertThat(score.points()).isEqualTo(3);
+		assertThat(score.maxPoints()).isEqualTo(5);
+		assertThat(score.correct()).isEqualTo(2);
+		assertThat(score.total()).isEqualTo(4);
+		assertThat(score.percentage()).isEqualTo(60);
+		assertThat(score.passed()).isTrue();
+	}
+
+	@Test
+	void drawnSubsetIsScoredAloneAndSkipsQuestionsNoLongerInTheKey() {
+		AnswerKey key = standardKey();
+		Map<Long, String> answers = Map.of(SINGLE, "1", MULTI, "0,3", SHORT, "wrong");
+
+		AnswerKey.Score score = key.score(answers, new long[]{MULTI, SHORT, 99});
+
+		assertThat(score.points()).isEqualTo(1);
+		assertThat(score.maxPoints()).isEqualTo(2);
+		assertThat(score.correct()).isEqualTo(1);
+		assertThat(score.total()).isEqualTo(2);
+		assertThat(score.percentage()).isEqualTo(50);
+		assertThat(score.passed()).isFalse();
+		assertThat(key.score(answers, null)).isEqualTo(key.score(answers));
+	}
+
+	@Test
+	void percentageIsRoundedHalfUpBeforeComparingWithThePassMark() {
+		// 2 of 3 is 66.7%, rounded to 67
+		AnswerKey thirds = AnswerKey.compile(quiz(67, trueFalse(1, true), trueFalse(2, true), trueFalse(3, true)));
+		assertThat(thirds.score(Map.of(1L, "true", 2L, "true")).percentage()).isEqualTo(67);
+		assertThat(thirds.score(Map.of(1L, "true", 2L, "true")).passed()).isTrue();
+		assertThat(thirds.score(Map.of(1L, "true")).percentage()).isEqualTo(33);
+
+		// 1 of 8 is exactly 12.5%, rounded to 13
+		QuizQuestion[] eighths = new QuizQuestion[8];
+		for (int i = 0; i < eighths.length; i++) {
+			eighths[i] = trueFalse(i + 1, true);
+		}
+		AnswerKey key = AnswerKey.compile(quiz(13, eighths));
+		assertThat(key.score(Map.of(1L, "true")).percentage()).isEqualTo(13);
+		assertThat(key.score(Map.of(1L, "true")).passed()).isTrue();
+		assertThat(key.score(Map.of()).passed()).isFalse();
+	}
+
+	@Test
+	void emptyKeyScoresZero() {
+		AnswerKey key = AnswerKey.compile(quiz(0));
+
+		AnswerKey.Score score = key.score(Map.of(1L, "true"));
+
+		assertThat(score.maxPoints()).isZero();
+		assertThat(score.percentage()).isZero();
+		assertThat(score.passed()).isTrue();
+	}
+
+	@Test
+	void itemsReportSelectionsAsScored() {
+		AnswerKey key = standardKey();
+		List<String> seen = new ArrayList<>();
+
+		key.items(Map.of(SINGLE, "1", TRUE_FALSE, "true"), new long[]{TRUE_FALSE, SINGLE, SHORT, 99},
+				(questionId, points, answered, correct, selected) ->
+						seen.add(questionId + ":" + points + ":" + answered + ":" + correct + ":" + selected));
+
+		assertThat(seen).containsExactly("3:1:true:false:1", "1:2:true:true:2", "4:1:false:false:0");
+	}
+
+	@Test
+	void normalizeConvertsClientAnswersAndDropsUnusableEntries() {
+		Map<String, Object> raw = new LinkedHashMap<>();
+		raw.put("1", 2);
+		raw.put(" 2 ", List.of(0, 3, "x"));
+		raw.put("3", false);
+		raw.put("4", "  Carbon dioxide ");
+		raw.put("5", "   ");
+		raw.put("6", List.of());
+		raw.put("question", 1);
+		raw.put("7", Map.of());
+
+		assertThat(AnswerKey.normalize(raw)).containsExactly(
+				Map.entry(1L, "2"), Map.entry(2L, "0,3"), Map.entry(3L, "false"), Map.entry(4L, "Carbon dioxide"));
+		assertThat(AnswerKey.normalize(null)).isEmpty();
+	}
+
+	// ---------------------------
+	// FIXTURES
+	// ---------------------------
+
+	// Single choice worth 2, multi-select, true/false and short answer worth 1 each; pass at 60%
+	private static AnswerKey standardKey() {
+		return AnswerKey.compile(quiz(60,
+				choice(SINGLE, 2, false, true, false),
+				choice(MULTI, 1, true, false, false, true),
+				trueFalse(TRUE_FALSE, false),
+				shortAnswer(SHORT, "Photosynthesis\n\n  carbon   dioxide ")));
+	}
+
+	private static boolean correct(AnswerKey key, long questionId, String answer) {
+		return key.score(Map.of(questionId, answer), new long[]{questionId}).correct() == 1;
+	}
+
+	private static Quiz quiz(int passPercentage, QuizQuestion... questions) {
+		Quiz quiz = new Quiz();
+		quiz.setId(1L);
+		quiz.setPassPercentage(passPercentage);
+		quiz.setQuestions(new ArrayList<>(List.of(questions)));
+		return quiz;
+	}
+
+	private static QuizQuestion choice(long id, int points, boolean... correct) {
+		QuizQuestion question = question(id, QuizQuestion.Type.MULTIPLE_CHOICE, points);
+		for (int i = 0; i < correct.length; i++) {
+			question.getOptions().add(new QuizQuestion.Option("Option " + i, correct[i]));
+		}
+		return question;
+	}
+
+	private static QuizQuestion trueFalse(long id, boolean answer) {
+		QuizQuestion question = question(id, QuizQuestion.Type.TRUE_FALSE, 1);
+		question.setAnswer(Boolean.toString(answer));
+		return question;
+	}
+
+	private static QuizQuestion shortAnswer(long id, String accepted) {
+		QuizQuestion question = question(id, QuizQuestion.Type.SHORT_ANSWER, 1);
+		question.setAnswer(accepted);
+		return question;
+	}
+
+	private static QuizQuestion question(long id, QuizQuestion.Type type, int points) {
+		QuizQuestion question = new QuizQuestion();
+		question.setId(id);
+		question.setType(type);
+		question.setText("Question " + id);
+		question.setPoints(points);
+		return question;
+	}
+}
@@ -0,0 +1,90 @@
+package com.lms.quiz;
+
+import com.lms.entity.QuizQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.lms.quiz.QtiReaderTests.fixture;
+import static com.lms.quiz.QtiReaderTests.readAll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reads the GIFT fixture in src/test/resources/quiz.
+ */
+class GiftReaderTests {
+
+	@Test
+	void readsQuestionsSkippingCommentsAndCategories() throws IOException {
+		List<Object> read = readAll(new GiftReader(new BufferedReader(
+				new InputStreamReader(fixture("questions.gift"), StandardCharsets.UTF_8))));
+
+		assertThat(read).hasSize(6);
+		ImportedQuestion choice = (ImportedQuestion) read.get(0);
+		assertThat(choice.source()).isEqualTo("Question 1 (line 4)");
+		assertThat(choice.type()).isEqualTo(QuizQuestion.Type.MULTIPLE_CHOICE);
+		assertThat(choice.text()).isEqualTo("What is the capital of France?");
+		// Feedback after # is dropped
+		assertThat(choice.options()).containsExactly("Paris", "Lyon", "Nice");
+		assertThat(choice.correctOptions()).containsExactly(0);
+
+		ImportedQuestion trueFalse = (ImportedQuestion) read.get(1);
+		assertThat(trueFalse.type()).isEqualTo(QuizQuestion.Type.TRUE_FALSE);
+		assertThat(trueFalse.answer()).isEqualTo("true");
+
+		ImportedQuestion weighted = (ImportedQuestion) read.get(2);
+		assertThat(weighted.text()).isEqualTo("Which are prime?");
+		assertThat(weighted.options()).containsExactly("2", "3", "4");
+		assertThat(weighted.correctOptions()).containsExactly(0, 1);
+	}
+
+	@Test
+	void escapedCharactersAreKeptAsText() throws IOException {
+		List<Object> read = readAll(new GiftReader(new BufferedReader(
+				new InputStreamReader(fixture("questions.gift"), StandardCharsets.UTF_8))));
+
+		ImportedQuestion escaped = (ImportedQuestion) read.get(3);
+		assertThat(escaped.type()).isEqualTo(QuizQuestion.Type.SHORT_ANSWER);
+		assertThat(escaped.text()).isEqualTo("Is {1 = 1} ~ true, a: b?");
+		assertThat(escaped.answer()).isEqualTo("yes = certainly\nyes");
+
+		ImportedQuestion missingWord = (ImportedQuestion) read.get(4);
+		assertThat(missingWord.text()).isEqualTo("Photosynthesis needs _____ and water.");
+		assertThat(missingWord.answer()).isEqualTo("light\nsunlight");
+
+		assertThat(read.get(5)).isInstanceOf(QuestionFormatException.class);
+		assertThat(((Exception) read.get(5)).getMessage())
+				.isEqualTo("Question 6 (line 22) is an essay question, which cannot be imported");
+	}
+
+	@Test
+	void unsupportedQuestionsAreSkippedAndReadingCarriesOn() throws IOException {
+		String gift = "Pi is about {#3.14:0.01}\n\n"
+				+ "Match {=cat -> meow ~dog -> woof}\n\n"
+				+ "Just a description\n\n"
+				+ "Two plus two is {=four}\n";
+
+		List<Object> read = readAll(new GiftReader(new BufferedReader(new StringReader(gift))));
+
+		assertThat(read).hasSize(4);
+		assertThat(((Exception) read.get(0)).getMessage()).endsWith("is a numerical question, which cannot be imported");
+		assertThat(((Exception) read.get(1)).getMessage()).endsWith("is a matching question, which cannot be imported");
+		assertThat(((Exception) read.get(2)).getMessage()).endsWith("has no answer block; descriptions and essays cannot be imported");
+		assertThat(((ImportedQuestion) read.get(3)).answer()).isEqualTo("four");
+	}
+
+	@Test
+	void unclosedAnswerBlockFailsTheFile() {
+		String gift = "Never closed {=yes ~no\n\n" + "x\n".repeat(600_000);
+
+		assertThatThrownBy(() -> new GiftReader(new BufferedReader(new StringReader(gift))).next())
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("are questions separated by blank lines?");
+	}
+}
@@ -0,0 +1,212 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizQuestion;
+import com.lms.repository.QuizStatsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Five attempts at three one-point questions, analysed by hand:
+ * <pre>
+ *   attempt   Q1 (choice, 0 right)   Q2 (true)   Q3 (false)   score
+ *   1         0  right               true        false        3
+ *   2         0  right               true        true         2
+ *   3         1                      true        false        2
+ *   4         2                      false       true         0
+ *   5         blank                  true        false        2
+ * </pre>
+ * Rest scores are the other two questions' share: for Q1 they are 1, .5, 1, 0 and 1, with mean
+ * .7 and deviation .4; right answers average .75 and wrong ones 2/3, so its discrimination is
+ * (.75 - 2/3) / .4 * sqrt(.4 * .6) = .10206. Likewise Q2 gives .79057 and Q3 .21822.
+ */
+class ItemStatisticsTests {
+
+	private static final double EPSILON = 1e-5;
+
+	@Test
+	void analysisMatchesTheHandComputedExample() {
+		Fixture fixture = new Fixture(new RecordingRepository());
+
+		assertExample(fixture.statistics.analyze(fixture.pool, fixture.key));
+	}
+
+	@Test
+	void flushWritesTheSumsAndTheAnalysisReadsThemBack() {
+		RecordingRepository repository = new RecordingRepository();
+		Fixture fixture = new Fixture(repository);
+
+		assertThat(fixture.statistics.flush()).isEqualTo(1);
+		assertThat(fixture.statistics.flush()).isZero();
+
+		assertThat(repository.quizzes).hasSize(1);
+		QuizStatsRepository.QuizTotals quiz = repository.quizzes.get(0);
+		assertThat(quiz.attempts()).isEqualTo(5);
+		assertThat(quiz.scoreSum()).isCloseTo(3.0, within(EPSILON));
+		assertThat(repository.items).hasSize(3);
+		QuizStatsRepository.ItemTotals first = item(repository, 1);
+		assertThat(first.attempts()).isEqualTo(5);
+		assertThat(first.correct()).isEqualTo(2);
+		assertThat(first.blank()).isEqualTo(1);
+		assertThat(first.restSum()).isCloseTo(3.5, within(EPSILON));
+		assertThat(first.restSqSum()).isCloseTo(3.25, within(EPSILON));
+		assertThat(first.restCorrectSum()).isCloseTo(1.5, within(EPSILON));
+		// Options never selected get no row
+		assertThat(repository.options).hasSize(3 + 2 + 2);
+
+		assertExample(fixture.statistics.analyze(fixture.pool, fixture.key));
+	}
+
+	@Test
+	void failedFlushKeepsTheSumsForTheNextOne() {
+		RecordingRepository repository = new RecordingRepository();
+		repository.failures = 1;
+		Fixture fixture = new Fixture(repository);
+
+		assertThatThrownBy(fixture.statistics::flush).isInstanceOf(IllegalStateException.class);
+		assertExample(fixture.statistics.analyze(fixture.pool, fixture.key));
+
+		assertThat(fixture.statistics.flush()).isEqualTo(1);
+		assertThat(repository.quizzes.get(0).attempts()).isEqualTo(5);
+		assertExample(fixture.statistics.analyze(fixture.pool, fixture.key));
+	}
+
+	@Test
+	void questionsWithoutAttemptsHaveNoDifficultyOrDiscrimination() {
+		Fixture fixture = new Fixture(new RecordingRepository(), List.of());
+
+		ItemStatistics.Analysis analysis = fixture.statistics.analyze(fixture.pool, fixture.key);
+
+		assertThat(analysis.attempts()).isZero();
+		assertThat(analysis.meanScore()).isNull();
+		assertThat(analysis.items()).allSatisfy(item -> {
+			assertThat(item.difficulty()).isNull();
+			assertThat(item.discrimination()).isNull();
+		});
+	}
+
+	private static void assertExample(ItemStatistics.Analysis analysis) {
+		assertThat(analysis.attempts()).isEqualTo(5);
+		assertThat(analysis.meanScore()).isCloseTo(60.0, within(EPSILON));
+		assertThat(analysis.scoreStdDev()).isCloseTo(32.65986, within(EPSILON));
+
+		ItemStatistics.ItemAnalysis choice = analysis.items().get(0);
+		assertThat(choice.correct()).isEqualTo(2);
+		assertThat(choice.blank()).isEqualTo(1);
+		assertThat(choice.difficulty()).isCloseTo(0.4, within(EPSILON));
+		assertThat(choice.discrimination()).isCloseTo(0.10206, within(EPSILON));
+		assertThat(choice.options()).extracting(ItemStatistics.OptionAnalysis::selections).containsExactly(2L, 1L, 1L);
+		assertThat(choice.options()).extracting(ItemStatistics.OptionAnalysis::correct).containsExactly(true, false, false);
+		assertThat(choice.options().get(0).share()).isCloseTo(0.4, within(EPSILON));
+		assertThat(choice.options().get(0).meanRestScore()).isCloseTo(75.0, within(EPSILON));
+		assertThat(choice.options().get(1).meanRestScore()).isCloseTo(100.0, within(EPSILON));
+		assertThat(choice.options().get(2).meanRestScore()).isCloseTo(0.0, within(EPSILON));
+
+		ItemStatistics.ItemAnalysis trueItem = analysis.items().get(1);
+		assertThat(trueItem.difficulty()).isCloseTo(0.8, within(EPSILON));
+		assertThat(trueItem.discrimination()).isCloseTo(0.79057, within(EPSILON));
+		assertThat(trueItem.options()).extracting(ItemStatistics.OptionAnalysis::text).containsExactly("True", "False");
+		assertThat(trueItem.options()).extracting(ItemStatistics.OptionAnalysis::selections).containsExactly(4L, 1L);
+		assertThat(trueItem.options().get(0).meanRestScore()).isCloseTo(62.5, within(EPSILON));
+
+		ItemStatistics.ItemAnalysis falseItem = analysis.items().get(2);
+		assertThat(falseItem.difficulty()).isCloseTo(0.6, within(EPSILON));
+		assertThat(falseItem.discrimination()).isCloseTo(0.21822, within(EPSILON));
+	}
+
+	private static QuizStatsRepository.ItemTotals item(RecordingRepository repository, long questionId) {
+		return repository.items.stream().filter(item -> item.questionId() == questionId).findFirst().orElseThrow();
+	}
+
+	// ---------------------------
+	// FIXTURES
+	// ---------------------------
+	private static final class Fixture {
+		private final AnswerKey key;
+		private final QuestionPool pool;
+		private final ItemStatistics statistics;
+
+		Fixture(RecordingRepository repository) {
+			this(repository, List.of(
+					Map.of(1L, "0", 2L, "true", 3L, "false"),
+					Map.of(1L, "0", 2L, "true", 3L, "true"),
+					Map.of(1L, "1", 2L, "true", 3L, "false"),
+					Map.of(1L, "2", 2L, "false", 3L, "true"),
+					Map.of(2L, "true", 3L, "false")));
+		}
+
+		Fixture(RecordingRepository repository, List<Map<Long, String>> attempts) {
+			Quiz quiz = new Quiz();
+			quiz.setId(1L);
+			QuizQuestion choice = question(1, QuizQuestion.Type.MULTIPLE_CHOICE, null);
+			choice.getOptions().add(new QuizQuestion.Option("A", true));
+			choice.getOptions().add(new QuizQuestion.Option("B", false));
+			choice.getOptions().add(new QuizQuestion.Option("C", false));
+			quiz.setQuestions(new ArrayList<>(List.of(choice,
+					question(2, QuizQuestion.Type.TRUE_FALSE, "true"),
+					question(3, QuizQuestion.Type.TRUE_FALSE, "false"))));
+			key = AnswerKey.compile(quiz);
+			pool = QuestionPool.compile(quiz);
+			statistics = new ItemStatistics(repository, Duration.ofSeconds(10), 500);
+			for (Map<Long, String> answers : attempts) {
+				statistics.record(key, answers, null, key.score(answers));
+			}
+		}
+
+		private static QuizQuestion question(long id, QuizQuestion.Type type, String answer) {
+			QuizQuestion question = new QuizQuestion();
+			question.setId(id);
+			question.setType(type);
+			question.setText("Question " + id);
+			question.setAnswer(answer);
+			return question;
+		}
+	}
+
+	// Keeps what is flushed and hands it back to the analysis, as the tables would
+	private static final class RecordingRepository extends QuizStatsRepository {
+		private final List<QuizTotals> quizzes = new ArrayList<>();
+		private final List<ItemTotals> items = new ArrayList<>();
+		private final List<OptionTotals> options = new ArrayList<>();
+		private int failures;
+
+		RecordingRepository() {
+			super(null);
+		}
+
+		@Override
+		public void add(List<QuizTotals> quizzes, List<ItemTotals> items, List<OptionTotals> options, int batchSize) {
+			if (failures > 0) {
+				failures--;
+				throw new IllegalStateException("Deadlock found when trying to get lock");
+			}
+			this.quizzes.addAll(quizzes);
+			this.items.addAll(items);
+			this.options.addAll(options);
+		}
+
+		@Override
+		public Optional<QuizTotals> findQuizTotals(long quizId, int keyVersion) {
+			return quizzes.stream().findFirst();
+		}
+
+		@Override
+		public List<ItemTotals> findItemTotals(long quizId, int keyVersion) {
+			return items;
+		}
+
+		@Override
+		public List<OptionTotals> findOptionTotals(long quizId, int keyVersion) {
+			return options;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.lms.quiz;
+
+import com.lms.entity.QuizQuestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reads the QTI fixtures in src/test/resources/quiz, on their own and packaged in a zip.
+ */
+class QtiReaderTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsCanvasItemsAndSkipsUnsupportedOnes() throws IOException {
+		List<Object> read = readAll(new QtiReader(fixture("canvas-items.xml")));
+
+		assertThat(read).hasSize(4);
+		ImportedQuestion choice = (ImportedQuestion) read.get(0);
+		assertThat(choice.source()).isEqualTo("Item 1 (Capitals)");
+		assertThat(choice.type()).isEqualTo(QuizQuestion.Type.MULTIPLE_CHOICE);
+		assertThat(choice.text()).isEqualTo("What is the capital of France?");
+		assertThat(choice.points()).isEqualTo(2);
+		assertThat(choice.options()).containsExactly("Lyon", "Paris", "Nice");
+		assertThat(choice.correctOptions()).containsExactly(1);
+		assertThat(choice.problem()).isNull();
+
+		ImportedQuestion trueFalse = (ImportedQuestion) read.get(1);
+		assertThat(trueFalse.type()).isEqualTo(QuizQuestion.Type.TRUE_FALSE);
+		assertThat(trueFalse.answer()).isEqualTo("true");
+
+		assertThat(read.get(2)).isInstanceOf(QuestionFormatException.class);
+		assertThat(((Exception) read.get(2)).getMessage())
+				.isEqualTo("Item 3 (Pairs) has question type matching_question, which cannot be imported");
+
+		ImportedQuestion shortAnswer = (ImportedQuestion) read.get(3);
+		assertThat(shortAnswer.type()).isEqualTo(QuizQuestion.Type.SHORT_ANSWER);
+		assertThat(shortAnswer.text()).isEqualTo("Which gas do plants take in?");
+		assertThat(shortAnswer.answer()).isEqualTo("carbon dioxide\nCO2");
+	}
+
+	@Test
+	void readsQti2AssessmentItem() throws IOException {
+		List<Object> read = readAll(new QtiReader(fixture("assessment-item.xml")));
+
+		assertThat(read).hasSize(1);
+		ImportedQuestion question = (ImportedQuestion) read.get(0);
+		assertThat(question.source()).isEqualTo("Item 1 (Primes)");
+		assertThat(question.type()).isEqualTo(QuizQuestion.Type.MULTIPLE_CHOICE);
+		assertThat(question.text()).isEqualTo("Which numbers are prime?");
+		assertThat(question.points()).isEqualTo(3);
+		// Inline feedback is not part of the option
+		assertThat(question.options()).containsExactly("2", "4", "7");
+		assertThat(question.correctOptions()).containsExactly(0, 2);
+	}
+
+	@Test
+	void readsEveryItemFileOfAZippedPackageButTheManifest() throws IOException {
+		ByteArrayOutputStream packaged = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(packaged)) {
+			entry(zip, "imsmanifest.xml", fixture("assessment-item.xml").readAllBytes());
+			entry(zip, "items/", new byte[0]);
+			entry(zip, "items/week1.xml", fixture("canvas-items.xml").readAllBytes());
+			entry(zip, "items/image.png", new byte[]{1, 2, 3});
+			entry(zip, "items/prime.XML", fixture("assessment-item.xml").readAllBytes());
+		}
+
+		List<Object> read = readAll(new QtiReader(new ByteArrayInputStream(packaged.toByteArray())));
+
+		assertThat(read).hasSize(5);
+		assertThat(((ImportedQuestion) read.get(0)).source()).isEqualTo("Item 1 (Capitals)");
+		assertThat(((ImportedQuestion) read.get(4)).source()).isEqualTo("Item 5 (Primes)");
+	}
+
+	@Test
+	void malformedXmlStopsTheFileWithTheItemItFollows() throws IOException {
+		String xml = "<questestinterop><item ident=\"a\"><presentation><material><mattext>Text</mattext>"
+				+ "</material><response_str ident=\"r\"/></presentation></item><item ident=\"b\"><presentation>"
+				+ "</questestinterop>";
+
+		try (QtiReader reader = new QtiReader(stream(xml))) {
+			assertThat(reader.next().source()).isEqualTo("Item 1 (a)");
+			assertThatThrownBy(reader::next).isInstanceOf(IOException.class)
+					.hasMessageStartingWith("Malformed XML after item 2");
+		}
+	}
+
+	@Test
+	void externalEntityIsRejectedWithoutReadingTheFile() throws IOException {
+		Path secret = Files.writeString(directory.resolve("secret.txt"), "top-secret-password");
+		String xml = "<?xml version=\"1.0\"?>\n"
+				+ "<!DOCTYPE item [<!ENTITY xxe SYSTEM \"" + secret.toUri() + "\">]>\n"
+				+ "<questestinterop><item ident=\"x\"><presentation><material><mattext>&xxe;</mattext></material>"
+				+ "<response_str ident=\"r\"/></presentation></item></questestinterop>";
+
+		try (QtiReader reader = new QtiReader(stream(xml))) {
+			assertThatThrownBy(reader::next).isInstanceOf(IOException.class)
+					.satisfies(e -> assertThat(e.getMessage()).doesNotContain("top-secret-password"));
+		}
+	}
+
+	@Test
+	void internalEntityExpansionIsRejected() throws IOException {
+		String xml = "<?xml version=\"1.0\"?>\n"
+				+ "<!DOCTYPE item [<!ENTITY a \"aaaaaaaaaa\"><!ENTITY b \"&a;&a;&a;&a;&a;&a;&a;&a;&a;&a;\">]>\n"
+				+ "<questestinterop><item ident=\"x\"><presentation><material><mattext>&b;</mattext></material>"
+				+ "<response_str ident=\"r\"/></presentation></item></questestinterop>";
+
+		try (QtiReader reader = new QtiReader(stream(xml))) {
+			assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+		}
+	}
+
+	@Test
+	void fileThatIsNotXmlIsRejected() throws IOException {
+		try (QtiReader reader = new QtiReader(stream("Question 1: what is 2 + 2?"))) {
+			assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+		}
+	}
+
+	// Questions and the format exceptions of skipped items, in file order
+	static List<Object> readAll(QuestionReader reader) throws IOException {
+		List<Object> read = new ArrayList<>();
+		try (reader) {
+			while (true) {
+				try {
+					ImportedQuestion question = reader.next();
+					if (question == null) {
+						return read;
+					}
+					read.add(question);
+				} catch (QuestionFormatException e) {
+					read.add(e);
+				}
+			}
+		}
+	}
+
+	static InputStream fixture(String name) {
+		InputStream fixture = QtiReaderTests.class.getResourceAsStream("/quiz/" + name);
+		assertThat(fixture).as(name).isNotNull();
+		return fixture;
+	}
+
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void entry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content);
+		zip.closeEntry();
+	}
+}
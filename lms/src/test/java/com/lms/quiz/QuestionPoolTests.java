@@ -0,0 +1,142 @@
+package com.lms.quiz;
+
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Variants are regenerated from the stored seed, so they must not depend on anything else.
+ */
+class QuestionPoolTests {
+
+	@Test
+	void sameSeedGivesTheSameVariantFromAFreshlyCompiledPool() {
+		for (long seed = -50; seed < 50; seed++) {
+			QuestionPool.Variant first = QuestionPool.compile(quiz(4, true, true)).variant(seed);
+			QuestionPool.Variant second = QuestionPool.compile(quiz(4, true, true)).variant(seed);
+
+			assertThat(second.questionIds()).isEqualTo(first.questionIds());
+			assertThat(second.questions()).isEqualTo(first.questions());
+		}
+	}
+
+	@Test
+	void seedsGiveDifferentVariants() {
+		QuestionPool pool = QuestionPool.compile(quiz(4, true, true));
+		Set<List<QuestionPool.Question>> variants = new HashSet<>();
+		for (long seed = 0; seed < 20; seed++) {
+			variants.add(pool.variant(seed).questions());
+		}
+
+		assertThat(variants).hasSizeGreaterThan(1);
+	}
+
+	@Test
+	void drawnQuestionsAreDistinctAndKeepTheQuizOrderUnlessShuffled() {
+		QuestionPool pool = QuestionPool.compile(quiz(4, false, false));
+		assertThat(pool.isRandomized()).isTrue();
+
+		for (long seed = 0; seed < 100; seed++) {
+			long[] ids = pool.variant(seed).questionIds();
+			assertThat(ids).hasSize(4).doesNotHaveDuplicates().isSorted();
+			assertThat(Arrays.stream(ids).allMatch(id -> id >= 1 && id <= 6)).isTrue();
+		}
+	}
+
+	@Test
+	void nullSeedGivesThePoolAsAuthored() {
+		QuestionPool pool = QuestionPool.compile(quiz(null, false, false));
+
+		assertThat(pool.isRandomized()).isFalse();
+		assertThat(pool.variant(null).questions()).isEqualTo(pool.questions());
+		assertThat(pool.variant(null).questionIds()).containsExactly(1, 2, 3, 4, 5, 6);
+	}
+
+	@Test
+	void shuffledOptionsMapToThePoolAndBack() {
+		QuestionPool pool = QuestionPool.compile(quiz(null, true, true));
+
+		for (long seed = 0; seed < 100; seed++) {
+			QuestionPool.Variant variant = pool.variant(seed);
+			for (QuestionPool.Question shown : variant.questions()) {
+				if (shown.type() != QuizQuestion.Type.MULTIPLE_CHOICE) {
+					continue;
+				}
+				List<String> authored = pool.questions().get((int) shown.id() - 1).options();
+				for (int index = 0; index < shown.options().size(); index++) {
+					String pooled = variant.toPool(Map.of(shown.id(), String.valueOf(index))).get(shown.id());
+					// The pool index names the option the student actually saw
+					assertThat(authored.get(Integer.parseInt(pooled))).isEqualTo(shown.options().get(index));
+					assertThat(variant.toShown(Map.of(shown.id(), pooled))).containsEntry(shown.id(), String.valueOf(index));
+				}
+				Map<Long, String> selected = Map.of(shown.id(), "0,2");
+				assertThat(variant.toShown(variant.toPool(selected))).isEqualTo(selected);
+			}
+		}
+	}
+
+	@Test
+	void remappingDropsAnswersOutsideTheVariant() {
+		QuestionPool.Variant variant = QuestionPool.compile(quiz(2, false, false)).variant(7L);
+		long[] drawn = variant.questionIds();
+		Map<Long, String> answers = new LinkedHashMap<>();
+		for (long id = 1; id <= 6; id++) {
+			answers.put(id, "0");
+		}
+
+		assertThat(variant.toPool(answers).keySet()).containsExactly(drawn[0], drawn[1]);
+	}
+
+	@Test
+	void remappingDropsMalformedChoicesAndPassesOtherAnswersThrough() {
+		QuestionPool.Variant variant = QuestionPool.compile(quiz(null, false, true)).variant(7L);
+		Map<Long, String> answers = new LinkedHashMap<>();
+		answers.put(1L, "4");
+		answers.put(2L, "a");
+		answers.put(3L, "0,-1");
+		answers.put(5L, "true");
+		answers.put(6L, "Paris");
+
+		assertThat(variant.toPool(answers)).containsExactly(Map.entry(5L, "true"), Map.entry(6L, "Paris"));
+		assertThat(variant.toShown(answers)).containsExactly(Map.entry(5L, "true"), Map.entry(6L, "Paris"));
+	}
+
+	// Questions 1 to 4 are multiple choice with four options, 5 is true/false and 6 short answer
+	private static Quiz quiz(Integer drawCount, boolean shuffleQuestions, boolean shuffleOptions) {
+		Quiz quiz = new Quiz();
+		quiz.setId(1L);
+		quiz.setDrawCount(drawCount);
+		quiz.setShuffleQuestions(shuffleQuestions);
+		quiz.setShuffleOptions(shuffleOptions);
+		List<QuizQuestion> questions = new ArrayList<>();
+		for (long id = 1; id <= 4; id++) {
+			QuizQuestion question = question(id, QuizQuestion.Type.MULTIPLE_CHOICE);
+			for (char option = 'A'; option <= 'D'; option++) {
+				question.getOptions().add(new QuizQuestion.Option("Q" + id + option, option == 'B'));
+			}
+			questions.add(question);
+		}
+		questions.add(question(5, QuizQuestion.Type.TRUE_FALSE));
+		questions.add(question(6, QuizQuestion.Type.SHORT_ANSWER));
+		quiz.setQuestions(questions);
+		return quiz;
+	}
+
+	private static QuizQuestion question(long id, QuizQuestion.Type type) {
+		QuizQuestion question = new QuizQuestion();
+		question.setId(id);
+		question.setType(type);
+		question.setText("Question " + id);
+		return question;
+	}
+}
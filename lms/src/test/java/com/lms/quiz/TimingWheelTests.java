@@ -0,0 +1,156 @@
+package com.lms.quiz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the wheel with synthetic clock values. A wheel of 4 one-second slots has levels of
+ * 1, 4, 16 and 64 ticks, so 256 ticks ahead is already past the top level.
+ */
+class TimingWheelTests {
+
+	private static final long TICK = 1000;
+	private static final int SLOTS = 4;
+
+	@Test
+	void deadlineInTheCurrentTickOrEarlierIsNotScheduled() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 10_500);
+
+		assertThat(wheel.add(1, 10_000)).isFalse();
+		assertThat(wheel.add(2, 9_999)).isFalse();
+		assertThat(wheel.add(3, 10_001)).isTrue();
+		assertThat(wheel.size()).isEqualTo(1);
+	}
+
+	@Test
+	void entryOnASlotBoundaryExpiresInThatTick() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 0);
+		List<Long> expired = new ArrayList<>();
+		wheel.add(1, 2_000);
+
+		wheel.advance(1_999, (id, deadline) -> expired.add(id));
+		assertThat(expired).isEmpty();
+
+		wheel.advance(2_000, (id, deadline) -> expired.add(id));
+		assertThat(expired).containsExactly(1L);
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void entryIsRoundedUpToTheNextTickAndNeverExpiresEarly() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 0);
+		List<Long> expired = new ArrayList<>();
+		wheel.add(1, 2_001);
+
+		wheel.advance(2_999, (id, deadline) -> expired.add(id));
+		assertThat(expired).isEmpty();
+
+		wheel.advance(3_000, (id, deadline) -> expired.add(id));
+		assertThat(expired).containsExactly(1L);
+	}
+
+	@Test
+	void entriesCascadeDownEachLevelAndExpireOnTime() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 0);
+		// Levels 1, 2 and 3, each crossing slot boundaries on the way down
+		long[] deadlines = {5_000, 17_000, 50_000, 63_000, 64_000, 200_000};
+		for (int i = 0; i < deadlines.length; i++) {
+			wheel.add(i, deadlines[i]);
+		}
+
+		Map<Long, Long> expiredAt = stepThrough(wheel, 0, 256);
+
+		assertThat(expiredAt).hasSize(deadlines.length);
+		for (int i = 0; i < deadlines.length; i++) {
+			assertThat(expiredAt.get((long) i)).as("entry %d", i).isEqualTo(deadlines[i] / TICK);
+		}
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void entryPastTheTopLevelParksAndIsPlacedAgain() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 0);
+		wheel.add(1, 1_000_000);
+		wheel.add(2, 300_000);
+
+		Map<Long, Long> expiredAt = stepThrough(wheel, 0, 1_100);
+
+		assertThat(expiredAt).containsEntry(1L, 1_000L).containsEntry(2L, 300L).hasSize(2);
+	}
+
+	@Test
+	void clockJumpIsCaughtUpInDeadlineOrder() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 0);
+		long[] deadlines = {90_000, 3_000, 250_000, 17_000, 1_000, 64_000};
+		for (int i = 0; i < deadlines.length; i++) {
+			wheel.add(i, deadlines[i]);
+		}
+		List<Long> order = new ArrayList<>();
+
+		wheel.advance(100_000, (id, deadline) -> order.add(deadline));
+		assertThat(order).containsExactly(1_000L, 3_000L, 17_000L, 64_000L, 90_000L);
+		assertThat(wheel.size()).isEqualTo(1);
+
+		wheel.advance(1_000_000, (id, deadline) -> order.add(deadline));
+		assertThat(order).endsWith(250_000L);
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void clockGoingBackwardsExpiresNothing() {
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, 10_000);
+		wheel.add(1, 12_000);
+		List<Long> expired = new ArrayList<>();
+
+		wheel.advance(5_000, (id, deadline) -> expired.add(id));
+		wheel.advance(11_000, (id, deadline) -> expired.add(id));
+		assertThat(expired).isEmpty();
+
+		wheel.advance(12_000, (id, deadline) -> expired.add(id));
+		assertThat(expired).containsExactly(1L);
+	}
+
+	@Test
+	void randomDeadlinesExpireInTheirOwnTick() {
+		Random random = new Random(42);
+		long start = 7_300;
+		TimingWheel wheel = new TimingWheel(TICK, SLOTS, start);
+		Map<Long, Long> expected = new HashMap<>();
+		for (long id = 0; id < 2_000; id++) {
+			long deadline = start + 1 + random.nextInt(600_000);
+			assertThat(wheel.add(id, deadline)).isTrue();
+			expected.put(id, Math.floorDiv(deadline + TICK - 1, TICK));
+		}
+
+		Map<Long, Long> expiredAt = stepThrough(wheel, start / TICK, 610);
+
+		assertThat(expiredAt).isEqualTo(expected);
+	}
+
+	@Test
+	void rejectsDegenerateWheels() {
+		assertThatThrownBy(() -> new TimingWheel(0, SLOTS, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TimingWheel(TICK, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	// Advances one tick at a time and records the tick each entry expired in
+	private static Map<Long, Long> stepThrough(TimingWheel wheel, long fromTick, int ticks) {
+		Map<Long, Long> expiredAt = new HashMap<>();
+		for (long tick = fromTick + 1; tick <= fromTick + ticks; tick++) {
+			long now = tick;
+			wheel.advance(now * TICK, (id, deadline) -> {
+				assertThat(now * TICK).as("entry %d expired early", id).isGreaterThanOrEqualTo(deadline);
+				assertThat(expiredAt.put(id, now)).as("entry %d expired twice", id).isNull();
+			});
+		}
+		return expiredAt;
+	}
+}
@@ -0,0 +1,223 @@
+package com.lms.service;
+
+import com.lms.dto.GradebookDto;
+import com.lms.entity.Assignment;
+import com.lms.entity.Course;
+import com.lms.entity.Enrollment;
+import com.lms.entity.Submission;
+import com.lms.entity.User;
+import com.lms.repository.AssignmentRepository;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.SubmissionRepository;
+import com.lms.repository.UserRepository;
+import com.lms.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The gradebook of a small course: rows by student name, columns by due date, and each cell's
+ * latest submission.
+ */
+@SpringBootTest
+class GradebookServiceTests {
+
+	@Autowired
+	private GradebookService gradebookService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private SubmissionRepository submissionRepository;
+
+	private User teacher;
+
+	@BeforeEach
+	void setUp() {
+		teacher = user("Gradebook Teacher", User.Role.TEACHER);
+		signIn(teacher);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void gridFollowsRosterAndDueDateOrderWithTheLatestSubmissionPerCell() {
+		Course course = course(teacher);
+		User carol = enrolled(course, "Carol");
+		User alice = enrolled(course, "Alice");
+		User bob = enrolled(course, "Bob");
+		// Submitted, then left the course
+		User dave = user("Dave", User.Role.STUDENT);
+		Assignment essay = assignment(course, "Essay", 100, 14);
+		Assignment quizReview = assignment(course, "Quiz review", 20, 7);
+
+		submission(alice, quizReview, 18);
+		submission(alice, essay, 90);
+		submission(bob, quizReview, null);
+		submission(carol, essay, 40);
+		// Resubmitted after grading: the new attempt is not graded yet
+		submission(carol, essay, null);
+		submission(dave, quizReview, 5);
+
+		GradebookDto gradebook = gradebookService.getGradebook(course.getId());
+
+		assertThat(gradebook.studentNames()).containsExactly("Alice", "Bob", "Carol");
+		assertThat(gradebook.studentIds()).containsExactly(alice.getId(), bob.getId(), carol.getId());
+		assertThat(gradebook.assignmentTitles()).containsExactly("Quiz review", "Essay");
+		assertThat(gradebook.assignmentIds()).containsExactly(quizReview.getId(), essay.getId());
+		assertThat(gradebook.maxPoints()).containsExactly(20, 100);
+
+		// Row-major: Alice, Bob, Carol by Quiz review, Essay
+		assertThat(gradebook.grades()).containsExactly(18, 90, 0, 0, 0, 0);
+		assertThat(cells(gradebook.submitted(), 6)).isEqualTo("111001");
+		assertThat(cells(gradebook.graded(), 6)).isEqualTo("110000");
+
+		GradebookDto.ColumnStats stats = gradebook.stats();
+		assertThat(stats.submittedCount()).containsExactly(2, 2);
+		assertThat(stats.gradedCount()).containsExactly(1, 1);
+		assertThat(stats.mean()).containsExactly(18.0, 90.0);
+		assertThat(stats.median()).containsExactly(18.0, 90.0);
+	}
+
+	@Test
+	void columnWithoutGradesHasZeroStats() {
+		Course course = course(teacher);
+		User alice = enrolled(course, "Alice");
+		User bob = enrolled(course, "Bob");
+		Assignment lab = assignment(course, "Lab", 10, 1);
+		assignment(course, "Project", 50, 30);
+		submission(alice, lab, 6);
+		submission(bob, lab, 9);
+
+		GradebookDto.ColumnStats stats = gradebookService.getGradebook(course.getId()).stats();
+
+		assertThat(stats.gradedCount()).containsExactly(2, 0);
+		assertThat(stats.min()).containsExactly(6, 0);
+		assertThat(stats.max()).containsExactly(9, 0);
+		assertThat(stats.mean()).containsExactly(7.5, 0.0);
+		assertThat(stats.median()).containsExactly(7.5, 0.0);
+	}
+
+	@Test
+	void emptyCourseHasAnEmptyGrid() {
+		Course course = course(teacher);
+
+		GradebookDto gradebook = gradebookService.getGradebook(course.getId());
+
+		assertThat(gradebook.studentIds()).isEmpty();
+		assertThat(gradebook.assignmentIds()).isEmpty();
+		assertThat(gradebook.grades()).isEmpty();
+		assertThat(gradebook.submitted()).isEmpty();
+		assertThat(gradebook.stats().submittedCount()).isEmpty();
+	}
+
+	@Test
+	void rosterWithoutAssignmentsHasNoColumns() {
+		Course course = course(teacher);
+		enrolled(course, "Alice");
+
+		GradebookDto gradebook = gradebookService.getGradebook(course.getId());
+
+		assertThat(gradebook.studentNames()).containsExactly("Alice");
+		assertThat(gradebook.assignmentIds()).isEmpty();
+		assertThat(gradebook.grades()).isEmpty();
+	}
+
+	@Test
+	void onlyTheInstructorSeesTheGradebook() {
+		Course course = course(teacher);
+		signIn(user("Other Teacher", User.Role.TEACHER));
+
+		assertThatThrownBy(() -> gradebookService.getGradebook(course.getId()))
+				.isInstanceOf(SecurityException.class);
+	}
+
+	// Set bits of the bitmap's first cells, least significant first
+	private static String cells(byte[] bitmap, int count) {
+		StringBuilder bits = new StringBuilder(count);
+		for (int cell = 0; cell < count; cell++) {
+			bits.append((bitmap[cell >>> 3] & (1 << (cell & 7))) != 0 ? '1' : '0');
+		}
+		return bits.toString();
+	}
+
+	private Course course(User instructor) {
+		Course course = new Course();
+		course.setTitle("Gradebook Course");
+		course.setDescription("Graded work");
+		course.setCategory("Science");
+		course.setDuration("8 weeks");
+		course.setInstructor(instructor);
+		return courseRepository.saveAndFlush(course);
+	}
+
+	private User enrolled(Course course, String name) {
+		User student = user(name, User.Role.STUDENT);
+		Enrollment enrollment = new Enrollment();
+		enrollment.setStudent(student);
+		enrollment.setCourse(course);
+		enrollment.setEnrolledAt(LocalDateTime.now());
+		enrollmentRepository.saveAndFlush(enrollment);
+		return student;
+	}
+
+	private Assignment assignment(Course course, String title, int maxPoints, int dueInDays) {
+		Assignment assignment = new Assignment();
+		assignment.setTitle(title);
+		assignment.setDescription(title);
+		assignment.setMaxPoints(maxPoints);
+		assignment.setDueDate(LocalDateTime.now().plusDays(dueInDays));
+		assignment.setCourse(course);
+		assignment.setCreatedBy(teacher);
+		return assignmentRepository.saveAndFlush(assignment);
+	}
+
+	private void submission(User student, Assignment assignment, Integer grade) {
+		Submission submission = new Submission();
+		submission.setStudent(student);
+		submission.setAssignment(assignment);
+		submission.setContent("Work");
+		submission.setGraded(grade != null);
+		submission.setGrade(grade);
+		submissionRepository.saveAndFlush(submission);
+	}
+
+	private User user(String name, User.Role role) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail("gradebook-" + UUID.randomUUID() + "@lms.test");
+		user.setPassword("secret");
+		user.setRole(role);
+		return userRepository.saveAndFlush(user);
+	}
+
+	private static void signIn(User user) {
+		UserPrincipal principal = UserPrincipal.create(user);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
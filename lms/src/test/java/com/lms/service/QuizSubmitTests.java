@@ -0,0 +1,149 @@
+package com.lms.service;
+
+import com.lms.dto.QuizAttemptDto;
+import com.lms.entity.Course;
+import com.lms.entity.Enrollment;
+import com.lms.entity.Quiz;
+import com.lms.entity.QuizAttempt;
+import com.lms.entity.QuizQuestion;
+import com.lms.entity.User;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.QuizAttemptRepository;
+import com.lms.repository.QuizRepository;
+import com.lms.repository.UserRepository;
+import com.lms.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A timed attempt is scored once: neither a second submit nor one racing the deadline rescores it.
+ */
+@SpringBootTest
+class QuizSubmitTests {
+
+	@Autowired
+	private QuizService quizService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private QuizRepository quizRepository;
+
+	@Autowired
+	private QuizAttemptRepository quizAttemptRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Quiz quiz;
+
+	@BeforeEach
+	void setUp() {
+		User teacher = user("Quiz Teacher", User.Role.TEACHER);
+		User student = user("Quiz Student", User.Role.STUDENT);
+
+		Course course = new Course();
+		course.setTitle("Quiz Course");
+		course.setDescription("Timed quizzes");
+		course.setCategory("Science");
+		course.setDuration("4 weeks");
+		course.setInstructor(teacher);
+		course = courseRepository.saveAndFlush(course);
+
+		Enrollment enrollment = new Enrollment();
+		enrollment.setStudent(student);
+		enrollment.setCourse(course);
+		enrollment.setEnrolledAt(LocalDateTime.now());
+		enrollmentRepository.saveAndFlush(enrollment);
+
+		quiz = new Quiz();
+		quiz.setCourse(course);
+		quiz.setTitle("Timed Quiz");
+		quiz.setTimeLimit(10);
+		quiz.setStatus(Quiz.Status.PUBLISHED);
+		quiz.setCreatedBy(teacher);
+		QuizQuestion question = new QuizQuestion();
+		question.setQuiz(quiz);
+		question.setSortOrder(0);
+		question.setType(QuizQuestion.Type.TRUE_FALSE);
+		question.setText("Water boils at 100 degrees Celsius at sea level");
+		question.setAnswer("true");
+		quiz.getQuestions().add(question);
+		quiz = quizRepository.saveAndFlush(quiz);
+
+		UserPrincipal principal = UserPrincipal.create(student);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void secondSubmitIsRejectedAndKeepsTheFirstScore() {
+		QuizAttemptDto started = quizService.startAttempt(quiz.getId());
+
+		QuizAttemptDto submitted = quizService.submitAttempt(quiz.getId(), answer("true"));
+		assertThat(submitted.getPassed()).isTrue();
+
+		assertThatThrownBy(() -> quizService.submitAttempt(quiz.getId(), answer("false")))
+				.isInstanceOf(RuntimeException.class);
+		QuizAttempt attempt = quizAttemptRepository.findById(started.getId()).orElseThrow();
+		assertThat(attempt.getStatus()).isEqualTo(QuizAttempt.Status.SUBMITTED);
+		assertThat(attempt.getCorrectAnswers()).isEqualTo(1);
+		assertThat(attempt.getPassed()).isTrue();
+	}
+
+	@Test
+	void submitLosingTheRaceChangesNothing() {
+		Long attemptId = quizService.startAttempt(quiz.getId()).getId();
+		LocalDateTime now = LocalDateTime.now();
+
+		Integer first = transactionTemplate.execute(status ->
+				quizAttemptRepository.submit(attemptId, "{}", now, 0, 1, 0, 1, false, 0));
+		Integer second = transactionTemplate.execute(status ->
+				quizAttemptRepository.submit(attemptId, "{}", now, 1, 1, 1, 1, true, 0));
+
+		assertThat(first).isEqualTo(1);
+		assertThat(second).isZero();
+		QuizAttempt attempt = quizAttemptRepository.findById(attemptId).orElseThrow();
+		assertThat(attempt.getScore()).isZero();
+		assertThat(attempt.getPassed()).isFalse();
+	}
+
+	private Map<String, Object> answer(String value) {
+		return Map.of(String.valueOf(quiz.getQuestions().get(0).getId()), value);
+	}
+
+	private User user(String name, User.Role role) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail("quiz-" + UUID.randomUUID() + "@lms.test");
+		user.setPassword("secret");
+		user.setRole(role);
+		return userRepository.saveAndFlush(user);
+	}
+}
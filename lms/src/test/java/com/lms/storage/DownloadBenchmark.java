@@ -0,0 +1,165 @@
+package com.lms.storage;
+
+import com.lms.security.DownloadUrlSigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Throughput of concurrent large downloads through {@code /api/files/download}. Writes a synthetic
+ * file into the notes directory, then has {@code lms.benchmark.download.clients} clients fetch it
+ * over loopback, first whole and then as random byte ranges, and logs aggregate MB/s and latency
+ * percentiles for each.
+ *
+ * Compare runs with {@code lms.download.sendfile=true} (the default) and {@code false} to see what
+ * sendfile saves over transferring into the servlet stream.
+ *
+ * Fetches through a signed link, as clients do. Run it against a scratch environment. It lives in
+ * the test sources so it never ships; start it with the test classpath:
+ * {@code mvn spring-boot:test-run -Dspring-boot.run.profiles=download-benchmark}.
+ */
+@Slf4j
+@Component
+@Profile("download-benchmark")
+public class DownloadBenchmark implements CommandLineRunner {
+
+    private final UploadPipeline uploadPipeline;
+    private final DownloadUrlSigner downloadUrlSigner;
+    private final Environment environment;
+    private final long fileSize;
+    private final int clients;
+    private final int requestsPerClient;
+    private final long rangeSize;
+
+    public DownloadBenchmark(UploadPipeline uploadPipeline,
+                             DownloadUrlSigner downloadUrlSigner,
+                             Environment environment,
+                             @Value("${lms.benchmark.download.file-size:256MB}") DataSize fileSize,
+                             @Value("${lms.benchmark.download.clients:16}") int clients,
+                             @Value("${lms.benchmark.download.requests-per-client:8}") int requestsPerClient,
+                             @Value("${lms.benchmark.download.range-size:1MB}") DataSize rangeSize) {
+        this.uploadPipeline = uploadPipeline;
+        this.downloadUrlSigner = downloadUrlSigner;
+        this.environment = environment;
+        this.fileSize = fileSize.toBytes();
+        this.clients = clients;
+        this.requestsPerClient = requestsPerClient;
+        this.rangeSize = rangeSize.toBytes();
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Path file = seed();
+        try {
+            String url = "http://localhost:" + environment.getProperty("local.server.port", "8080")
+                    + downloadUrlSigner.sign("/api/files/download/" + UploadCategory.NOTES.getDirectory() + "/"
+                    + file.getFileName());
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            run("full", client, i -> HttpRequest.newBuilder(URI.create(url)));
+            run("range", client, i -> {
+                long start = ThreadLocalRandom.current().nextLong(Math.max(1, fileSize - rangeSize));
+                return HttpRequest.newBuilder(URI.create(url))
+                        .header("Range", "bytes=" + start + "-" + (start + rangeSize - 1));
+            });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void run(String label, HttpClient client, IntFunction<HttpRequest.Builder> request)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            // One warm-up pass so the file is in the page cache and connections are open
+            client.send(request.apply(0).build(), HttpResponse.BodyHandlers.discarding());
+
+            long started = System.nanoTime();
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                results.add(pool.submit(() -> {
+                    long[] samples = new long[requestsPerClient * 2]; // latency, bytes
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<InputStream> response = client.send(
+                                request.apply(r).build(),
+                                HttpResponse.BodyHandlers.ofInputStream());
+                        samples[r * 2 + 1] = drain(response.body());
+                        samples[r * 2] = System.nanoTime() - t0;
+                    }
+                    return samples;
+                }));
+            }
+
+            long bytes = 0;
+            long[] latencies = new long[clients * requestsPerClient];
+            int n = 0;
+            for (Future<long[]> result : results) {
+                long[] samples = result.get();
+                for (int i = 0; i < samples.length; i += 2) {
+                    latencies[n++] = samples[i];
+                    bytes += samples[i + 1];
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            Arrays.sort(latencies);
+            log.info("[{}] {} clients x {} requests: {} MB in {} s = {} MB/s, latency p50 {} ms, p99 {} ms",
+                    label, clients, requestsPerClient, bytes >> 20, String.format("%.2f", seconds),
+                    String.format("%.1f", (bytes >> 20) / seconds),
+                    latencies[latencies.length / 2] / 1_000_000,
+                    latencies[Math.min(latencies.length - 1, latencies.length * 99 / 100)] / 1_000_000);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long drain(InputStream body) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (body) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    private Path seed() throws IOException {
+        Path file = Files.createTempFile(uploadPipeline.directory(UploadCategory.NOTES), "download-benchmark-", ".bin");
+        ByteBuffer block = ByteBuffer.allocate(1 << 20);
+        ThreadLocalRandom.current().nextBytes(block.array());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (long written = 0; written < fileSize; ) {
+                block.clear().limit((int) Math.min(block.capacity(), fileSize - written));
+                written += channel.write(block);
+            }
+        }
+        log.info("Seeded {} ({} MB)", file, fileSize >> 20);
+        return file;
+    }
+}
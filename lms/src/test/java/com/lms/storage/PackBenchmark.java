@@ -0,0 +1,159 @@
+package com.lms.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Backup time and random-read latency of blobs as individual files and after packing. Seeds
+ * {@code lms.benchmark.pack.files} blobs of random size in a scratch directory, half text-like and
+ * half incompressible, then for each layout
+ * <ul>
+ *   <li>copies every file under the blob directory to a null sink, one file at a time, the way a
+ *       file-level backup (rsync, tar) walks it, and logs files, MB and seconds;</li>
+ *   <li>reads {@code lms.benchmark.pack.reads} random blobs in full through
+ *       {@link LocalBlobStore#open} and logs latency percentiles.</li>
+ * </ul>
+ *
+ * The page cache is warm for both layouts; seed more data than fits in RAM for cold-read numbers.
+ * Touches nothing outside the scratch directory. It lives in the test sources so it never ships;
+ * start it with the test classpath:
+ * {@code mvn spring-boot:test-run -Dspring-boot.run.profiles=pack-benchmark}.
+ */
+@Slf4j
+@Component
+@Profile("pack-benchmark")
+public class PackBenchmark implements CommandLineRunner {
+
+    private final int files;
+    private final long minSize;
+    private final long maxSize;
+    private final int reads;
+    private final DataSize maxPackSize;
+
+    public PackBenchmark(@Value("${lms.benchmark.pack.files:20000}") int files,
+                         @Value("${lms.benchmark.pack.min-size:4KB}") DataSize minSize,
+                         @Value("${lms.benchmark.pack.max-size:256KB}") DataSize maxSize,
+                         @Value("${lms.benchmark.pack.reads:2000}") int reads,
+                         @Value("${lms.storage.pack.max-size:1GB}") DataSize maxPackSize) {
+        this.files = files;
+        this.minSize = minSize.toBytes();
+        this.maxSize = maxSize.toBytes();
+        this.reads = reads;
+        this.maxPackSize = maxPackSize;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Path root = Files.createTempDirectory("pack-benchmark-");
+        try {
+            BlobPackStore packs = new BlobPackStore(root.toString(), maxPackSize);
+            packs.load();
+            LocalBlobStore store = new LocalBlobStore(root.toString(), false, packs);
+            List<String> keys = seed(store, root);
+
+            backup("files", root.resolve("blobs"));
+            read("files", store, keys);
+
+            long started = System.nanoTime();
+            for (String sha256 : keys) {
+                packs.append(sha256, store.path(sha256));
+            }
+            packs.sync();
+            for (String sha256 : keys) {
+                Files.delete(store.path(sha256));
+            }
+            log.info("[pack] {} blobs packed in {} s", keys.size(), seconds(started));
+
+            backup("packs", root.resolve("blobs"));
+            read("packs", store, keys);
+            packs.close();
+        } finally {
+            FileSystemUtils.deleteRecursively(root);
+        }
+    }
+
+    private List<String> seed(LocalBlobStore store, Path root) throws IOException, NoSuchAlgorithmException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] words = "the assignment submission essay answer lecture notes course week figure table ".repeat(64)
+                .getBytes(StandardCharsets.US_ASCII);
+        List<String> keys = new ArrayList<>(files);
+        long bytes = 0;
+        for (int i = 0; i < files; i++) {
+            byte[] content = new byte[(int) random.nextLong(minSize, maxSize + 1)];
+            if (i % 2 == 0) {
+                random.nextBytes(content);
+            } else {
+                for (int at = 0; at < content.length; at += 64) {
+                    int from = random.nextInt(words.length - 64);
+                    System.arraycopy(words, from, content, at, Math.min(64, content.length - at));
+                }
+            }
+            String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            Path staged = Files.write(root.resolve("staged"), content);
+            store.put(sha256, staged);
+            keys.add(sha256);
+            bytes += content.length;
+        }
+        log.info("Seeded {} blobs ({} MB)", keys.size(), bytes >> 20);
+        return keys;
+    }
+
+    private void backup(String label, Path directory) throws IOException {
+        long started = System.nanoTime();
+        long[] totals = new long[2]; // files, bytes
+        try (Stream<Path> paths = Files.walk(directory); OutputStream sink = OutputStream.nullOutputStream()) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(path)) {
+                    try (InputStream in = Files.newInputStream(path)) {
+                        totals[1] += in.transferTo(sink);
+                    }
+                    totals[0]++;
+                }
+            }
+        }
+        log.info("[{}] backup: {} files, {} MB in {} s", label, totals[0], totals[1] >> 20, seconds(started));
+    }
+
+    private void read(String label, LocalBlobStore store, List<String> keys) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] latencies = new long[reads];
+        WritableByteChannel sink = Channels.newChannel(OutputStream.nullOutputStream());
+        for (int i = 0; i < reads; i++) {
+            String sha256 = keys.get(random.nextInt(keys.size()));
+            long t0 = System.nanoTime();
+            StoredContent content = store.open(sha256);
+            content.writeTo(0, content.length(), sink);
+            latencies[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(latencies);
+        log.info("[{}] {} random reads: p50 {} us, p99 {} us, max {} us", label, reads,
+                latencies[reads / 2] / 1_000, latencies[Math.min(reads - 1, reads * 99 / 100)] / 1_000,
+                latencies[reads - 1] / 1_000);
+    }
+
+    private static String seconds(long started) {
+        return String.format("%.2f", (System.nanoTime() - started) / 1e9);
+    }
+}
@@ -3,7 +3,7 @@ import React, { useState, useEffect } from 'react';
 import { Container, Row, Col, Card, Button, Badge, ProgressBar, Tabs, Tab, Alert, Modal, Form } from 'react-bootstrap';
 import { useParams, Link } from 'react-router-dom';
 import { useAuth } from '../../contexts/AuthContext';
-import { apiService } from '../../services/api';
+import { apiService, attachmentDownloadUrl } from '../../services/api';
 
 const CourseDetail = () => {
   const { id } = useParams();
@@ -111,10 +111,10 @@ const CourseDetail = () => {
     return parseFloat((bytes / Math.pow(k, i)).toFixed(2)) + ' ' + sizes[i];
   };
 
-  const downloadFile = (attachmentUrl, fileName) => {
-    if (attachmentUrl) {
-      const fileId = attachmentUrl.split('/').pop();
-      window.location.href = `${apiService.defaults.baseURL}/files/download/assignments/${fileId}`;
+  const downloadFile = (item) => {
+    const url = attachmentDownloadUrl(item);
+    if (url) {
+      window.location.href = url;
     } else {
       setError('No file available for download');
     }
@@ -488,7 +488,7 @@ const CourseDetail = () => {
                       <Button
                         variant="primary"
                         size="sm"
-                        onClick={() => downloadFile(selectedAssignment.attachmentUrl, selectedAssignment.attachmentName)}
+                        onClick={() => downloadFile(selectedAssignment)}
                       >
                         <i className="bi bi-download me-1"></i>
                         Download File
@@ -572,7 +572,7 @@ const CourseDetail = () => {
                       <Button
                         variant="outline-primary"
                         size="sm"
-                        onClick={() => downloadFile(selectedAssignment.attachmentUrl, selectedAssignment.attachmentName)}
+                        onClick={() => downloadFile(selectedAssignment)}
                       >
                         Download
                       </Button>
@@ -671,7 +671,7 @@ const CourseDetail = () => {
                       <Button
                         variant="outline-primary"
                         size="sm"
-                        onClick={() => downloadFile(selectedAssignment.attachmentUrl, selectedAssignment.attachmentName)}
+                        onClick={() => downloadFile(selectedAssignment)}
                       >
                         Download
                       </Button>
@@ -770,7 +770,7 @@ const CourseDetail = () => {
                       <Button
                         variant="outline-primary"
                         size="sm"
-                        onClick={() => downloadFile(selectedAssignment.attachmentUrl, selectedAssignment.attachmentName)}
+                        onClick={() => downloadFile(selectedAssignment)}
                       >
                         Download
                       </Button>
@@ -806,10 +806,7 @@ const CourseDetail = () => {
                           <Button
                             variant="outline-primary"
                             size="sm"
-                            onClick={() => downloadFile(
-                              getSubmission(selectedAssignment.id).attachmentUrl,
-                              getSubmission(selectedAssignment.id).attachmentName
-                            )}
+                            onClick={() => downloadFile(getSubmission(selectedAssignment.id))}
                           >
                             Download
                           </Button>
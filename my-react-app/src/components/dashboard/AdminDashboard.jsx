@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { Container, Row, Col, Card, Table, Button, Badge, Spinner, Alert, Pagination } from 'react-bootstrap';
 import { Link } from 'react-router-dom';
 import { apiService } from '../../services/api';
+import { subscribeDashboardStream } from '../../services/dashboardStream';
 
 const AdminDashboard = () => {
   const [stats, setStats] = useState({
@@ -277,12 +278,36 @@ const AdminDashboard = () => {
   useEffect(() => {
     loadDashboardData();
 
-    // Auto-refresh every 30 seconds
-    const interval = setInterval(() => {
-      loadDashboardData(true); // Silent refresh
-    }, 30000);
+    // Live counters pushed by the server instead of polling every 30 seconds
+    const applyCounters = (counters, isSnapshot) => {
+      setStats(prev => {
+        const next = { ...prev };
+        Object.keys(counters).forEach(key => {
+          if (key in next) next[key] = counters[key];
+        });
+        return next;
+      });
+      setLastUpdate(Date.now());
+      setRefreshCount(prev => prev + 1);
+      setDataSource('Live');
+
+      // User and course lists only need reloading when their counts actually moved
+      const listChanged = ['totalUsers', 'totalStudents', 'totalTeachers', 'totalCourses']
+        .some(key => key in counters);
+      if (!isSnapshot && listChanged) {
+        loadDashboardData(true);
+      }
+    };
+
+    const unsubscribe = subscribeDashboardStream('/dashboard/admin/stream', {
+      onSnapshot: counters => applyCounters(counters, true),
+      onDelta: counters => applyCounters(counters, false),
+      onStatus: status => {
+        if (status === 'reconnecting') setDataSource('Reconnecting');
+      }
+    });
 
-    return () => clearInterval(interval);
+    return unsubscribe;
   }, []);
 
   const triggerRefresh = () => {
@@ -1041,7 +1066,7 @@ const AdminDashboard = () => {
         <Col>
           <div className="text-center">
             <small className="text-muted">
-              Dashboard auto-refreshes every 30 seconds • Last update: {formatDate(lastUpdate)}
+              Dashboard updates live • Last update: {formatDate(lastUpdate)}
             </small>
             <br />
             <small className="text-muted">
@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { Container, Row, Col, Card, Table, Button, Badge, Alert, Spinner, Modal, Form } from 'react-bootstrap';
 import { useAuth } from '../../contexts/AuthContext';
 import { apiService } from '../../services/api';
+import { subscribeDashboardStream } from '../../services/dashboardStream';
 
 // Validation helper function
 const validateAssignmentForm = (form) => {
@@ -411,9 +412,30 @@ const TeacherDashboard = () => {
     if (user && user.role === 'TEACHER') {
       console.log('🎯 Teacher user detected, loading dashboard...');
       loadTeacherDashboard();
-      
-      const interval = setInterval(loadTeacherDashboard, 30000);
-      return () => clearInterval(interval);
+
+      // Enrollment counters are pushed by the server instead of polling every 30 seconds
+      const applySummary = (summary, isSnapshot) => {
+        const courseStudents = summary.courseStudents || {};
+        setDashboardData(prev => ({
+          ...prev,
+          studentsCount: summary.studentsCount ?? prev.studentsCount,
+          courses: prev.courses.map(course =>
+            String(course.id) in courseStudents
+              ? { ...course, students: courseStudents[String(course.id)] }
+              : course
+          )
+        }));
+
+        // A course was added or removed: the course-derived lists need a full reload
+        if (!isSnapshot && 'coursesCount' in summary) {
+          loadTeacherDashboard();
+        }
+      };
+
+      return subscribeDashboardStream('/dashboard/teacher/stream', {
+        onSnapshot: summary => applySummary(summary, true),
+        onDelta: summary => applySummary(summary, false)
+      });
     }
   }, [user]);
 
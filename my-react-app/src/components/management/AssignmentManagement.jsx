@@ -4,7 +4,7 @@ import {
   Container, Row, Col, Card, Button, Form, Table, Badge,
   Alert, Modal, ProgressBar, Spinner
 } from 'react-bootstrap';
-import { apiService } from '../../services/api';
+import { apiService, attachmentDownloadUrl } from '../../services/api';
 import { useAuth } from '../../contexts/AuthContext';
 import { triggerDashboardRefresh } from '../../services/dashboardService';
 
@@ -113,7 +113,7 @@ const AssignmentManagement = () => {
     try {
       const res = await apiService.fileUpload.upload(file, (progress) => setUploadProgress(progress));
       setIsUploading(false);
-      return res.data.fileId || res.data.filename;
+      return res.data.fileId;
     } catch (err) {
       setIsUploading(false);
       throw err;
@@ -139,19 +139,17 @@ const AssignmentManagement = () => {
         courseId: parseInt(formData.courseId),
         dueDate: formData.dueDate,
         maxPoints: parseInt(formData.maxPoints),
-        ...(fileId && {
-          attachmentUrl: `/uploads/${fileId}`,
-          attachmentName: formData.file.name,
-          attachmentSize: formData.file.size,
-          attachmentType: formData.file.type
-        })
+        // Attaches the file uploaded above; only its uploader can, once
+        ...(fileId && { uploadId: fileId })
       };
+      const body = new FormData();
+      body.append('data', new Blob([JSON.stringify(payload)], { type: 'application/json' }));
 
       if (formData.id) {
-        await apiService.put(`/assignments/${formData.id}`, payload);
+        await apiService.put(`/assignments/${formData.id}`, body);
         setSuccess('Assignment updated successfully!');
       } else {
-        await apiService.post('/assignments', payload);
+        await apiService.post('/assignments', body);
         setSuccess('Assignment created successfully!');
         triggerDashboardRefresh();
       }
@@ -424,7 +422,7 @@ const AssignmentManagement = () => {
                         <td>{formatDate(sub.submitted_at || sub.submittedAt)}</td>
                         <td>
                           {sub.attachment_url && (
-                            <a href={`/api/files/download${sub.attachment_url}`} target="_blank" rel="noreferrer">
+                            <a href={attachmentDownloadUrl(sub)} target="_blank" rel="noreferrer">
                               Download
                             </a>
                           )}
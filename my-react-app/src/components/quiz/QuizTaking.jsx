@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { Container, Card, Button, Form, ProgressBar, Alert } from 'react-bootstrap';
 import { quizzesAPI } from '../../services/api';
 
@@ -9,6 +9,15 @@ const QuizTaking = ({ quizId }) => {
   const [timeLeft, setTimeLeft] = useState(0);
   const [submitted, setSubmitted] = useState(false);
   const [score, setScore] = useState(null);
+  const [attemptId, setAttemptId] = useState(null);
+  const unsaved = useRef({});
+
+  // Saved answers come back as strings: option indices and true/false are turned back into values
+  const restoreAnswer = (value) => {
+    if (/^\d+$/.test(value)) return Number(value);
+    if (value === 'true' || value === 'false') return value === 'true';
+    return value;
+  };
 
   useEffect(() => {
     loadQuiz();
@@ -30,18 +39,47 @@ const QuizTaking = ({ quizId }) => {
     }
   }, [quiz, submitted]);
 
+  // Autosave changed answers every few seconds; the server batches them to the database
+  useEffect(() => {
+    if (!attemptId || submitted) return undefined;
+    const autosave = setInterval(async () => {
+      const changes = unsaved.current;
+      if (Object.keys(changes).length === 0) return;
+      unsaved.current = {};
+      try {
+        await quizzesAPI.saveAnswers(quizId, attemptId, { answers: changes });
+      } catch (error) {
+        unsaved.current = { ...changes, ...unsaved.current };
+        console.error('Error autosaving answers:', error);
+      }
+    }, 5000);
+    return () => clearInterval(autosave);
+  }, [attemptId, submitted, quizId]);
+
   const loadQuiz = async () => {
     try {
       const response = await quizzesAPI.getById(quizId);
       const quizData = response.data;
-      setQuiz(quizData);
-      setTimeLeft(quizData.timeLimit * 60); // Convert to seconds
+      // The server holds the deadline and submits the attempt when it passes; this only mirrors it
+      const attempt = await quizzesAPI.startAttempt(quizId);
+      // Each attempt has its own selection and order of questions and options
+      setQuiz({ ...quizData, questions: attempt.data.questions });
+      setAttemptId(attempt.data.id);
+      setTimeLeft(attempt.data.secondsLeft ?? quizData.timeLimit * 60);
+      if (attempt.data.answers) {
+        const saved = {};
+        Object.entries(attempt.data.answers).forEach(([questionId, value]) => {
+          saved[questionId] = restoreAnswer(value);
+        });
+        setAnswers(saved);
+      }
     } catch (error) {
       console.error('Error loading quiz:', error);
     }
   };
 
   const handleAnswer = (questionId, answer) => {
+    unsaved.current = { ...unsaved.current, [questionId]: answer };
     setAnswers(prev => ({
       ...prev,
       [questionId]: answer
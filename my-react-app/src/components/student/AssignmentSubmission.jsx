@@ -1,7 +1,7 @@
 // src/components/management/AssignmentManagement.jsx
 import React, { useState, useEffect } from 'react';
 import { Container, Row, Col, Card, Button, Form, Table, Badge, Alert, Modal } from 'react-bootstrap';
-import { apiService } from '../../services/api';
+import { apiService, attachmentDownloadUrl } from '../../services/api';
 import { useAuth } from '../../contexts/AuthContext';
 import { triggerDashboardRefresh } from '../../services/dashboardService';
 
@@ -89,10 +89,10 @@ const AssignmentManagement = () => {
     }
   };
 
-  const downloadFile = (url, name) => {
+  const downloadFile = (item) => {
+    const url = attachmentDownloadUrl(item);
     if (!url) return;
-    const fileName = url.split('/').pop();
-    window.open(`/api/files/download/submissions/${fileName}`, '_blank');
+    window.open(url, '_blank');
   };
 
   const formatDate = (date) => {
@@ -202,7 +202,7 @@ const AssignmentManagement = () => {
                     <td>{formatDate(sub.submittedAt)}</td>
                     <td>
                       {sub.attachmentName ? (
-                        <Button size="sm" variant="link" onClick={() => downloadFile(sub.attachmentUrl, sub.attachmentName)}>
+                        <Button size="sm" variant="link" onClick={() => downloadFile(sub)}>
                           {sub.attachmentName}
                         </Button>
                       ) : 'Text only'}
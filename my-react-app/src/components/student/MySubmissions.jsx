@@ -6,7 +6,7 @@ import {
   TableHead, TableRow, Chip, Button, CircularProgress, Alert, LinearProgress
 } from '@mui/material';
 import { Download, Grade as GradeIcon } from '@mui/icons-material';
-import { apiService } from '../../services/api';
+import { apiService, attachmentDownloadUrl } from '../../services/api';
 
 const MySubmissions = () => {
   const [submissions, setSubmissions] = useState([]);
@@ -132,7 +132,7 @@ const MySubmissions = () => {
                         variant="contained"
                         size="small"
                         startIcon={<Download />}
-                        href={`http://localhost:8080${sub.attachmentUrl}`}
+                        href={attachmentDownloadUrl(sub)}
                         target="_blank"
                         color="secondary"
                       >
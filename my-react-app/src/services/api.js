@@ -1,9 +1,13 @@
 // src/services/api.js
 
 import axios from 'axios';
+import { uploadResumable } from './resumableUpload';
 
 const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
 
+// Matches spring.servlet.multipart.max-file-size on the backend
+const SIMPLE_UPLOAD_LIMIT = 10 * 1024 * 1024;
+
 const api = axios.create({
   baseURL: API_BASE_URL,
   timeout: 15000,
@@ -237,6 +241,56 @@ const getTeacherSubmissionsFromLocalStorage = () => {
   });
 };
 
+/* ------------------------
+   ATTACHMENT LINKS
+------------------------- */
+
+// Attachments are only served through the signed downloadUrl from the DTO, which the server
+// hands out to those allowed to see the attachment. It works in a plain link or new tab, where
+// no Authorization header is sent.
+export const attachmentDownloadUrl = (item) => {
+  if (!item || !item.downloadUrl) return null;
+  return API_BASE_URL.replace(/\/api\/?$/, '') + item.downloadUrl;
+};
+
+/* ------------------------
+   QUIZZES
+------------------------- */
+
+export const quizzesAPI = {
+  getByCourse: (courseId) => api.get(`/quizzes/course/${courseId}`),
+  getById: (id) => api.get(`/quizzes/${id}`),
+  create: (quizData) => api.post('/quizzes', quizData),
+  update: (id, quizData) => api.put(`/quizzes/${id}`, quizData),
+  publish: (id) => api.post(`/quizzes/${id}/publish`),
+  remove: (id) => api.delete(`/quizzes/${id}`),
+  // Corrects one question's answer key; the response carries the regrade summary
+  correctAnswerKey: (id, questionId, key) => api.put(`/quizzes/${id}/questions/${questionId}/key`, key),
+  regrade: (id) => api.post(`/quizzes/${id}/regrade`),
+  getAttempts: (id) => api.get(`/quizzes/${id}/attempts`),
+  // Difficulty, discrimination and option statistics per question
+  getItemAnalysis: (id) => api.get(`/quizzes/${id}/item-analysis`),
+  getMyAttempts: (id) => api.get(`/quizzes/${id}/my-attempts`),
+  startAttempt: (id) => api.post(`/quizzes/${id}/attempts`),
+  saveAnswers: (id, attemptId, data) => api.put(`/quizzes/${id}/attempts/${attemptId}/answers`, data),
+  takeQuiz: (id, data) => api.post(`/quizzes/${id}/submit`, data),
+};
+
+export const questionBanksAPI = {
+  getByCourse: (courseId) => api.get(`/question-banks/course/${courseId}`),
+  getById: (id) => api.get(`/question-banks/${id}`),
+  create: (bankData) => api.post('/question-banks', bankData),
+  update: (id, bankData) => api.put(`/question-banks/${id}`, bankData),
+  remove: (id) => api.delete(`/question-banks/${id}`),
+  // file: a QTI .xml/.zip or GIFT .txt File; format: 'QTI' | 'GIFT', inferred from the type if omitted
+  importQuestions: (id, file, format) =>
+    api.post(`/question-banks/${id}/import`, file, {
+      params: format ? { format } : {},
+      headers: { 'Content-Type': file.type || 'application/octet-stream' },
+    }),
+  getImport: (jobId) => api.get(`/question-banks/imports/${jobId}`),
+};
+
 /* ------------------------
    API SERVICE
 ------------------------- */
@@ -826,6 +880,9 @@ export const apiService = {
       ),
 
     getSubmissionById: (id) => api.get(`/submissions/${id}`),
+
+    // Whole-course student x assignment matrix; decode with services/gradebook.js
+    getCourseGradebook: (courseId) => api.get(`/submissions/course/${courseId}/gradebook`),
   },
 
   // TEACHER SECTION - uses submissions service (no circular dependency)
@@ -866,11 +923,16 @@ export const apiService = {
 
   // File upload
   fileUpload: {
-    upload: async (file) => {
+    // Files over the multipart limit go through a resumable, chunked session
+    upload: async (file, options = {}) => {
       return requestWithFallback(
         async () => {
+          if (file.size > SIMPLE_UPLOAD_LIMIT) {
+            return { data: await uploadResumable(file, options) };
+          }
           const formData = new FormData();
           formData.append('file', file);
+          if (options.category) formData.append('category', options.category);
           const response = await api.post('/files/upload', formData, {
             headers: { 'Content-Type': 'multipart/form-data' },
           });
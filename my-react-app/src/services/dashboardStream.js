@@ -0,0 +1,134 @@
+// src/services/dashboardStream.js
+
+// Server-Sent Events client for the live dashboard streams.
+// EventSource cannot send an Authorization header, so the stream is read with fetch instead.
+
+const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
+
+const DEFAULT_RETRY_MS = 3000;
+const MAX_RETRY_MS = 60000;
+
+const parseFrame = (frame) => {
+  const event = { id: null, name: 'message', data: '', retry: null };
+  const dataLines = [];
+
+  frame.split('\n').forEach((line) => {
+    if (!line || line.startsWith(':')) return; // heartbeat comment
+    const colon = line.indexOf(':');
+    const field = colon === -1 ? line : line.slice(0, colon);
+    let value = colon === -1 ? '' : line.slice(colon + 1);
+    if (value.startsWith(' ')) value = value.slice(1);
+
+    if (field === 'id') event.id = value;
+    else if (field === 'event') event.name = value;
+    else if (field === 'data') dataLines.push(value);
+    else if (field === 'retry' && !isNaN(Number(value))) event.retry = Number(value);
+  });
+
+  event.data = dataLines.join('\n');
+  return event;
+};
+
+/**
+ * Subscribes to a dashboard stream, e.g. '/dashboard/admin/stream'.
+ * onSnapshot receives the full summary, onDelta only the counters that changed.
+ * Reconnects with Last-Event-ID so missed deltas are replayed. Returns an unsubscribe function.
+ */
+export const subscribeDashboardStream = (path, { onSnapshot, onDelta, onStatus } = {}) => {
+  const controller = new AbortController();
+  let lastEventId = null;
+  let retryMs = DEFAULT_RETRY_MS;
+  let attempt = 0;
+  let timer = null;
+  let stopped = false;
+
+  const status = (value) => onStatus && onStatus(value);
+
+  const dispatch = (event) => {
+    if (event.id) lastEventId = event.id;
+    if (event.retry) retryMs = event.retry;
+    if (!event.data) return;
+
+    let payload;
+    try {
+      payload = JSON.parse(event.data);
+    } catch (err) {
+      console.warn('⚠️ Ignoring malformed dashboard event:', err);
+      return;
+    }
+
+    if (event.name === 'snapshot' && onSnapshot) onSnapshot(payload);
+    if (event.name === 'delta' && onDelta) onDelta(payload);
+  };
+
+  const scheduleReconnect = (delayMs) => {
+    if (stopped) return;
+    status('reconnecting');
+    timer = setTimeout(connect, delayMs);
+  };
+
+  async function connect() {
+    if (stopped) return;
+
+    const headers = { Accept: 'text/event-stream' };
+    const token = localStorage.getItem('token');
+    if (token) headers.Authorization = `Bearer ${token}`;
+    if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+
+    try {
+      const response = await fetch(`${API_BASE_URL}${path}`, { headers, signal: controller.signal });
+
+      if (response.status === 401 || response.status === 403) {
+        status('unauthorized');
+        return;
+      }
+      if (response.status === 503) {
+        // Node is at its connection cap; back off as instructed
+        const retryAfter = Number(response.headers.get('Retry-After')) || 30;
+        scheduleReconnect(retryAfter * 1000);
+        return;
+      }
+      if (!response.ok || !response.body) {
+        throw new Error(`Stream request failed with status ${response.status}`);
+      }
+
+      attempt = 0;
+      status('live');
+
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+
+      while (true) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n');
+
+        let boundary = buffer.indexOf('\n\n');
+        while (boundary !== -1) {
+          dispatch(parseFrame(buffer.slice(0, boundary)));
+          buffer = buffer.slice(boundary + 2);
+          boundary = buffer.indexOf('\n\n');
+        }
+      }
+
+      // Server closed the stream (timeout or shutdown); resume where we left off
+      scheduleReconnect(retryMs);
+    } catch (err) {
+      if (stopped || err.name === 'AbortError') return;
+      console.warn('⚠️ Dashboard stream interrupted:', err.message);
+      attempt += 1;
+      scheduleReconnect(Math.min(retryMs * 2 ** (attempt - 1), MAX_RETRY_MS));
+    }
+  }
+
+  connect();
+
+  return () => {
+    stopped = true;
+    clearTimeout(timer);
+    controller.abort();
+  };
+};
+
+export default subscribeDashboardStream;
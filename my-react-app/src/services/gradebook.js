@@ -0,0 +1,36 @@
+// src/services/gradebook.js
+
+// Helpers for the compact gradebook returned by apiService.submissions.getCourseGradebook.
+// Cells are row-major (student x assignment); graded/submitted are base64 bitmaps,
+// least significant bit first.
+
+const decodeBitmap = (base64) => {
+  if (!base64) return new Uint8Array(0);
+  const binary = atob(base64);
+  const bytes = new Uint8Array(binary.length);
+  for (let i = 0; i < binary.length; i++) bytes[i] = binary.charCodeAt(i);
+  return bytes;
+};
+
+const bitAt = (bytes, index) => (bytes[index >>> 3] & (1 << (index & 7))) !== 0;
+
+export const decodeGradebook = (gradebook) => {
+  const graded = decodeBitmap(gradebook.graded);
+  const submitted = decodeBitmap(gradebook.submitted);
+  const cols = gradebook.assignmentIds.length;
+
+  // Returns { submitted, graded, grade } for one student/assignment position
+  const cell = (row, col) => {
+    const index = row * cols + col;
+    const isGraded = bitAt(graded, index);
+    return {
+      submitted: bitAt(submitted, index),
+      graded: isGraded,
+      grade: isGraded ? gradebook.grades[index] : null,
+    };
+  };
+
+  return { ...gradebook, cell };
+};
+
+export default decodeGradebook;
@@ -0,0 +1,131 @@
+// src/services/resumableUpload.js
+
+// Client for the resumable upload sessions under /files/upload/sessions.
+// The file is sent as raw chunks, a few at a time. A failed chunk is retried on its own, and an
+// upload interrupted by a reload resumes from the chunks the server already has.
+
+const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
+
+const DEFAULT_PARALLELISM = 3;
+const MAX_ATTEMPTS = 5;
+const STORAGE_KEY = 'resumableUploads';
+
+const authHeaders = (extra = {}) => {
+  const headers = { ...extra };
+  const token = localStorage.getItem('token');
+  if (token) headers.Authorization = `Bearer ${token}`;
+  return headers;
+};
+
+const request = async (path, options = {}) => {
+  const response = await fetch(`${API_BASE_URL}${path}`, {
+    ...options,
+    headers: authHeaders(options.headers),
+  });
+  if (response.status === 204) return null;
+  const body = await response.json().catch(() => null);
+  if (!response.ok) {
+    const error = new Error(body?.message || `Upload request failed with status ${response.status}`);
+    error.status = response.status;
+    error.retryAfter = Number(response.headers.get('Retry-After')) || 0;
+    throw error;
+  }
+  return body;
+};
+
+// Session ids are remembered per file so a reload can pick the upload up again
+const fileKey = (file, category) => `${category || ''}:${file.name}:${file.size}:${file.lastModified}`;
+
+const rememberedSessions = () => JSON.parse(localStorage.getItem(STORAGE_KEY) || '{}');
+
+const remember = (key, uploadId) => {
+  const sessions = rememberedSessions();
+  if (uploadId) sessions[key] = uploadId;
+  else delete sessions[key];
+  localStorage.setItem(STORAGE_KEY, JSON.stringify(sessions));
+};
+
+const openSession = async (file, category, sha256) => {
+  const key = fileKey(file, category);
+  const existing = rememberedSessions()[key];
+  if (existing) {
+    try {
+      return await request(`/files/upload/sessions/${existing}`);
+    } catch (err) {
+      // Expired or finalized elsewhere; start over
+      remember(key, null);
+    }
+  }
+
+  const session = await request('/files/upload/sessions', {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({
+      fileName: file.name,
+      contentType: file.type || 'application/octet-stream',
+      size: file.size,
+      category,
+      sha256,
+    }),
+  });
+  // Content the server already has comes back as a finished file, with no session to remember
+  if (!session.file) remember(key, session.uploadId);
+  return session;
+};
+
+const sendChunk = async (session, file, index) => {
+  const start = index * session.chunkSize;
+  const chunk = file.slice(start, Math.min(start + session.chunkSize, file.size));
+
+  for (let attempt = 1; ; attempt++) {
+    try {
+      return await request(`/files/upload/sessions/${session.uploadId}?offset=${start}`, {
+        method: 'PUT',
+        headers: { 'Content-Type': 'application/octet-stream' },
+        body: chunk,
+      });
+    } catch (err) {
+      if (attempt >= MAX_ATTEMPTS || (err.status && err.status < 500)) throw err;
+      // A busy server (503) says when to come back
+      const delay = err.retryAfter ? err.retryAfter * 1000 : 500 * 2 ** (attempt - 1);
+      await new Promise((resolve) => setTimeout(resolve, delay));
+    }
+  }
+};
+
+/**
+ * Uploads a file through a resumable session and resolves with
+ * { fileId, fileName, category, contentType, size, deduplicated }. The file is attached by
+ * sending fileId as uploadId with the submission, assignment or note.
+ * onProgress receives a fraction between 0 and 1. When the caller already knows the file's
+ * SHA-256, passing it lets the server skip the transfer for content this user has uploaded or
+ * attached before.
+ */
+export const uploadResumable = async (file, { category, sha256, parallelism = DEFAULT_PARALLELISM, onProgress } = {}) => {
+  const session = await openSession(file, category, sha256);
+  if (session.file) {
+    if (onProgress) onProgress(1);
+    return session.file;
+  }
+  const pending = [...session.missingChunks];
+  let receivedBytes = session.receivedBytes;
+
+  const report = () => onProgress && onProgress(file.size ? receivedBytes / file.size : 1);
+  report();
+
+  const worker = async () => {
+    while (pending.length) {
+      const index = pending.shift();
+      const state = await sendChunk(session, file, index);
+      receivedBytes = Math.max(receivedBytes, state.receivedBytes);
+      report();
+    }
+  };
+  await Promise.all(Array.from({ length: Math.min(parallelism, pending.length) }, worker));
+
+  const stored = await request(`/files/upload/sessions/${session.uploadId}/complete`, { method: 'POST' });
+  remember(fileKey(file, category), null);
+  return stored;
+};
+
+export default uploadResumable;